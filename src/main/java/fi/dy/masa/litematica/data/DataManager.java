@@ -31,6 +31,7 @@ import fi.dy.masa.litematica.gui.GuiConfigs.ConfigGuiTab;
 import fi.dy.masa.litematica.materials.MaterialListBase;
 import fi.dy.masa.litematica.materials.MaterialListHudRenderer;
 import fi.dy.masa.litematica.render.infohud.InfoHud;
+import fi.dy.masa.litematica.scheduler.CommandRateController;
 import fi.dy.masa.litematica.scheduler.TaskScheduler;
 import fi.dy.masa.litematica.schematic.placement.SchematicPlacementManager;
 import fi.dy.masa.litematica.schematic.projects.SchematicProjectsManager;
@@ -56,6 +57,7 @@ public class DataManager implements IDirectoryCache
     private static boolean createPlacementOnLoad = true;
     private static boolean canSave;
     private static boolean isCarpetServer;
+    private static int litematicaProtocolVersion;
     private static long clientTickStart;
 
     private final SelectionManager selectionManager = new SelectionManager();
@@ -106,6 +108,19 @@ public class DataManager implements IDirectoryCache
         return isCarpetServer;
     }
 
+    public static void setLitematicaProtocolVersion(int version)
+    {
+        litematicaProtocolVersion = version;
+    }
+
+    /**
+     * @return the litematica:command protocol version the server announced, or 0 if it didn't
+     */
+    public static int getLitematicaProtocolVersion()
+    {
+        return litematicaProtocolVersion;
+    }
+
     public static void addChatListener(ToBooleanFunction<Text> listener)
     {
         synchronized (CHAT_LISTENERS)
@@ -337,6 +352,8 @@ public class DataManager implements IDirectoryCache
 
         InfoHud.getInstance().reset(); // remove the line providers and clear the data
         setIsCarpetServer(false);
+        setLitematicaProtocolVersion(0);
+        CommandRateController.INSTANCE.reset();
     }
 
     private void savePerDimensionData()
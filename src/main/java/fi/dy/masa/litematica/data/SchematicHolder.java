@@ -3,15 +3,34 @@ package fi.dy.masa.litematica.data;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.annotation.Nullable;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.client.MinecraftClient;
+import fi.dy.masa.litematica.Litematica;
+import fi.dy.masa.litematica.materials.MaterialCache;
+import fi.dy.masa.litematica.scheduler.TaskScheduler;
+import fi.dy.masa.litematica.scheduler.tasks.TaskLoadSchematics;
 import fi.dy.masa.litematica.schematic.LitematicaSchematic;
+import fi.dy.masa.litematica.schematic.LitematicaSchematic.SchematicLoadInfo;
+import fi.dy.masa.litematica.schematic.container.LitematicaBlockStateContainer;
 import fi.dy.masa.litematica.util.FileType;
 
 public class SchematicHolder
 {
     private static final SchematicHolder INSTANCE = new SchematicHolder();
+    private static final int MAX_LOADER_THREADS = 2;
+
     private final List<LitematicaSchematic> schematics = new ArrayList<>();
+    private final Map<File, CompletableFuture<LitematicaSchematic>> pendingLoads = new HashMap<>();
+    @Nullable private ExecutorService loaderExecutor;
+    @Nullable private TaskLoadSchematics loadTask;
+    private int loadGeneration;
 
     public static SchematicHolder getInstance()
     {
@@ -21,10 +40,13 @@ public class SchematicHolder
     public void clearLoadedSchematics()
     {
         this.schematics.clear();
+        // Any loads still in progress will not get added to the cleared list
+        this.pendingLoads.clear();
+        ++this.loadGeneration;
     }
 
     @Nullable
-    public LitematicaSchematic getOrLoad(File file)
+    public LitematicaSchematic getLoaded(File file)
     {
         for (LitematicaSchematic schematic : this.schematics)
         {
@@ -34,17 +56,124 @@ public class SchematicHolder
             }
         }
 
+        return null;
+    }
+
+    @Nullable
+    public LitematicaSchematic getOrLoad(File file)
+    {
+        LitematicaSchematic loaded = this.getLoaded(file);
+
+        if (loaded != null)
+        {
+            return loaded;
+        }
+
         FileType type = FileType.fromFile(file);
         LitematicaSchematic schematic = LitematicaSchematic.createFromFile(file.getParentFile(), file.getName(), type);
 
         if (schematic != null)
         {
-            this.schematics.add(schematic);
+            this.addLoadedSchematic(schematic);
         }
 
         return schematic;
     }
 
+    /**
+     * Returns the already loaded schematic for the given file, or starts loading it
+     * on a background thread and adds it to the loaded schematics once done.
+     * Multiple requests for a file that is still being loaded share the same load.
+     * The returned future is always completed on the client thread,
+     * and it completes with null if the schematic could not be loaded.
+     */
+    public CompletableFuture<LitematicaSchematic> getOrLoadAsync(File file)
+    {
+        LitematicaSchematic loaded = this.getLoaded(file);
+
+        if (loaded != null)
+        {
+            return CompletableFuture.completedFuture(loaded);
+        }
+
+        CompletableFuture<LitematicaSchematic> pending = this.pendingLoads.get(file);
+
+        if (pending != null)
+        {
+            return pending;
+        }
+
+        final int generation = this.loadGeneration;
+        CompletableFuture<LitematicaSchematic> future = new CompletableFuture<>();
+        this.pendingLoads.put(file, future);
+
+        this.loadAsync(file).whenComplete((schematic, e) -> {
+            if (generation == this.loadGeneration)
+            {
+                this.pendingLoads.remove(file);
+
+                if (schematic != null)
+                {
+                    this.addLoadedSchematic(schematic);
+                }
+            }
+
+            future.complete(schematic);
+        });
+
+        return future;
+    }
+
+    /**
+     * Loads the schematic from the given file on a background thread, without adding it
+     * to the loaded schematics. The progress is shown on the info HUD while loading.
+     * The returned future is always completed on the client thread,
+     * and it completes with null if the schematic could not be loaded.
+     */
+    public CompletableFuture<LitematicaSchematic> loadAsync(File file)
+    {
+        MinecraftClient mc = MinecraftClient.getInstance();
+        FileType type = FileType.fromFile(file);
+        TaskLoadSchematics.LoadProgress progress = new TaskLoadSchematics.LoadProgress(file);
+        // The messages can only be shown from the client thread
+        SchematicLoadInfo info = new SchematicLoadInfo(true, true, progress::setBytesRead, true);
+
+        this.getLoadTask().addEntry(progress);
+
+        return CompletableFuture.supplyAsync(() -> LitematicaSchematic.createFromFile(file.getParentFile(), file.getName(), type, info), this.getLoaderExecutor())
+                .exceptionally((e) -> {
+                    Litematica.logger.error("Exception while loading the schematic '{}'", file.getAbsolutePath(), e);
+                    return null;
+                })
+                .thenApplyAsync((schematic) -> {
+                    info.showDeferredMessages();
+                    progress.setDone();
+                    return schematic;
+                }, mc);
+    }
+
+    private TaskLoadSchematics getLoadTask()
+    {
+        if (this.loadTask == null || this.loadTask.isStopped())
+        {
+            this.loadTask = new TaskLoadSchematics();
+            TaskScheduler.getInstanceClient().scheduleTask(this.loadTask, 5);
+        }
+
+        return this.loadTask;
+    }
+
+    private ExecutorService getLoaderExecutor()
+    {
+        if (this.loaderExecutor == null)
+        {
+            this.loaderExecutor = Executors.newFixedThreadPool(MAX_LOADER_THREADS,
+                    new ThreadFactoryBuilder().setNameFormat("Litematica Schematic Loader #%d").setDaemon(true).build());
+        }
+
+        return this.loaderExecutor;
+    }
+
     public void addSchematic(LitematicaSchematic schematic, boolean allowDuplicates)
     {
         if (allowDuplicates || this.schematics.contains(schematic) == false)
@@ -60,7 +189,23 @@ public class SchematicHolder
                 }
             }
 
-            this.schematics.add(schematic);
+            this.addLoadedSchematic(schematic);
+        }
+    }
+
+    private void addLoadedSchematic(LitematicaSchematic schematic)
+    {
+        this.schematics.add(schematic);
+
+        // Resolve the items for the schematic's blocks ahead of opening any material lists
+        for (String regionName : schematic.getAreas().keySet())
+        {
+            LitematicaBlockStateContainer container = schematic.getSubRegionContainer(regionName);
+
+            if (container != null)
+            {
+                MaterialCache.getInstance().queueWarmUp(container.getPalette().getMapping());
+            }
         }
     }
 
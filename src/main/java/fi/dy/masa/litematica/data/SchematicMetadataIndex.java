@@ -0,0 +1,274 @@
+package fi.dy.masa.litematica.data;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import fi.dy.masa.malilib.util.Constants;
+import fi.dy.masa.litematica.Litematica;
+import fi.dy.masa.litematica.schematic.LitematicaSchematic;
+import fi.dy.masa.litematica.schematic.SchematicMetadata;
+import fi.dy.masa.litematica.util.NbtUtils;
+
+/**
+ * A persistent cache of the metadata (including the preview images) of the .litematic files.
+ * The entries are stored in the config directory, one file per schematic, and they are
+ * keyed by the schematic's path, size and modification time, so that any change
+ * to the schematic file invalidates its entry.
+ * <br><br>
+ * The metadata is read on a background thread, the getter only returns already indexed entries.
+ * The cache files of schematics that don't exist anymore are removed once per session,
+ * and whenever their directory gets rescanned.
+ */
+public class SchematicMetadataIndex
+{
+    private static final SchematicMetadataIndex INSTANCE = new SchematicMetadataIndex();
+    private static final int INDEX_VERSION = 1;
+
+    private final Map<File, IndexEntry> entries = new ConcurrentHashMap<>();
+    private final Set<File> queuedFiles = ConcurrentHashMap.newKeySet();
+    @Nullable private ExecutorService executor;
+    private boolean cacheDirectoryPruned;
+
+    public static SchematicMetadataIndex getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the index entry for the given schematic file, if it has already been read
+     * and the file hasn't changed since. Otherwise queues the file to be read in the background
+     * and returns null.
+     */
+    @Nullable
+    public IndexEntry getOrQueue(File file)
+    {
+        IndexEntry entry = this.entries.get(file);
+
+        if (entry != null && entry.isValidFor(file))
+        {
+            return entry;
+        }
+
+        this.queue(file);
+
+        return null;
+    }
+
+    /**
+     * Queues the given schematic file to be indexed in the background, if it's not already up to date
+     */
+    public void queue(File file)
+    {
+        IndexEntry entry = this.entries.get(file);
+
+        if ((entry == null || entry.isValidFor(file) == false) && this.queuedFiles.add(file))
+        {
+            this.getExecutor().execute(() -> {
+                try
+                {
+                    this.entries.put(file, this.readEntry(file));
+                }
+                catch (Exception e)
+                {
+                    Litematica.logger.warn("Failed to index the schematic '{}'", file.getAbsolutePath(), e);
+                }
+                finally
+                {
+                    this.queuedFiles.remove(file);
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes the entries and the cache files of the schematics in the given directory
+     * that don't exist anymore. This should be called when the directory is (re-)scanned.
+     */
+    public void pruneDirectory(File dir)
+    {
+        this.getExecutor().execute(() -> {
+            for (File file : this.entries.keySet())
+            {
+                if (dir.equals(file.getParentFile()) && file.isFile() == false)
+                {
+                    this.entries.remove(file);
+                    this.deleteCacheFile(this.getCacheFile(file));
+                }
+            }
+        });
+    }
+
+    /**
+     * Clears the in-memory entries. The entries stored on disk are kept.
+     */
+    public void clearMemoryCache()
+    {
+        this.entries.clear();
+    }
+
+    private IndexEntry readEntry(File file)
+    {
+        final long size = file.length();
+        final long lastModified = file.lastModified();
+        File cacheFile = this.getCacheFile(file);
+
+        if (cacheFile.isFile())
+        {
+            NbtCompound tag = NbtUtils.readNbtFromFile(cacheFile);
+
+            if (tag != null &&
+                tag.getInt("IndexVersion") == INDEX_VERSION &&
+                tag.getLong("FileSize") == size &&
+                tag.getLong("LastModified") == lastModified &&
+                file.getAbsolutePath().equals(tag.getString("Path")))
+            {
+                SchematicMetadata metadata = null;
+
+                if (tag.contains("Metadata", Constants.NBT.TAG_COMPOUND))
+                {
+                    metadata = new SchematicMetadata();
+                    metadata.readFromNBT(tag.getCompound("Metadata"));
+                }
+
+                return new IndexEntry(size, lastModified, metadata);
+            }
+        }
+
+        SchematicMetadata metadata = LitematicaSchematic.readMetadataFromFile(file.getParentFile(), file.getName());
+        this.writeCacheFile(cacheFile, file, size, lastModified, metadata);
+
+        return new IndexEntry(size, lastModified, metadata);
+    }
+
+    private void writeCacheFile(File cacheFile, File file, long size, long lastModified, @Nullable SchematicMetadata metadata)
+    {
+        File dir = cacheFile.getParentFile();
+
+        if (dir.exists() == false && dir.mkdirs() == false)
+        {
+            Litematica.logger.warn("Failed to create the schematic metadata cache directory '{}'", dir.getAbsolutePath());
+            return;
+        }
+
+        NbtCompound tag = new NbtCompound();
+
+        tag.putInt("IndexVersion", INDEX_VERSION);
+        tag.putString("Path", file.getAbsolutePath());
+        tag.putLong("FileSize", size);
+        tag.putLong("LastModified", lastModified);
+
+        // A missing Metadata tag marks a file that didn't have valid metadata
+        if (metadata != null)
+        {
+            tag.put("Metadata", metadata.writeToNBT());
+        }
+
+        try (FileOutputStream os = new FileOutputStream(cacheFile))
+        {
+            NbtIo.writeCompressed(tag, os);
+        }
+        catch (Exception e)
+        {
+            Litematica.logger.warn("Failed to write the schematic metadata cache file '{}'", cacheFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Removes all the cache files whose schematic doesn't exist anymore,
+     * or that were written by an older version of the index.
+     */
+    private void pruneCacheDirectory()
+    {
+        File[] cacheFiles = this.getCacheDirectory().listFiles((d, name) -> name.endsWith(".nbt"));
+
+        if (cacheFiles == null)
+        {
+            return;
+        }
+
+        for (File cacheFile : cacheFiles)
+        {
+            NbtCompound tag = NbtUtils.readNbtFromFile(cacheFile);
+
+            if (tag == null ||
+                tag.getInt("IndexVersion") != INDEX_VERSION ||
+                new File(tag.getString("Path")).isFile() == false)
+            {
+                this.deleteCacheFile(cacheFile);
+            }
+        }
+    }
+
+    private void deleteCacheFile(File cacheFile)
+    {
+        if (cacheFile.exists() && cacheFile.delete() == false)
+        {
+            Litematica.logger.warn("Failed to delete the schematic metadata cache file '{}'", cacheFile.getAbsolutePath());
+        }
+    }
+
+    private File getCacheDirectory()
+    {
+        return new File(DataManager.getCurrentConfigDirectory(), "schematic_metadata_cache");
+    }
+
+    private File getCacheFile(File file)
+    {
+        return new File(this.getCacheDirectory(), DigestUtils.sha1Hex(file.getAbsolutePath()) + ".nbt");
+    }
+
+    private ExecutorService getExecutor()
+    {
+        if (this.executor == null)
+        {
+            this.executor = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("Litematica Metadata Indexer").setDaemon(true).build());
+        }
+
+        // The cache files of deleted schematics are cleaned up once per session, before indexing anything
+        if (this.cacheDirectoryPruned == false)
+        {
+            this.cacheDirectoryPruned = true;
+            this.executor.execute(this::pruneCacheDirectory);
+        }
+
+        return this.executor;
+    }
+
+    public static class IndexEntry
+    {
+        private final long fileSize;
+        private final long lastModified;
+        @Nullable private final SchematicMetadata metadata;
+
+        private IndexEntry(long fileSize, long lastModified, @Nullable SchematicMetadata metadata)
+        {
+            this.fileSize = fileSize;
+            this.lastModified = lastModified;
+            this.metadata = metadata;
+        }
+
+        /**
+         * @return the metadata, or null if the file is not a valid schematic
+         */
+        @Nullable
+        public SchematicMetadata getMetadata()
+        {
+            return this.metadata;
+        }
+
+        public boolean isValidFor(File file)
+        {
+            return file.length() == this.fileSize && file.lastModified() == this.lastModified;
+        }
+    }
+}
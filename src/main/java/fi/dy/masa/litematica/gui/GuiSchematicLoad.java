@@ -2,6 +2,8 @@ package fi.dy.masa.litematica.gui;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import net.minecraft.util.math.BlockPos;
 import fi.dy.masa.litematica.data.DataManager;
 import fi.dy.masa.litematica.data.SchematicHolder;
@@ -113,6 +115,9 @@ public class GuiSchematicLoad extends GuiSchematicBrowserBase
 
     private static class ButtonListener implements IButtonActionListener
     {
+        /** The files currently being loaded in the background, to ignore repeated clicks */
+        private static final Set<File> FILES_LOADING = new HashSet<>();
+
         private final Type type;
         private final GuiSchematicLoad gui;
 
@@ -148,7 +153,24 @@ public class GuiSchematicLoad extends GuiSchematicBrowserBase
 
             if (fileType == FileType.LITEMATICA_SCHEMATIC)
             {
-                schematic = LitematicaSchematic.createFromFile(entry.getDirectory(), entry.getName());
+                if (FILES_LOADING.add(file) == false)
+                {
+                    this.gui.addMessage(MessageType.INFO, "litematica.message.schematic_already_loading", file.getName());
+                    return;
+                }
+
+                // .litematic files are loaded in the background, the progress is shown on the info HUD
+                final boolean shiftDown = GuiBase.isShiftDown();
+                SchematicHolder.getInstance().loadAsync(file).thenAccept((loaded) -> {
+                    FILES_LOADING.remove(file);
+
+                    // Don't open the material list if the GUI was closed while the schematic was loading
+                    if (loaded != null && (this.type == Type.LOAD_SCHEMATIC || this.isGuiOpen()))
+                    {
+                        this.onSchematicLoaded(loaded, file, false, shiftDown);
+                    }
+                });
+                return;
             }
             else if (fileType == FileType.SCHEMATICA_SCHEMATIC)
             {
@@ -172,46 +194,71 @@ public class GuiSchematicLoad extends GuiSchematicBrowserBase
 
             if (schematic != null)
             {
-                if (this.type == Type.LOAD_SCHEMATIC)
-                {
-                    SchematicHolder.getInstance().addSchematic(schematic, true);
-                    this.gui.addMessage(MessageType.SUCCESS, "litematica.info.schematic_load.schematic_loaded", file.getName());
+                this.onSchematicLoaded(schematic, file, warnType, GuiBase.isShiftDown());
+            }
+        }
 
-                    if (DataManager.getCreatePlacementOnLoad())
-                    {
-                        BlockPos pos = new BlockPos(this.gui.mc.player.getPos());
-                        String name = schematic.getMetadata().getName();
-                        boolean enabled = GuiBase.isShiftDown() == false;
-
-                        SchematicPlacementManager manager = DataManager.getSchematicPlacementManager();
-                        SchematicPlacement placement = SchematicPlacement.createFor(schematic, pos, name, enabled, enabled);
-                        manager.addSchematicPlacement(placement, true);
-                        manager.setSelectedSchematicPlacement(placement);
-                    }
+        private void onSchematicLoaded(LitematicaSchematic schematic, File file, boolean warnType, boolean shiftDown)
+        {
+            if (this.type == Type.LOAD_SCHEMATIC)
+            {
+                SchematicHolder.getInstance().addSchematic(schematic, true);
+                this.addMessage(MessageType.SUCCESS, "litematica.info.schematic_load.schematic_loaded", file.getName());
+
+                if (DataManager.getCreatePlacementOnLoad() && this.gui.mc.player != null)
+                {
+                    BlockPos pos = new BlockPos(this.gui.mc.player.getPos());
+                    String name = schematic.getMetadata().getName();
+                    boolean enabled = shiftDown == false;
+
+                    SchematicPlacementManager manager = DataManager.getSchematicPlacementManager();
+                    SchematicPlacement placement = SchematicPlacement.createFor(schematic, pos, name, enabled, enabled);
+                    manager.addSchematicPlacement(placement, true);
+                    manager.setSelectedSchematicPlacement(placement);
                 }
-                else if (this.type == Type.MATERIAL_LIST)
+            }
+            else if (this.type == Type.MATERIAL_LIST)
+            {
+                if (shiftDown)
                 {
-                    if (GuiBase.isShiftDown())
-                    {
-                        MaterialListCreator creator = new MaterialListCreator(schematic);
-                        GuiStringListSelection gui = new GuiStringListSelection(schematic.getAreas().keySet(), creator);
-                        gui.setTitle(StringUtils.translate("litematica.gui.title.material_list.select_schematic_regions", schematic.getMetadata().getName()));
-                        gui.setParent(GuiUtils.getCurrentScreen());
-                        GuiBase.openGui(gui);
-                    }
-                    else
-                    {
-                        MaterialListSchematic materialList = new MaterialListSchematic(schematic, true);
-                        DataManager.setMaterialList(materialList); // Remember the last opened material list for the hotkey to (re-) open it
-                        GuiBase.openGui(new GuiMaterialList(materialList));
-                    }
+                    MaterialListCreator creator = new MaterialListCreator(schematic);
+                    GuiStringListSelection gui = new GuiStringListSelection(schematic.getAreas().keySet(), creator);
+                    gui.setTitle(StringUtils.translate("litematica.gui.title.material_list.select_schematic_regions", schematic.getMetadata().getName()));
+                    gui.setParent(GuiUtils.getCurrentScreen());
+                    GuiBase.openGui(gui);
                 }
-
-                if (warnType)
+                else
                 {
-                    InfoUtils.showGuiOrInGameMessage(MessageType.WARNING, 15000, "litematica.message.warn.schematic_load_non_litematica");
+                    MaterialListSchematic materialList = new MaterialListSchematic(schematic, true);
+                    DataManager.setMaterialList(materialList); // Remember the last opened material list for the hotkey to (re-) open it
+                    GuiBase.openGui(new GuiMaterialList(materialList));
                 }
             }
+
+            if (warnType)
+            {
+                InfoUtils.showGuiOrInGameMessage(MessageType.WARNING, 15000, "litematica.message.warn.schematic_load_non_litematica");
+            }
+        }
+
+        private boolean isGuiOpen()
+        {
+            return this.gui.mc.currentScreen == this.gui;
+        }
+
+        /**
+         * Adds the message to the GUI, or shows it in-game if the GUI has been closed
+         */
+        private void addMessage(MessageType type, String translationKey, Object... args)
+        {
+            if (this.isGuiOpen())
+            {
+                this.gui.addMessage(type, translationKey, args);
+            }
+            else
+            {
+                InfoUtils.showGuiOrInGameMessage(type, translationKey, args);
+            }
         }
 
         public enum Type
@@ -16,6 +16,7 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Vec3i;
 import fi.dy.masa.litematica.Litematica;
 import fi.dy.masa.litematica.data.DataManager;
+import fi.dy.masa.litematica.data.SchematicMetadataIndex;
 import fi.dy.masa.litematica.gui.GuiSchematicBrowserBase;
 import fi.dy.masa.litematica.gui.Icons;
 import fi.dy.masa.litematica.schematic.LitematicaSchematic;
@@ -58,6 +59,25 @@ public class WidgetSchematicBrowser extends WidgetFileBrowserBase
         super.close();
 
         this.clearPreviewImages();
+        SchematicMetadataIndex.getInstance().clearMemoryCache();
+    }
+
+    @Override
+    public void refreshEntries()
+    {
+        super.refreshEntries();
+
+        // Start indexing all the schematics in the current directory in the background
+        SchematicMetadataIndex index = SchematicMetadataIndex.getInstance();
+        index.pruneDirectory(this.getCurrentDirectory());
+
+        for (DirectoryEntry entry : this.getCurrentEntries())
+        {
+            if (entry.getName().endsWith(LitematicaSchematic.FILE_EXTENSION))
+            {
+                index.queue(entry.getFullPath());
+            }
+        }
     }
 
     @Override
@@ -209,7 +229,15 @@ public class WidgetSchematicBrowser extends WidgetFileBrowserBase
         {
             if (entry.getName().endsWith(LitematicaSchematic.FILE_EXTENSION))
             {
-                meta = LitematicaSchematic.readMetadataFromFile(entry.getDirectory(), entry.getName());
+                // The metadata is read in the background, this returns null until it's available
+                SchematicMetadataIndex.IndexEntry indexEntry = SchematicMetadataIndex.getInstance().getOrQueue(file);
+
+                if (indexEntry == null)
+                {
+                    return null;
+                }
+
+                meta = indexEntry.getMetadata();
 
                 if (meta != null)
                 {
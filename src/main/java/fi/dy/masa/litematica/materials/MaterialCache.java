@@ -1,8 +1,10 @@
 package fi.dy.masa.litematica.materials;
 
-import java.util.IdentityHashMap;
+import java.util.Arrays;
+import java.util.Collection;
 import javax.annotation.Nullable;
 import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
 import net.minecraft.block.BedBlock;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
@@ -29,14 +31,24 @@ import fi.dy.masa.litematica.util.WorldUtils;
 import fi.dy.masa.litematica.world.SchematicWorldHandler;
 import fi.dy.masa.litematica.world.WorldSchematic;
 
+/**
+ * Caches the items for the block states, in arrays indexed by the block state raw IDs.
+ * The items for the states in the palettes of the loaded schematics are resolved
+ * ahead of time in small batches on the client tick, so that the material lists
+ * don't need to resolve them all at once when they are opened.
+ * This must only be accessed from the client thread, as the items are resolved using the temp world.
+ */
 public class MaterialCache
 {
     private static final MaterialCache INSTANCE = new MaterialCache();
 
-    protected final IdentityHashMap<BlockState, ItemStack> buildItemsForStates = new IdentityHashMap<>();
-    protected final IdentityHashMap<BlockState, ItemStack> displayItemsForStates = new IdentityHashMap<>();
+    protected ItemStack[] buildItemsForStates = new ItemStack[0];
+    protected ItemStack[] displayItemsForStates = new ItemStack[0];
+    protected final IntArrayFIFOQueue warmUpQueue = new IntArrayFIFOQueue();
     protected final WorldSchematic tempWorld;
     protected final BlockPos checkPos;
+    protected long cacheHits;
+    protected long cacheMisses;
 
     private MaterialCache()
     {
@@ -53,8 +65,21 @@ public class MaterialCache
 
     public void clearCache()
     {
-        this.buildItemsForStates.clear();
-        this.displayItemsForStates.clear();
+        Arrays.fill(this.buildItemsForStates, null);
+        Arrays.fill(this.displayItemsForStates, null);
+        this.warmUpQueue.clear();
+        this.cacheHits = 0;
+        this.cacheMisses = 0;
+    }
+
+    public long getCacheHits()
+    {
+        return this.cacheHits;
+    }
+
+    public long getCacheMisses()
+    {
+        return this.cacheMisses;
     }
 
     public ItemStack getRequiredBuildItemForState(BlockState state)
@@ -64,28 +89,102 @@ public class MaterialCache
 
     public ItemStack getRequiredBuildItemForState(BlockState state, World world, BlockPos pos)
     {
-        ItemStack stack = this.buildItemsForStates.get(state);
+        ItemStack stack = getCachedItem(this.buildItemsForStates, Block.getRawIdFromState(state));
 
         if (stack == null)
         {
+            ++this.cacheMisses;
             stack = this.getItemForStateFromWorld(state, world, pos, true);
         }
+        else
+        {
+            ++this.cacheHits;
+        }
 
         return stack;
     }
 
     public ItemStack getItemForDisplayNameForState(BlockState state)
     {
-        ItemStack stack = this.displayItemsForStates.get(state);
+        ItemStack stack = getCachedItem(this.displayItemsForStates, Block.getRawIdFromState(state));
 
         if (stack == null)
         {
+            ++this.cacheMisses;
             stack = this.getItemForStateFromWorld(state, this.tempWorld, this.checkPos, false);
         }
+        else
+        {
+            ++this.cacheHits;
+        }
 
         return stack;
     }
 
+    /**
+     * Queues the build items of the given states to be resolved by {@link #processWarmUpQueue(long)}.
+     * The states that are already cached are skipped.
+     */
+    public void queueWarmUp(Collection<BlockState> states)
+    {
+        for (BlockState state : states)
+        {
+            int id = state != null ? Block.getRawIdFromState(state) : -1;
+
+            if (id >= 0 && getCachedItem(this.buildItemsForStates, id) == null)
+            {
+                this.warmUpQueue.enqueue(id);
+            }
+        }
+    }
+
+    /**
+     * Resolves queued build items until the queue is empty or the given time runs out.
+     */
+    public void processWarmUpQueue(long maxTimeNanos)
+    {
+        if (this.warmUpQueue.isEmpty())
+        {
+            return;
+        }
+
+        final long endTime = System.nanoTime() + maxTimeNanos;
+
+        while (this.warmUpQueue.isEmpty() == false && System.nanoTime() < endTime)
+        {
+            int id = this.warmUpQueue.dequeueInt();
+            BlockState state = Block.STATE_IDS.get(id);
+
+            if (state != null && getCachedItem(this.buildItemsForStates, id) == null)
+            {
+                this.getItemForStateFromWorld(state, this.tempWorld, this.checkPos, true);
+            }
+        }
+    }
+
+    @Nullable
+    private static ItemStack getCachedItem(ItemStack[] items, int id)
+    {
+        return id >= 0 && id < items.length ? items[id] : null;
+    }
+
+    private static ItemStack[] putCachedItem(ItemStack[] items, int id, ItemStack stack)
+    {
+        if (id < 0)
+        {
+            return items;
+        }
+
+        if (id >= items.length)
+        {
+            items = Arrays.copyOf(items, Math.max(id + 1, Block.STATE_IDS.size()));
+        }
+
+        items[id] = stack;
+
+        return items;
+    }
+
     protected ItemStack getItemForStateFromWorld(BlockState state, World world, BlockPos pos, boolean isBuildItem)
     {
         ItemStack stack = isBuildItem ? this.getStateToItemOverride(state) : null;
@@ -105,13 +204,15 @@ public class MaterialCache
             this.overrideStackSize(state, stack);
         }
 
+        int id = Block.getRawIdFromState(state);
+
         if (isBuildItem)
         {
-            this.buildItemsForStates.put(state, stack);
+            this.buildItemsForStates = putCachedItem(this.buildItemsForStates, id, stack);
         }
         else
         {
-            this.displayItemsForStates.put(state, stack);
+            this.displayItemsForStates = putCachedItem(this.displayItemsForStates, id, stack);
         }
 
         return stack;
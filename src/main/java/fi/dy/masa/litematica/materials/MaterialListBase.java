@@ -26,6 +26,7 @@ public abstract class MaterialListBase implements IMaterialList
     protected boolean reverse;
     protected boolean hideAvailable;
     protected int multiplier = 1;
+    protected int filterVersion;
     protected long countTotal;
     protected long countMissing;
     protected long countMismatched;
@@ -74,9 +75,19 @@ public abstract class MaterialListBase implements IMaterialList
         this.completionListener = listener;
     }
 
+    /**
+     * @return a number that changes every time the filtered list is re-created,
+     * or the sorting or the multiplier changes
+     */
+    public int getFilterVersion()
+    {
+        return this.filterVersion;
+    }
+
     public void recreateFilteredList()
     {
         this.materialListFiltered.clear();
+        ++this.filterVersion;
 
         for (int i = 0; i < this.materialListPreFiltered.size(); ++i)
         {
@@ -130,6 +141,43 @@ public abstract class MaterialListBase implements IMaterialList
         }
     }
 
+    /**
+     * Replaces the entries with ones with updated counts, while keeping
+     * the currently hidden and ignored entries hidden.
+     */
+    public void updateMaterialListEntries(List<MaterialListEntry> list)
+    {
+        Set<MaterialListEntry> oldEntries = new HashSet<>(this.materialListAll);
+        Set<MaterialListEntry> oldPreFiltered = new HashSet<>(this.materialListPreFiltered);
+
+        this.materialListAll = ImmutableList.copyOf(list);
+        this.materialListPreFiltered.clear();
+
+        for (MaterialListEntry entry : list)
+        {
+            if ((oldPreFiltered.contains(entry) || oldEntries.contains(entry) == false) &&
+                this.ignored.contains(entry) == false)
+            {
+                this.materialListPreFiltered.add(entry);
+            }
+        }
+
+        this.updateCounts();
+
+        if (this.completionListener != null)
+        {
+            this.completionListener.onTaskCompleted();
+        }
+    }
+
+    /**
+     * Applies any pending incremental count changes, if this list supports them.
+     * This is called every client tick for the currently active material list.
+     */
+    public void updateLiveCounts()
+    {
+    }
+
     @Override
     public BlockInfoListType getMaterialListType()
     {
@@ -177,6 +225,8 @@ public abstract class MaterialListBase implements IMaterialList
             this.sortCriteria = criteria;
             this.reverse = criteria == SortCriteria.NAME;
         }
+
+        ++this.filterVersion;
     }
 
     public void setHideAvailable(boolean hideAvailable)
@@ -187,6 +237,7 @@ public abstract class MaterialListBase implements IMaterialList
     public void setMultiplier(int multiplier)
     {
         this.multiplier = MathHelper.clamp(multiplier, 1, Integer.MAX_VALUE);
+        ++this.filterVersion;
     }
 
     public void updateCounts()
@@ -6,6 +6,7 @@ import net.minecraft.item.ItemStack;
 public class MaterialListEntry
 {
     private final ItemType item;
+    private final ItemType itemWithNbt;
     private final int countTotal;
     private final int countMissing;
     private final int countMismatched;
@@ -14,6 +15,7 @@ public class MaterialListEntry
     public MaterialListEntry(ItemStack stack, int countTotal, int countMissing, int countMismatched, int countAvailable)
     {
         this.item = new ItemType(stack, false, false);
+        this.itemWithNbt = new ItemType(stack, false, true);
         this.countTotal = countTotal;
         this.countMissing = countMissing;
         this.countMismatched = countMismatched;
@@ -25,6 +27,14 @@ public class MaterialListEntry
         return this.item.getStack();
     }
 
+    /**
+     * Returns the NBT sensitive item type, which is used for the inventory item counts
+     */
+    public ItemType getItemTypeWithNbt()
+    {
+        return this.itemWithNbt;
+    }
+
     /**
      * Returns the total number of required items of this type in the counted area.
      * @return
@@ -34,7 +34,9 @@ public class MaterialListHudRenderer implements IInfoHudRenderer
     protected final MaterialListBase materialList;
     protected final MaterialListSorter sorter;
     protected boolean shouldRender;
-    protected long lastUpdateTime;
+    protected List<MaterialListEntry> lastMaterialsAll = Collections.emptyList();
+    protected int lastInventoryVersion = -1;
+    protected int lastFilterVersion = -1;
 
     public MaterialListHudRenderer(MaterialListBase materialList)
     {
@@ -75,17 +77,24 @@ public class MaterialListHudRenderer implements IInfoHudRenderer
     public int render(int xOffset, int yOffset, HudAlignment alignment, MatrixStack matrixStack)
     {
         MinecraftClient mc = MinecraftClient.getInstance();
-        long currentTime = System.currentTimeMillis();
         List<MaterialListEntry> list;
+        List<MaterialListEntry> listAll = this.materialList.getMaterialsAll();
+        PlayerInventoryCounter inventoryCounter = PlayerInventoryCounter.getInstance();
         MatrixStack textStack = matrixStack;
         matrixStack = RenderSystem.getModelViewStack();
 
-        if (currentTime - this.lastUpdateTime > 2000)
+        // The inventory counts are kept up to date on the client tick,
+        // so the list only needs to be re-filtered and sorted when something has actually changed
+        if (listAll != this.lastMaterialsAll ||
+            inventoryCounter.getVersion() != this.lastInventoryVersion ||
+            this.materialList.getFilterVersion() != this.lastFilterVersion)
         {
-            MaterialListUtils.updateAvailableCounts(this.materialList.getMaterialsAll(), mc.player);
+            MaterialListUtils.updateAvailableCounts(listAll, mc.player);
             list = this.materialList.getMaterialsMissingOnly(true);
             Collections.sort(list, this.sorter);
-            this.lastUpdateTime = currentTime;
+            this.lastMaterialsAll = listAll;
+            this.lastInventoryVersion = inventoryCounter.getVersion();
+            this.lastFilterVersion = this.materialList.getFilterVersion();
         }
         else
         {
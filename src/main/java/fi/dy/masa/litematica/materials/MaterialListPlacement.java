@@ -1,8 +1,13 @@
 package fi.dy.masa.litematica.materials;
 
+import javax.annotation.Nullable;
+import net.minecraft.client.MinecraftClient;
+import fi.dy.masa.litematica.data.DataManager;
 import fi.dy.masa.litematica.scheduler.TaskScheduler;
 import fi.dy.masa.litematica.scheduler.tasks.TaskCountBlocksPlacement;
 import fi.dy.masa.litematica.schematic.placement.SchematicPlacement;
+import fi.dy.masa.litematica.world.SchematicWorldHandler;
+import fi.dy.masa.litematica.world.WorldSchematic;
 import fi.dy.masa.malilib.gui.Message.MessageType;
 import fi.dy.masa.malilib.util.InfoUtils;
 import fi.dy.masa.malilib.util.StringUtils;
@@ -10,6 +15,12 @@ import fi.dy.masa.malilib.util.StringUtils;
 public class MaterialListPlacement extends MaterialListBase
 {
     private final SchematicPlacement placement;
+    @Nullable private PlacementMaterialCounter liveCounter;
+    @Nullable private TaskCountBlocksPlacement countTask;
+    private boolean liveCountsChanged;
+    private boolean recountPending;
+    private long lastLiveUpdateTime;
+    private long lastPlacementChangeTime;
 
     public MaterialListPlacement(SchematicPlacement placement)
     {
@@ -46,11 +57,117 @@ public class MaterialListPlacement extends MaterialListBase
         return StringUtils.translate("litematica.gui.title.material_list.placement", this.getName());
     }
 
+    /**
+     * Invalidates the counts of the currently active material list, if it's for the given placement.
+     * This needs to be called when the placement is moved or otherwise modified, or its schematic is edited,
+     * as the live counts only track the block changes within the originally counted area.
+     */
+    public static void markPlacementChanged(SchematicPlacement placement)
+    {
+        MaterialListBase materialList = DataManager.getMaterialList();
+
+        if (materialList instanceof MaterialListPlacement && ((MaterialListPlacement) materialList).placement == placement)
+        {
+            ((MaterialListPlacement) materialList).onPlacementChanged();
+        }
+    }
+
+    private void onPlacementChanged()
+    {
+        this.setLiveCounter(null);
+
+        // A count that is still in progress would be for the old area
+        if (this.countTask != null)
+        {
+            TaskScheduler.getInstanceClient().removeTask(this.countTask);
+            this.countTask = null;
+        }
+
+        // The re-count is delayed until the changes stop, so that for example nudging
+        // the placement around doesn't start a new full count after each step
+        this.recountPending = true;
+        this.lastPlacementChangeTime = System.currentTimeMillis();
+    }
+
+    @Nullable
+    public PlacementMaterialCounter getLiveCounter()
+    {
+        return this.liveCounter;
+    }
+
+    /**
+     * Sets the counter from the finished full count, which is then kept up to date
+     * from the block changes, instead of having to re-create the entire list.
+     */
+    public void setLiveCounter(@Nullable PlacementMaterialCounter counter)
+    {
+        this.liveCounter = counter;
+        this.liveCountsChanged = false;
+    }
+
+    @Override
+    public void updateLiveCounts()
+    {
+        MinecraftClient mc = MinecraftClient.getInstance();
+        WorldSchematic worldSchematic = SchematicWorldHandler.getSchematicWorld();
+
+        if (this.recountPending && DataManager.getMaterialList() == this &&
+            System.currentTimeMillis() - this.lastPlacementChangeTime >= 1000L)
+        {
+            this.scheduleCountTask();
+        }
+
+        if (this.liveCounter == null || worldSchematic == null || mc.world == null || mc.player == null ||
+            DataManager.getMaterialList() != this)
+        {
+            return;
+        }
+
+        this.liveCountsChanged |= this.liveCounter.processChanges(worldSchematic, mc.world);
+
+        // Re-creating the entries is cheap, but it also refreshes any open GUI, so limit the rate
+        long currentTime = System.currentTimeMillis();
+
+        if (this.liveCountsChanged && currentTime - this.lastLiveUpdateTime >= 1000L)
+        {
+            PlacementMaterialCounter counter = this.liveCounter;
+            this.updateMaterialListEntries(MaterialListUtils.getMaterialList(counter.getCountsTotal(),
+                    counter.getCountsMissing(), counter.getCountsMismatch(), mc.player));
+            this.liveCountsChanged = false;
+            this.lastLiveUpdateTime = currentTime;
+        }
+    }
+
     @Override
     public void reCreateMaterialList()
     {
-        TaskCountBlocksPlacement task = new TaskCountBlocksPlacement(this.placement, this);
-        TaskScheduler.getInstanceClient().scheduleTask(task, 20);
+        this.scheduleCountTask();
         InfoUtils.showGuiOrInGameMessage(MessageType.INFO, "litematica.message.scheduled_task_added");
     }
+
+    /**
+     * Called when the count task finishes, after which it can't be cancelled anymore
+     * without it overwriting the counts again.
+     */
+    public void onCountTaskFinished(TaskCountBlocksPlacement task)
+    {
+        if (this.countTask == task)
+        {
+            this.countTask = null;
+        }
+    }
+
+    private void scheduleCountTask()
+    {
+        this.setLiveCounter(null);
+        this.recountPending = false;
+
+        if (this.countTask != null)
+        {
+            TaskScheduler.getInstanceClient().removeTask(this.countTask);
+        }
+
+        this.countTask = new TaskCountBlocksPlacement(this.placement, this);
+        TaskScheduler.getInstanceClient().scheduleTask(this.countTask, 20);
+    }
 }
@@ -3,19 +3,37 @@ package fi.dy.masa.litematica.materials;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import javax.annotation.Nullable;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.BlockMirror;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3i;
 import fi.dy.masa.litematica.schematic.LitematicaSchematic;
+import fi.dy.masa.litematica.schematic.container.LitematicaBitArray;
 import fi.dy.masa.litematica.schematic.container.LitematicaBlockStateContainer;
-import fi.dy.masa.malilib.util.InventoryUtils;
+import fi.dy.masa.litematica.schematic.placement.SchematicPlacement;
+import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement;
+import fi.dy.masa.litematica.util.PositionUtils;
+import fi.dy.masa.malilib.util.IntBoundingBox;
 import fi.dy.masa.malilib.util.ItemType;
+import fi.dy.masa.malilib.util.LayerMode;
+import fi.dy.masa.malilib.util.LayerRange;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 public class MaterialListUtils
 {
+    /** The number of blocks counted by each parallel task */
+    private static final long COUNT_TASK_VOLUME = 1L << 22;
+
     public static List<MaterialListEntry> createMaterialListFor(LitematicaSchematic schematic)
     {
         return createMaterialListFor(schematic, schematic.getAreas().keySet());
@@ -25,26 +43,23 @@ public class MaterialListUtils
     {
         Object2IntOpenHashMap<BlockState> countsTotal = new Object2IntOpenHashMap<>();
 
+        // The palette IDs are counted first, and only the resulting histograms are mapped to the block states
         for (String regionName : subRegions)
         {
             LitematicaBlockStateContainer container = schematic.getSubRegionContainer(regionName);
 
             if (container != null)
             {
-                Vec3i size = container.getSize();
-                final int sizeX = size.getX();
-                final int sizeY = size.getY();
-                final int sizeZ = size.getZ();
+                long[] counts = getIdCounts(container, 0L, container.getArray().size());
+                List<BlockState> mapping = container.getPalette().getMapping();
+                final int max = Math.min(counts.length, mapping.size());
 
-                for (int y = 0; y < sizeY; ++y)
+                for (int id = 0; id < max; ++id)
                 {
-                    for (int z = 0; z < sizeZ; ++z)
+                    if (counts[id] != 0)
                     {
-                        for (int x = 0; x < sizeX; ++x)
-                        {
-                            BlockState state = container.get(x, y, z);
-                            countsTotal.addTo(state, 1);
-                        }
+                        BlockState state = mapping.get(id);
+                        countsTotal.addTo(state != null ? state : LitematicaBlockStateContainer.AIR_BLOCK_STATE, (int) counts[id]);
                     }
                 }
             }
@@ -55,6 +70,509 @@ public class MaterialListUtils
         return getMaterialList(countsTotal, countsTotal, new Object2IntOpenHashMap<>(), mc.player);
     }
 
+    /**
+     * Counts the blocks of the enabled sub-regions of the placement directly from the schematic's
+     * block containers, so that no chunks need to be loaded. The block states are rotated and mirrored
+     * like in the schematic world, but only once per palette entry.
+     * Where the sub-regions overlap, only the blocks that end up in the schematic world are counted.
+     * @param range the layer range to count within, or null to count the entire placement
+     * @param minY the lowest y-coordinate to count, ie. the bottom of the world
+     * @param maxY the highest y-coordinate to count, ie. the top of the world
+     */
+    public static Object2IntOpenHashMap<BlockState> getPlacementBlockCounts(SchematicPlacement schematicPlacement,
+                                                                           @Nullable LayerRange range, int minY, int maxY)
+    {
+        Object2IntOpenHashMap<BlockState> countsTotal = new Object2IntOpenHashMap<>();
+        LitematicaSchematic schematic = schematicPlacement.getSchematic();
+        BlockPos origin = schematicPlacement.getOrigin();
+        Direction.Axis axis = range != null && range.getLayerMode() != LayerMode.ALL ? range.getAxis() : null;
+
+        if (axis == Direction.Axis.Y)
+        {
+            minY = Math.max(minY, range.getLayerMin());
+            maxY = Math.min(maxY, range.getLayerMax());
+        }
+
+        for (String regionName : schematicPlacement.getEnabledSubRegionBounds().keySet())
+        {
+            LitematicaBlockStateContainer container = schematic.getSubRegionContainer(regionName);
+            SubRegionPlacement placement = schematicPlacement.getRelativeSubRegionPlacement(regionName);
+            Vec3i regionSize = schematic.getAreaSize(regionName);
+
+            if (container == null || placement == null || regionSize == null)
+            {
+                continue;
+            }
+
+            Vec3i size = container.getSize();
+            final int sizeX = size.getX();
+            final int sizeY = size.getY();
+            final int sizeZ = size.getZ();
+            final long sizeLayer = (long) sizeX * sizeZ;
+            BlockPos regionPos = placement.getPos();
+            BlockPos posEndRel = (new BlockPos(PositionUtils.getRelativeEndPositionFromAreaSize(regionSize))).add(regionPos);
+            BlockPos posMinRel = PositionUtils.getMinCorner(regionPos, posEndRel);
+            BlockPos regionPosTransformed = PositionUtils.getTransformedBlockPos(regionPos, schematicPlacement.getMirror(), schematicPlacement.getRotation());
+            BlockPos offset = regionPosTransformed.add(origin);
+            BlockPos posOffset = posMinRel.subtract(regionPos);
+
+            // The rotations and mirrors don't affect the y-axis, so the layers can be clamped directly
+            final int worldYOffset = posOffset.getY() + offset.getY();
+            final int startY = Math.max(0, minY - worldYOffset);
+            final int endY = Math.min(sizeY - 1, maxY - worldYOffset);
+
+            if (startY > endY)
+            {
+                continue;
+            }
+
+            long[] counts;
+
+            if (axis == null || axis == Direction.Axis.Y)
+            {
+                counts = getIdCounts(container, startY * sizeLayer, (endY - startY + 1) * sizeLayer);
+            }
+            else
+            {
+                counts = getIdCountsWithinLayers(container, schematicPlacement, placement, posOffset, offset,
+                                                 axis, range.getLayerMin(), range.getLayerMax(), startY, endY);
+            }
+
+            List<BlockState> mapping = container.getPalette().getMapping();
+            final int max = Math.min(counts.length, mapping.size());
+            final BlockRotation rotationCombined = schematicPlacement.getRotation().rotate(placement.getRotation());
+            final BlockMirror mirrorMain = schematicPlacement.getMirror();
+            final BlockMirror mirrorSub = getSubRegionMirror(schematicPlacement, placement);
+
+            // Each palette entry is transformed only once
+            for (int id = 0; id < max; ++id)
+            {
+                BlockState state = mapping.get(id);
+
+                if (counts[id] == 0 || isCountedState(state) == false)
+                {
+                    continue;
+                }
+
+                countsTotal.addTo(transformState(state, mirrorMain, mirrorSub, rotationCombined), (int) counts[id]);
+            }
+        }
+
+        subtractOverwrittenBlocks(countsTotal, schematicPlacement, axis != null ? range : null, minY, maxY);
+
+        return countsTotal;
+    }
+
+    /**
+     * Removes the blocks of the sub-regions that get overwritten by the later overlapping sub-regions.
+     * The sub-regions are placed into the schematic world in the same order, and the later
+     * non-air blocks replace the earlier ones, see SchematicPlacingUtils.placeBlocksToSchematicChunk().
+     */
+    private static void subtractOverwrittenBlocks(Object2IntOpenHashMap<BlockState> countsTotal,
+                                                  SchematicPlacement schematicPlacement,
+                                                  @Nullable LayerRange range, int minY, int maxY)
+    {
+        List<PlacedRegion> regions = new ArrayList<>();
+
+        for (Map.Entry<String, IntBoundingBox> entry : schematicPlacement.getEnabledSubRegionBounds().entrySet())
+        {
+            PlacedRegion region = PlacedRegion.of(schematicPlacement, entry.getKey(), entry.getValue());
+
+            if (region != null)
+            {
+                regions.add(region);
+            }
+        }
+
+        final int count = regions.size();
+        List<PlacedRegion> laterRegions = new ArrayList<>();
+
+        for (int i = 0; i < count - 1; ++i)
+        {
+            PlacedRegion region = regions.get(i);
+            IntBoundingBox overlap = null;
+            laterRegions.clear();
+
+            for (int j = i + 1; j < count; ++j)
+            {
+                IntBoundingBox intersection = getIntersection(region.box, regions.get(j).box);
+
+                if (intersection != null)
+                {
+                    laterRegions.add(regions.get(j));
+                    overlap = overlap != null ? getUnion(overlap, intersection) : intersection;
+                }
+            }
+
+            if (overlap != null)
+            {
+                subtractOverwrittenBlocksOf(countsTotal, region, overlap, laterRegions, range, minY, maxY);
+            }
+        }
+    }
+
+    /**
+     * Walks the part of the sub-region's container that is within the given world area,
+     * and subtracts each counted block that any of the later sub-regions overwrites.
+     */
+    private static void subtractOverwrittenBlocksOf(Object2IntOpenHashMap<BlockState> countsTotal, PlacedRegion region,
+                                                    IntBoundingBox area, List<PlacedRegion> laterRegions,
+                                                    @Nullable LayerRange range, int minY, int maxY)
+    {
+        IntBoundingBox box = region.getContainerBox(area, minY, maxY);
+
+        if (box == null)
+        {
+            return;
+        }
+
+        List<BlockState> mapping = region.container.getPalette().getMapping();
+        BlockState[] transformedStates = new BlockState[mapping.size()];
+        final int length = box.maxX - box.minX + 1;
+        int[] buf = new int[length];
+        BlockPos.Mutable posMutable = new BlockPos.Mutable();
+
+        for (int y = box.minY; y <= box.maxY; ++y)
+        {
+            final int worldY = region.originY + y;
+
+            for (int z = box.minZ; z <= box.maxZ; ++z)
+            {
+                region.container.getIdRow(buf, box.minX, y, z, length);
+
+                for (int i = 0; i < length; ++i)
+                {
+                    final int id = buf[i];
+
+                    if (id >= mapping.size() || isCountedState(mapping.get(id)) == false)
+                    {
+                        continue;
+                    }
+
+                    final int x = box.minX + i;
+                    final int worldX = region.getWorldX(x, z);
+                    final int worldZ = region.getWorldZ(x, z);
+
+                    if ((range != null && range.isPositionWithinRange(posMutable.set(worldX, worldY, worldZ)) == false) ||
+                        isOverwrittenByAny(laterRegions, worldX, worldY, worldZ) == false)
+                    {
+                        continue;
+                    }
+
+                    BlockState state = transformedStates[id];
+
+                    if (state == null)
+                    {
+                        state = transformState(mapping.get(id), region.mirrorMain, region.mirrorSub, region.rotationCombined);
+                        transformedStates[id] = state;
+                    }
+
+                    if (countsTotal.addTo(state, -1) <= 1)
+                    {
+                        countsTotal.removeInt(state);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isOverwrittenByAny(List<PlacedRegion> regions, int worldX, int worldY, int worldZ)
+    {
+        for (PlacedRegion region : regions)
+        {
+            if (isCountedState(region.getStateAt(worldX, worldY, worldZ)))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    private static IntBoundingBox getIntersection(IntBoundingBox box1, IntBoundingBox box2)
+    {
+        if (box1.minX > box2.maxX || box1.maxX < box2.minX ||
+            box1.minY > box2.maxY || box1.maxY < box2.minY ||
+            box1.minZ > box2.maxZ || box1.maxZ < box2.minZ)
+        {
+            return null;
+        }
+
+        return new IntBoundingBox(Math.max(box1.minX, box2.minX), Math.max(box1.minY, box2.minY), Math.max(box1.minZ, box2.minZ),
+                                  Math.min(box1.maxX, box2.maxX), Math.min(box1.maxY, box2.maxY), Math.min(box1.maxZ, box2.maxZ));
+    }
+
+    private static IntBoundingBox getUnion(IntBoundingBox box1, IntBoundingBox box2)
+    {
+        return new IntBoundingBox(Math.min(box1.minX, box2.minX), Math.min(box1.minY, box2.minY), Math.min(box1.minZ, box2.minZ),
+                                  Math.max(box1.maxX, box2.maxX), Math.max(box1.maxY, box2.maxY), Math.max(box1.maxZ, box2.maxZ));
+    }
+
+    private static boolean isCountedState(@Nullable BlockState state)
+    {
+        return state != null && state.isAir() == false && state.getBlock() != Blocks.STRUCTURE_VOID;
+    }
+
+    private static BlockMirror getSubRegionMirror(SchematicPlacement schematicPlacement, SubRegionPlacement placement)
+    {
+        BlockMirror mirrorSub = placement.getMirror();
+
+        if (mirrorSub != BlockMirror.NONE &&
+            (schematicPlacement.getRotation() == BlockRotation.CLOCKWISE_90 ||
+             schematicPlacement.getRotation() == BlockRotation.COUNTERCLOCKWISE_90))
+        {
+            mirrorSub = mirrorSub == BlockMirror.FRONT_BACK ? BlockMirror.LEFT_RIGHT : BlockMirror.FRONT_BACK;
+        }
+
+        return mirrorSub;
+    }
+
+    private static BlockState transformState(BlockState state, BlockMirror mirrorMain, BlockMirror mirrorSub, BlockRotation rotationCombined)
+    {
+        if (mirrorMain != BlockMirror.NONE) { state = state.mirror(mirrorMain); }
+        if (mirrorSub != BlockMirror.NONE)  { state = state.mirror(mirrorSub); }
+        if (rotationCombined != BlockRotation.NONE) { state = state.rotate(rotationCombined); }
+
+        return state;
+    }
+
+    /**
+     * The mapping between the world positions and the container positions of one placed sub-region.
+     * The rotations and mirrors only swap and flip the horizontal axes, so the container's
+     * x- and z-axes each map to a unit step along one of the world's horizontal axes.
+     */
+    private static class PlacedRegion
+    {
+        private final LitematicaBlockStateContainer container;
+        private final IntBoundingBox box;
+        private final BlockRotation rotationCombined;
+        private final BlockMirror mirrorMain;
+        private final BlockMirror mirrorSub;
+        private final int sizeX;
+        private final int sizeY;
+        private final int sizeZ;
+        private final int originX;
+        private final int originY;
+        private final int originZ;
+        private final int xStepX;
+        private final int xStepZ;
+        private final int zStepX;
+        private final int zStepZ;
+
+        private PlacedRegion(LitematicaBlockStateContainer container, IntBoundingBox box,
+                             SchematicPlacement schematicPlacement, SubRegionPlacement placement,
+                             BlockPos posOffset, BlockPos offset)
+        {
+            this.container = container;
+            this.box = box;
+            this.rotationCombined = schematicPlacement.getRotation().rotate(placement.getRotation());
+            this.mirrorMain = schematicPlacement.getMirror();
+            this.mirrorSub = getSubRegionMirror(schematicPlacement, placement);
+
+            Vec3i size = container.getSize();
+            this.sizeX = size.getX();
+            this.sizeY = size.getY();
+            this.sizeZ = size.getZ();
+
+            BlockPos pos0 = PositionUtils.getTransformedPlacementPosition(new BlockPos(posOffset.getX(), 0, posOffset.getZ()), schematicPlacement, placement);
+            BlockPos posX = PositionUtils.getTransformedPlacementPosition(new BlockPos(posOffset.getX() + 1, 0, posOffset.getZ()), schematicPlacement, placement);
+            BlockPos posZ = PositionUtils.getTransformedPlacementPosition(new BlockPos(posOffset.getX(), 0, posOffset.getZ() + 1), schematicPlacement, placement);
+
+            this.originX = pos0.getX() + offset.getX();
+            this.originY = posOffset.getY() + offset.getY();
+            this.originZ = pos0.getZ() + offset.getZ();
+            this.xStepX = posX.getX() - pos0.getX();
+            this.xStepZ = posX.getZ() - pos0.getZ();
+            this.zStepX = posZ.getX() - pos0.getX();
+            this.zStepZ = posZ.getZ() - pos0.getZ();
+        }
+
+        @Nullable
+        private static PlacedRegion of(SchematicPlacement schematicPlacement, String regionName, IntBoundingBox box)
+        {
+            LitematicaSchematic schematic = schematicPlacement.getSchematic();
+            LitematicaBlockStateContainer container = schematic.getSubRegionContainer(regionName);
+            SubRegionPlacement placement = schematicPlacement.getRelativeSubRegionPlacement(regionName);
+            Vec3i regionSize = schematic.getAreaSize(regionName);
+
+            if (container == null || placement == null || regionSize == null)
+            {
+                return null;
+            }
+
+            BlockPos regionPos = placement.getPos();
+            BlockPos posEndRel = (new BlockPos(PositionUtils.getRelativeEndPositionFromAreaSize(regionSize))).add(regionPos);
+            BlockPos posMinRel = PositionUtils.getMinCorner(regionPos, posEndRel);
+            BlockPos regionPosTransformed = PositionUtils.getTransformedBlockPos(regionPos, schematicPlacement.getMirror(), schematicPlacement.getRotation());
+            BlockPos offset = regionPosTransformed.add(schematicPlacement.getOrigin());
+            BlockPos posOffset = posMinRel.subtract(regionPos);
+
+            return new PlacedRegion(container, box, schematicPlacement, placement, posOffset, offset);
+        }
+
+        private int getWorldX(int x, int z)
+        {
+            return this.originX + x * this.xStepX + z * this.zStepX;
+        }
+
+        private int getWorldZ(int x, int z)
+        {
+            return this.originZ + x * this.xStepZ + z * this.zStepZ;
+        }
+
+        // The axis steps are orthonormal, so the inverse is the transpose
+        private int getContainerX(int worldX, int worldZ)
+        {
+            return (worldX - this.originX) * this.xStepX + (worldZ - this.originZ) * this.xStepZ;
+        }
+
+        private int getContainerZ(int worldX, int worldZ)
+        {
+            return (worldX - this.originX) * this.zStepX + (worldZ - this.originZ) * this.zStepZ;
+        }
+
+        /**
+         * @return the container area that maps to the given world area and y-range, or null if they don't intersect
+         */
+        @Nullable
+        private IntBoundingBox getContainerBox(IntBoundingBox area, int minY, int maxY)
+        {
+            int x1 = this.getContainerX(area.minX, area.minZ);
+            int z1 = this.getContainerZ(area.minX, area.minZ);
+            int x2 = this.getContainerX(area.maxX, area.maxZ);
+            int z2 = this.getContainerZ(area.maxX, area.maxZ);
+            int boxMinX = Math.max(0, Math.min(x1, x2));
+            int boxMinY = Math.max(0, Math.max(minY, area.minY) - this.originY);
+            int boxMinZ = Math.max(0, Math.min(z1, z2));
+            int boxMaxX = Math.min(this.sizeX - 1, Math.max(x1, x2));
+            int boxMaxY = Math.min(this.sizeY - 1, Math.min(maxY, area.maxY) - this.originY);
+            int boxMaxZ = Math.min(this.sizeZ - 1, Math.max(z1, z2));
+
+            if (boxMinX > boxMaxX || boxMinY > boxMaxY || boxMinZ > boxMaxZ)
+            {
+                return null;
+            }
+
+            return new IntBoundingBox(boxMinX, boxMinY, boxMinZ, boxMaxX, boxMaxY, boxMaxZ);
+        }
+
+        @Nullable
+        private BlockState getStateAt(int worldX, int worldY, int worldZ)
+        {
+            if (worldX < this.box.minX || worldX > this.box.maxX ||
+                worldY < this.box.minY || worldY > this.box.maxY ||
+                worldZ < this.box.minZ || worldZ > this.box.maxZ)
+            {
+                return null;
+            }
+
+            int x = this.getContainerX(worldX, worldZ);
+            int y = worldY - this.originY;
+            int z = this.getContainerZ(worldX, worldZ);
+
+            if (x < 0 || x >= this.sizeX || y < 0 || y >= this.sizeY || z < 0 || z >= this.sizeZ)
+            {
+                return null;
+            }
+
+            return this.container.get(x, y, z);
+        }
+    }
+
+    /**
+     * Counts the palette IDs of the given range of the container, in parallel slices.
+     * @return the counts, indexed by the palette ID
+     */
+    private static long[] getIdCounts(LitematicaBlockStateContainer container, long start, long count)
+    {
+        LitematicaBitArray array = container.getArray();
+        final int paletteCapacity = 1 << array.getBitsPerEntry();
+        List<CompletableFuture<long[]>> futures = new ArrayList<>();
+
+        for (long sliceStart = start; sliceStart < start + count; sliceStart += COUNT_TASK_VOLUME)
+        {
+            final long fStart = sliceStart;
+            final long fCount = Math.min(COUNT_TASK_VOLUME, start + count - sliceStart);
+
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                long[] counts = new long[paletteCapacity];
+                array.addValueCounts(counts, fStart, fCount);
+                return counts;
+            }, ForkJoinPool.commonPool()));
+        }
+
+        long[] counts = new long[paletteCapacity];
+
+        for (CompletableFuture<long[]> future : futures)
+        {
+            long[] sliceCounts = future.join();
+
+            for (int i = 0; i < paletteCapacity; ++i)
+            {
+                counts[i] += sliceCounts[i];
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Counts the palette IDs of the blocks whose transformed world position is within
+     * the given layer range on the x- or z-axis.
+     * @return the counts, indexed by the palette ID
+     */
+    private static long[] getIdCountsWithinLayers(LitematicaBlockStateContainer container,
+                                                  SchematicPlacement schematicPlacement, SubRegionPlacement placement,
+                                                  BlockPos posOffset, BlockPos offset, Direction.Axis axis,
+                                                  int layerMin, int layerMax, int startY, int endY)
+    {
+        Vec3i size = container.getSize();
+        final int sizeX = size.getX();
+        final int sizeZ = size.getZ();
+        final int[] worldForX = new int[sizeX];
+        final int[] worldForZ = new int[sizeZ];
+        BlockPos.Mutable posMutable = new BlockPos.Mutable();
+
+        // Either of the container's horizontal axes can map to the layer axis, so both contributions are added together
+        for (int x = 0; x < sizeX; ++x)
+        {
+            posMutable.set(posOffset.getX() + x, 0, 0);
+            BlockPos pos = PositionUtils.getTransformedPlacementPosition(posMutable, schematicPlacement, placement);
+            worldForX[x] = axis == Direction.Axis.X ? pos.getX() + offset.getX() : pos.getZ();
+        }
+
+        for (int z = 0; z < sizeZ; ++z)
+        {
+            posMutable.set(0, 0, posOffset.getZ() + z);
+            BlockPos pos = PositionUtils.getTransformedPlacementPosition(posMutable, schematicPlacement, placement);
+            worldForZ[z] = axis == Direction.Axis.X ? pos.getX() : pos.getZ() + offset.getZ();
+        }
+
+        long[] counts = new long[1 << container.getArray().getBitsPerEntry()];
+        int[] buf = new int[sizeX];
+
+        for (int y = startY; y <= endY; ++y)
+        {
+            for (int z = 0; z < sizeZ; ++z)
+            {
+                container.getIdRow(buf, 0, y, z, sizeX);
+
+                for (int x = 0; x < sizeX; ++x)
+                {
+                    final int layerPos = worldForX[x] + worldForZ[z];
+
+                    if (layerPos >= layerMin && layerPos <= layerMax)
+                    {
+                        ++counts[buf[x]];
+                    }
+                }
+            }
+        }
+
+        return counts;
+    }
+
     public static List<MaterialListEntry> getMaterialList(
             Object2IntOpenHashMap<BlockState> countsTotal,
             Object2IntOpenHashMap<BlockState> countsMissing,
@@ -74,7 +592,9 @@ public class MaterialListUtils
             convertStatesToStacks(countsMissing, itemTypesMissing, cache);
             convertStatesToStacks(countsMismatch, itemTypesMismatch, cache);
 
-            Object2IntOpenHashMap<ItemType> playerInvItems = InventoryUtils.getInventoryItemCounts(player.getInventory());
+            PlayerInventoryCounter inventoryCounter = PlayerInventoryCounter.getInstance();
+            inventoryCounter.update(player);
+            Object2IntOpenHashMap<ItemType> playerInvItems = inventoryCounter.getCounts();
 
             for (ItemType type : itemTypesTotal.keySet())
             {
@@ -120,13 +640,13 @@ public class MaterialListUtils
 
     public static void updateAvailableCounts(List<MaterialListEntry> list, PlayerEntity player)
     {
-        Object2IntOpenHashMap<ItemType> playerInvItems = InventoryUtils.getInventoryItemCounts(player.getInventory());
+        PlayerInventoryCounter inventoryCounter = PlayerInventoryCounter.getInstance();
+        inventoryCounter.update(player);
+        Object2IntOpenHashMap<ItemType> playerInvItems = inventoryCounter.getCounts();
 
         for (MaterialListEntry entry : list)
         {
-            ItemType type = new ItemType(entry.getStack(), false, true);
-            int countAvailable = playerInvItems.getInt(type);
-            entry.setCountAvailable(countAvailable);
+            entry.setCountAvailable(playerInvItems.getInt(entry.getItemTypeWithNbt()));
         }
     }
 }
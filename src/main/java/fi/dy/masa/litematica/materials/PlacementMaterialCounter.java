@@ -0,0 +1,352 @@
+package fi.dy.masa.litematica.materials;
+
+import javax.annotation.Nullable;
+import com.google.common.collect.ArrayListMultimap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import fi.dy.masa.malilib.util.IntBoundingBox;
+import fi.dy.masa.litematica.data.DataManager;
+import fi.dy.masa.litematica.util.WorldUtils;
+import fi.dy.masa.litematica.world.WorldSchematic;
+
+/**
+ * Holds the block counts of a placement material list, and keeps them up to date
+ * after the initial full count, using the block updates and chunk loads received from the server.
+ * The counts are also stored per chunk, so that a chunk can be re-counted when it gets loaded again,
+ * as it may have changed while it was not loaded.
+ * If the total counts are given up front, for example counted directly from the schematic containers,
+ * then the missing counts start out as the total counts, and they get reduced as the chunks get counted.
+ */
+public class PlacementMaterialCounter
+{
+    private static final BlockPos.Mutable MUTABLE_POS = new BlockPos.Mutable();
+
+    private final ArrayListMultimap<ChunkPos, IntBoundingBox> boxesInChunks;
+    private final Object2IntOpenHashMap<BlockState> countsTotal;
+    private final Object2IntOpenHashMap<BlockState> countsMissing;
+    private final Object2IntOpenHashMap<BlockState> countsMismatch;
+    private final Long2ObjectOpenHashMap<ChunkCounts> chunkCounts = new Long2ObjectOpenHashMap<>();
+    /** The changed positions to re-count, with the client world state before the first change */
+    private final Long2ObjectOpenHashMap<BlockState> changedPositions = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet chunksToRecount = new LongOpenHashSet();
+    @Nullable private ChunkCounts lastChunkCounts;
+    private long lastChunk = Long.MAX_VALUE;
+    private final boolean countsTotalFixed;
+    private boolean countsChanged;
+
+    public PlacementMaterialCounter(ArrayListMultimap<ChunkPos, IntBoundingBox> boxesInChunks,
+                                    Object2IntOpenHashMap<BlockState> countsTotal,
+                                    Object2IntOpenHashMap<BlockState> countsMissing,
+                                    Object2IntOpenHashMap<BlockState> countsMismatch)
+    {
+        this(boxesInChunks, countsTotal, countsMissing, countsMismatch, false);
+    }
+
+    /**
+     * @param countsTotalFixed if true, then the given total counts are already complete and they are not modified,
+     * and the missing counts are initialized to the total counts
+     */
+    public PlacementMaterialCounter(ArrayListMultimap<ChunkPos, IntBoundingBox> boxesInChunks,
+                                    Object2IntOpenHashMap<BlockState> countsTotal,
+                                    Object2IntOpenHashMap<BlockState> countsMissing,
+                                    Object2IntOpenHashMap<BlockState> countsMismatch,
+                                    boolean countsTotalFixed)
+    {
+        this.boxesInChunks = ArrayListMultimap.create(boxesInChunks);
+        this.countsTotal = countsTotal;
+        this.countsMissing = countsMissing;
+        this.countsMismatch = countsMismatch;
+        this.countsTotalFixed = countsTotalFixed;
+
+        if (countsTotalFixed)
+        {
+            this.countsMissing.clear();
+            this.countsMissing.putAll(countsTotal);
+        }
+    }
+
+    public Object2IntOpenHashMap<BlockState> getCountsTotal()
+    {
+        return this.countsTotal;
+    }
+
+    public Object2IntOpenHashMap<BlockState> getCountsMissing()
+    {
+        return this.countsMissing;
+    }
+
+    public Object2IntOpenHashMap<BlockState> getCountsMismatch()
+    {
+        return this.countsMismatch;
+    }
+
+    @Nullable
+    private static PlacementMaterialCounter getActiveCounter()
+    {
+        MaterialListBase materialList = DataManager.getMaterialList();
+
+        if (materialList instanceof MaterialListPlacement)
+        {
+            return ((MaterialListPlacement) materialList).getLiveCounter();
+        }
+
+        return null;
+    }
+
+    /**
+     * This needs to be called before the block changes in the client world,
+     * as the previous state is needed for removing the old counts of the position.
+     */
+    public static void markBlockChanged(BlockPos pos, BlockState stateOld)
+    {
+        PlacementMaterialCounter counter = getActiveCounter();
+
+        if (counter != null && counter.isPositionCounted(pos.getX(), pos.getY(), pos.getZ()))
+        {
+            counter.changedPositions.putIfAbsent(pos.asLong(), stateOld);
+        }
+    }
+
+    public static void markChunkLoaded(int chunkX, int chunkZ)
+    {
+        PlacementMaterialCounter counter = getActiveCounter();
+
+        if (counter != null && counter.boxesInChunks.containsKey(new ChunkPos(chunkX, chunkZ)))
+        {
+            counter.chunksToRecount.add(ChunkPos.toLong(chunkX, chunkZ));
+        }
+    }
+
+    private boolean isPositionCounted(int x, int y, int z)
+    {
+        for (IntBoundingBox box : this.boxesInChunks.get(new ChunkPos(x >> 4, z >> 4)))
+        {
+            if (x >= box.minX && x <= box.maxX && y >= box.minY && y <= box.maxY && z >= box.minZ && z <= box.maxZ)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds the counts for one position. This is used for the initial full count.
+     */
+    public void countPosition(BlockPos pos, BlockState stateSchematic, BlockState stateClient)
+    {
+        if (stateSchematic.isAir() == false)
+        {
+            ChunkCounts counts = this.getChunkCounts(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+
+            // The position was already included in the missing counts as not counted yet
+            if (this.countsTotalFixed)
+            {
+                add(this.countsMissing, counts.missing, stateSchematic, -1);
+            }
+            else
+            {
+                add(this.countsTotal, counts.total, stateSchematic, 1);
+            }
+
+            this.addClientState(counts, stateSchematic, stateClient, 1);
+        }
+    }
+
+    /**
+     * Applies the pending block changes and chunk re-counts, where the chunks are currently loaded.
+     * @return true if any of the counts changed
+     */
+    public boolean processChanges(WorldSchematic worldSchematic, ClientWorld worldClient)
+    {
+        if (this.chunksToRecount.isEmpty() == false)
+        {
+            LongIterator iter = this.chunksToRecount.iterator();
+
+            while (iter.hasNext())
+            {
+                long chunkPosLong = iter.nextLong();
+
+                if (this.canCountChunk(worldSchematic, worldClient, ChunkPos.getPackedX(chunkPosLong), ChunkPos.getPackedZ(chunkPosLong)))
+                {
+                    this.recountChunk(new ChunkPos(chunkPosLong), worldSchematic, worldClient);
+                    iter.remove();
+                }
+            }
+        }
+
+        if (this.changedPositions.isEmpty() == false)
+        {
+            ObjectIterator<Long2ObjectMap.Entry<BlockState>> iter = Long2ObjectMaps.fastIterator(this.changedPositions);
+
+            while (iter.hasNext())
+            {
+                Long2ObjectMap.Entry<BlockState> entry = iter.next();
+                long posLong = entry.getLongKey();
+                int x = BlockPos.unpackLongX(posLong);
+                int y = BlockPos.unpackLongY(posLong);
+                int z = BlockPos.unpackLongZ(posLong);
+
+                // Changes in chunks that haven't been counted yet get included when the chunk gets counted
+                if (this.chunkCounts.containsKey(ChunkPos.toLong(x >> 4, z >> 4)) == false)
+                {
+                    iter.remove();
+                }
+                else if (this.canCountChunk(worldSchematic, worldClient, x >> 4, z >> 4))
+                {
+                    MUTABLE_POS.set(x, y, z);
+                    BlockState stateSchematic = worldSchematic.getBlockState(MUTABLE_POS);
+
+                    if (stateSchematic.isAir() == false)
+                    {
+                        ChunkCounts counts = this.getChunkCounts(ChunkPos.toLong(x >> 4, z >> 4));
+                        this.addClientState(counts, stateSchematic, entry.getValue(), -1);
+                        this.addClientState(counts, stateSchematic, worldClient.getBlockState(MUTABLE_POS), 1);
+                    }
+
+                    iter.remove();
+                }
+            }
+        }
+
+        boolean changed = this.countsChanged;
+        this.countsChanged = false;
+
+        return changed;
+    }
+
+    private boolean canCountChunk(WorldSchematic worldSchematic, ClientWorld worldClient, int chunkX, int chunkZ)
+    {
+        return WorldUtils.isClientChunkLoaded(worldClient, chunkX, chunkZ) &&
+               worldSchematic.getChunkProvider().isChunkLoaded(chunkX, chunkZ) &&
+               DataManager.getSchematicPlacementManager().hasPendingRebuildFor(new ChunkPos(chunkX, chunkZ)) == false;
+    }
+
+    /**
+     * Removes the previous counts of the given chunk, if any, and marks the chunk as counted.
+     * This needs to be called before the chunk gets (re-)counted.
+     */
+    public void clearChunk(ChunkPos pos)
+    {
+        long chunkPosLong = pos.toLong();
+        ChunkCounts old = this.chunkCounts.put(chunkPosLong, new ChunkCounts());
+
+        if (old != null)
+        {
+            if (this.countsTotalFixed == false)
+            {
+                subtractAll(this.countsTotal, old.total);
+            }
+
+            subtractAll(this.countsMissing, old.missing);
+            subtractAll(this.countsMismatch, old.mismatch);
+            this.countsChanged = true;
+        }
+
+        this.lastChunk = Long.MAX_VALUE;
+        this.lastChunkCounts = null;
+
+        // Any queued changes within this chunk are included in the new counts
+        if (this.changedPositions.isEmpty() == false)
+        {
+            this.changedPositions.long2ObjectEntrySet().removeIf((e) -> ChunkPos.toLong(BlockPos.unpackLongX(e.getLongKey()) >> 4,
+                                                                                        BlockPos.unpackLongZ(e.getLongKey()) >> 4) == chunkPosLong);
+        }
+    }
+
+    private void recountChunk(ChunkPos pos, WorldSchematic worldSchematic, ClientWorld worldClient)
+    {
+        this.clearChunk(pos);
+
+        BlockPos.Mutable posMutable = new BlockPos.Mutable();
+
+        for (IntBoundingBox bb : this.boxesInChunks.get(pos))
+        {
+            for (int y = bb.minY; y <= bb.maxY; ++y)
+            {
+                for (int z = bb.minZ; z <= bb.maxZ; ++z)
+                {
+                    for (int x = bb.minX; x <= bb.maxX; ++x)
+                    {
+                        posMutable.set(x, y, z);
+                        this.countPosition(posMutable, worldSchematic.getBlockState(posMutable), worldClient.getBlockState(posMutable));
+                    }
+                }
+            }
+        }
+
+        this.countsChanged = true;
+    }
+
+    private ChunkCounts getChunkCounts(long chunkPosLong)
+    {
+        if (chunkPosLong != this.lastChunk || this.lastChunkCounts == null)
+        {
+            this.lastChunkCounts = this.chunkCounts.computeIfAbsent(chunkPosLong, (k) -> new ChunkCounts());
+            this.lastChunk = chunkPosLong;
+        }
+
+        return this.lastChunkCounts;
+    }
+
+    private void addClientState(ChunkCounts counts, BlockState stateSchematic, BlockState stateClient, int amount)
+    {
+        if (stateClient.isAir())
+        {
+            add(this.countsMissing, counts.missing, stateSchematic, amount);
+        }
+        else if (stateClient != stateSchematic)
+        {
+            add(this.countsMissing, counts.missing, stateSchematic, amount);
+            add(this.countsMismatch, counts.mismatch, stateSchematic, amount);
+        }
+        else
+        {
+            return;
+        }
+
+        this.countsChanged = true;
+    }
+
+    private static void add(Object2IntOpenHashMap<BlockState> countsAll,
+                            Object2IntOpenHashMap<BlockState> countsChunk,
+                            BlockState state, int amount)
+    {
+        addOrRemove(countsAll, state, amount);
+        addOrRemove(countsChunk, state, amount);
+    }
+
+    private static void addOrRemove(Object2IntOpenHashMap<BlockState> counts, BlockState state, int amount)
+    {
+        // The per-chunk missing counts can be negative when the total counts are fixed
+        if (counts.addTo(state, amount) + amount == 0)
+        {
+            counts.removeInt(state);
+        }
+    }
+
+    private static void subtractAll(Object2IntOpenHashMap<BlockState> counts, Object2IntOpenHashMap<BlockState> toSubtract)
+    {
+        for (Object2IntMap.Entry<BlockState> entry : toSubtract.object2IntEntrySet())
+        {
+            addOrRemove(counts, entry.getKey(), -entry.getIntValue());
+        }
+    }
+
+    private static class ChunkCounts
+    {
+        private final Object2IntOpenHashMap<BlockState> total = new Object2IntOpenHashMap<>();
+        private final Object2IntOpenHashMap<BlockState> missing = new Object2IntOpenHashMap<>();
+        private final Object2IntOpenHashMap<BlockState> mismatch = new Object2IntOpenHashMap<>();
+    }
+}
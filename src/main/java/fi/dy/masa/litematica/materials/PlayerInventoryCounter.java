@@ -0,0 +1,155 @@
+package fi.dy.masa.litematica.materials;
+
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.ShulkerBoxBlock;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.collection.DefaultedList;
+import fi.dy.masa.malilib.util.ItemType;
+import fi.dy.masa.litematica.config.Configs;
+
+/**
+ * Keeps the item counts of the player's inventory, for the material lists and the material list HUD.
+ * The counts are only updated for the slots that have changed, after a slot change
+ * has been received from the server, or the inventory has been marked dirty on the client.
+ */
+public class PlayerInventoryCounter
+{
+    private static final PlayerInventoryCounter INSTANCE = new PlayerInventoryCounter();
+
+    private final Object2IntOpenHashMap<ItemType> counts = new Object2IntOpenHashMap<>();
+    private ItemStack[] slotStacks = new ItemStack[0];
+    @Nullable private PlayerInventory inventory;
+    private int lastChangeCount;
+    private boolean includeShulkerBoxes;
+    private boolean dirty = true;
+    private int version;
+
+    public static PlayerInventoryCounter getInstance()
+    {
+        return INSTANCE;
+    }
+
+    public void markDirty()
+    {
+        this.dirty = true;
+    }
+
+    /**
+     * @return a number that changes every time the counts change
+     */
+    public int getVersion()
+    {
+        return this.version;
+    }
+
+    /**
+     * @return the item counts, which must not be modified. Call {@link #update(PlayerEntity)} first.
+     */
+    public Object2IntOpenHashMap<ItemType> getCounts()
+    {
+        return this.counts;
+    }
+
+    /**
+     * Updates the counts of the changed slots, if there were any changes
+     */
+    public void update(@Nullable PlayerEntity player)
+    {
+        PlayerInventory inv = player != null ? player.getInventory() : null;
+        boolean includeShulkerBoxes = Configs.Generic.MATERIAL_LIST_SHULKER_BOXES.getBooleanValue();
+
+        if (inv != this.inventory || includeShulkerBoxes != this.includeShulkerBoxes)
+        {
+            this.inventory = inv;
+            this.includeShulkerBoxes = includeShulkerBoxes;
+            this.slotStacks = new ItemStack[inv != null ? inv.size() : 0];
+            this.counts.clear();
+            this.dirty = true;
+            ++this.version;
+        }
+
+        if (inv == null)
+        {
+            return;
+        }
+
+        // This catches the changes done by the client itself, for example when moving items in the inventory screen
+        if (inv.getChangeCount() != this.lastChangeCount)
+        {
+            this.lastChangeCount = inv.getChangeCount();
+            this.dirty = true;
+        }
+
+        if (this.dirty == false)
+        {
+            return;
+        }
+
+        final int size = Math.min(inv.size(), this.slotStacks.length);
+        boolean changed = false;
+
+        for (int slot = 0; slot < size; ++slot)
+        {
+            ItemStack stackOld = this.slotStacks[slot];
+            ItemStack stackNew = inv.getStack(slot);
+
+            if (stackOld != null && ItemStack.areEqual(stackOld, stackNew))
+            {
+                continue;
+            }
+
+            if (stackOld != null)
+            {
+                this.addStack(stackOld, -1);
+            }
+
+            // The stacks can get modified in place, so a copy is needed to remove the old counts later
+            stackNew = stackNew.copy();
+            this.addStack(stackNew, 1);
+            this.slotStacks[slot] = stackNew;
+            changed = true;
+        }
+
+        if (changed)
+        {
+            ++this.version;
+        }
+
+        this.dirty = false;
+    }
+
+    private void addStack(ItemStack stack, int sign)
+    {
+        if (stack.isEmpty())
+        {
+            return;
+        }
+
+        this.addCount(new ItemType(stack, false, true), sign * stack.getCount());
+
+        if (this.includeShulkerBoxes && Block.getBlockFromItem(stack.getItem()) instanceof ShulkerBoxBlock)
+        {
+            DefaultedList<ItemStack> items = fi.dy.masa.malilib.util.InventoryUtils.getStoredItems(stack);
+
+            for (ItemStack item : items)
+            {
+                if (item.isEmpty() == false)
+                {
+                    this.addCount(new ItemType(item, false, true), sign * item.getCount() * stack.getCount());
+                }
+            }
+        }
+    }
+
+    private void addCount(ItemType type, int amount)
+    {
+        if (this.counts.addTo(type, amount) + amount == 0)
+        {
+            this.counts.removeInt(type);
+        }
+    }
+}
@@ -7,10 +7,17 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
 import net.minecraft.network.packet.s2c.play.GameMessageS2CPacket;
+import net.minecraft.network.packet.s2c.play.InventoryS2CPacket;
+import net.minecraft.network.packet.s2c.play.ItemPickupAnimationS2CPacket;
+import net.minecraft.network.packet.s2c.play.ScreenHandlerSlotUpdateS2CPacket;
 import net.minecraft.network.packet.s2c.play.UnloadChunkS2CPacket;
+import net.minecraft.network.packet.s2c.play.WorldTimeUpdateS2CPacket;
 import fi.dy.masa.litematica.Litematica;
 import fi.dy.masa.litematica.config.Configs;
 import fi.dy.masa.litematica.data.DataManager;
+import fi.dy.masa.litematica.materials.PlacementMaterialCounter;
+import fi.dy.masa.litematica.materials.PlayerInventoryCounter;
+import fi.dy.masa.litematica.scheduler.CommandRateController;
 import fi.dy.masa.litematica.util.SchematicWorldRefresher;
 
 @Mixin(ClientPlayNetworkHandler.class)
@@ -30,6 +37,7 @@ public abstract class MixinClientPlayNetworkHandler
         }
 
         DataManager.getSchematicPlacementManager().onClientChunkLoad(chunkX, chunkZ);
+        PlacementMaterialCounter.markChunkLoaded(chunkX, chunkZ);
         // TODO verifier updates?
     }
 
@@ -43,6 +51,30 @@ public abstract class MixinClientPlayNetworkHandler
         }
     }
 
+    @Inject(method = "onScreenHandlerSlotUpdate", at = @At("RETURN"))
+    private void litematica_onSlotUpdate(ScreenHandlerSlotUpdateS2CPacket packet, CallbackInfo ci)
+    {
+        PlayerInventoryCounter.getInstance().markDirty();
+    }
+
+    @Inject(method = "onInventory", at = @At("RETURN"))
+    private void litematica_onInventory(InventoryS2CPacket packet, CallbackInfo ci)
+    {
+        PlayerInventoryCounter.getInstance().markDirty();
+    }
+
+    @Inject(method = "onItemPickupAnimation", at = @At("RETURN"))
+    private void litematica_onItemPickup(ItemPickupAnimationS2CPacket packet, CallbackInfo ci)
+    {
+        PlayerInventoryCounter.getInstance().markDirty();
+    }
+
+    @Inject(method = "onWorldTimeUpdate", at = @At("RETURN"))
+    private void litematica_onWorldTimeUpdate(WorldTimeUpdateS2CPacket packet, CallbackInfo ci)
+    {
+        CommandRateController.INSTANCE.onWorldTimeUpdate(packet.getTime());
+    }
+
     @Inject(method = "onGameMessage", cancellable = true, at = @At(value = "INVOKE",
             target = "Lnet/minecraft/client/network/message/MessageHandler;onGameMessage(Lnet/minecraft/text/Text;Z)V"))
     private void litematica_onGameMessage(GameMessageS2CPacket packet, CallbackInfo ci)
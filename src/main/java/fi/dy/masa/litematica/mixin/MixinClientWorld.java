@@ -5,6 +5,7 @@ import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.registry.RegistryKey;
@@ -15,6 +16,8 @@ import net.minecraft.world.MutableWorldProperties;
 import net.minecraft.world.World;
 import net.minecraft.world.dimension.DimensionType;
 import fi.dy.masa.litematica.config.Configs;
+import fi.dy.masa.litematica.materials.PlacementMaterialCounter;
+import fi.dy.masa.litematica.scheduler.CommandRateController;
 import fi.dy.masa.litematica.schematic.verifier.SchematicVerifier;
 import fi.dy.masa.litematica.util.SchematicWorldRefresher;
 
@@ -28,10 +31,25 @@ public abstract class MixinClientWorld extends World
         super(properties, registryRef, dimension, supplier, isClient, debugWorld, seed, maxChainedNeighborUpdates);
     }
 
+    /**
+     * The blocks placed or broken by the player are changed on the client first via this method,
+     * and the server's confirmation for them goes through processPendingUpdate(), which also uses this method,
+     * and not through handleBlockUpdate(). So the previous state has to be captured here for those changes.
+     */
+    @Inject(method = "setBlockState(Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;II)Z", at = @At("HEAD"))
+    private void litematica_onSetBlockState(BlockPos pos, BlockState state, int flags, int maxUpdateDepth,
+                                            CallbackInfoReturnable<Boolean> cir)
+    {
+        SchematicVerifier.markVerifierBlockChanges(pos);
+        PlacementMaterialCounter.markBlockChanged(pos, this.getBlockState(pos));
+    }
+
     @Inject(method = "handleBlockUpdate", at = @At("HEAD"))
     private void litematica_onHandleBlockUpdate(BlockPos pos, BlockState state, int flags, CallbackInfo ci)
     {
         SchematicVerifier.markVerifierBlockChanges(pos);
+        PlacementMaterialCounter.markBlockChanged(pos, this.getBlockState(pos));
+        CommandRateController.INSTANCE.onBlockUpdate(pos);
 
         if (Configs.Visuals.ENABLE_RENDERING.getBooleanValue() &&
             Configs.Visuals.ENABLE_SCHEMATIC_RENDERING.getBooleanValue())
@@ -8,6 +8,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import net.minecraft.client.gui.DrawableHelper;
 import net.minecraft.client.gui.hud.DebugHud;
 import fi.dy.masa.litematica.data.DataManager;
+import fi.dy.masa.litematica.materials.MaterialCache;
 import fi.dy.masa.litematica.render.LitematicaRenderer;
 import fi.dy.masa.litematica.render.schematic.WorldRendererSchematic;
 import fi.dy.masa.litematica.world.SchematicWorldHandler;
@@ -33,12 +34,16 @@ public abstract class MixinDebugHud extends DrawableHelper
             list.add(String.format("%s[Litematica]%s %s",
                                    pre, rst, renderer.getDebugInfoRenders()));
 
-            String str = String.format("E: %d TE: TODO 1.17+ C: %d, CT: %d, CV: %d",
+            String str = String.format("E: %d TE: TODO 1.17+ C: %d (~%d MB), CE: %d, CT: %d, CV: %d",
                                        world.getRegularEntityCount(),
                                        world.getChunkProvider().getLoadedChunkCount(),
+                                       world.getChunkProvider().getEstimatedMemoryUsage() >> 20,
+                                       DataManager.getSchematicPlacementManager().getEvictedChunksCount(),
                                        DataManager.getSchematicPlacementManager().getTouchedChunksCount(),
                                        DataManager.getSchematicPlacementManager().getLastVisibleChunksCount());
             list.add(String.format("%s[Litematica]%s %s %s", pre, rst, renderer.getDebugInfoEntities(), str));
+            list.add(String.format("%s[Litematica]%s Material cache hits: %d, misses: %d", pre, rst,
+                                   MaterialCache.getInstance().getCacheHits(), MaterialCache.getInstance().getCacheMisses()));
         }
     }
 }
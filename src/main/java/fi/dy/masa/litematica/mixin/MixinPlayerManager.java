@@ -0,0 +1,20 @@
+package fi.dy.masa.litematica.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.server.network.ServerPlayerEntity;
+import fi.dy.masa.litematica.network.LitematicaProtocolServerHandler;
+
+@Mixin(PlayerManager.class)
+public abstract class MixinPlayerManager
+{
+    @Inject(method = "onPlayerConnect", at = @At("TAIL"))
+    private void litematica_onPlayerConnect(ClientConnection connection, ServerPlayerEntity player, CallbackInfo ci)
+    {
+        LitematicaProtocolServerHandler.INSTANCE.onPlayerJoined(player);
+    }
+}
@@ -1,15 +1,25 @@
 package fi.dy.masa.litematica.mixin;
 
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import net.minecraft.network.NetworkThreadUtils;
+import net.minecraft.network.packet.c2s.play.CustomPayloadC2SPacket;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.Vec3d;
 import fi.dy.masa.litematica.config.Configs;
+import fi.dy.masa.litematica.network.LitematicaProtocol;
+import fi.dy.masa.litematica.network.LitematicaProtocolServerHandler;
 
 @Mixin(value = ServerPlayNetworkHandler.class, priority = 1010)
 public class MixinServerPlayNetworkHandler
 {
+    @Shadow public ServerPlayerEntity player;
+
     @Redirect(method = "onPlayerInteractBlock", require = 0,
               at = @At(value = "INVOKE",
                        target = "Lnet/minecraft/util/math/Vec3d;subtract(Lnet/minecraft/util/math/Vec3d;)Lnet/minecraft/util/math/Vec3d;"))
@@ -22,4 +32,17 @@ public class MixinServerPlayNetworkHandler
 
         return hitVec.subtract(blockCenter);
     }
+
+    @Inject(method = "onCustomPayload", at = @At("HEAD"), cancellable = true)
+    private void litematica_onCustomPayload(CustomPayloadC2SPacket packet, CallbackInfo ci)
+    {
+        if (LitematicaProtocol.CHANNEL.equals(packet.getChannel()) &&
+            LitematicaProtocolServerHandler.INSTANCE.isEnabled())
+        {
+            // Re-schedules the packet to the server thread, if called on the network thread
+            NetworkThreadUtils.forceMainThread(packet, (ServerPlayNetworkHandler) (Object) this, this.player.getWorld());
+            LitematicaProtocolServerHandler.INSTANCE.onPacketReceived(this.player, packet.getData());
+            ci.cancel();
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package fi.dy.masa.litematica.network;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * The messages on the litematica:command channel.
+ * <br><br>
+ * A message that starts with a non-negative VarInt is a plain command string
+ * (ie. the VarInt is the string length). The binary messages start with
+ * a negative VarInt message ID instead, so that the two can't be confused.
+ * The client only sends binary messages after the server has sent the hello message,
+ * so servers that only understand the command strings never receive them.
+ */
+public class LitematicaProtocol
+{
+    public static final Identifier CHANNEL = new Identifier("litematica", "command");
+    public static final int PROTOCOL_VERSION = 1;
+
+    /** S2C: VarInt protocol version */
+    public static final int MSG_ID_HELLO = -1;
+
+    /**
+     * C2S: Block changes within one chunk section.
+     * <br>Long: ChunkSectionPos#asLong()
+     * <br>Byte: flags
+     * <br>VarInt: palette size, followed by the VarInt raw block state IDs
+     * <br>VarInt: run count, followed by the runs: Short start index (y << 8 | z << 4 | x),
+     * VarInt length in the index order, VarInt palette index
+     * <br>VarInt: block entity count, followed by: Short index, NBT compound
+     */
+    public static final int MSG_ID_BLOCK_DELTA = -2;
+
+    /** Update the neighbors of the changed blocks, like the setblock command does */
+    public static final int FLAG_UPDATE_NEIGHBORS = 0x01;
+}
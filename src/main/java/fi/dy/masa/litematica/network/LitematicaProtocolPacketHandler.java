@@ -0,0 +1,45 @@
+package fi.dy.masa.litematica.network;
+
+import java.util.List;
+import com.google.common.collect.ImmutableList;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import fi.dy.masa.malilib.network.IPluginChannelHandler;
+import fi.dy.masa.litematica.data.DataManager;
+
+/**
+ * Handles the server-to-client messages on the litematica:command channel
+ */
+public class LitematicaProtocolPacketHandler implements IPluginChannelHandler
+{
+    public static final LitematicaProtocolPacketHandler INSTANCE = new LitematicaProtocolPacketHandler();
+
+    private final List<Identifier> channels = ImmutableList.of(LitematicaProtocol.CHANNEL);
+
+    @Override
+    public boolean registerToServer()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean usePacketSplitter()
+    {
+        return false;
+    }
+
+    @Override
+    public List<Identifier> getChannels()
+    {
+        return this.channels;
+    }
+
+    @Override
+    public void onPacketReceived(PacketByteBuf buf)
+    {
+        if (buf.readVarInt() == LitematicaProtocol.MSG_ID_HELLO)
+        {
+            DataManager.setLitematicaProtocolVersion(buf.readVarInt());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package fi.dy.masa.litematica.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.packet.s2c.play.CustomPayloadS2CPacket;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Clearable;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import fi.dy.masa.litematica.Litematica;
+import fi.dy.masa.litematica.config.Configs;
+
+/**
+ * A reference implementation of the server side of the litematica:command channel.
+ * This is only used in the integrated server, if enabled in the configs,
+ * and it handles both the plain command strings and the binary block delta messages.
+ */
+public class LitematicaProtocolServerHandler
+{
+    public static final LitematicaProtocolServerHandler INSTANCE = new LitematicaProtocolServerHandler();
+
+    public boolean isEnabled()
+    {
+        return Configs.Generic.USE_LITEMATICA_PROTOCOL_LOCAL_SERVER.getBooleanValue();
+    }
+
+    public void onPlayerJoined(ServerPlayerEntity player)
+    {
+        if (this.isEnabled())
+        {
+            PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+            buf.writeVarInt(LitematicaProtocol.MSG_ID_HELLO);
+            buf.writeVarInt(LitematicaProtocol.PROTOCOL_VERSION);
+            player.networkHandler.sendPacket(new CustomPayloadS2CPacket(LitematicaProtocol.CHANNEL, buf));
+        }
+    }
+
+    /**
+     * Handles one message from the client. This must be called on the server thread.
+     */
+    public void onPacketReceived(ServerPlayerEntity player, PacketByteBuf buf)
+    {
+        try
+        {
+            buf.markReaderIndex();
+            int id = buf.readVarInt();
+
+            if (id >= 0)
+            {
+                buf.resetReaderIndex();
+                String command = buf.readString();
+                player.server.getCommandManager().executeWithPrefix(player.getCommandSource(), command);
+            }
+            else if (id == LitematicaProtocol.MSG_ID_BLOCK_DELTA)
+            {
+                this.handleBlockDelta(player, buf);
+            }
+        }
+        catch (Exception e)
+        {
+            Litematica.logger.warn("Invalid litematica protocol message from player '{}'", player.getName().getString(), e);
+        }
+    }
+
+    private void handleBlockDelta(ServerPlayerEntity player, PacketByteBuf buf)
+    {
+        // Same permission level as the setblock and fill commands
+        if (player.hasPermissionLevel(2) == false)
+        {
+            return;
+        }
+
+        ServerWorld world = player.getWorld();
+        long sectionPos = buf.readLong();
+        int flags = buf.readByte();
+        int chunkX = ChunkSectionPos.unpackX(sectionPos);
+        int sectionY = ChunkSectionPos.unpackY(sectionPos);
+        int chunkZ = ChunkSectionPos.unpackZ(sectionPos);
+
+        if (world.isChunkLoaded(chunkX, chunkZ) == false ||
+            sectionY < world.getBottomSectionCoord() || sectionY >= world.getTopSectionCoord())
+        {
+            return;
+        }
+
+        int paletteSize = buf.readVarInt();
+
+        if (paletteSize < 0 || paletteSize > 4096)
+        {
+            throw new IllegalArgumentException("Invalid palette size: " + paletteSize);
+        }
+
+        BlockState[] palette = new BlockState[paletteSize];
+
+        for (int i = 0; i < paletteSize; ++i)
+        {
+            int stateId = buf.readVarInt();
+            palette[i] = Block.STATE_IDS.get(stateId);
+
+            if (palette[i] == null)
+            {
+                throw new IllegalArgumentException("Invalid block state ID: " + stateId);
+            }
+        }
+
+        boolean updateNeighbors = (flags & LitematicaProtocol.FLAG_UPDATE_NEIGHBORS) != 0;
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int runCount = buf.readVarInt();
+
+        for (int run = 0; run < runCount; ++run)
+        {
+            int start = buf.readUnsignedShort();
+            int length = buf.readVarInt();
+            int paletteIndex = buf.readVarInt();
+
+            if (length < 1 || start + length > 4096 || paletteIndex < 0 || paletteIndex >= paletteSize)
+            {
+                throw new IllegalArgumentException("Invalid block run: " + start + ", " + length + ", " + paletteIndex);
+            }
+
+            BlockState state = palette[paletteIndex];
+
+            for (int index = start; index < start + length; ++index)
+            {
+                this.setPosition(pos, chunkX, sectionY, chunkZ, index);
+                this.setBlock(world, pos, state, updateNeighbors);
+            }
+        }
+
+        int blockEntityCount = buf.readVarInt();
+
+        for (int i = 0; i < blockEntityCount; ++i)
+        {
+            int index = buf.readUnsignedShort();
+            NbtCompound nbt = buf.readNbt();
+
+            if (index >= 4096)
+            {
+                throw new IllegalArgumentException("Invalid block entity index: " + index);
+            }
+
+            this.setPosition(pos, chunkX, sectionY, chunkZ, index);
+            BlockEntity be = world.getBlockEntity(pos);
+
+            if (be != null && nbt != null)
+            {
+                nbt = nbt.copy();
+                nbt.putInt("x", pos.getX());
+                nbt.putInt("y", pos.getY());
+                nbt.putInt("z", pos.getZ());
+                be.readNbt(nbt);
+                be.markDirty();
+
+                BlockState state = world.getBlockState(pos);
+                world.updateListeners(pos, state, state, Block.NOTIFY_ALL);
+            }
+        }
+    }
+
+    private void setPosition(BlockPos.Mutable pos, int chunkX, int sectionY, int chunkZ, int index)
+    {
+        pos.set((chunkX << 4) | (index & 0xF), (sectionY << 4) | (index >> 8), (chunkZ << 4) | ((index >> 4) & 0xF));
+    }
+
+    private void setBlock(ServerWorld world, BlockPos pos, BlockState state, boolean updateNeighbors)
+    {
+        // This follows what the setblock command does
+        Clearable.clear(world.getBlockEntity(pos));
+
+        if (world.setBlockState(pos, state, Block.NOTIFY_LISTENERS) && updateNeighbors)
+        {
+            world.updateNeighbors(pos, state.getBlock());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package fi.dy.masa.litematica.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.math.ChunkSectionPos;
+
+/**
+ * Collects the block changes within one chunk section, and encodes them
+ * into one or more {@link LitematicaProtocol#MSG_ID_BLOCK_DELTA} messages.
+ * The blocks must be added in the increasing index order (y, z, x) for the runs to get combined.
+ */
+public class SectionBlockDelta
+{
+    /** The vanilla server rejects custom payloads above 32767 bytes */
+    public static final int MAX_PAYLOAD_SIZE = 32000;
+
+    private final long sectionPos;
+    private final int flags;
+    private final List<PacketByteBuf> payloads = new ArrayList<>();
+    private final Object2IntOpenHashMap<BlockState> paletteIndices = new Object2IntOpenHashMap<>();
+    private final IntArrayList paletteIds = new IntArrayList();
+    private final IntArrayList runs = new IntArrayList();
+    private PacketByteBuf blockEntityData = new PacketByteBuf(Unpooled.buffer());
+    private int blockEntityCount;
+    private int estimatedSize;
+    private int lastIndex = -2;
+    private int lastPaletteIndex = -1;
+    private int blockCount;
+
+    public SectionBlockDelta(int chunkX, int sectionY, int chunkZ, int flags)
+    {
+        this.sectionPos = ChunkSectionPos.asLong(chunkX, sectionY, chunkZ);
+        this.flags = flags;
+        this.paletteIndices.defaultReturnValue(-1);
+        this.reset();
+    }
+
+    public static int getIndex(int x, int y, int z)
+    {
+        return ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+    }
+
+    /**
+     * @return false if the block entity data is too large to fit into any message,
+     * in which case the block is not added and needs to be set some other way
+     */
+    public boolean add(int x, int y, int z, BlockState state, @Nullable NbtCompound blockEntityNbt)
+    {
+        final int index = getIndex(x, y, z);
+        PacketByteBuf nbtBuf = null;
+        int size = 0;
+
+        if (blockEntityNbt != null)
+        {
+            nbtBuf = new PacketByteBuf(Unpooled.buffer());
+            nbtBuf.writeShort(index);
+            nbtBuf.writeNbt(blockEntityNbt);
+            size += nbtBuf.readableBytes();
+
+            if (size > MAX_PAYLOAD_SIZE - 64)
+            {
+                return false;
+            }
+        }
+
+        int paletteIndex = this.paletteIndices.getInt(state);
+        size += (paletteIndex == -1 ? 5 : 0) + (index == this.lastIndex + 1 && paletteIndex == this.lastPaletteIndex ? 0 : 12);
+
+        if (this.estimatedSize + size > MAX_PAYLOAD_SIZE)
+        {
+            this.flush();
+            paletteIndex = -1;
+        }
+
+        if (paletteIndex == -1)
+        {
+            paletteIndex = this.paletteIds.size();
+            this.paletteIndices.put(state, paletteIndex);
+            this.paletteIds.add(Block.getRawIdFromState(state));
+        }
+
+        // Extend the previous run
+        if (index == this.lastIndex + 1 && paletteIndex == this.lastPaletteIndex)
+        {
+            final int lengthIndex = this.runs.size() - 2;
+            this.runs.set(lengthIndex, this.runs.getInt(lengthIndex) + 1);
+        }
+        else
+        {
+            this.runs.add(index);
+            this.runs.add(1);
+            this.runs.add(paletteIndex);
+        }
+
+        if (nbtBuf != null)
+        {
+            this.blockEntityData.writeBytes(nbtBuf);
+            ++this.blockEntityCount;
+        }
+
+        this.estimatedSize += size;
+        this.lastIndex = index;
+        this.lastPaletteIndex = paletteIndex;
+        ++this.blockCount;
+
+        return true;
+    }
+
+    public int getBlockCount()
+    {
+        return this.blockCount;
+    }
+
+    /**
+     * @return the encoded messages for all the added blocks
+     */
+    public List<PacketByteBuf> getPayloads()
+    {
+        this.flush();
+        return this.payloads;
+    }
+
+    private void flush()
+    {
+        if (this.runs.isEmpty())
+        {
+            return;
+        }
+
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer(this.estimatedSize));
+
+        buf.writeVarInt(LitematicaProtocol.MSG_ID_BLOCK_DELTA);
+        buf.writeLong(this.sectionPos);
+        buf.writeByte(this.flags);
+
+        buf.writeVarInt(this.paletteIds.size());
+
+        for (int i = 0; i < this.paletteIds.size(); ++i)
+        {
+            buf.writeVarInt(this.paletteIds.getInt(i));
+        }
+
+        buf.writeVarInt(this.runs.size() / 3);
+
+        for (int i = 0; i < this.runs.size(); i += 3)
+        {
+            buf.writeShort(this.runs.getInt(i));
+            buf.writeVarInt(this.runs.getInt(i + 1));
+            buf.writeVarInt(this.runs.getInt(i + 2));
+        }
+
+        buf.writeVarInt(this.blockEntityCount);
+        buf.writeBytes(this.blockEntityData);
+
+        this.payloads.add(buf);
+        this.reset();
+    }
+
+    private void reset()
+    {
+        this.paletteIndices.clear();
+        this.paletteIds.clear();
+        this.runs.clear();
+        this.blockEntityData = new PacketByteBuf(Unpooled.buffer());
+        this.blockEntityCount = 0;
+        this.estimatedSize = 32; // header, and the VarInt counts
+        this.lastIndex = -2;
+        this.lastPaletteIndex = -1;
+    }
+}
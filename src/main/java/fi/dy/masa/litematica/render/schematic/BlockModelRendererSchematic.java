@@ -25,7 +25,8 @@ import fi.dy.masa.litematica.data.DataManager;
 
 public class BlockModelRendererSchematic
 {
-    private final LocalRandom random = new LocalRandom(0);
+    // The chunk meshes can be built on multiple worker threads at once
+    private final ThreadLocal<LocalRandom> random = ThreadLocal.withInitial(() -> new LocalRandom(0));
     private final BlockColors colorMap;
 
     public BlockModelRendererSchematic(BlockColors blockColorsIn)
@@ -47,11 +48,11 @@ public class BlockModelRendererSchematic
         {
             if (ao)
             {
-                return this.renderModelSmooth(worldIn, modelIn, stateIn, posIn, matrices, vertexConsumer, this.random, rand, overlay);
+                return this.renderModelSmooth(worldIn, modelIn, stateIn, posIn, matrices, vertexConsumer, this.random.get(), rand, overlay);
             }
             else
             {
-                return this.renderModelFlat(worldIn, modelIn, stateIn, posIn, matrices, vertexConsumer, this.random, rand, overlay);
+                return this.renderModelFlat(worldIn, modelIn, stateIn, posIn, matrices, vertexConsumer, this.random.get(), rand, overlay);
             }
         }
         catch (Throwable throwable)
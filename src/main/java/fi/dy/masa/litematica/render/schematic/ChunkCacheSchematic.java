@@ -1,5 +1,7 @@
 package fi.dy.masa.litematica.render.schematic;
 
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.Nullable;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -13,12 +15,18 @@ import net.minecraft.world.BlockView;
 import net.minecraft.world.LightType;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.ColorResolver;
-import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkProvider;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
 import net.minecraft.world.chunk.WorldChunk;
 import net.minecraft.world.chunk.light.LightingProvider;
 import fi.dy.masa.litematica.world.FakeLightingProvider;
 
+/**
+ * A snapshot of the block states and block entities around one chunk section.
+ * It is created on the client thread and then read by the render worker threads,
+ * so it must not hold on to any of the live chunk data.
+ */
 public class ChunkCacheSchematic implements BlockRenderView, ChunkProvider
 {
     private static final BlockState AIR = Blocks.AIR.getDefaultState();
@@ -26,9 +34,11 @@ public class ChunkCacheSchematic implements BlockRenderView, ChunkProvider
     protected final World world;
     protected final ClientWorld worldClient;
     protected final FakeLightingProvider lightingProvider;
+    protected final Map<BlockPos, BlockEntity> blockEntities = new HashMap<>();
     protected int chunkStartX;
     protected int chunkStartZ;
-    protected WorldChunk[][] chunkArray;
+    protected int sectionStartY;
+    protected PalettedContainer<BlockState>[][][] sectionArray;
     protected boolean empty;
 
     public ChunkCacheSchematic(World worldIn, ClientWorld clientWorld, BlockPos pos, int expand)
@@ -43,7 +53,13 @@ public class ChunkCacheSchematic implements BlockRenderView, ChunkProvider
         this.chunkStartZ = (pos.getZ() - expand) >> 4;
         int chunkEndX = (pos.getX() + expand + 15) >> 4;
         int chunkEndZ = (pos.getZ() + expand + 15) >> 4;
-        this.chunkArray = new WorldChunk[chunkEndX - this.chunkStartX + 1][chunkEndZ - this.chunkStartZ + 1];
+        this.sectionStartY = (pos.getY() - expand) >> 4;
+        int sectionEndY = (pos.getY() + expand + 15) >> 4;
+        int minY = this.sectionStartY << 4;
+        int maxY = (sectionEndY << 4) + 15;
+        @SuppressWarnings("unchecked")
+        PalettedContainer<BlockState>[][][] sectionArray = new PalettedContainer[chunkEndX - this.chunkStartX + 1][chunkEndZ - this.chunkStartZ + 1][sectionEndY - this.sectionStartY + 1];
+        this.sectionArray = sectionArray;
         this.empty = true;
 
         for (int cx = this.chunkStartX; cx <= chunkEndX; ++cx)
@@ -51,10 +67,31 @@ public class ChunkCacheSchematic implements BlockRenderView, ChunkProvider
             for (int cz = this.chunkStartZ; cz <= chunkEndZ; ++cz)
             {
                 WorldChunk chunk = worldIn.getChunk(cx, cz);
-                this.chunkArray[cx - this.chunkStartX][cz - this.chunkStartZ] = chunk;
+                ChunkSection[] sections = chunk.getSectionArray();
+                PalettedContainer<BlockState>[] sectionColumn = this.sectionArray[cx - this.chunkStartX][cz - this.chunkStartZ];
+
+                for (int cy = this.sectionStartY; cy <= sectionEndY; ++cy)
+                {
+                    int index = chunk.sectionCoordToIndex(cy);
+
+                    if (index >= 0 && index < sections.length && sections[index].isEmpty() == false)
+                    {
+                        sectionColumn[cy - this.sectionStartY] = sections[index].getBlockStateContainer().copy();
+                    }
+                }
+
+                for (Map.Entry<BlockPos, BlockEntity> entry : chunk.getBlockEntities().entrySet())
+                {
+                    int y = entry.getKey().getY();
+
+                    if (y >= minY && y <= maxY)
+                    {
+                        this.blockEntities.put(entry.getKey(), entry.getValue());
+                    }
+                }
 
                 if (cx == chunkX && cz == chunkZ &&
-                    chunk.areSectionsEmptyBetween(worldIn.getBottomY(), worldIn.getTopY() - 1) == false)
+                    chunk.areSectionsEmptyBetween(pos.getY(), pos.getY() + 15) == false)
                 {
                     this.empty = false;
                 }
@@ -85,15 +122,17 @@ public class ChunkCacheSchematic implements BlockRenderView, ChunkProvider
     {
         int cx = (pos.getX() >> 4) - this.chunkStartX;
         int cz = (pos.getZ() >> 4) - this.chunkStartZ;
+        int cy = (pos.getY() >> 4) - this.sectionStartY;
 
-        if (cx >= 0 && cx < this.chunkArray.length &&
-            cz >= 0 && cz < this.chunkArray[cx].length)
+        if (cx >= 0 && cx < this.sectionArray.length &&
+            cz >= 0 && cz < this.sectionArray[cx].length &&
+            cy >= 0 && cy < this.sectionArray[cx][cz].length)
         {
-            Chunk chunk = this.chunkArray[cx][cz];
+            PalettedContainer<BlockState> container = this.sectionArray[cx][cz][cy];
 
-            if (chunk != null)
+            if (container != null)
             {
-                return chunk.getBlockState(pos);
+                return container.get(pos.getX() & 0xF, pos.getY() & 0xF, pos.getZ() & 0xF);
             }
         }
 
@@ -104,16 +143,7 @@ public class ChunkCacheSchematic implements BlockRenderView, ChunkProvider
     @Nullable
     public BlockEntity getBlockEntity(BlockPos pos)
     {
-        return this.getBlockEntity(pos, WorldChunk.CreationType.CHECK);
-    }
-
-    @Nullable
-    public BlockEntity getBlockEntity(BlockPos pos, WorldChunk.CreationType type)
-    {
-        int i = (pos.getX() >> 4) - this.chunkStartX;
-        int j = (pos.getZ() >> 4) - this.chunkStartZ;
-
-        return this.chunkArray[i][j].getBlockEntity(pos, type);
+        return this.blockEntities.get(pos);
     }
 
     @Override
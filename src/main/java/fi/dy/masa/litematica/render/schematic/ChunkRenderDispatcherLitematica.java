@@ -6,6 +6,7 @@ import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import com.google.common.collect.Queues;
 import com.google.common.primitives.Doubles;
 import com.google.common.util.concurrent.Futures;
@@ -17,8 +18,10 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gl.VertexBuffer;
 import net.minecraft.client.render.BufferBuilder;
 import net.minecraft.client.render.RenderLayer;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import fi.dy.masa.litematica.Litematica;
+import fi.dy.masa.litematica.config.Configs;
 import fi.dy.masa.litematica.render.schematic.ChunkRendererSchematicVbo.OverlayRenderType;
 
 public class ChunkRenderDispatcherLitematica
@@ -37,19 +40,15 @@ public class ChunkRenderDispatcherLitematica
 
     public ChunkRenderDispatcherLitematica()
     {
-        // TODO/FIXME 1.17
-        //int threadLimitMemory = Math.max(1, (int)((double)Runtime.getRuntime().maxMemory() * 0.3D) / 10485760);
-        //int threadLimitCPU = Math.max(1, MathHelper.clamp(Runtime.getRuntime().availableProcessors(), 1, threadLimitMemory / 5));
-        //this.countRenderBuilders = MathHelper.clamp(threadLimitCPU * 10, 1, threadLimitMemory);
-        this.countRenderBuilders = 2;
+        int threadLimitMemory = Math.max(1, (int) ((double) Runtime.getRuntime().maxMemory() * 0.3D / 10485760D));
+        int threadCount = getWorkerThreadCount(threadLimitMemory);
         this.cameraPos = Vec3d.ZERO;
 
-        /*
-        if (threadLimitCPU > 1)
+        if (threadCount > 0)
         {
-            Litematica.logger.info("Creating {} render threads", threadLimitCPU);
+            Litematica.logger.info("Creating {} schematic chunk render threads", threadCount);
 
-            for (int i = 0; i < threadLimitCPU; ++i)
+            for (int i = 0; i < threadCount; ++i)
             {
                 ChunkRenderWorkerLitematica worker = new ChunkRenderWorkerLitematica(this);
                 Thread thread = THREAD_FACTORY.newThread(worker);
@@ -57,8 +56,15 @@ public class ChunkRenderDispatcherLitematica
                 this.listThreadedWorkers.add(worker);
                 this.listWorkerThreads.add(thread);
             }
+
+            // Two buffer caches per worker, so that the workers can keep building
+            // while their previous results are waiting to be uploaded on the main thread
+            this.countRenderBuilders = MathHelper.clamp(threadCount * 2, threadCount, Math.max(threadCount, threadLimitMemory));
+        }
+        else
+        {
+            this.countRenderBuilders = 2;
         }
-        */
 
         Litematica.logger.info("Using {} total BufferBuilder caches", this.countRenderBuilders + 1);
 
@@ -72,6 +78,18 @@ public class ChunkRenderDispatcherLitematica
         this.renderWorker = new ChunkRenderWorkerLitematica(this, new BufferBuilderCache());
     }
 
+    private static int getWorkerThreadCount(int threadLimitMemory)
+    {
+        int count = Configs.Visuals.RENDER_THREADS.getIntegerValue();
+
+        if (count < 0)
+        {
+            count = MathHelper.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, 4);
+        }
+
+        return Math.min(count, Math.max(1, threadLimitMemory / 5));
+    }
+
     public void setCameraPosition(Vec3d cameraPos)
     {
         this.cameraPos = cameraPos;
@@ -206,7 +224,13 @@ public class ChunkRenderDispatcherLitematica
 
             try
             {
-                list.add(this.allocateRenderBuilder());
+                // Don't block indefinitely, a worker thread may still be waiting for its upload to run
+                BufferBuilderCache cache = this.queueFreeRenderBuilders.poll(50L, TimeUnit.MILLISECONDS);
+
+                if (cache != null)
+                {
+                    list.add(cache);
+                }
             }
             catch (InterruptedException e)
             {
@@ -1,15 +1,22 @@
 package fi.dy.masa.litematica.render.schematic;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import javax.annotation.Nullable;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 
-import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
 
+import fi.dy.masa.litematica.data.DataManager;
+import fi.dy.masa.litematica.schematic.placement.SchematicPlacementManager.PlacementPart;
 import fi.dy.masa.litematica.world.WorldSchematic;
 
 public class ChunkRenderDispatcherSchematic
 {
     protected final Long2ObjectOpenHashMap<ChunkRendererSchematicVbo> chunkRenderers = new Long2ObjectOpenHashMap<>();
+    protected final List<ChunkRendererSchematicVbo> renderersPendingDelete = new ArrayList<>();
     protected final WorldRendererSchematic renderer;
     protected final IChunkRendererFactory chunkRendererFactory;
     protected final WorldSchematic world;
@@ -40,44 +47,130 @@ public class ChunkRenderDispatcherSchematic
             chunkRenderer.deleteGlResources();
         }
 
+        this.renderersPendingDelete.forEach(ChunkRendererSchematicVbo::deleteGlResources);
+        this.renderersPendingDelete.clear();
         this.chunkRenderers.clear();
     }
 
-    public void removeOutOfRangeRenderers()
+    /**
+     * Deletes the removed renderers whose compile has finished since they were removed
+     */
+    public void deletePendingRenderers()
     {
-        // Remove renderers that go out of view distance
-        this.chunkRenderers.values().removeIf(cr -> cr.getDistanceSq() > this.viewDistanceBlocksSq);
+        Iterator<ChunkRendererSchematicVbo> iter = this.renderersPendingDelete.iterator();
+
+        while (iter.hasNext())
+        {
+            ChunkRendererSchematicVbo chunkRenderer = iter.next();
+
+            if (chunkRenderer.isCompileInFlight() == false)
+            {
+                chunkRenderer.deleteGlResources();
+                iter.remove();
+            }
+        }
     }
 
-    public void scheduleChunkRender(int chunkX, int chunkZ)
+    /**
+     * Removes the renderers that have gone out of view distance, and cancels their pending compile tasks.
+     * Renderers that are still being compiled by a worker thread get deleted once the compile has finished.
+     * @return the removed renderers
+     */
+    public List<ChunkRendererSchematicVbo> removeOutOfRangeRenderers()
     {
-        this.getOrCreateChunkRenderer(chunkX, chunkZ).setNeedsUpdate(false);
+        List<ChunkRendererSchematicVbo> removed = new ArrayList<>();
+        ObjectIterator<ChunkRendererSchematicVbo> iter = this.chunkRenderers.values().iterator();
+
+        while (iter.hasNext())
+        {
+            ChunkRendererSchematicVbo chunkRenderer = iter.next();
+
+            if (chunkRenderer.getHorizontalDistanceSq() > this.viewDistanceBlocksSq)
+            {
+                chunkRenderer.clear();
+
+                if (chunkRenderer.isCompileInFlight())
+                {
+                    this.renderersPendingDelete.add(chunkRenderer);
+                }
+                else
+                {
+                    chunkRenderer.deleteGlResources();
+                }
+
+                removed.add(chunkRenderer);
+                iter.remove();
+            }
+        }
+
+        return removed;
     }
 
-    public int getRendererCount()
+    public void scheduleChunkRender(int chunkX, int chunkZ)
     {
-        return this.chunkRenderers.size();
+        this.scheduleSectionRenders(chunkX, chunkZ, this.world.getBottomSectionCoord(), this.world.getTopSectionCoord() - 1);
     }
 
-    protected ChunkRendererSchematicVbo getOrCreateChunkRenderer(int chunkX, int chunkZ)
+    /**
+     * Marks the existing section renderers between the given section Y coordinates (inclusive)
+     * for a rebuild. Renderers are only created for the sections that are touched by the placements,
+     * so the sections without any placements don't get a renderer at all.
+     */
+    public void scheduleSectionRenders(int chunkX, int chunkZ, int minSectionY, int maxSectionY)
     {
-        long index = ChunkPos.toLong(chunkX, chunkZ);
-        ChunkRendererSchematicVbo renderer = this.chunkRenderers.get(index);
+        List<PlacementPart> parts = DataManager.getSchematicPlacementManager().getPlacementPartsInChunk(chunkX, chunkZ);
+        minSectionY = Math.max(minSectionY, this.world.getBottomSectionCoord());
+        maxSectionY = Math.min(maxSectionY, this.world.getTopSectionCoord() - 1);
 
-        if (renderer == null)
+        for (int sectionY = minSectionY; sectionY <= maxSectionY; ++sectionY)
         {
-            renderer = this.chunkRendererFactory.create(this.world, this.renderer);
-            renderer.setPosition(chunkX << 4, this.world.getBottomY(), chunkZ << 4);
-            this.chunkRenderers.put(index, renderer);
+            ChunkRendererSchematicVbo renderer = this.getChunkRenderer(chunkX, sectionY, chunkZ);
+
+            if (renderer == null && isSectionTouched(parts, sectionY))
+            {
+                renderer = this.createChunkRenderer(chunkX, sectionY, chunkZ);
+            }
+
+            if (renderer != null)
+            {
+                renderer.setNeedsUpdate(false);
+            }
         }
+    }
+
+    public int getRendererCount()
+    {
+        return this.chunkRenderers.size();
+    }
+
+    protected ChunkRendererSchematicVbo createChunkRenderer(int chunkX, int sectionY, int chunkZ)
+    {
+        ChunkRendererSchematicVbo renderer = this.chunkRendererFactory.create(this.world, this.renderer);
+        renderer.setPosition(chunkX << 4, sectionY << 4, chunkZ << 4);
+        this.chunkRenderers.put(ChunkSectionPos.asLong(chunkX, sectionY, chunkZ), renderer);
 
         return renderer;
     }
 
     @Nullable
-    protected ChunkRendererSchematicVbo getChunkRenderer(int chunkX, int chunkZ)
+    protected ChunkRendererSchematicVbo getChunkRenderer(int chunkX, int sectionY, int chunkZ)
+    {
+        return this.chunkRenderers.get(ChunkSectionPos.asLong(chunkX, sectionY, chunkZ));
+    }
+
+    private static boolean isSectionTouched(List<PlacementPart> parts, int sectionY)
     {
-        long index = ChunkPos.toLong(chunkX, chunkZ);
-        return this.chunkRenderers.get(index);
+        int minY = sectionY << 4;
+        int maxY = minY + 15;
+
+        for (PlacementPart part : parts)
+        {
+            if (part.bb.minY <= maxY && part.bb.maxY >= minY)
+            {
+                return true;
+            }
+        }
+
+        return false;
     }
 }
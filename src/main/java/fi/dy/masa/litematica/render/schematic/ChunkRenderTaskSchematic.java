@@ -1,11 +1,13 @@
 package fi.dy.masa.litematica.render.schematic;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Doubles;
 import net.minecraft.util.math.Vec3d;
+import fi.dy.masa.malilib.util.IntBoundingBox;
 
 public class ChunkRenderTaskSchematic implements Comparable<ChunkRenderTaskSchematic>
 {
@@ -17,6 +19,9 @@ public class ChunkRenderTaskSchematic implements Comparable<ChunkRenderTaskSchem
     private final double distanceSq;
     private BufferBuilderCache bufferBuilderCache;
     private ChunkRenderDataSchematic chunkRenderData;
+    private ChunkCacheSchematic schematicWorldView;
+    private ChunkCacheSchematic clientWorldView;
+    private List<IntBoundingBox> boxes = Collections.emptyList();
     private ChunkRenderTaskSchematic.Status status = ChunkRenderTaskSchematic.Status.PENDING;
     private boolean finished;
 
@@ -53,6 +58,33 @@ public class ChunkRenderTaskSchematic implements Comparable<ChunkRenderTaskSchem
         this.chunkRenderData = chunkRenderData;
     }
 
+    /**
+     * Sets the world views and the schematic boxes to build this chunk from.
+     * These are captured on the main thread when the task is created,
+     * so that the build itself can run on a worker thread.
+     */
+    public void setWorldViews(ChunkCacheSchematic schematicWorldView, ChunkCacheSchematic clientWorldView, List<IntBoundingBox> boxes)
+    {
+        this.schematicWorldView = schematicWorldView;
+        this.clientWorldView = clientWorldView;
+        this.boxes = boxes;
+    }
+
+    public ChunkCacheSchematic getSchematicWorldView()
+    {
+        return this.schematicWorldView;
+    }
+
+    public ChunkCacheSchematic getClientWorldView()
+    {
+        return this.clientWorldView;
+    }
+
+    public List<IntBoundingBox> getBoxes()
+    {
+        return this.boxes;
+    }
+
     public BufferBuilderCache getBufferCache()
     {
         return this.bufferBuilderCache;
@@ -78,12 +78,28 @@ public class ChunkRenderWorkerLitematica implements Runnable
             }
 
             task.setStatus(ChunkRenderTaskSchematic.Status.COMPILING);
+            // Marked while holding the task lock, so that the renderer either sees the compile
+            // as in flight, or it cancels the task before the compile starts
+            task.getRenderChunk().onCompileStarted();
         }
         finally
         {
             task.getLock().unlock();
         }
 
+        try
+        {
+            this.compileAndUpload(task);
+        }
+        finally
+        {
+            // The uploads have been registered to get cancelled along with the task at this point
+            task.getRenderChunk().onCompileFinished();
+        }
+    }
+
+    protected void compileAndUpload(final ChunkRenderTaskSchematic task) throws InterruptedException
+    {
         Entity entity = MinecraftClient.getInstance().getCameraEntity();
 
         if (entity == null)
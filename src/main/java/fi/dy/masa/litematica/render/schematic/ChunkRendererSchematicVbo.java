@@ -7,11 +7,11 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import com.google.common.collect.Sets;
-import com.mojang.blaze3d.systems.RenderSystem;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockRenderType;
@@ -20,7 +20,6 @@ import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gl.VertexBuffer;
 import net.minecraft.client.render.BufferBuilder;
-import net.minecraft.client.render.GameRenderer;
 import net.minecraft.client.render.RenderLayer;
 import net.minecraft.client.render.RenderLayers;
 import net.minecraft.client.render.VertexFormat;
@@ -35,7 +34,6 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
-import net.minecraft.world.chunk.WorldChunk;
 
 import fi.dy.masa.litematica.config.Configs;
 import fi.dy.masa.litematica.data.DataManager;
@@ -64,17 +62,18 @@ public class ChunkRendererSchematicVbo
     protected final Map<RenderLayer, VertexBuffer> vertexBufferBlocks;
     protected final Map<OverlayRenderType, VertexBuffer> vertexBufferOverlay;
     protected final List<IntBoundingBox> boxes = new ArrayList<>();
-    protected final EnumSet<OverlayRenderType> existingOverlays = EnumSet.noneOf(OverlayRenderType.class);
+    protected volatile EnumSet<OverlayRenderType> existingOverlays = EnumSet.noneOf(OverlayRenderType.class);
 
     private net.minecraft.util.math.Box boundingBox;
     protected Color4f overlayColor;
-    protected boolean hasOverlay = false;
+    protected volatile boolean hasOverlay = false;
     private boolean ignoreClientWorldFluids;
 
     protected ChunkCacheSchematic schematicWorldView;
     protected ChunkCacheSchematic clientWorldView;
 
     protected ChunkRenderTaskSchematic compileTask;
+    protected final AtomicInteger compilesInFlight = new AtomicInteger();
     protected ChunkRenderDataSchematic chunkRenderData;
 
     private boolean needsUpdate;
@@ -145,7 +144,7 @@ public class ChunkRendererSchematicVbo
             int x = this.position.getX();
             int y = this.position.getY();
             int z = this.position.getZ();
-            this.boundingBox = new net.minecraft.util.math.Box(x, y, z, x + 16, y + this.world.getHeight(), z + 16);
+            this.boundingBox = new net.minecraft.util.math.Box(x, y, z, x + 16, y + 16, z + 16);
         }
 
         return this.boundingBox;
@@ -167,12 +166,46 @@ public class ChunkRendererSchematicVbo
     {
         Entity entity = EntityUtils.getCameraEntity();
 
+        double x = this.position.getX() + 8.0D - entity.getX();
+        double y = this.position.getY() + 8.0D - entity.getY();
+        double z = this.position.getZ() + 8.0D - entity.getZ();
+
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * The view distance is horizontal, so the sections above and below the camera
+     * need to stay around as long as the column is within range.
+     */
+    protected double getHorizontalDistanceSq()
+    {
+        Entity entity = EntityUtils.getCameraEntity();
+
         double x = this.position.getX() + 8.0D - entity.getX();
         double z = this.position.getZ() + 8.0D - entity.getZ();
 
         return x * x + z * z;
     }
 
+    void onCompileStarted()
+    {
+        this.compilesInFlight.incrementAndGet();
+    }
+
+    void onCompileFinished()
+    {
+        this.compilesInFlight.decrementAndGet();
+    }
+
+    /**
+     * @return true if a worker thread is currently compiling this renderer,
+     * in which case its resources must not be deleted yet
+     */
+    public boolean isCompileInFlight()
+    {
+        return this.compilesInFlight.get() > 0;
+    }
+
     public void deleteGlResources()
     {
         this.clear();
@@ -199,7 +232,6 @@ public class ChunkRendererSchematicVbo
             {
                 BufferBuilder buffer = buffers.getBlockBufferByLayer(layerTranslucent);
 
-                RenderSystem.setShader(GameRenderer::getRenderTypeTranslucentProgram);
                 this.preRenderBlocks(buffer, layerTranslucent);
                 buffer.beginSortedIndexBuffer(bufferState);
                 this.postRenderBlocks(layerTranslucent, x, y, z, buffer, data);
@@ -245,17 +277,23 @@ public class ChunkRendererSchematicVbo
         Set<BlockEntity> tileEntities = new HashSet<>();
         BlockPos posChunk = this.position;
         LayerRange range = DataManager.getRenderLayerRange();
+        EnumSet<OverlayRenderType> overlays = EnumSet.noneOf(OverlayRenderType.class);
 
-        this.existingOverlays.clear();
-        this.hasOverlay = false;
-
+        // This also makes sure that only one build of this chunk runs at a time, if it was re-queued
+        // while the previous build was still running on another worker thread.
         synchronized (this.boxes)
         {
+            this.ignoreClientWorldFluids = Configs.Visuals.IGNORE_EXISTING_FLUIDS.getBooleanValue();
+            this.schematicWorldView = task.getSchematicWorldView();
+            this.clientWorldView = task.getClientWorldView();
+            this.boxes.clear();
+            this.boxes.addAll(task.getBoxes());
+
             int minX = posChunk.getX();
             int minY = posChunk.getY();
             int minZ = posChunk.getZ();
             int maxX = minX + 15;
-            int maxY = minY + this.world.getHeight();
+            int maxY = minY + 15;
             int maxZ = minZ + 15;
 
             if (this.boxes.isEmpty() == false &&
@@ -313,21 +351,22 @@ public class ChunkRendererSchematicVbo
                     }
                 }
 
-                if (this.hasOverlay)
+                //if (GuiBase.isCtrlDown()) System.out.printf("postRenderOverlays\n");
+                for (OverlayRenderType type : OverlayRenderType.values())
                 {
-                    //if (GuiBase.isCtrlDown()) System.out.printf("postRenderOverlays\n");
-                    for (OverlayRenderType type : this.existingOverlays)
+                    if (data.isOverlayTypeStarted(type))
                     {
-                        if (data.isOverlayTypeStarted(type))
-                        {
-                            data.setOverlayTypeUsed(type);
-                            this.postRenderOverlay(type, x, y, z, buffers.getOverlayBuffer(type), data);
-                        }
+                        overlays.add(type);
+                        data.setOverlayTypeUsed(type);
+                        this.postRenderOverlay(type, x, y, z, buffers.getOverlayBuffer(type), data);
                     }
                 }
             }
         }
 
+        this.existingOverlays = overlays;
+        this.hasOverlay = overlays.isEmpty() == false;
+
         this.chunkRenderLock.lock();
 
         try
@@ -433,7 +472,6 @@ public class ChunkRendererSchematicVbo
 
     protected void renderOverlay(OverlayType type, BlockPos pos, BlockState stateSchematic, boolean missing, ChunkRenderDataSchematic data, BufferBuilderCache buffers)
     {
-        RenderSystem.setShader(GameRenderer::getPositionColorProgram);
         BlockPos.Mutable relPos = this.getChunkRelativePosition(pos);
 
         if (Configs.Visuals.SCHEMATIC_OVERLAY_ENABLE_SIDES.getBooleanValue())
@@ -725,7 +763,7 @@ public class ChunkRendererSchematicVbo
 
     private void addBlockEntity(BlockPos pos, ChunkRenderDataSchematic chunkRenderData, Set<BlockEntity> blockEntities)
     {
-        BlockEntity te = this.schematicWorldView.getBlockEntity(pos, WorldChunk.CreationType.CHECK);
+        BlockEntity te = this.schematicWorldView.getBlockEntity(pos);
 
         if (te != null)
         {
@@ -759,24 +797,20 @@ public class ChunkRendererSchematicVbo
         buffer.end();
     }
 
+    // Note: The meshes may be built on worker threads, so no RenderSystem calls here.
+    // The shaders are set when the buffers get drawn.
     private void preRenderOverlay(BufferBuilder buffer, OverlayRenderType type)
     {
-        this.existingOverlays.add(type);
-        this.hasOverlay = true;
-
-        RenderSystem.setShader(GameRenderer::getPositionColorProgram);
         buffer.begin(type.getDrawMode(), VertexFormats.POSITION_COLOR);
     }
 
     private void preRenderOverlay(BufferBuilder buffer, VertexFormat.DrawMode drawMode)
     {
-        RenderSystem.setShader(GameRenderer::getPositionColorProgram);
         buffer.begin(drawMode, VertexFormats.POSITION_COLOR);
     }
 
     private void postRenderOverlay(OverlayRenderType type, float x, float y, float z, BufferBuilder buffer, ChunkRenderDataSchematic chunkRenderData)
     {
-        RenderSystem.applyModelViewMatrix();
         if (type == OverlayRenderType.QUAD && chunkRenderData.isOverlayTypeEmpty(type) == false)
         {
             buffer.sortFrom(x, y, z);
@@ -795,8 +829,8 @@ public class ChunkRendererSchematicVbo
         {
             //if (GuiBase.isCtrlDown()) System.out.printf("makeCompileTaskChunk()\n");
             this.finishCompileTask();
-            this.rebuildWorldView();
             this.compileTask = new ChunkRenderTaskSchematic(this, ChunkRenderTaskSchematic.Type.REBUILD_CHUNK, cameraPosSupplier, this.getDistanceSq());
+            this.captureWorldViews(this.compileTask);
             generator = this.compileTask;
         }
         finally
@@ -892,24 +926,35 @@ public class ChunkRendererSchematicVbo
         return this.needsUpdate && this.needsImmediateUpdate;
     }
 
-    private void rebuildWorldView()
+    /**
+     * Captures the world views and the placement boxes for the build task. This is called on the main thread,
+     * as the placement data and the chunk lookups are not safe to access from the worker threads.
+     */
+    private void captureWorldViews(ChunkRenderTaskSchematic task)
     {
-        synchronized (this.boxes)
-        {
-            this.ignoreClientWorldFluids = Configs.Visuals.IGNORE_EXISTING_FLUIDS.getBooleanValue();
-            ClientWorld worldClient = MinecraftClient.getInstance().world;
-            this.schematicWorldView = new ChunkCacheSchematic(this.world, worldClient, this.position, 2);
-            this.clientWorldView    = new ChunkCacheSchematic(worldClient, worldClient, this.position, 2);
-            this.boxes.clear();
+        ClientWorld worldClient = MinecraftClient.getInstance().world;
+        ChunkCacheSchematic schematicWorldView = new ChunkCacheSchematic(this.world, worldClient, this.position, 2);
+        ChunkCacheSchematic clientWorldView    = new ChunkCacheSchematic(worldClient, worldClient, this.position, 2);
+        List<IntBoundingBox> boxes = new ArrayList<>();
+
+        int chunkX = this.position.getX() >> 4;
+        int chunkZ = this.position.getZ() >> 4;
+        int minY = this.position.getY();
+        int maxY = minY + 15;
 
-            int chunkX = this.position.getX() >> 4;
-            int chunkZ = this.position.getZ() >> 4;
+        for (PlacementPart part : DataManager.getSchematicPlacementManager().getPlacementPartsInChunk(chunkX, chunkZ))
+        {
+            IntBoundingBox bb = part.bb;
 
-            for (PlacementPart part : DataManager.getSchematicPlacementManager().getPlacementPartsInChunk(chunkX, chunkZ))
+            // Clamp the boxes to this chunk section
+            if (bb.minY <= maxY && bb.maxY >= minY)
             {
-                this.boxes.add(part.bb);
+                boxes.add(new IntBoundingBox(bb.minX, Math.max(bb.minY, minY), bb.minZ,
+                                             bb.maxX, Math.min(bb.maxY, maxY), bb.maxZ));
             }
         }
+
+        task.setWorldViews(schematicWorldView, clientWorldView, boxes);
     }
 
     public enum OverlayRenderType
@@ -38,6 +38,7 @@ import net.minecraft.util.crash.CrashReport;
 import net.minecraft.util.crash.CrashReportSection;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.BlockRenderView;
 
@@ -182,13 +183,14 @@ public class WorldRendererSchematic
             this.displayListEntitiesDirty = true;
             this.renderDistanceChunks = this.mc.options.getViewDistance().getValue();
 
+            // Let the workers finish first, so that none of the deleted renderers are still being compiled
+            this.stopChunkUpdates();
+
             if (this.chunkRendererDispatcher != null)
             {
                 this.chunkRendererDispatcher.delete();
             }
 
-            this.stopChunkUpdates();
-
             synchronized (this.blockEntities)
             {
                 this.blockEntities.clear();
@@ -238,9 +240,18 @@ public class WorldRendererSchematic
             this.lastCameraChunkUpdateX = entityX;
             this.lastCameraChunkUpdateY = entityY;
             this.lastCameraChunkUpdateZ = entityZ;
-            this.chunkRendererDispatcher.removeOutOfRangeRenderers();
+            List<ChunkRendererSchematicVbo> removed = this.chunkRendererDispatcher.removeOutOfRangeRenderers();
+
+            // The deleted renderers must not get rendered or rebuilt anymore
+            if (removed.isEmpty() == false)
+            {
+                removed.forEach(this.chunksToUpdate::remove);
+                this.displayListEntitiesDirty = true;
+            }
         }
 
+        this.chunkRendererDispatcher.deletePendingRenderers();
+
         this.world.getProfiler().swap("renderlist_camera");
 
         Vec3d cameraPos = camera.getPos();
@@ -254,6 +265,9 @@ public class WorldRendererSchematic
         BlockPos viewPos = new BlockPos(cameraX, cameraY + (double) entity.getStandingEyeHeight(), cameraZ);
         final int centerChunkX = (viewPos.getX() >> 4);
         final int centerChunkZ = (viewPos.getZ() >> 4);
+        final int minSectionY = this.world.getBottomSectionCoord();
+        final int maxSectionY = this.world.getTopSectionCoord() - 1;
+        final int centerSectionY = MathHelper.clamp(viewPos.getY() >> 4, minSectionY, maxSectionY);
         final int renderDistance = this.mc.options.getViewDistance().getValue();
         ChunkPos viewChunk = new ChunkPos(viewPos);
 
@@ -301,17 +315,14 @@ public class WorldRendererSchematic
                     Math.abs(cz - centerChunkZ) <= renderDistance &&
                     this.world.getChunkProvider().isChunkLoaded(cx, cz))
                 {
-                    ChunkRendererSchematicVbo chunkRenderer = this.chunkRendererDispatcher.getChunkRenderer(cx, cz);
+                    ChunkSchematic chunk = this.world.getChunkProvider().getChunk(cx, cz);
+                    boolean isViewChunk = chunkPos.equals(viewChunk);
 
-                    if (chunkRenderer != null && frustum.isVisible(chunkRenderer.getBoundingBox()))
+                    // Add the sections of the column in the order of their vertical distance from the camera
+                    for (int i = 0; centerSectionY - i >= minSectionY || centerSectionY + i < maxSectionY; ++i)
                     {
-                        //if (GuiBase.isCtrlDown()) System.out.printf("add @ %s\n", subChunk);
-                        if (chunkRenderer.needsUpdate() && chunkPos.equals(viewChunk))
-                        {
-                            chunkRenderer.setNeedsUpdate(true);
-                        }
-
-                        this.renderInfos.add(chunkRenderer);
+                        this.addSectionRenderer(cx, centerSectionY - i, cz, minSectionY, maxSectionY, chunk, frustum, isViewChunk && i == 0);
+                        this.addSectionRenderer(cx, centerSectionY + i + 1, cz, minSectionY, maxSectionY, chunk, frustum, false);
                     }
                 }
             }
@@ -354,6 +365,44 @@ public class WorldRendererSchematic
         this.world.getProfiler().pop();
     }
 
+    private void addSectionRenderer(int chunkX, int sectionY, int chunkZ, int minSectionY, int maxSectionY,
+                                    @Nullable ChunkSchematic chunk, Frustum frustum, boolean isViewSection)
+    {
+        if (sectionY < minSectionY || sectionY > maxSectionY)
+        {
+            return;
+        }
+
+        ChunkRendererSchematicVbo chunkRenderer = this.chunkRendererDispatcher.getChunkRenderer(chunkX, sectionY, chunkZ);
+
+        if (chunkRenderer == null || frustum.isVisible(chunkRenderer.getBoundingBox()) == false)
+        {
+            return;
+        }
+
+        if (chunkRenderer.needsUpdate())
+        {
+            if (isViewSection)
+            {
+                chunkRenderer.setNeedsUpdate(true);
+            }
+        }
+        // Skip already built sections that didn't have anything to render
+        else if (this.isSectionEmpty(chunkRenderer.getChunkRenderData(), chunk, sectionY))
+        {
+            return;
+        }
+
+        this.renderInfos.add(chunkRenderer);
+    }
+
+    private boolean isSectionEmpty(ChunkRenderDataSchematic data, @Nullable ChunkSchematic chunk, int sectionY)
+    {
+        return data != ChunkRenderDataSchematic.EMPTY &&
+               data.isEmpty() && data.isOverlayEmpty() && data.getBlockEntities().isEmpty() &&
+               (chunk == null || chunk.getEntityListForSectionIfExists(sectionY).isEmpty());
+    }
+
     public void updateChunks(long finishTimeNano)
     {
         this.displayListEntitiesDirty |= this.renderDispatcher.runChunkUploads(finishTimeNano);
@@ -792,4 +841,13 @@ public class WorldRendererSchematic
             this.chunkRendererDispatcher.scheduleChunkRender(chunkX, chunkZ);
         }
     }
+
+    public void scheduleSectionRenders(int chunkX, int chunkZ, int minSectionY, int maxSectionY)
+    {
+        if (Configs.Visuals.ENABLE_RENDERING.getBooleanValue() &&
+            Configs.Visuals.ENABLE_SCHEMATIC_RENDERING.getBooleanValue())
+        {
+            this.chunkRendererDispatcher.scheduleSectionRenders(chunkX, chunkZ, minSectionY, maxSectionY);
+        }
+    }
 }
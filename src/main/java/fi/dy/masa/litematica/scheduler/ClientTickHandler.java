@@ -3,6 +3,9 @@ package fi.dy.masa.litematica.scheduler;
 import net.minecraft.client.MinecraftClient;
 import fi.dy.masa.litematica.config.Configs;
 import fi.dy.masa.litematica.data.DataManager;
+import fi.dy.masa.litematica.materials.MaterialCache;
+import fi.dy.masa.litematica.materials.MaterialListBase;
+import fi.dy.masa.litematica.materials.PlayerInventoryCounter;
 import fi.dy.masa.litematica.selection.SelectionManager;
 import fi.dy.masa.litematica.util.WorldUtils;
 import fi.dy.masa.malilib.interfaces.IClientTickHandler;
@@ -30,6 +33,17 @@ public class ClientTickHandler implements IClientTickHandler
             }
 
             DataManager.getSchematicPlacementManager().processQueuedChunks();
+
+            MaterialCache.getInstance().processWarmUpQueue(2000000L);
+            PlayerInventoryCounter.getInstance().update(mc.player);
+
+            MaterialListBase materialList = DataManager.getMaterialList();
+
+            if (materialList != null)
+            {
+                materialList.updateLiveCounts();
+            }
+
             TaskScheduler.getInstanceClient().runTasks();
         }
     }
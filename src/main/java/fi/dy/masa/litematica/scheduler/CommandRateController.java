@@ -0,0 +1,264 @@
+package fi.dy.masa.litematica.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import com.google.common.collect.Multimap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.text.Text;
+import net.minecraft.text.TextColor;
+import net.minecraft.text.TranslatableTextContent;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import fi.dy.masa.malilib.util.IntBoundingBox;
+import fi.dy.masa.litematica.util.ToBooleanFunction;
+
+/**
+ * Adjusts the number of commands the Paste, Fill and Delete tasks send per tick,
+ * based on the feedback from the server (AIMD, like TCP congestion control).
+ * The rate is doubled until the first sign of congestion, then increased additively,
+ * and halved whenever the server seems to be falling behind:
+ * <br>- the server TPS, estimated from the time update packets, drops below the idle TPS
+ * <br>- the block commands aren't getting any answers back anymore, either as block update
+ *        echoes within the boxes of the running task, or as command results in the chat.
+ *        The commands that don't change anything only answer in the chat, if at all.
+ * <br>- the server responds with command errors in the chat
+ */
+public class CommandRateController
+{
+    public static final CommandRateController INSTANCE = new CommandRateController();
+
+    private static final double MIN_RATE = 1.0;
+    private static final double INITIAL_RATE = 4.0;
+    private static final double ADDITIVE_INCREASE = 2.0;
+    private static final double MULTIPLICATIVE_DECREASE = 0.5;
+    private static final double TPS_DROP_THRESHOLD = 2.0;
+    private static final long ADJUST_INTERVAL = 1000L;
+    private static final long ECHO_TIMEOUT = 2000L;
+    private static final long IDLE_TIME = 2000L;
+
+    private final ToBooleanFunction<Text> chatListener = this::onChatMessage;
+    private final Long2ObjectOpenHashMap<List<IntBoundingBox>> echoBoxes = new Long2ObjectOpenHashMap<>();
+    @Nullable private Object echoBoxOwner;
+    private double rate = INITIAL_RATE;
+    private double tps = 20.0;
+    private double idleTps = 20.0;
+    private boolean slowStart = true;
+    private boolean wasLimited;
+    private boolean tpsUpdated;
+    private long lastWorldTime = -1;
+    private long lastWorldTimeUpdate;
+    private long lastAdjustTime;
+    private long lastCommandTime;
+    private long firstUnansweredCommandTime;
+    private int errors;
+    private int backlog;
+
+    public ToBooleanFunction<Text> getChatListener()
+    {
+        return this.chatListener;
+    }
+
+    public void reset()
+    {
+        this.rate = INITIAL_RATE;
+        this.tps = 20.0;
+        this.idleTps = 20.0;
+        this.slowStart = true;
+        this.wasLimited = false;
+        this.tpsUpdated = false;
+        this.lastWorldTime = -1;
+        this.firstUnansweredCommandTime = 0;
+        this.errors = 0;
+        this.backlog = 0;
+        this.echoBoxes.clear();
+        this.echoBoxOwner = null;
+    }
+
+    /**
+     * Sets the boxes of the running task, only the block updates within them are counted as command echoes
+     */
+    public void setEchoBoxes(Object owner, Multimap<ChunkPos, IntBoundingBox> boxesInChunks)
+    {
+        this.echoBoxes.clear();
+        this.echoBoxOwner = owner;
+
+        for (ChunkPos pos : boxesInChunks.keySet())
+        {
+            this.echoBoxes.put(pos.toLong(), new ArrayList<>(boxesInChunks.get(pos)));
+        }
+    }
+
+    public void clearEchoBoxes(Object owner)
+    {
+        if (this.echoBoxOwner == owner)
+        {
+            this.echoBoxes.clear();
+            this.echoBoxOwner = null;
+        }
+    }
+
+    /**
+     * @return the current number of commands allowed per tick, capped to the given maximum
+     */
+    public int getCommandsPerTick(int maxRate)
+    {
+        return Math.max((int) MIN_RATE, Math.min((int) this.rate, maxRate));
+    }
+
+    public double getRate()
+    {
+        return this.rate;
+    }
+
+    public double getTps()
+    {
+        return this.tps;
+    }
+
+    public int getBacklog()
+    {
+        return this.backlog;
+    }
+
+    /**
+     * Called for each command or message that is expected to change blocks in the world
+     */
+    public void onBlockCommandSent()
+    {
+        if (this.firstUnansweredCommandTime == 0)
+        {
+            this.firstUnansweredCommandTime = Util.getMeasuringTimeMs();
+        }
+    }
+
+    /**
+     * Called for each block update received from the server
+     */
+    public void onBlockUpdate(BlockPos pos)
+    {
+        if (this.firstUnansweredCommandTime == 0)
+        {
+            return;
+        }
+
+        List<IntBoundingBox> boxes = this.echoBoxes.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+
+        if (boxes != null)
+        {
+            for (IntBoundingBox box : boxes)
+            {
+                if (box.containsPos(pos))
+                {
+                    this.firstUnansweredCommandTime = 0;
+                    return;
+                }
+            }
+        }
+    }
+
+    public void onWorldTimeUpdate(long worldTime)
+    {
+        long now = Util.getMeasuringTimeMs();
+        long elapsedTime = now - this.lastWorldTimeUpdate;
+        long elapsedTicks = worldTime - this.lastWorldTime;
+
+        // The server sends these once per second (20 ticks), ignore any bursts and time jumps
+        if (this.lastWorldTime >= 0 && elapsedTime >= 250L && elapsedTicks > 0 && elapsedTicks <= 200)
+        {
+            double tps = Math.min(20.0, elapsedTicks * 1000.0 / elapsedTime);
+            this.tps = (this.tps + tps) / 2.0;
+            this.tpsUpdated = true;
+
+            if (now - this.lastCommandTime >= IDLE_TIME)
+            {
+                this.idleTps = this.tps;
+            }
+        }
+
+        this.lastWorldTime = worldTime;
+        this.lastWorldTimeUpdate = now;
+    }
+
+    /**
+     * Called by the tasks at the end of each tick they were executed.
+     * @param sentCommands the number of commands sent on this tick
+     * @param limited true if the task was held back by the rate limit on this tick
+     * @param backlog the number of commands the task has queued but not sent yet
+     * @param maxRate the configured maximum command rate
+     */
+    public void onTaskTick(int sentCommands, boolean limited, int backlog, int maxRate)
+    {
+        long now = Util.getMeasuringTimeMs();
+
+        if (sentCommands > 0)
+        {
+            this.lastCommandTime = now;
+        }
+
+        this.wasLimited |= limited;
+        this.backlog = backlog;
+
+        if (now - this.lastAdjustTime >= ADJUST_INTERVAL)
+        {
+            this.adjustRate(now, maxRate);
+        }
+    }
+
+    private void adjustRate(long now, int maxRate)
+    {
+        boolean echoTimeout = this.firstUnansweredCommandTime != 0 && now - this.firstUnansweredCommandTime > ECHO_TIMEOUT;
+        boolean tpsDropped = this.tpsUpdated && this.tps < this.idleTps - TPS_DROP_THRESHOLD;
+
+        if (this.errors > 0 || echoTimeout || tpsDropped)
+        {
+            this.rate = Math.max(MIN_RATE, this.rate * MULTIPLICATIVE_DECREASE);
+            this.slowStart = false;
+            // Give the server some time to catch up before the next check
+            this.firstUnansweredCommandTime = 0;
+        }
+        // Only increase the rate if it was actually limiting the task
+        else if (this.wasLimited)
+        {
+            this.rate = this.slowStart ? this.rate * 2.0 : this.rate + ADDITIVE_INCREASE;
+        }
+
+        this.rate = Math.min(this.rate, Math.max(MIN_RATE, maxRate));
+        this.wasLimited = false;
+        this.tpsUpdated = false;
+        this.errors = 0;
+        this.lastAdjustTime = now;
+    }
+
+    private boolean onChatMessage(Text message)
+    {
+        // The error messages are wrapped inside an empty text
+        Text resultText = message.getSiblings().isEmpty() ? message : message.getSiblings().get(0);
+        String key = resultText.getContent() instanceof TranslatableTextContent text ? text.getKey() : null;
+
+        // Any command result means that the server has processed the commands sent before it,
+        // including the ones that didn't change any blocks and so won't cause any block update echoes
+        if (key != null && key.startsWith("commands."))
+        {
+            this.firstUnansweredCommandTime = 0;
+        }
+
+        // Command errors are sent in red
+        if (TextColor.fromFormatting(Formatting.RED).equals(message.getStyle().getColor()) == false)
+        {
+            return false;
+        }
+
+        // Trying to set an already existing block isn't a sign of congestion
+        if ("commands.setblock.failed".equals(key) || "commands.fill.failed".equals(key))
+        {
+            return false;
+        }
+
+        ++this.errors;
+
+        return false;
+    }
+}
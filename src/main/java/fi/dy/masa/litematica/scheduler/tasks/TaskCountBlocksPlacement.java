@@ -1,10 +1,16 @@
 package fi.dy.masa.litematica.scheduler.tasks;
 
 import java.util.Collection;
-import net.minecraft.block.BlockState;
+import java.util.List;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import fi.dy.masa.malilib.util.LayerRange;
 import fi.dy.masa.litematica.data.DataManager;
 import fi.dy.masa.litematica.materials.IMaterialList;
+import fi.dy.masa.litematica.materials.MaterialListEntry;
+import fi.dy.masa.litematica.materials.MaterialListPlacement;
+import fi.dy.masa.litematica.materials.MaterialListUtils;
+import fi.dy.masa.litematica.materials.PlacementMaterialCounter;
 import fi.dy.masa.litematica.schematic.placement.SchematicPlacement;
 import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement.RequiredEnabled;
 import fi.dy.masa.litematica.selection.Box;
@@ -13,6 +19,7 @@ import fi.dy.masa.litematica.util.BlockInfoListType;
 public class TaskCountBlocksPlacement extends TaskCountBlocksBase
 {
     protected final SchematicPlacement schematicPlacement;
+    protected final PlacementMaterialCounter counter;
 
     public TaskCountBlocksPlacement(SchematicPlacement schematicPlacement, IMaterialList materialList)
     {
@@ -20,17 +27,39 @@ public class TaskCountBlocksPlacement extends TaskCountBlocksBase
 
         this.schematicPlacement = schematicPlacement;
         Collection<Box> boxes = schematicPlacement.getSubRegionBoxes(RequiredEnabled.PLACEMENT_ENABLED).values();
+        LayerRange range = null;
 
         // Filter/clamp the boxes to intersect with the render layer
         if (materialList.getMaterialListType() == BlockInfoListType.RENDER_LAYERS)
         {
-            this.addPerChunkBoxes(boxes, DataManager.getRenderLayerRange());
+            range = DataManager.getRenderLayerRange();
+            this.addPerChunkBoxes(boxes, range);
         }
         else
         {
             this.addPerChunkBoxes(boxes);
         }
 
+        if (this.clientWorld != null)
+        {
+            // The totals don't depend on the loaded chunks, so they are counted directly from the schematic
+            // and shown right away. The missing counts then get updated as the chunks get counted.
+            this.countsTotal.putAll(MaterialListUtils.getPlacementBlockCounts(
+                    schematicPlacement, range, this.clientWorld.getBottomY(), this.clientWorld.getTopY() - 1));
+            this.counter = new PlacementMaterialCounter(this.boxesInChunks, this.countsTotal, this.countsMissing, this.countsMismatch, true);
+
+            if (materialList instanceof MaterialListPlacement)
+            {
+                List<MaterialListEntry> list = MaterialListUtils.getMaterialList(
+                        this.countsTotal, this.countsMissing, this.countsMismatch, this.mc.player);
+                materialList.setMaterialListEntries(list);
+                ((MaterialListPlacement) materialList).setLiveCounter(this.counter);
+            }
+        }
+        else
+        {
+            this.counter = new PlacementMaterialCounter(this.boxesInChunks, this.countsTotal, this.countsMissing, this.countsMismatch);
+        }
     }
 
     @Override
@@ -40,25 +69,51 @@ public class TaskCountBlocksPlacement extends TaskCountBlocksBase
     }
 
     @Override
-    protected void countAtPosition(BlockPos pos)
+    public boolean execute()
     {
-        BlockState stateSchematic = this.schematicWorld.getBlockState(pos);
+        boolean finished = super.execute();
 
-        if (stateSchematic.isAir() == false)
+        if (finished && this.materialList instanceof MaterialListPlacement)
         {
-            BlockState stateClient = this.clientWorld.getBlockState(pos);
+            ((MaterialListPlacement) this.materialList).onCountTaskFinished(this);
+        }
 
-            this.countsTotal.addTo(stateSchematic, 1);
+        return finished;
+    }
 
-            if (stateClient.isAir())
-            {
-                this.countsMissing.addTo(stateSchematic, 1);
-            }
-            else if (stateClient != stateSchematic)
-            {
-                this.countsMissing.addTo(stateSchematic, 1);
-                this.countsMismatch.addTo(stateSchematic, 1);
-            }
+    @Override
+    protected boolean canProcessChunk(ChunkPos pos)
+    {
+        // The schematic chunks are built asynchronously, so they also need to be ready before counting
+        return super.canProcessChunk(pos) &&
+               this.schematicWorld.getChunkProvider().isChunkLoaded(pos.x, pos.z) &&
+               DataManager.getSchematicPlacementManager().hasPendingRebuildFor(pos) == false;
+    }
+
+    @Override
+    protected boolean processChunk(ChunkPos pos)
+    {
+        // The chunk may have already been counted by the live counter, after being re-loaded
+        this.counter.clearChunk(pos);
+        return super.processChunk(pos);
+    }
+
+    @Override
+    protected void countAtPosition(BlockPos pos)
+    {
+        this.counter.countPosition(pos, this.schematicWorld.getBlockState(pos), this.clientWorld.getBlockState(pos));
+    }
+
+    @Override
+    protected void onStop()
+    {
+        // The counts are kept up to date from the block changes after this
+        if (this.finished && this.isInWorld() && this.materialList instanceof MaterialListPlacement &&
+            ((MaterialListPlacement) this.materialList).getLiveCounter() != this.counter)
+        {
+            ((MaterialListPlacement) this.materialList).setLiveCounter(this.counter);
         }
+
+        super.onStop();
     }
 }
@@ -50,7 +50,7 @@ public class TaskFillArea extends TaskProcessChunkMultiPhase
         this.replaceState = replaceState;
         this.removeEntities = removeEntities;
         this.maxBoxVolume = Configs.Generic.COMMAND_FILL_MAX_VOLUME.getIntegerValue();
-        this.maxCommandsPerTick = Configs.Generic.COMMAND_LIMIT.getIntegerValue();
+        this.setCommandLimit(Configs.Generic.COMMAND_LIMIT.getIntegerValue());
         this.fillCommand = Configs.Generic.COMMAND_NAME_FILL.getStringValue();
 
         String blockString = BlockArgumentParser.stringifyBlockState(fillState);
@@ -213,6 +213,18 @@ public class TaskFillArea extends TaskProcessChunkMultiPhase
         this.finishProcessingChunk(pos);
     }
 
+    @Override
+    protected int getCommandBacklog()
+    {
+        return this.queuedCommands.size();
+    }
+
+    @Override
+    protected boolean isBlockCommand(String command)
+    {
+        return command.startsWith(this.fillCommand) || command.startsWith("/set ");
+    }
+
     protected void sendQueuedCommands()
     {
         while (this.sentCommandsThisTick < this.maxCommandsPerTick &&
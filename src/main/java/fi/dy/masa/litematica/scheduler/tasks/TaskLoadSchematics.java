@@ -0,0 +1,128 @@
+package fi.dy.masa.litematica.scheduler.tasks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import fi.dy.masa.malilib.gui.GuiBase;
+import fi.dy.masa.malilib.util.StringUtils;
+import fi.dy.masa.litematica.config.Configs;
+import fi.dy.masa.litematica.render.infohud.InfoHud;
+
+/**
+ * Displays the progress of the schematics being loaded in the background
+ * on the info HUD. The actual loading is done by the SchematicHolder.
+ */
+public class TaskLoadSchematics extends TaskBase
+{
+    private final List<LoadProgress> entries = new ArrayList<>();
+    private boolean stopped;
+
+    public TaskLoadSchematics()
+    {
+        this.name = StringUtils.translate("litematica.gui.label.task_name.load_schematics");
+    }
+
+    public void addEntry(LoadProgress entry)
+    {
+        this.entries.add(entry);
+    }
+
+    public boolean isStopped()
+    {
+        return this.stopped;
+    }
+
+    @Override
+    public boolean canExecute()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean shouldRemove()
+    {
+        return false;
+    }
+
+    @Override
+    public void init()
+    {
+        InfoHud.getInstance().addInfoHudRenderer(this, true);
+    }
+
+    @Override
+    public boolean execute()
+    {
+        this.entries.removeIf(LoadProgress::isDone);
+        this.updateInfoHudLines();
+        this.finished = this.entries.isEmpty();
+
+        return this.finished;
+    }
+
+    @Override
+    public void stop()
+    {
+        this.stopped = true;
+        InfoHud.getInstance().removeInfoHudRenderer(this, false);
+
+        super.stop();
+    }
+
+    protected void updateInfoHudLines()
+    {
+        this.infoHudLines.clear();
+
+        if (this.entries.isEmpty() == false)
+        {
+            String pre = GuiBase.TXT_WHITE + GuiBase.TXT_BOLD;
+            String title = StringUtils.translate("litematica.gui.label.task.title.remaining_schematics", this.getDisplayName(), this.entries.size());
+            this.infoHudLines.add(String.format("%s%s%s", pre, title, GuiBase.TXT_RST));
+
+            int maxLines = Math.min(this.entries.size(), Configs.InfoOverlays.INFO_HUD_MAX_LINES.getIntegerValue());
+
+            for (int i = 0; i < maxLines; ++i)
+            {
+                LoadProgress entry = this.entries.get(i);
+                this.infoHudLines.add(String.format("%s: %d%%", entry.file.getName(), entry.getPercentage()));
+            }
+        }
+    }
+
+    public static class LoadProgress
+    {
+        public final File file;
+        private final long fileSize;
+        private volatile long bytesRead;
+        private volatile boolean done;
+
+        public LoadProgress(File file)
+        {
+            this.file = file;
+            this.fileSize = file.length();
+        }
+
+        /**
+         * Called from the loading thread
+         */
+        public void setBytesRead(long bytesRead)
+        {
+            this.bytesRead = bytesRead;
+        }
+
+        public void setDone()
+        {
+            this.done = true;
+        }
+
+        public boolean isDone()
+        {
+            return this.done;
+        }
+
+        public int getPercentage()
+        {
+            return this.fileSize > 0L ? (int) Math.min(100L, this.bytesRead * 100L / this.fileSize) : 0;
+        }
+    }
+}
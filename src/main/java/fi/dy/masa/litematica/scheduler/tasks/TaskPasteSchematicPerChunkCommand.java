@@ -1,8 +1,11 @@
 package fi.dy.masa.litematica.scheduler.tasks;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Queue;
 import java.util.Set;
@@ -10,7 +13,6 @@ import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import com.google.common.collect.Queues;
 import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
-import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.MinecraftClient;
@@ -21,6 +23,7 @@ import net.minecraft.entity.decoration.ItemFrameEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.SkullItem;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.registry.Registries;
 import net.minecraft.util.Hand;
 import net.minecraft.util.Identifier;
@@ -40,9 +43,12 @@ import fi.dy.masa.malilib.util.LayerRange;
 import fi.dy.masa.malilib.util.PositionUtils;
 import fi.dy.masa.litematica.config.Configs;
 import fi.dy.masa.litematica.data.DataManager;
+import fi.dy.masa.litematica.network.LitematicaProtocol;
+import fi.dy.masa.litematica.network.SectionBlockDelta;
 import fi.dy.masa.litematica.render.infohud.InfoHud;
 import fi.dy.masa.litematica.schematic.placement.SchematicPlacement;
 import fi.dy.masa.litematica.util.EntityUtils;
+import fi.dy.masa.litematica.util.FillVolumeDecomposer;
 import fi.dy.masa.litematica.util.PasteNbtBehavior;
 import fi.dy.masa.litematica.util.ReplaceBehavior;
 import fi.dy.masa.litematica.world.ChunkSchematic;
@@ -51,7 +57,9 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
 {
     protected final Queue<String> queuedCommands = Queues.newArrayDeque();
     protected final Long2LongOpenHashMap placedPositionTimestamps = new Long2LongOpenHashMap();
-    protected final LongArrayList fillVolumes = new LongArrayList();
+    protected final ArrayList<IntBoundingBox> fillVolumes = new ArrayList<>();
+    protected final FillVolumeSource fillVolumeSource;
+    protected final FillVolumeDecomposer fillVolumeDecomposer;
     protected final BlockPos.Mutable mutablePos = new BlockPos.Mutable();
     protected final PasteNbtBehavior nbtBehavior;
     protected final String cloneCommand;
@@ -61,9 +69,12 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
     protected final int maxBoxVolume;
     protected final boolean useFillCommand;
     protected final boolean useWorldEdit;
-    protected int[][][] workArr;
+    protected final boolean useBlockDeltas;
+    protected int deltaSectionY;
     protected int sentFillCommands;
     protected int sentSetblockCommands;
+    protected int sentBlockDeltaMessages;
+    protected int sentBlockDeltaBlocks;
 
     public TaskPasteSchematicPerChunkCommand(Collection<SchematicPlacement> placements,
                                              LayerRange range,
@@ -71,7 +82,7 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
     {
         super(placements, range, changedBlocksOnly);
 
-        this.maxCommandsPerTick = Configs.Generic.COMMAND_LIMIT.getIntegerValue();
+        this.setCommandLimit(Configs.Generic.COMMAND_LIMIT.getIntegerValue());
         this.maxBoxVolume = Configs.Generic.COMMAND_FILL_MAX_VOLUME.getIntegerValue();
         this.cloneCommand = Configs.Generic.COMMAND_NAME_CLONE.getStringValue();
         this.fillCommand = Configs.Generic.COMMAND_NAME_FILL.getStringValue();
@@ -80,8 +91,18 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
         this.useFillCommand = Configs.Generic.PASTE_USE_FILL_COMMAND.getBooleanValue();
         this.useWorldEdit = Configs.Generic.COMMAND_USE_WORLDEDIT.getBooleanValue();
         this.nbtBehavior = (PasteNbtBehavior) Configs.Generic.PASTE_NBT_BEHAVIOR.getOptionListValue();
+        this.fillVolumeSource = new FillVolumeSource();
+        this.fillVolumeDecomposer = new FillVolumeDecomposer(this.fillVolumeSource, this.maxBoxVolume);
+        // The binary messages are only used if the server has announced that it supports them
+        this.useBlockDeltas = Configs.Generic.USE_LITEMATICA_PROTOCOL.getBooleanValue() &&
+                              DataManager.getLitematicaProtocolVersion() >= 1 &&
+                              this.useWorldEdit == false;
 
-        if (this.useFillCommand)
+        if (this.useBlockDeltas)
+        {
+            this.processBoxBlocksTask = this::processBlocksInCurrentBoxUsingBlockDeltas;
+        }
+        else if (this.useFillCommand)
         {
             this.processBoxBlocksTask = this::processBlocksInCurrentBoxUsingFill;
         }
@@ -137,7 +158,11 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
 
     protected void prepareSettingBlocks(IntBoundingBox box)
     {
-        if (this.useFillCommand)
+        if (this.useBlockDeltas)
+        {
+            this.deltaSectionY = box.minY >> 4;
+        }
+        else if (this.useFillCommand)
         {
             this.generateFillVolumes(box);
         }
@@ -157,6 +182,20 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
         this.phase = TaskPhase.PROCESS_BOX_ENTITIES;
     }
 
+    @Override
+    protected int getCommandBacklog()
+    {
+        return this.queuedCommands.size();
+    }
+
+    @Override
+    protected boolean isBlockCommand(String command)
+    {
+        return command.startsWith(this.setBlockCommand) ||
+               command.startsWith(this.fillCommand) ||
+               command.startsWith("/set ");
+    }
+
     protected void sendQueuedCommands()
     {
         while (this.sentCommandsThisTick < this.maxCommandsPerTick && this.queuedCommands.isEmpty() == false)
@@ -198,17 +237,13 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
     protected void processBlocksInCurrentBoxUsingFill()
     {
         ChunkPos chunkPos = this.currentChunkPos;
-        final int baseX = chunkPos.x << 4;
-        final int baseZ = chunkPos.z << 4;
         ChunkSchematic schematicChunk = this.schematicWorld.getChunkProvider().getChunk(chunkPos.x, chunkPos.z);
         Chunk clientChunk = this.mc.world.getChunk(chunkPos.x, chunkPos.z);
 
         while (this.fillVolumes.isEmpty() == false && this.queuedCommands.size() < this.maxCommandsPerTick)
         {
-            int index = this.fillVolumes.size() - 1;
-            long encodedValue = this.fillVolumes.removeLong(index);
-            //System.out.printf("filling encoded: 0x%016X\n", encodedValue);
-            this.fillVolume(encodedValue, baseX, baseZ, schematicChunk, clientChunk);
+            IntBoundingBox volume = this.fillVolumes.remove(this.fillVolumes.size() - 1);
+            this.fillVolume(volume, schematicChunk, clientChunk);
         }
 
         this.sendQueuedCommands();
@@ -226,6 +261,87 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
         }
     }
 
+    protected void processBlocksInCurrentBoxUsingBlockDeltas()
+    {
+        ChunkPos chunkPos = this.currentChunkPos;
+        IntBoundingBox box = this.currentBox;
+        ChunkSchematic schematicChunk = this.schematicWorld.getChunkProvider().getChunk(chunkPos.x, chunkPos.z);
+        Chunk clientChunk = this.mc.world.getChunk(chunkPos.x, chunkPos.z);
+        final int maxSectionY = box.maxY >> 4;
+
+        // One chunk section per iteration, which may still be split into multiple messages if it's large
+        while (this.deltaSectionY <= maxSectionY && this.sentCommandsThisTick < this.maxCommandsPerTick)
+        {
+            final int sectionY = this.deltaSectionY++;
+            final int minY = Math.max(box.minY, sectionY << 4);
+            final int maxY = Math.min(box.maxY, (sectionY << 4) + 15);
+            SectionBlockDelta delta = new SectionBlockDelta(chunkPos.x, sectionY, chunkPos.z, LitematicaProtocol.FLAG_UPDATE_NEIGHBORS);
+            BlockPos.Mutable pos = this.mutablePos;
+            boolean changesBlocks = false;
+
+            // Iterate in the section index order, so that the runs of the same block get combined
+            for (int y = minY; y <= maxY; ++y)
+            {
+                for (int z = box.minZ; z <= box.maxZ; ++z)
+                {
+                    for (int x = box.minX; x <= box.maxX; ++x)
+                    {
+                        pos.set(x, y, z);
+                        BlockState stateSchematic = schematicChunk.getBlockState(pos);
+                        BlockState stateClient = clientChunk.getBlockState(pos);
+
+                        if (this.shouldSetBlock(stateSchematic, stateClient))
+                        {
+                            NbtCompound nbt = null;
+
+                            if (this.nbtBehavior != PasteNbtBehavior.NONE && stateSchematic.hasBlockEntity())
+                            {
+                                BlockEntity be = schematicChunk.getBlockEntity(pos);
+
+                                if (be != null)
+                                {
+                                    nbt = be.createNbt();
+                                }
+                            }
+
+                            if (delta.add(x, y, z, stateSchematic, nbt))
+                            {
+                                changesBlocks |= stateClient != stateSchematic;
+                            }
+                            // The block entity data doesn't fit into a message, use the commands for this block
+                            else
+                            {
+                                this.pasteBlock(pos, schematicChunk, clientChunk, false);
+                            }
+                        }
+                    }
+                }
+            }
+
+            for (PacketByteBuf buf : delta.getPayloads())
+            {
+                this.sendPayload(buf, changesBlocks);
+                ++this.sentBlockDeltaMessages;
+            }
+
+            this.sentBlockDeltaBlocks += delta.getBlockCount();
+        }
+
+        this.sendQueuedCommands();
+
+        if (this.deltaSectionY > maxSectionY && this.queuedCommands.isEmpty())
+        {
+            if (this.ignoreEntities)
+            {
+                this.onFinishedProcessingBox(this.currentChunkPos, this.currentBox);
+            }
+            else
+            {
+                this.prepareSummoningEntities(this.currentBox);
+            }
+        }
+    }
+
     protected void processEntitiesInCurrentBox()
     {
         while (this.entityIterator.hasNext() && this.queuedCommands.size() < this.maxCommandsPerTick)
@@ -499,276 +615,41 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
         return null;
     }
 
-    protected void fillVolume(long encodedValue, int baseX, int baseZ,
-                              ChunkSchematic schematicChunk, Chunk clientChunk)
+    protected void fillVolume(IntBoundingBox volume, ChunkSchematic schematicChunk, Chunk clientChunk)
     {
-        int startPos = (int) encodedValue;
-        int packedOffset = getPackedSize(encodedValue);
-        int startX = unpackX(startPos) + baseX;
-        int startY = unpackY(startPos);
-        int startZ = unpackZ(startPos) + baseZ;
-        int endOffsetX = unpackX(packedOffset);
-        int endOffsetY = unpackY(packedOffset);
-        int endOffsetZ = unpackZ(packedOffset);
-
-        this.mutablePos.set(startX, startY, startZ);
+        this.mutablePos.set(volume.minX, volume.minY, volume.minZ);
 
-        if ((endOffsetX > 0 || endOffsetY > 0 || endOffsetZ > 0) ||
+        if ((volume.maxX > volume.minX || volume.maxY > volume.minY || volume.maxZ > volume.minZ) ||
             Configs.Generic.PASTE_ALWAYS_USE_FILL.getBooleanValue())
         {
-            int endX = startX + endOffsetX;
-            int endY = startY + endOffsetY;
-            int endZ = startZ + endOffsetZ;
-            BlockState state = schematicChunk.getBlockState(this.mutablePos);
-
-            //System.out.printf("fill @ [%d %d %d] -> [%d %d %d] (%d x %d x %d) %s\n", startX, startY, startZ, endX, endY, endZ, endOffsetX + 1, endOffsetY + 1, endOffsetZ + 1, state);
-            this.pasteVolume(startX, startY, startZ, endX, endY, endZ, state);
+            BlockState state = this.schematicWorld.getBlockState(this.mutablePos);
+            this.pasteVolume(volume.minX, volume.minY, volume.minZ, volume.maxX, volume.maxY, volume.maxZ, state);
         }
         else
         {
-            //System.out.printf("fill -> setblock @ [%d %d %d] %s\n", startX, startY, startZ, schematicChunk.getBlockState(this.mutablePos));
+            // Single block volumes always start within the current chunk
             this.pasteBlock(this.mutablePos, schematicChunk, clientChunk, false);
         }
     }
 
     protected void generateFillVolumes(IntBoundingBox box)
     {
-        ChunkSchematic chunk = this.schematicWorld.getChunkProvider().getChunk(box.minX >> 4, box.minZ >> 4);
-        boolean ignoreBeFromFill = Configs.Generic.PASTE_IGNORE_BE_IN_FILL.getBooleanValue() &&
-                                   Configs.Generic.PASTE_NBT_BEHAVIOR.getOptionListValue() != PasteNbtBehavior.NONE;
-        
-
         this.fillVolumes.clear();
+        this.fillVolumeSource.reset();
+        this.fillVolumeDecomposer.decompose(box, this.fillVolumes);
 
-        if (this.workArr == null)
-        {
-            int height = this.world.getHeight();
-            this.workArr = new int[16][height][16];
-        }
-
-        this.generateStrips(this.workArr, Direction.EAST, box, chunk, ignoreBeFromFill);
-        this.combineStripsToLayers(this.workArr, Direction.EAST, Direction.SOUTH, Direction.UP,
-                                   box, chunk, this.fillVolumes, ignoreBeFromFill);
+        // Clear out the air volumes before placing the other blocks.
+        // The volumes are taken from the end of the list, thus the reverse.
+        this.fillVolumes.sort(Comparator.comparing((IntBoundingBox volume) -> this.schematicWorld.getBlockState(
+                this.mutablePos.set(volume.minX, volume.minY, volume.minZ)).isAir() == false));
         Collections.reverse(this.fillVolumes);
     }
 
-    protected int getBlockStripLength(BlockPos.Mutable pos,
-                                      Direction direction,
-                                      int maxLength,
-                                      BlockState firstState,
-                                      Chunk chunk)
-    {
-        int length = 1;
-
-        while (length < maxLength)
-        {
-            pos.move(direction);
-            BlockState state = chunk.getBlockState(pos);
-
-            if (state != firstState)
-            {
-                break;
-            }
-
-            ++length;
-        }
-
-        return length;
-    }
-
-    protected void generateStrips(int[][][] workArr,
-                                  Direction stripDirection,
-                                  IntBoundingBox box,
-                                  ChunkSchematic chunk,
-                                  boolean ignoreBeFromFill)
+    @Override
+    protected void onFinishedProcessingChunk(ChunkPos pos)
     {
-        boolean ignoreBeEntirely = Configs.Generic.PASTE_IGNORE_BE_ENTIRELY.getBooleanValue();
-        BlockPos.Mutable mutablePos = this.mutablePos;
-        ReplaceBehavior replace = this.replace;
-        final int startX = box.minX & 0xF;
-        final int startZ = box.minZ & 0xF;
-        final int endX = box.maxX & 0xF;
-        final int endZ = box.maxZ & 0xF;
-        final int worldMinY = chunk.getBottomY();
-
-        for (int y = box.minY; y <= box.maxY; ++y)
-        {
-            for (int z = startZ; z <= endZ; ++z)
-            {
-                for (int x = startX; x <= endX; ++x)
-                {
-                    mutablePos.set(x, y, z);
-                    BlockState state = chunk.getBlockState(mutablePos);
-
-                    if (state.isAir() == false || replace == ReplaceBehavior.ALL)
-                    {
-                        if (state.hasBlockEntity())
-                        {
-                            if (ignoreBeFromFill)
-                            {
-                                workArr[x][y - worldMinY][z] = 1;
-                                continue;
-                            }
-                            else if (ignoreBeEntirely)
-                            {
-                                continue;
-                            }
-                        }
-
-                        int length = this.getBlockStripLength(mutablePos, stripDirection, endX - x + 1, state, chunk);
-                        workArr[x][y - worldMinY][z] = length;
-                        //System.out.printf("strip @ [%d %d %d] %d x %s\n", x, y, z, length, state);
-                        x += length - 1;
-                    }
-                }
-            }
-        }
-    }
-
-    // TODO this method should be cleaned up and split up to smaller methods,
-    // and the iteration order would need to be made adjustable for the direction
-    // arguments to make sense and to work in other combinations.
-    protected void combineStripsToLayers(int[][][] workArr,
-                                         Direction stripDirection,
-                                         Direction stripCombineDirection,
-                                         Direction layerCombineDirection,
-                                         IntBoundingBox box,
-                                         ChunkSchematic chunk,
-                                         LongArrayList volumesOut,
-                                         boolean ignoreBe)
-    {
-        BlockPos.Mutable mutablePos = this.mutablePos;
-        final int sdOffX = stripDirection.getOffsetX();
-        final int sdOffY = stripDirection.getOffsetY();
-        final int sdOffZ = stripDirection.getOffsetZ();
-        final int scOffX = stripCombineDirection.getOffsetX();
-        final int scOffY = stripCombineDirection.getOffsetY();
-        final int scOffZ = stripCombineDirection.getOffsetZ();
-        final int lcOffX = layerCombineDirection.getOffsetX();
-        final int lcOffY = layerCombineDirection.getOffsetY();
-        final int lcOffZ = layerCombineDirection.getOffsetZ();
-        final int startX = box.minX & 0xF;
-        final int startZ = box.minZ & 0xF;
-        final int endX = box.maxX & 0xF;
-        final int endZ = box.maxZ & 0xF;
-        final int worldMinY = chunk.getBottomY();
-
-        for (int y = box.minY; y <= box.maxY; ++y)
-        {
-            for (int x = startX; x <= endX; ++x)
-            {
-                for (int z = startZ; z <= endZ; ++z)
-                {
-                    int length = workArr[x][y - worldMinY][z];
-
-                    if (length > 0)
-                    {
-                        int nextX = x + scOffX;
-                        int nextY = y + scOffY;
-                        int nextZ = z + scOffZ;
-                        int stripCount = 1;
-
-                        mutablePos.set(x, y, z);
-                        BlockState state = chunk.getBlockState(mutablePos);
-
-                        if (ignoreBe == false || state.hasBlockEntity() == false)
-                        {
-                            // Find identical adjacent strips, and set their data in the array to zero,
-                            // since they are being combined into one layer starting from the first position.
-                            while (nextX <= 15 && nextY <= box.maxY && nextZ <= 15 &&
-                                   workArr[nextX][nextY - worldMinY][nextZ] == length &&
-                                   chunk.getBlockState(mutablePos.set(nextX, nextY, nextZ)) == state)
-                            {
-                                ++stripCount;
-                                workArr[nextX][nextY - worldMinY][nextZ] = 0;
-                                nextX += scOffX;
-                                nextY += scOffY;
-                                nextZ += scOffZ;
-                            }
-                        }
-
-                        // Encode the first two dimensions of the volume (at this point a layer).
-                        // Note: At this point the range is 1...16 so that it can be distinguished from "no data" = 0
-                        int packedX = sdOffX * length + scOffX * stripCount;
-                        int packedY = sdOffY * length + scOffY * stripCount;
-                        int packedZ = sdOffZ * length + scOffZ * stripCount;
-                        int packedSize = packCoordinate5bit(packedX, packedY, packedZ);
-
-                        //System.out.printf("layer @ [%d %d %d] len: %d x count: %d %s\n", x, y, z, length, stripCount, state);
-                        workArr[x][y - worldMinY][z] = packedSize;
-
-                        // Skip the already handled/combined strips
-                        if (stripCount > 1)
-                        {
-                            int extraStrips = stripCount - 1;
-                            x += scOffX * extraStrips;
-                            y += scOffY * extraStrips;
-                            z += scOffZ * extraStrips;
-                        }
-                    }
-                }
-            }
-        }
-
-        for (int x = startX; x <= endX; ++x)
-        {
-            for (int z = startZ; z <= endZ; ++z)
-            {
-                for (int y = box.minY; y <= box.maxY; ++y)
-                {
-                    int packedSize = workArr[x][y - worldMinY][z];
-
-                    if (packedSize != 0)
-                    {
-                        int nextX = x + lcOffX;
-                        int nextY = y + lcOffY;
-                        int nextZ = z + lcOffZ;
-                        int layerCount = 1;
-
-                        mutablePos.set(x, y, z);
-                        BlockState state = chunk.getBlockState(mutablePos);
-
-                        if (ignoreBe == false || state.hasBlockEntity() == false)
-                        {
-                            // Find identical adjacent layers
-                            while (nextX <= 15 && nextY <= box.maxY && nextZ <= 15 &&
-                                   workArr[nextX][nextY - worldMinY][nextZ] == packedSize &&
-                                   chunk.getBlockState(mutablePos.set(nextX, nextY, nextZ)) == state)
-                            {
-                                ++layerCount;
-                                workArr[nextX][nextY - worldMinY][nextZ] = 0;
-                                nextX += lcOffX;
-                                nextY += lcOffY;
-                                nextZ += lcOffZ;
-                            }
-                        }
-
-                        // Add the layer thickness, and change the encoding from 1...16 to 0...15
-                        // All the axes here will have values of at least 1 before this -1.
-                        int volumeEndOffsetX = lcOffX * layerCount + unpackX5bit(packedSize) - 1;
-                        int volumeEndOffsetY = lcOffY * layerCount + unpackY5bit(packedSize) - 1;
-                        int volumeEndOffsetZ = lcOffZ * layerCount + unpackZ5bit(packedSize) - 1;
-                        int packedVolumeEndOffset = packCoordinate(volumeEndOffsetX, volumeEndOffsetY, volumeEndOffsetZ);
-
-                        //System.out.printf("volume @ [%d %d %d] size: %d x %d x %d %s\n", x, y, z, volumeEndOffsetX, volumeEndOffsetY, volumeEndOffsetZ, state);
-                        long encodedValue = ((long) packedVolumeEndOffset << 32L) | (packCoordinate(x, y, z) & 0xFFFFFFFFL);
-                        volumesOut.add(encodedValue);
-
-                        // Always also clear the array for the next use
-                        workArr[x][y - worldMinY][z] = 0;
-
-                        // Skip the already handled/combined strips
-                        if (layerCount > 1)
-                        {
-                            int extraLayers = layerCount - 1;
-                            x += lcOffX * extraLayers;
-                            y += lcOffY * extraLayers;
-                            z += lcOffZ * extraLayers;
-                        }
-                    }
-                }
-            }
-        }
+        this.fillVolumeDecomposer.clearChunk(pos.x, pos.z);
+        super.onFinishedProcessingChunk(pos);
     }
 
     @Override
@@ -778,7 +659,11 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
         {
             if (this.printCompletionMessage)
             {
-                if (this.useWorldEdit)
+                if (this.useBlockDeltas)
+                {
+                    InfoUtils.showGuiOrActionBarMessage(MessageType.INFO, "litematica.message.schematic_pasted_using_block_deltas", this.sentBlockDeltaMessages, this.sentBlockDeltaBlocks);
+                }
+                else if (this.useWorldEdit)
                 {
                     InfoUtils.showGuiOrActionBarMessage(MessageType.INFO, "litematica.message.schematic_pasted_using_world_edit", this.sentSetblockCommands + this.sentFillCommands);
                 }
@@ -804,51 +689,99 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
         super.onStop();
     }
 
-    protected static int unpackX(int value)
+    /**
+     * Provides the schematic blocks for the fill volumes. The volumes may only
+     * extend into the boxes that are still waiting to be pasted, and only into the
+     * neighboring chunks if the per-chunk clamping of the fill volumes is disabled.
+     */
+    protected class FillVolumeSource implements FillVolumeDecomposer.IVolumeSource
     {
-        return value & 0xF;
-    }
+        protected final BlockPos.Mutable pos = new BlockPos.Mutable();
+        protected final boolean ignoreBeFromFill;
+        protected final boolean ignoreBeEntirely;
+        protected final boolean crossChunks;
+        protected List<IntBoundingBox> boxes = Collections.emptyList();
+        @Nullable protected ChunkSchematic chunk;
+        protected int chunkX;
+        protected int chunkZ;
+        protected boolean hasChunk;
 
-    protected static int unpackY(int value)
-    {
-        return (value >> 8);
-    }
+        protected FillVolumeSource()
+        {
+            this.ignoreBeFromFill = Configs.Generic.PASTE_IGNORE_BE_IN_FILL.getBooleanValue() &&
+                                    Configs.Generic.PASTE_NBT_BEHAVIOR.getOptionListValue() != PasteNbtBehavior.NONE;
+            this.ignoreBeEntirely = Configs.Generic.PASTE_IGNORE_BE_ENTIRELY.getBooleanValue();
+            this.crossChunks = Configs.Generic.COMMAND_FILL_NO_CHUNK_CLAMP.getBooleanValue();
+        }
 
-    protected static int unpackZ(int value)
-    {
-        return (value >> 4) & 0xF;
-    }
+        protected void reset()
+        {
+            this.hasChunk = false;
+            this.chunk = null;
+            this.boxes = Collections.emptyList();
+        }
 
-    protected static int packCoordinate(int x, int y, int z)
-    {
-        return (y << 8) | ((z & 0xF) << 4) | (x & 0xF);
-    }
+        @Override
+        @Nullable
+        public BlockState getState(int x, int y, int z)
+        {
+            if (this.hasChunk == false || (x >> 4) != this.chunkX || (z >> 4) != this.chunkZ)
+            {
+                this.setChunk(x >> 4, z >> 4);
+            }
 
-    protected static int unpackX5bit(int value)
-    {
-        return value & 0x1F;
-    }
+            if (this.chunk == null || this.isPending(x, y, z) == false)
+            {
+                return null;
+            }
 
-    protected static int unpackY5bit(int value)
-    {
-        return (value >> 10);
-    }
+            BlockState state = this.chunk.getBlockState(this.pos.set(x, y, z));
 
-    protected static int unpackZ5bit(int value)
-    {
-        return (value >> 5) & 0x1F;
-    }
+            if ((state.isAir() && replace != ReplaceBehavior.ALL) ||
+                (state.hasBlockEntity() && this.ignoreBeEntirely && this.ignoreBeFromFill == false))
+            {
+                return null;
+            }
 
-    protected static int packCoordinate5bit(int x, int y, int z)
-    {
-        return (y << 10) | ((z & 0x1F) << 5) | (x & 0x1F);
-    }
+            return state;
+        }
 
-    protected static int getPackedSize(long fullPackedValue)
-    {
-        return (int) (fullPackedValue >> 32L);
-    }
+        @Override
+        public boolean canMerge(BlockState state)
+        {
+            return this.ignoreBeFromFill == false || state.hasBlockEntity() == false;
+        }
+
+        protected void setChunk(int chunkX, int chunkZ)
+        {
+            ChunkPos pos = new ChunkPos(chunkX, chunkZ);
+            boolean isCurrentChunk = pos.equals(currentChunkPos);
 
+            this.reset();
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.hasChunk = true;
+
+            if ((isCurrentChunk || (this.crossChunks && canProcessChunk(pos))) && boxesInChunks.containsKey(pos))
+            {
+                this.chunk = schematicWorld.getChunkProvider().getChunk(chunkX, chunkZ);
+                this.boxes = boxesInChunks.get(pos);
+            }
+        }
+
+        protected boolean isPending(int x, int y, int z)
+        {
+            for (IntBoundingBox box : this.boxes)
+            {
+                if (x >= box.minX && x <= box.maxX && y >= box.minY && y <= box.maxY && z >= box.minZ && z <= box.maxZ)
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
 
     @Nullable
     public BlockPos findEmptyNearbyPosition(World world, Vec3d centerPos, int radius, double reachDistance)
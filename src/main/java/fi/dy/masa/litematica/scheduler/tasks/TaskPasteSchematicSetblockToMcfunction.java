@@ -27,6 +27,7 @@ public class TaskPasteSchematicSetblockToMcfunction extends TaskPasteSchematicPe
 
         String date = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date(System.currentTimeMillis()));
         this.fileNameBase = "paste_commands_" + date + "_";
+        this.adaptiveCommandRate = false;
         this.maxCommandsPerTick = 64000;
 
         this.openNextOutputFile();
@@ -13,20 +13,21 @@ import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import fi.dy.masa.malilib.util.IntBoundingBox;
+import fi.dy.masa.malilib.util.StringUtils;
 import fi.dy.masa.litematica.config.Configs;
 import fi.dy.masa.litematica.data.DataManager;
+import fi.dy.masa.litematica.network.LitematicaProtocol;
+import fi.dy.masa.litematica.scheduler.CommandRateController;
 import fi.dy.masa.litematica.util.ToBooleanFunction;
 // caramel start
 import io.netty.buffer.Unpooled;
 import net.minecraft.command.argument.SignedArgumentList;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.packet.c2s.play.CustomPayloadC2SPacket;
-import net.minecraft.util.Identifier;
 // caramel end
 
 public abstract class TaskProcessChunkMultiPhase extends TaskProcessChunkBase
 {
-    private static final Identifier NAMESPACE = new Identifier("litematica", "command"); // caramel
     protected TaskPhase phase = TaskPhase.INIT;
     @Nullable protected ChunkPos currentChunkPos;
     @Nullable protected IntBoundingBox currentBox;
@@ -36,11 +37,14 @@ public abstract class TaskProcessChunkMultiPhase extends TaskProcessChunkBase
     protected final boolean useWorldEdit;
 
     protected int maxCommandsPerTick = 16;
+    protected int commandRateLimit = 16;
+    protected boolean adaptiveCommandRate;
     protected int processedChunksThisTick;
     protected int sentCommandsThisTick;
     protected long gameRuleProbeTimeout;
     protected long maxGameRuleProbeTime = 2000000000L; // 2 second timeout
     protected long taskStartTimeForCurrentTick;
+    protected long lastInfoHudUpdateTime;
     protected boolean shouldEnableFeedback;
 
     protected ToBooleanFunction<Text> gameRuleListener = this::checkCommandFeedbackGameRuleState;
@@ -67,14 +71,60 @@ public abstract class TaskProcessChunkMultiPhase extends TaskProcessChunkBase
         this.useWorldEdit = Configs.Generic.COMMAND_USE_WORLDEDIT.getBooleanValue();
     }
 
+    /**
+     * Sets the maximum number of commands per tick. If the adaptive command rate
+     * is enabled, then the actual rate is adjusted by the CommandRateController
+     * on each tick, and this is only used as the upper limit.
+     */
+    protected void setCommandLimit(int limit)
+    {
+        this.commandRateLimit = limit;
+        this.adaptiveCommandRate = Configs.Generic.COMMAND_RATE_ADAPTIVE.getBooleanValue();
+        this.maxCommandsPerTick = this.adaptiveCommandRate ? CommandRateController.INSTANCE.getCommandsPerTick(limit) : limit;
+    }
+
+    @Override
+    public void init()
+    {
+        super.init();
+
+        if (this.adaptiveCommandRate)
+        {
+            DataManager.addChatListener(CommandRateController.INSTANCE.getChatListener());
+        }
+    }
+
+    @Override
+    protected void onStop()
+    {
+        if (this.adaptiveCommandRate)
+        {
+            DataManager.removeChatListener(CommandRateController.INSTANCE.getChatListener());
+            CommandRateController.INSTANCE.clearEchoBoxes(this);
+        }
+
+        super.onStop();
+    }
+
     protected boolean executeMultiPhase()
     {
         this.taskStartTimeForCurrentTick = Util.getMeasuringTimeNano();
         this.sentCommandsThisTick = 0;
         this.processedChunksThisTick = 0;
 
+        if (this.adaptiveCommandRate)
+        {
+            this.maxCommandsPerTick = CommandRateController.INSTANCE.getCommandsPerTick(this.commandRateLimit);
+        }
+
         if (this.phase == TaskPhase.INIT)
         {
+            if (this.adaptiveCommandRate)
+            {
+                // The boxes have been added by now, in the init() of the sub classes
+                CommandRateController.INSTANCE.setEchoBoxes(this, this.boxesInChunks);
+            }
+
             this.initTask.run();
         }
 
@@ -84,6 +134,27 @@ public abstract class TaskProcessChunkMultiPhase extends TaskProcessChunkBase
             return false;
         }
 
+        boolean finished = this.executePhases();
+
+        if (this.adaptiveCommandRate && finished == false)
+        {
+            boolean limited = this.sentCommandsThisTick >= this.maxCommandsPerTick;
+            CommandRateController.INSTANCE.onTaskTick(this.sentCommandsThisTick, limited, this.getCommandBacklog(), this.commandRateLimit);
+
+            // Keep the rate and the backlog on the info HUD up to date
+            long time = Util.getMeasuringTimeMs();
+
+            if (this.processedChunksThisTick == 0 && time - this.lastInfoHudUpdateTime >= 500L)
+            {
+                this.updateInfoHudLines();
+            }
+        }
+
+        return finished;
+    }
+
+    private boolean executePhases()
+    {
         if (this.currentChunkPos != null && this.canProcessChunk(this.currentChunkPos) == false)
         {
             return false;
@@ -135,6 +206,38 @@ public abstract class TaskProcessChunkMultiPhase extends TaskProcessChunkBase
         return false;
     }
 
+    /**
+     * @return the number of commands that have been generated but not sent yet
+     */
+    protected int getCommandBacklog()
+    {
+        return 0;
+    }
+
+    /**
+     * @return true if the given command is expected to cause block updates
+     * to be sent back from the server, which is used as feedback for the adaptive command rate
+     */
+    protected boolean isBlockCommand(String command)
+    {
+        return false;
+    }
+
+    @Override
+    protected void updateInfoHudLines()
+    {
+        super.updateInfoHudLines();
+        this.lastInfoHudUpdateTime = Util.getMeasuringTimeMs();
+
+        if (this.adaptiveCommandRate && this.infoHudLines.isEmpty() == false)
+        {
+            CommandRateController controller = CommandRateController.INSTANCE;
+            String rate = StringUtils.translate("litematica.gui.label.task.command_rate",
+                                                this.maxCommandsPerTick, String.format("%.1f", controller.getTps()), controller.getBacklog());
+            this.infoHudLines.add(1, rate);
+        }
+    }
+
     protected void initPhaseStartProbe()
     {
         if (Configs.Generic.COMMAND_DISABLE_FEEDBACK.getBooleanValue() && this.isInWorld())
@@ -266,13 +369,18 @@ public abstract class TaskProcessChunkMultiPhase extends TaskProcessChunkBase
 
     protected void sendCommand(String command, ClientPlayerEntity player)
     {
+        if (this.adaptiveCommandRate && this.isBlockCommand(command))
+        {
+            CommandRateController.INSTANCE.onBlockCommandSent();
+        }
+
         // caramel start
         if (Configs.Generic.USE_LITEMATICA_PROTOCOL.getBooleanValue()) {
             final var dispatcher = player.networkHandler.getCommandDispatcher();
             final var src = player.networkHandler.getCommandSource();
             if (SignedArgumentList.of(dispatcher.parse(command, src)).arguments().isEmpty()) {
                 player.networkHandler.sendPacket(new CustomPayloadC2SPacket(
-                    NAMESPACE, new PacketByteBuf(Unpooled.buffer()).writeString(command)
+                    LitematicaProtocol.CHANNEL, new PacketByteBuf(Unpooled.buffer()).writeString(command)
                 ));
             }
             ++this.sentCommandsThisTick;
@@ -283,6 +391,25 @@ public abstract class TaskProcessChunkMultiPhase extends TaskProcessChunkBase
         ++this.sentCommandsThisTick;
     }
 
+    /**
+     * Sends one binary message on the litematica:command channel.
+     * These count towards the same per-tick limit as the commands.
+     */
+    /**
+     * @param changesBlocks false if the payload only contains blocks that already exist in the world,
+     * in which case the server won't echo anything back for it
+     */
+    protected void sendPayload(PacketByteBuf buf, boolean changesBlocks)
+    {
+        this.mc.player.networkHandler.sendPacket(new CustomPayloadC2SPacket(LitematicaProtocol.CHANNEL, buf));
+        ++this.sentCommandsThisTick;
+
+        if (this.adaptiveCommandRate && changesBlocks)
+        {
+            CommandRateController.INSTANCE.onBlockCommandSent();
+        }
+    }
+
     protected void sendTaskEndCommands()
     {
         if (this.isInWorld())
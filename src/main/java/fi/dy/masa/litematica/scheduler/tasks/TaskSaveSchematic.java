@@ -1,14 +1,20 @@
 package fi.dy.masa.litematica.scheduler.tasks;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import javax.annotation.Nullable;
 import com.google.common.collect.ImmutableMap;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import fi.dy.masa.litematica.Litematica;
 import fi.dy.masa.litematica.data.SchematicHolder;
 import fi.dy.masa.litematica.render.infohud.InfoHud;
 import fi.dy.masa.litematica.schematic.LitematicaSchematic;
@@ -25,11 +31,13 @@ public class TaskSaveSchematic extends TaskProcessChunkBase
     private final BlockPos origin;
     private final ImmutableMap<String, Box> subRegions;
     private final Set<UUID> existingEntities = new HashSet<>();
+    private final Map<String, CompletableFuture<Void>> regionFutures = new HashMap<>();
     @Nullable private final File dir;
     @Nullable private final String fileName;
     private final LitematicaSchematic.SchematicSaveInfo info;
     private final boolean overrideFile;
     protected final boolean fromSchematicWorld;
+    @Nullable private String failedRegion;
 
     public TaskSaveSchematic(LitematicaSchematic schematic, AreaSelection area, LitematicaSchematic.SchematicSaveInfo info)
     {
@@ -52,6 +60,47 @@ public class TaskSaveSchematic extends TaskProcessChunkBase
         this.addPerChunkBoxes(area.getAllSubRegionBoxes());
     }
 
+    @Override
+    public boolean execute()
+    {
+        if (this.executeForAllPendingChunks() == false)
+        {
+            return false;
+        }
+
+        // Wait for the off-thread block data encoding to complete before saving the schematic
+        for (Map.Entry<String, CompletableFuture<Void>> entry : this.regionFutures.entrySet())
+        {
+            CompletableFuture<Void> future = entry.getValue();
+
+            if (future.isDone() == false)
+            {
+                this.finished = false;
+                return false;
+            }
+
+            // Don't save a schematic with missing block data
+            if (future.isCompletedExceptionally())
+            {
+                try
+                {
+                    future.join();
+                }
+                catch (CompletionException e)
+                {
+                    Litematica.logger.error("Exception while saving the blocks of sub-region '{}'", entry.getKey(), e.getCause());
+                }
+
+                this.failedRegion = entry.getKey();
+                this.finished = false;
+                return true;
+            }
+        }
+
+        this.finished = true;
+        return true;
+    }
+
     @Override
     protected boolean canProcessChunk(ChunkPos pos)
     {
@@ -68,7 +117,11 @@ public class TaskSaveSchematic extends TaskProcessChunkBase
     {
         World world = this.fromSchematicWorld ? this.schematicWorld : this.world;
         ImmutableMap<String, IntBoundingBox> volumes = PositionUtils.getBoxesWithinChunk(pos.x, pos.z, this.subRegions);
-        this.schematic.takeBlocksFromWorldWithinChunk(world, volumes, this.subRegions, this.info);
+
+        for (LitematicaSchematic.ChunkBlockSnapshot snapshot : this.schematic.takeChunkSnapshots(world, volumes, this.subRegions, this.info))
+        {
+            this.encodeSnapshot(snapshot);
+        }
 
         if (this.info.ignoreEntities == false)
         {
@@ -78,6 +131,20 @@ public class TaskSaveSchematic extends TaskProcessChunkBase
         return true;
     }
 
+    /**
+     * Writes the snapshot into the schematic on a worker thread.
+     * The snapshots of each sub-region are chained, so that only one thread writes into any one container at a time.
+     */
+    private void encodeSnapshot(LitematicaSchematic.ChunkBlockSnapshot snapshot)
+    {
+        String regionName = snapshot.getRegionName();
+        CompletableFuture<Void> previous = this.regionFutures.getOrDefault(regionName, CompletableFuture.completedFuture(null));
+        // A failure is passed on along the chain, and then checked in execute()
+        CompletableFuture<Void> future = previous.thenRunAsync(() -> this.schematic.takeBlocksFromSnapshot(snapshot), ForkJoinPool.commonPool());
+
+        this.regionFutures.put(regionName, future);
+    }
+
     @Override
     protected void onStop()
     {
@@ -114,6 +181,10 @@ public class TaskSaveSchematic extends TaskProcessChunkBase
                 }
             }
         }
+        else if (this.failedRegion != null)
+        {
+            InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, "litematica.message.error.schematic_save_failed_region", this.failedRegion);
+        }
         else
         {
             InfoUtils.showGuiOrInGameMessage(MessageType.WARNING, "litematica.message.error.schematic_save_interrupted");
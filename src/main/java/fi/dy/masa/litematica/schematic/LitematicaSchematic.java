@@ -2,7 +2,10 @@ package fi.dy.masa.litematica.schematic;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -10,6 +13,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
 import javax.annotation.Nullable;
 import com.google.common.collect.ImmutableMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
@@ -38,11 +44,13 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.ChunkSectionPos;
-import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
 import net.minecraft.world.tick.ChunkTickScheduler;
 import net.minecraft.world.tick.OrderedTick;
 import net.minecraft.world.tick.TickPriority;
@@ -66,9 +74,11 @@ import fi.dy.masa.litematica.schematic.placement.SchematicPlacement;
 import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement;
 import fi.dy.masa.litematica.selection.AreaSelection;
 import fi.dy.masa.litematica.selection.Box;
+import fi.dy.masa.litematica.util.BlockOcclusionMask;
 import fi.dy.masa.litematica.util.BlockUtils;
 import fi.dy.masa.litematica.util.EntityUtils;
 import fi.dy.masa.litematica.util.FileType;
+import fi.dy.masa.litematica.util.NbtStreamReader;
 import fi.dy.masa.litematica.util.NbtUtils;
 import fi.dy.masa.litematica.util.PositionUtils;
 import fi.dy.masa.litematica.util.ReplaceBehavior;
@@ -86,6 +96,8 @@ public class LitematicaSchematic
     // This is basically a "sub-version" for the schematic version,
     // intended to help with possible data fix needs that are discovered.
     public static final int SCHEMATIC_VERSION_SUB = 1; // Bump to one after the sleeping entity position fix
+    /** The messages to show later, while a schematic is being loaded with deferred messages on the current thread */
+    private static final ThreadLocal<List<DeferredMessage>> DEFERRED_MESSAGES = new ThreadLocal<>();
 
     private final Map<String, LitematicaBlockStateContainer> blockContainers = new HashMap<>();
     private final Map<String, Map<BlockPos, NbtCompound>> tileEntities = new HashMap<>();
@@ -95,7 +107,6 @@ public class LitematicaSchematic
     private final Map<String, BlockPos> subRegionPositions = new HashMap<>();
     private final Map<String, BlockPos> subRegionSizes = new HashMap<>();
     private final SchematicMetadata metadata = new SchematicMetadata();
-    private final SchematicConverter converter;
     private int totalBlocksReadFromWorld;
     @Nullable private final File schematicFile;
     private final FileType schematicType;
@@ -109,7 +120,6 @@ public class LitematicaSchematic
     {
         this.schematicFile = file;
         this.schematicType = schematicType;
-        this.converter = SchematicConverter.createForLitematica();
     }
 
     @Nullable
@@ -633,6 +643,7 @@ public class LitematicaSchematic
     private void takeBlocksFromWorld(World world, List<Box> boxes, SchematicSaveInfo info)
     {
         BlockPos.Mutable posMutable = new BlockPos.Mutable(0, 0, 0);
+        BlockOcclusionMask occlusionMask = info.visibleOnly ? new BlockOcclusionMask(world) : null;
 
         for (Box box : boxes)
         {
@@ -662,7 +673,7 @@ public class LitematicaSchematic
                     {
                         posMutable.set(x + startX, y + startY, z + startZ);
 
-                        if (visibleOnly && isExposed(world, posMutable) == false)
+                        if (visibleOnly && occlusionMask.isExposed(x + startX, y + startY, z + startZ) == false)
                         {
                             continue;
                         }
@@ -756,28 +767,11 @@ public class LitematicaSchematic
         outputMap.put(relativePos, newTick);
     }
 
-    public static boolean isExposed(World world, BlockPos pos)
-    {
-        for (Direction dir : fi.dy.masa.malilib.util.PositionUtils.ALL_DIRECTIONS)
-        {
-            BlockPos posAdj = pos.offset(dir);
-            BlockState stateAdj = world.getBlockState(posAdj);
-
-            if (stateAdj.isOpaque() == false ||
-                stateAdj.isSideSolidFullSquare(world, posAdj, dir) == false)
-            {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    @SuppressWarnings("unchecked")
     public void takeBlocksFromWorldWithinChunk(World world, ImmutableMap<String, IntBoundingBox> volumes,
                                                ImmutableMap<String, Box> boxes, SchematicSaveInfo info)
     {
         BlockPos.Mutable posMutable = new BlockPos.Mutable(0, 0, 0);
+        BlockOcclusionMask occlusionMask = info.visibleOnly ? new BlockOcclusionMask(world) : null;
 
         for (Map.Entry<String, IntBoundingBox> volumeEntry : volumes.entrySet())
         {
@@ -802,6 +796,9 @@ public class LitematicaSchematic
                 continue;
             }
 
+            // Grow the container once up front, instead of possibly several times in the middle of the loop
+            container.ensurePaletteCapacity(getEstimatedPaletteSize(world, bb, container));
+
             // We want to loop nice & easy from 0 to n here, but the per-sub-region pos1 can be at
             // any corner of the area. Thus we need to offset from the total area origin
             // to the minimum/negative corner (ie. 0,0 in the loop) corner here.
@@ -826,7 +823,7 @@ public class LitematicaSchematic
                     {
                         posMutable.set(x + offsetX, y + offsetY, z + offsetZ);
 
-                        if (visibleOnly && isExposed(world, posMutable) == false)
+                        if (visibleOnly && occlusionMask.isExposed(x + offsetX, y + offsetY, z + offsetZ) == false)
                         {
                             continue;
                         }
@@ -856,23 +853,228 @@ public class LitematicaSchematic
                 }
             }
 
-            if (world instanceof ServerWorld serverWorld)
+            this.takeScheduledTicksWithinVolume(world, bb, minCorner, blockTickMap, fluidTickMap);
+        }
+    }
+
+    /**
+     * Takes copies of the chunk sections intersecting the given volumes within one chunk,
+     * and reads the block entity data and the scheduled ticks directly into the schematic.
+     * This is the part of the chunk-wise saving that has to run on the thread owning the world.
+     * The block data from the returned snapshots is then written into the schematic via
+     * {@link #takeBlocksFromSnapshot(ChunkBlockSnapshot)}, which can be done on any thread,
+     * as long as the snapshots of the same sub-region are not written concurrently.
+     * For the visible blocks only option, the exposed blocks bitsets are also taken here.
+     */
+    public List<ChunkBlockSnapshot> takeChunkSnapshots(World world, ImmutableMap<String, IntBoundingBox> volumes,
+                                                       ImmutableMap<String, Box> boxes, SchematicSaveInfo info)
+    {
+        List<ChunkBlockSnapshot> snapshots = new ArrayList<>();
+
+        for (Map.Entry<String, IntBoundingBox> volumeEntry : volumes.entrySet())
+        {
+            String regionName = volumeEntry.getKey();
+            IntBoundingBox bb = volumeEntry.getValue();
+            Box box = boxes.get(regionName);
+            Map<BlockPos, NbtCompound> tileEntityMap = this.tileEntities.get(regionName);
+            Map<BlockPos, OrderedTick<Block>> blockTickMap = this.pendingBlockTicks.get(regionName);
+            Map<BlockPos, OrderedTick<Fluid>> fluidTickMap = this.pendingFluidTicks.get(regionName);
+
+            if (box == null || tileEntityMap == null || blockTickMap == null || fluidTickMap == null)
             {
-                IntBoundingBox tickBox = IntBoundingBox.createProper(
-                        offsetX + startX  , offsetY + startY  , offsetZ + startZ  ,
-                        offsetX + endX + 1, offsetY + endY + 1, offsetZ + endZ + 1);
+                Litematica.logger.error("null Box or map(s) for sub-region '{}' while trying to save chunk-wise schematic", regionName);
+                continue;
+            }
 
-                long currentTick = world.getTime();
+            final BlockPos minCorner = PositionUtils.getMinCorner(box.getPos1(), box.getPos2());
+            Chunk chunk = world.getChunk(bb.minX >> 4, bb.minZ >> 4);
+            ChunkSection[] sections = chunk.getSectionArray();
+            final int minSectionY = bb.minY >> 4;
+            final int maxSectionY = bb.maxY >> 4;
+            @SuppressWarnings("unchecked")
+            PalettedContainer<BlockState>[] copies = new PalettedContainer[maxSectionY - minSectionY + 1];
+            long[][] exposedBlocks = info.visibleOnly ? new long[copies.length][] : null;
+
+            for (int sectionY = minSectionY; sectionY <= maxSectionY; ++sectionY)
+            {
+                int index = world.sectionCoordToIndex(sectionY);
 
-                this.getTicksFromScheduler(((IMixinWorldTickScheduler<Block>) serverWorld.getBlockTickScheduler()).litematica_getChunkTickSchedulers(),
-                                           blockTickMap, tickBox, minCorner, currentTick);
+                if (index >= 0 && index < sections.length &&
+                    sections[index] != null && sections[index].isEmpty() == false)
+                {
+                    copies[sectionY - minSectionY] = sections[index].getBlockStateContainer().copy();
 
-                this.getTicksFromScheduler(((IMixinWorldTickScheduler<Fluid>) serverWorld.getFluidTickScheduler()).litematica_getChunkTickSchedulers(),
-                                           fluidTickMap, tickBox, minCorner, currentTick);
+                    if (exposedBlocks != null)
+                    {
+                        exposedBlocks[sectionY - minSectionY] = BlockOcclusionMask.getExposedBlocks(world, chunk.getPos().x, sectionY, chunk.getPos().z);
+                    }
+                }
+            }
+
+            for (BlockEntity te : chunk.getBlockEntities().values())
+            {
+                BlockPos tePos = te.getPos();
+
+                if (bb.containsPos(tePos) &&
+                    (exposedBlocks == null || isExposed(exposedBlocks, minSectionY, tePos.getX(), tePos.getY(), tePos.getZ())))
+                {
+                    // TODO Add a TileEntity NBT cache from the Chunk packets, to get the original synced data (too)
+                    BlockPos pos = tePos.subtract(minCorner);
+                    NbtCompound tag = te.createNbt();
+                    NBTUtils.writeBlockPosToTag(pos, tag);
+                    tileEntityMap.put(pos, tag);
+                }
             }
+
+            this.takeScheduledTicksWithinVolume(world, bb, minCorner, blockTickMap, fluidTickMap);
+            snapshots.add(new ChunkBlockSnapshot(regionName, bb, minCorner, minSectionY, copies, exposedBlocks));
+        }
+
+        return snapshots;
+    }
+
+    /**
+     * Writes the block data from the given chunk snapshot into the sub-region container.
+     * See {@link #takeChunkSnapshots(World, ImmutableMap, ImmutableMap, SchematicSaveInfo)}.
+     */
+    public void takeBlocksFromSnapshot(ChunkBlockSnapshot snapshot)
+    {
+        LitematicaBlockStateContainer container = this.blockContainers.get(snapshot.regionName);
+
+        if (container == null)
+        {
+            Litematica.logger.error("null container for sub-region '{}' while trying to save chunk-wise schematic", snapshot.regionName);
+            return;
+        }
+
+        List<PalettedContainer<BlockState>> sections = new ArrayList<>();
+
+        for (PalettedContainer<BlockState> section : snapshot.sections)
+        {
+            if (section != null)
+            {
+                sections.add(section);
+            }
+        }
+
+        container.ensurePaletteCapacity(getEstimatedPaletteSize(sections, snapshot.box, container));
+
+        final IntBoundingBox bb = snapshot.box;
+        final BlockPos minCorner = snapshot.minCorner;
+        final long[][] exposedBlocks = snapshot.exposedBlocks;
+        int count = 0;
+
+        for (int y = bb.minY; y <= bb.maxY; ++y)
+        {
+            PalettedContainer<BlockState> section = snapshot.sections[(y >> 4) - snapshot.minSectionY];
+
+            // The containers are initialized to air, and each position is only written once
+            if (section == null)
+            {
+                continue;
+            }
+
+            final int relY = y - minCorner.getY();
+
+            for (int z = bb.minZ; z <= bb.maxZ; ++z)
+            {
+                final int relZ = z - minCorner.getZ();
+
+                for (int x = bb.minX; x <= bb.maxX; ++x)
+                {
+                    if (exposedBlocks != null && isExposed(exposedBlocks, snapshot.minSectionY, x, y, z) == false)
+                    {
+                        continue;
+                    }
+
+                    BlockState state = section.get(x & 0xF, y & 0xF, z & 0xF);
+
+                    if (state.isAir() == false)
+                    {
+                        container.set(x - minCorner.getX(), relY, relZ, state);
+                        ++count;
+                    }
+                }
+            }
+        }
+
+        synchronized (this)
+        {
+            this.totalBlocksReadFromWorld += count;
         }
     }
 
+    private static boolean isExposed(long[][] exposedBlocks, int minSectionY, int x, int y, int z)
+    {
+        long[] bits = exposedBlocks[(y >> 4) - minSectionY];
+        return bits != null && BlockOcclusionMask.isBitSet(bits, x, y, z);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void takeScheduledTicksWithinVolume(World world, IntBoundingBox bb, BlockPos minCorner,
+                                                Map<BlockPos, OrderedTick<Block>> blockTickMap,
+                                                Map<BlockPos, OrderedTick<Fluid>> fluidTickMap)
+    {
+        if (world instanceof ServerWorld serverWorld)
+        {
+            IntBoundingBox tickBox = IntBoundingBox.createProper(bb.minX, bb.minY, bb.minZ,
+                                                                 bb.maxX + 1, bb.maxY + 1, bb.maxZ + 1);
+            long currentTick = world.getTime();
+
+            this.getTicksFromScheduler(((IMixinWorldTickScheduler<Block>) serverWorld.getBlockTickScheduler()).litematica_getChunkTickSchedulers(),
+                                       blockTickMap, tickBox, minCorner, currentTick);
+
+            this.getTicksFromScheduler(((IMixinWorldTickScheduler<Fluid>) serverWorld.getFluidTickScheduler()).litematica_getChunkTickSchedulers(),
+                                       fluidTickMap, tickBox, minCorner, currentTick);
+        }
+    }
+
+    /**
+     * Estimates the palette size the container will need after adding the blocks
+     * from the given volume within one chunk, based on the palettes of the chunk sections.
+     */
+    private static int getEstimatedPaletteSize(World world, IntBoundingBox bb, LitematicaBlockStateContainer container)
+    {
+        List<PalettedContainer<BlockState>> list = new ArrayList<>();
+        Chunk chunk = world.getChunk(bb.minX >> 4, bb.minZ >> 4);
+        ChunkSection[] sections = chunk.getSectionArray();
+        final int minIndex = Math.max(0, world.getSectionIndex(bb.minY));
+        final int maxIndex = Math.min(sections.length - 1, world.getSectionIndex(bb.maxY));
+
+        for (int i = minIndex; i <= maxIndex; ++i)
+        {
+            ChunkSection section = sections[i];
+
+            if (section != null && section.isEmpty() == false)
+            {
+                list.add(section.getBlockStateContainer());
+            }
+        }
+
+        return getEstimatedPaletteSize(list, bb, container);
+    }
+
+    /**
+     * The sections can contain states outside of the volume, so this is an upper bound,
+     * which is further capped by the number of blocks in the volume.
+     */
+    private static int getEstimatedPaletteSize(Collection<PalettedContainer<BlockState>> sections, IntBoundingBox bb,
+                                               LitematicaBlockStateContainer container)
+    {
+        Set<BlockState> states = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (PalettedContainer<BlockState> section : sections)
+        {
+            section.count((state, count) -> states.add(state));
+        }
+
+        states.removeAll(container.getPalette().getMapping());
+
+        long volume = (long) (bb.maxX - bb.minX + 1) * (bb.maxY - bb.minY + 1) * (bb.maxZ - bb.minZ + 1);
+
+        return container.getPalette().getPaletteSize() + (int) Math.min(states.size(), volume);
+    }
+
     private void setSubRegionPositions(List<Box> boxes, BlockPos areaOrigin)
     {
         for (Box box : boxes)
@@ -926,6 +1128,8 @@ public class LitematicaSchematic
         nbt.putInt("MinecraftDataVersion", MINECRAFT_DATA_VERSION);
         nbt.putInt("Version", SCHEMATIC_VERSION);
         nbt.putInt("SubVersion", SCHEMATIC_VERSION_SUB);
+        // Note: The order of the tags in the file is decided by the compound tag's hash map, which places
+        // the version and Metadata tags before the Regions, so the header-only metadata read can stop early.
         nbt.put("Metadata", this.metadata.writeToNBT());
         nbt.put("Regions", this.writeSubRegionsToNBT());
 
@@ -938,47 +1142,62 @@ public class LitematicaSchematic
 
         if (this.blockContainers.isEmpty() == false)
         {
-            for (String regionName : this.blockContainers.keySet())
+            // The regions are encoded in parallel, but added to the wrapper tag
+            // in the same order as before, so the output doesn't change.
+            List<String> regionNames = new ArrayList<>(this.blockContainers.keySet());
+            List<CompletableFuture<NbtCompound>> futures = new ArrayList<>();
+
+            for (String regionName : regionNames)
             {
-                LitematicaBlockStateContainer blockContainer = this.blockContainers.get(regionName);
-                Map<BlockPos, NbtCompound> tileMap = this.tileEntities.get(regionName);
-                List<EntityInfo> entityList = this.entities.get(regionName);
-                Map<BlockPos, OrderedTick<Block>> pendingBlockTicks = this.pendingBlockTicks.get(regionName);
-                Map<BlockPos, OrderedTick<Fluid>> pendingFluidTicks = this.pendingFluidTicks.get(regionName);
+                futures.add(CompletableFuture.supplyAsync(() -> this.writeSubRegionToNBT(regionName), ForkJoinPool.commonPool()));
+            }
 
-                NbtCompound tag = new NbtCompound();
+            for (int i = 0; i < regionNames.size(); ++i)
+            {
+                wrapper.put(regionNames.get(i), futures.get(i).join());
+            }
+        }
 
-                tag.put("BlockStatePalette", blockContainer.getPalette().writeToNBT());
-                tag.put("BlockStates", new NbtLongArray(blockContainer.getBackingLongArray()));
-                tag.put("TileEntities", this.writeTileEntitiesToNBT(tileMap));
+        return wrapper;
+    }
 
-                if (pendingBlockTicks != null)
-                {
-                    tag.put("PendingBlockTicks", this.writePendingTicksToNBT(pendingBlockTicks, Registries.BLOCK, "Block"));
-                }
+    private NbtCompound writeSubRegionToNBT(String regionName)
+    {
+        LitematicaBlockStateContainer blockContainer = this.blockContainers.get(regionName);
+        Map<BlockPos, NbtCompound> tileMap = this.tileEntities.get(regionName);
+        List<EntityInfo> entityList = this.entities.get(regionName);
+        Map<BlockPos, OrderedTick<Block>> pendingBlockTicks = this.pendingBlockTicks.get(regionName);
+        Map<BlockPos, OrderedTick<Fluid>> pendingFluidTicks = this.pendingFluidTicks.get(regionName);
 
-                if (pendingFluidTicks != null)
-                {
-                    tag.put("PendingFluidTicks", this.writePendingTicksToNBT(pendingFluidTicks, Registries.FLUID, "Fluid"));
-                }
+        NbtCompound tag = new NbtCompound();
 
-                // The entity list will not exist, if takeEntities is false when creating the schematic
-                if (entityList != null)
-                {
-                    tag.put("Entities", this.writeEntitiesToNBT(entityList));
-                }
+        tag.put("BlockStatePalette", blockContainer.getPalette().writeToNBT());
+        tag.put("BlockStates", new NbtLongArray(blockContainer.getTightlyPackedLongArray()));
+        tag.put("TileEntities", this.writeTileEntitiesToNBT(tileMap));
 
-                BlockPos pos = this.subRegionPositions.get(regionName);
-                tag.put("Position", NBTUtils.createBlockPosTag(pos));
+        if (pendingBlockTicks != null)
+        {
+            tag.put("PendingBlockTicks", this.writePendingTicksToNBT(pendingBlockTicks, Registries.BLOCK, "Block"));
+        }
 
-                pos = this.subRegionSizes.get(regionName);
-                tag.put("Size", NBTUtils.createBlockPosTag(pos));
+        if (pendingFluidTicks != null)
+        {
+            tag.put("PendingFluidTicks", this.writePendingTicksToNBT(pendingFluidTicks, Registries.FLUID, "Fluid"));
+        }
 
-                wrapper.put(regionName, tag);
-            }
+        // The entity list will not exist, if takeEntities is false when creating the schematic
+        if (entityList != null)
+        {
+            tag.put("Entities", this.writeEntitiesToNBT(entityList));
         }
 
-        return wrapper;
+        BlockPos pos = this.subRegionPositions.get(regionName);
+        tag.put("Position", NBTUtils.createBlockPosTag(pos));
+
+        pos = this.subRegionSizes.get(regionName);
+        tag.put("Size", NBTUtils.createBlockPosTag(pos));
+
+        return tag;
     }
 
     private NbtList writeEntitiesToNBT(List<EntityInfo> entityList)
@@ -1039,7 +1258,12 @@ public class LitematicaSchematic
         return tagList;
     }
 
-    private boolean readFromNBT(NbtCompound nbt)
+    /**
+     * Reads the schematic tag by tag from the stream, without first reading the entire file
+     * into an NBT tree. The sub-regions are decoded in parallel as soon as they have been read,
+     * and the optional data that was not requested is skipped without being read to memory.
+     */
+    private boolean readFromStream(NbtStreamReader reader, SchematicLoadInfo info) throws IOException
     {
         this.blockContainers.clear();
         this.tileEntities.clear();
@@ -1049,99 +1273,227 @@ public class LitematicaSchematic
         this.subRegionSizes.clear();
         //this.metadata.clearModifiedSinceSaved();
 
-        if (nbt.contains("Version", Constants.NBT.TAG_INT))
+        reader.readRootCompoundStart();
+
+        int version = -1;
+        int minecraftDataVersion = -1;
+        NbtCompound regionsTag = null;
+        byte type;
+
+        while ((type = reader.readNextTagType()) != Constants.NBT.TAG_END)
         {
-            final int version = nbt.getInt("Version");
-            final int minecraftDataVersion = nbt.getInt("MinecraftDataVersion");
+            String name = reader.readName();
 
-            if (version >= 1 && version <= SCHEMATIC_VERSION)
+            if (type == Constants.NBT.TAG_INT && name.equals("Version"))
             {
-                this.metadata.readFromNBT(nbt.getCompound("Metadata"));
-                this.readSubRegionsFromNBT(nbt.getCompound("Regions"), version, minecraftDataVersion);
+                version = reader.readInt();
 
-                return true;
+                if (version < 1 || version > SCHEMATIC_VERSION)
+                {
+                    showLoadMessage(MessageType.ERROR, "litematica.error.schematic_load.unsupported_schematic_version", version);
+                    return false;
+                }
+            }
+            else if (type == Constants.NBT.TAG_INT && name.equals("MinecraftDataVersion"))
+            {
+                minecraftDataVersion = reader.readInt();
+            }
+            else if (type == Constants.NBT.TAG_COMPOUND && name.equals("Metadata"))
+            {
+                this.metadata.readFromNBT((NbtCompound) reader.readPayload(type));
+            }
+            else if (type == Constants.NBT.TAG_COMPOUND && name.equals("Regions"))
+            {
+                // The version tags are normally written before the regions, in which case the regions can be
+                // decoded one at a time while streaming. Otherwise they need to be read to memory first.
+                if (version != -1 && minecraftDataVersion != -1)
+                {
+                    this.readSubRegionsFromStream(reader, version, minecraftDataVersion, info);
+                }
+                else
+                {
+                    regionsTag = (NbtCompound) reader.readPayload(type);
+                }
             }
             else
             {
-                InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, "litematica.error.schematic_load.unsupported_schematic_version", version);
+                reader.skipPayload(type);
             }
         }
-        else
+
+        if (version == -1)
         {
-            InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, "litematica.error.schematic_load.no_schematic_version_information");
+            showLoadMessage(MessageType.ERROR, "litematica.error.schematic_load.no_schematic_version_information");
+            return false;
         }
 
-        return false;
+        if (regionsTag != null)
+        {
+            this.readSubRegionsFromNBT(regionsTag, version, Math.max(minecraftDataVersion, 0));
+        }
+
+        return true;
     }
 
-    private void readSubRegionsFromNBT(NbtCompound tag, int version, int minecraftDataVersion)
+    private void readSubRegionsFromStream(NbtStreamReader reader, int version, int minecraftDataVersion,
+                                          SchematicLoadInfo info) throws IOException
     {
-        for (String regionName : tag.getKeys())
+        // Each region is decoded in the background while the next one is read from the stream
+        List<CompletableFuture<SubRegionData>> futures = new ArrayList<>();
+        byte type;
+
+        while ((type = reader.readNextTagType()) != Constants.NBT.TAG_END)
         {
-            if (tag.get(regionName).getType() == Constants.NBT.TAG_COMPOUND)
+            String regionName = reader.readName();
+
+            if (type != Constants.NBT.TAG_COMPOUND)
             {
-                NbtCompound regionTag = tag.getCompound(regionName);
-                BlockPos regionPos = NBTUtils.readBlockPos(regionTag.getCompound("Position"));
-                BlockPos regionSize = NBTUtils.readBlockPos(regionTag.getCompound("Size"));
-                Map<BlockPos, NbtCompound> tiles = null;
+                reader.skipPayload(type);
+                continue;
+            }
+
+            // The region is held in NBT form only until it has been decoded. The BlockStates
+            // long array gets passed directly to the container without being copied.
+            NbtCompound regionTag = new NbtCompound();
+            byte childType;
 
-                if (regionPos != null && regionSize != null)
+            while ((childType = reader.readNextTagType()) != Constants.NBT.TAG_END)
+            {
+                String key = reader.readName();
+
+                if ((info.readEntities == false && key.equals("Entities")) ||
+                    (info.readPendingTicks == false && (key.equals("PendingBlockTicks") || key.equals("PendingFluidTicks"))))
+                {
+                    reader.skipPayload(childType);
+                }
+                else
                 {
-                    this.subRegionPositions.put(regionName, regionPos);
-                    this.subRegionSizes.put(regionName, regionSize);
+                    regionTag.put(key, reader.readPayload(childType));
+                }
+            }
 
-                    if (version >= 2)
-                    {
-                        tiles = this.readTileEntitiesFromNBT(regionTag.getList("TileEntities", Constants.NBT.TAG_COMPOUND));
-                        this.tileEntities.put(regionName, tiles);
-                        this.entities.put(regionName, this.readEntitiesFromNBT(regionTag.getList("Entities", Constants.NBT.TAG_COMPOUND)));
-                    }
-                    else if (version == 1)
-                    {
-                        tiles = this.readTileEntitiesFromNBT_v1(regionTag.getList("TileEntities", Constants.NBT.TAG_COMPOUND));
-                        this.tileEntities.put(regionName, tiles);
-                        this.entities.put(regionName, this.readEntitiesFromNBT_v1(regionTag.getList("Entities", Constants.NBT.TAG_COMPOUND)));
-                    }
+            futures.add(this.decodeSubRegionAsync(regionName, regionTag, version, minecraftDataVersion));
+        }
 
-                    if (version >= 3)
-                    {
-                        NbtList list = regionTag.getList("PendingBlockTicks", Constants.NBT.TAG_COMPOUND);
-                        this.pendingBlockTicks.put(regionName, this.readPendingTicksFromNBT(list, Registries.BLOCK, "Block", Blocks.AIR));
-                    }
+        this.addDecodedSubRegions(futures);
+    }
 
-                    if (version >= 5)
-                    {
-                        NbtList list = regionTag.getList("PendingFluidTicks", Constants.NBT.TAG_COMPOUND);
-                        this.pendingFluidTicks.put(regionName, this.readPendingTicksFromNBT(list, Registries.FLUID, "Fluid", Fluids.EMPTY));
-                    }
+    private void readSubRegionsFromNBT(NbtCompound tag, int version, int minecraftDataVersion)
+    {
+        List<CompletableFuture<SubRegionData>> futures = new ArrayList<>();
 
-                    NbtElement nbtBase = regionTag.get("BlockStates");
+        for (String regionName : new ArrayList<>(tag.getKeys()))
+        {
+            // Remove the region from the parent tag once it has been handed off,
+            // so that it can be released as soon as its decode task is done with it
+            NbtElement regionTag = tag.get(regionName);
+            tag.remove(regionName);
 
-                    // There are no convenience methods in NBTTagCompound yet in 1.12, so we'll have to do it the ugly way...
-                    if (nbtBase != null && nbtBase.getType() == Constants.NBT.TAG_LONG_ARRAY)
-                    {
-                        NbtList palette = regionTag.getList("BlockStatePalette", Constants.NBT.TAG_COMPOUND);
-                        long[] blockStateArr = ((NbtLongArray) nbtBase).getLongArray();
+            if (regionTag.getType() == Constants.NBT.TAG_COMPOUND)
+            {
+                futures.add(this.decodeSubRegionAsync(regionName, (NbtCompound) regionTag, version, minecraftDataVersion));
+            }
+        }
 
-                        BlockPos posEndRel = PositionUtils.getRelativeEndPositionFromAreaSize(regionSize).add(regionPos);
-                        BlockPos posMin = PositionUtils.getMinCorner(regionPos, posEndRel);
-                        BlockPos posMax = PositionUtils.getMaxCorner(regionPos, posEndRel);
-                        BlockPos size = posMax.subtract(posMin).add(1, 1, 1);
+        this.addDecodedSubRegions(futures);
+    }
 
-                        palette = this.convertBlockStatePalette_1_12_to_1_13_2(palette, version, minecraftDataVersion);
+    private CompletableFuture<SubRegionData> decodeSubRegionAsync(String regionName, NbtCompound regionTag, int version, int minecraftDataVersion)
+    {
+        return CompletableFuture.supplyAsync(() -> this.decodeSubRegion(regionName, regionTag, version, minecraftDataVersion), ForkJoinPool.commonPool());
+    }
 
-                        LitematicaBlockStateContainer container = LitematicaBlockStateContainer.createFrom(palette, blockStateArr, size);
+    /**
+     * Waits for the sub-regions to get decoded, and adds them to the schematic in the order they were read in
+     */
+    private void addDecodedSubRegions(List<CompletableFuture<SubRegionData>> futures)
+    {
+        for (CompletableFuture<SubRegionData> future : futures)
+        {
+            SubRegionData data = future.join();
 
-                        if (minecraftDataVersion < MINECRAFT_DATA_VERSION)
-                        {
-                            this.postProcessContainerIfNeeded(palette, container, tiles);
-                        }
+            if (data != null)
+            {
+                data.addTo(this);
+            }
+        }
+    }
 
-                        this.blockContainers.put(regionName, container);
-                    }
+    /**
+     * Decodes one sub-region. This doesn't modify the schematic, so that the regions can be decoded in parallel.
+     */
+    @Nullable
+    private SubRegionData decodeSubRegion(String regionName, NbtCompound regionTag, int version, int minecraftDataVersion)
+    {
+        BlockPos regionPos = NBTUtils.readBlockPos(regionTag.getCompound("Position"));
+        BlockPos regionSize = NBTUtils.readBlockPos(regionTag.getCompound("Size"));
+        Map<BlockPos, NbtCompound> tiles = null;
+
+        if (regionPos != null && regionSize != null)
+        {
+            SubRegionData data = new SubRegionData(regionName, regionPos, regionSize);
+
+            if (version >= 2)
+            {
+                tiles = this.readTileEntitiesFromNBT(regionTag.getList("TileEntities", Constants.NBT.TAG_COMPOUND));
+                data.tiles = tiles;
+                data.entities = this.readEntitiesFromNBT(regionTag.getList("Entities", Constants.NBT.TAG_COMPOUND));
+            }
+            else if (version == 1)
+            {
+                tiles = this.readTileEntitiesFromNBT_v1(regionTag.getList("TileEntities", Constants.NBT.TAG_COMPOUND));
+                data.tiles = tiles;
+                data.entities = this.readEntitiesFromNBT_v1(regionTag.getList("Entities", Constants.NBT.TAG_COMPOUND));
+            }
+
+            // The NBT forms are not needed anymore after they have been read
+            regionTag.remove("TileEntities");
+            regionTag.remove("Entities");
+
+            if (version >= 3)
+            {
+                NbtList list = regionTag.getList("PendingBlockTicks", Constants.NBT.TAG_COMPOUND);
+                data.pendingBlockTicks = this.readPendingTicksFromNBT(list, Registries.BLOCK, "Block", Blocks.AIR);
+            }
+
+            if (version >= 5)
+            {
+                NbtList list = regionTag.getList("PendingFluidTicks", Constants.NBT.TAG_COMPOUND);
+                data.pendingFluidTicks = this.readPendingTicksFromNBT(list, Registries.FLUID, "Fluid", Fluids.EMPTY);
+            }
+
+            regionTag.remove("PendingBlockTicks");
+            regionTag.remove("PendingFluidTicks");
+
+            NbtElement nbtBase = regionTag.get("BlockStates");
+
+            // There are no convenience methods in NBTTagCompound yet in 1.12, so we'll have to do it the ugly way...
+            if (nbtBase != null && nbtBase.getType() == Constants.NBT.TAG_LONG_ARRAY)
+            {
+                NbtList palette = regionTag.getList("BlockStatePalette", Constants.NBT.TAG_COMPOUND);
+                long[] blockStateArr = ((NbtLongArray) nbtBase).getLongArray();
+
+                BlockPos posEndRel = PositionUtils.getRelativeEndPositionFromAreaSize(regionSize).add(regionPos);
+                BlockPos posMin = PositionUtils.getMinCorner(regionPos, posEndRel);
+                BlockPos posMax = PositionUtils.getMaxCorner(regionPos, posEndRel);
+                BlockPos size = posMax.subtract(posMin).add(1, 1, 1);
+
+                palette = this.convertBlockStatePalette_1_12_to_1_13_2(palette, version, minecraftDataVersion);
+
+                LitematicaBlockStateContainer container = LitematicaBlockStateContainer.createFrom(palette, blockStateArr, size);
+
+                if (minecraftDataVersion < MINECRAFT_DATA_VERSION)
+                {
+                    this.postProcessContainerIfNeeded(palette, container, tiles);
                 }
+
+                data.container = container;
             }
+
+            return data;
         }
+
+        return null;
     }
 
     public static boolean isSizeValid(@Nullable Vec3i size)
@@ -1240,14 +1592,14 @@ public class LitematicaSchematic
             }
             else
             {
-                InfoUtils.showGuiOrInGameMessage(MessageType.WARNING, "Unknown block in the Sponge schematic palette: '" + key + "'");
+                showLoadMessage(MessageType.WARNING, "Unknown block in the Sponge schematic palette: '" + key + "'");
                 state = LitematicaBlockStateContainer.AIR_BLOCK_STATE;
             }
 
             if (id < 0 || id >= size)
             {
                 String msg = "Invalid ID in the Sponge schematic palette: '" + id + "'";
-                InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, msg);
+                showLoadMessage(MessageType.ERROR, msg);
                 Litematica.logger.error(msg);
                 return false;
             }
@@ -1271,7 +1623,7 @@ public class LitematicaSchematic
             if (container == null)
             {
                 String msg = "Failed to read blocks from Sponge schematic";
-                InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, msg);
+                showLoadMessage(MessageType.ERROR, msg);
                 Litematica.logger.error(msg);
                 return false;
             }
@@ -1465,7 +1817,7 @@ public class LitematicaSchematic
 
                 if (pos == null)
                 {
-                    InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, "Failed to read block position for vanilla structure");
+                    showLoadMessage(MessageType.ERROR, "Failed to read block position for vanilla structure");
                     return false;
                 }
 
@@ -1564,9 +1916,13 @@ public class LitematicaSchematic
     {
         List<BlockState> states = getStatesFromPaletteTag(palette);
 
-        if (this.converter.createPostProcessStateFilter(states))
+        // The converter holds the current filter, and the sub-regions may be decoded in parallel,
+        // so each region uses its own converter
+        SchematicConverter converter = SchematicConverter.createForLitematica();
+
+        if (converter.createPostProcessStateFilter(states))
         {
-            IdentityHashMap<BlockState, SchematicConversionFixers.IStateFixer> postProcessingFilter = this.converter.getPostProcessStateFilter();
+            IdentityHashMap<BlockState, SchematicConversionFixers.IStateFixer> postProcessingFilter = converter.getPostProcessStateFilter();
             SchematicConverter.postProcessBlocks(container, tiles, postProcessingFilter);
         }
     }
@@ -1779,13 +2135,18 @@ public class LitematicaSchematic
 
     public boolean readFromFile()
     {
-        return this.readFromFile(this.schematicType);
+        return this.readFromFile(this.schematicType, SchematicLoadInfo.DEFAULT);
     }
 
-    private boolean readFromFile(FileType schematicType)
+    private boolean readFromFile(FileType schematicType, SchematicLoadInfo info)
     {
         try
         {
+            if (schematicType == FileType.LITEMATICA_SCHEMATIC)
+            {
+                return this.readFromFileStreaming(info);
+            }
+
             NbtCompound nbt = readNbtFromFile(this.schematicFile);
 
             if (nbt != null)
@@ -1800,32 +2161,50 @@ public class LitematicaSchematic
                     String name = FileUtils.getNameWithoutExtension(this.schematicFile.getName()) + " (Converted Structure)";
                     return this.readFromVanillaStructure(name, nbt);
                 }
-                else if (schematicType == FileType.LITEMATICA_SCHEMATIC)
-                {
-                    return this.readFromNBT(nbt);
-                }
             }
         }
         catch (Exception e)
         {
-            InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, "litematica.error.schematic_read_from_file_failed.exception", this.schematicFile.getAbsolutePath());
+            showLoadMessage(MessageType.ERROR, "litematica.error.schematic_read_from_file_failed.exception", this.schematicFile.getAbsolutePath());
             Litematica.logger.error(e);
         }
 
         return false;
     }
 
+    private boolean readFromFileStreaming(SchematicLoadInfo info) throws IOException
+    {
+        File file = this.schematicFile;
+
+        if (file == null)
+        {
+            showLoadMessage(MessageType.ERROR, "litematica.error.schematic_read_from_file_failed.no_file");
+            return false;
+        }
+
+        if (file.exists() == false || file.canRead() == false)
+        {
+            showLoadMessage(MessageType.ERROR, "litematica.error.schematic_read_from_file_failed.cant_read", file.getAbsolutePath());
+            return false;
+        }
+
+        try (NbtStreamReader reader = NbtStreamReader.openFile(file, info.progressListener))
+        {
+            return this.readFromStream(reader, info);
+        }
+    }
+
     public static NbtCompound readNbtFromFile(File file)
     {
         if (file == null)
         {
-            InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, "litematica.error.schematic_read_from_file_failed.no_file");
+            showLoadMessage(MessageType.ERROR, "litematica.error.schematic_read_from_file_failed.no_file");
             return null;
         }
 
         if (file.exists() == false || file.canRead() == false)
         {
-            InfoUtils.showGuiOrInGameMessage(MessageType.ERROR, "litematica.error.schematic_read_from_file_failed.cant_read", file.getAbsolutePath());
+            showLoadMessage(MessageType.ERROR, "litematica.error.schematic_read_from_file_failed.cant_read", file.getAbsolutePath());
             return null;
         }
 
@@ -1842,25 +2221,82 @@ public class LitematicaSchematic
         return new File(dir, fileName);
     }
 
+    /**
+     * Reads only the metadata from the given .litematic file. The file is only read
+     * until the version and metadata tags have been found, so the region data
+     * (which normally follows them) is never decompressed.
+     */
     @Nullable
     public static SchematicMetadata readMetadataFromFile(File dir, String fileName)
     {
-        NbtCompound nbt = readNbtFromFile(fileFromDirAndName(dir, fileName, FileType.LITEMATICA_SCHEMATIC));
+        File file = fileFromDirAndName(dir, fileName, FileType.LITEMATICA_SCHEMATIC);
+
+        if (file.exists() == false || file.canRead() == false)
+        {
+            // This gets called from the metadata indexer thread, so no chat/GUI messages here
+            Litematica.logger.warn("Can't read the schematic file '{}'", file.getAbsolutePath());
+            return null;
+        }
+
+        try (NbtStreamReader reader = NbtStreamReader.openFile(file))
+        {
+            return readMetadataFromStream(reader);
+        }
+        catch (Exception e)
+        {
+            Litematica.logger.warn("Failed to read the schematic metadata from file '{}'", file.getAbsolutePath(), e);
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private static SchematicMetadata readMetadataFromStream(NbtStreamReader reader) throws IOException
+    {
+        reader.readRootCompoundStart();
+
+        SchematicMetadata metadata = null;
+        int version = -1;
+        int minecraftDataVersion = -1;
+        byte type;
 
-        if (nbt != null)
+        while ((type = reader.readNextTagType()) != Constants.NBT.TAG_END)
         {
-            SchematicMetadata metadata = new SchematicMetadata();
+            String name = reader.readName();
+
+            if (type == Constants.NBT.TAG_INT && name.equals("Version"))
+            {
+                version = reader.readInt();
+            }
+            else if (type == Constants.NBT.TAG_INT && name.equals("MinecraftDataVersion"))
+            {
+                minecraftDataVersion = reader.readInt();
+            }
+            else if (type == Constants.NBT.TAG_COMPOUND && name.equals("Metadata"))
+            {
+                metadata = new SchematicMetadata();
+                metadata.readFromNBT((NbtCompound) reader.readPayload(type));
+            }
+            else
+            {
+                reader.skipPayload(type);
+            }
 
-            if (nbt.contains("Version", Constants.NBT.TAG_INT))
+            if (version != -1 && minecraftDataVersion != -1 && metadata != null)
             {
-                final int version = nbt.getInt("Version");
+                break;
+            }
+        }
 
-                if (version >= 1 && version <= SCHEMATIC_VERSION)
-                {
-                    metadata.readFromNBT(nbt.getCompound("Metadata"));
-                    return metadata;
-                }
+        if (version >= 1 && version <= SCHEMATIC_VERSION)
+        {
+            if (metadata == null)
+            {
+                metadata = new SchematicMetadata();
+                metadata.readFromNBT(new NbtCompound());
             }
+
+            return metadata;
         }
 
         return null;
@@ -1874,11 +2310,52 @@ public class LitematicaSchematic
 
     @Nullable
     public static LitematicaSchematic createFromFile(File dir, String fileName, FileType schematicType)
+    {
+        return createFromFile(dir, fileName, schematicType, SchematicLoadInfo.DEFAULT);
+    }
+
+    /**
+     * Creates a schematic from the given file. The load info can be used to skip
+     * reading the entities or the scheduled ticks from .litematic files,
+     * for uses that only need the blocks.
+     */
+    @Nullable
+    public static LitematicaSchematic createFromFile(File dir, String fileName, FileType schematicType, SchematicLoadInfo info)
     {
         File file = fileFromDirAndName(dir, fileName, schematicType);
         LitematicaSchematic schematic = new LitematicaSchematic(file, schematicType);
 
-        return schematic.readFromFile(schematicType) ? schematic : null;
+        if (info.deferredMessages != null)
+        {
+            DEFERRED_MESSAGES.set(info.deferredMessages);
+        }
+
+        try
+        {
+            return schematic.readFromFile(schematicType, info) ? schematic : null;
+        }
+        finally
+        {
+            DEFERRED_MESSAGES.remove();
+        }
+    }
+
+    /**
+     * Shows the message right away, or if the schematic is being loaded on a background thread
+     * with deferred messages, stores it to be shown later on the client thread.
+     */
+    private static void showLoadMessage(MessageType type, String translationKey, Object... args)
+    {
+        List<DeferredMessage> messages = DEFERRED_MESSAGES.get();
+
+        if (messages != null)
+        {
+            messages.add(new DeferredMessage(type, translationKey, args));
+        }
+        else
+        {
+            InfoUtils.showGuiOrInGameMessage(type, translationKey, args);
+        }
     }
 
     public static class EntityInfo
@@ -1898,6 +2375,133 @@ public class LitematicaSchematic
         }
     }
 
+    private static class SubRegionData
+    {
+        private final String name;
+        private final BlockPos pos;
+        private final BlockPos size;
+        @Nullable private Map<BlockPos, NbtCompound> tiles;
+        @Nullable private List<EntityInfo> entities;
+        @Nullable private Map<BlockPos, OrderedTick<Block>> pendingBlockTicks;
+        @Nullable private Map<BlockPos, OrderedTick<Fluid>> pendingFluidTicks;
+        @Nullable private LitematicaBlockStateContainer container;
+
+        private SubRegionData(String name, BlockPos pos, BlockPos size)
+        {
+            this.name = name;
+            this.pos = pos;
+            this.size = size;
+        }
+
+        private void addTo(LitematicaSchematic schematic)
+        {
+            schematic.subRegionPositions.put(this.name, this.pos);
+            schematic.subRegionSizes.put(this.name, this.size);
+
+            if (this.tiles != null)             { schematic.tileEntities.put(this.name, this.tiles); }
+            if (this.entities != null)          { schematic.entities.put(this.name, this.entities); }
+            if (this.pendingBlockTicks != null) { schematic.pendingBlockTicks.put(this.name, this.pendingBlockTicks); }
+            if (this.pendingFluidTicks != null) { schematic.pendingFluidTicks.put(this.name, this.pendingFluidTicks); }
+            if (this.container != null)         { schematic.blockContainers.put(this.name, this.container); }
+        }
+    }
+
+    public static class SchematicLoadInfo
+    {
+        public static final SchematicLoadInfo DEFAULT = new SchematicLoadInfo(true, true);
+
+        public final boolean readEntities;
+        public final boolean readPendingTicks;
+        @Nullable public final LongConsumer progressListener;
+        @Nullable private final List<DeferredMessage> deferredMessages;
+
+        public SchematicLoadInfo(boolean readEntities, boolean readPendingTicks)
+        {
+            this(readEntities, readPendingTicks, null);
+        }
+
+        /**
+         * @param progressListener if not null, then this gets called with the number of bytes
+         * read from the file so far, while reading a .litematic file. Note that this
+         * will get called on the thread that is loading the schematic.
+         */
+        public SchematicLoadInfo(boolean readEntities, boolean readPendingTicks, @Nullable LongConsumer progressListener)
+        {
+            this(readEntities, readPendingTicks, progressListener, false);
+        }
+
+        /**
+         * @param deferMessages if true, then any error messages from loading the schematic are stored
+         * instead of being shown right away, and they must then be shown on the client thread
+         * via {@link #showDeferredMessages()}. This is needed when loading on a background thread.
+         */
+        public SchematicLoadInfo(boolean readEntities, boolean readPendingTicks, @Nullable LongConsumer progressListener, boolean deferMessages)
+        {
+            this.readEntities = readEntities;
+            this.readPendingTicks = readPendingTicks;
+            this.progressListener = progressListener;
+            this.deferredMessages = deferMessages ? new ArrayList<>() : null;
+        }
+
+        public void showDeferredMessages()
+        {
+            if (this.deferredMessages != null)
+            {
+                for (DeferredMessage message : this.deferredMessages)
+                {
+                    InfoUtils.showGuiOrInGameMessage(message.type, message.translationKey, message.args);
+                }
+
+                this.deferredMessages.clear();
+            }
+        }
+    }
+
+    private static class DeferredMessage
+    {
+        private final MessageType type;
+        private final String translationKey;
+        private final Object[] args;
+
+        private DeferredMessage(MessageType type, String translationKey, Object[] args)
+        {
+            this.type = type;
+            this.translationKey = translationKey;
+            this.args = args;
+        }
+    }
+
+    /**
+     * Copies of the chunk sections intersecting one sub-region volume within one chunk
+     */
+    public static class ChunkBlockSnapshot
+    {
+        private final String regionName;
+        private final IntBoundingBox box;
+        private final BlockPos minCorner;
+        private final int minSectionY;
+        /** The copied block state containers, null entries are empty sections */
+        private final PalettedContainer<BlockState>[] sections;
+        /** The exposed blocks of each section, if only the visible blocks are saved */
+        @Nullable private final long[][] exposedBlocks;
+
+        private ChunkBlockSnapshot(String regionName, IntBoundingBox box, BlockPos minCorner, int minSectionY,
+                                   PalettedContainer<BlockState>[] sections, @Nullable long[][] exposedBlocks)
+        {
+            this.regionName = regionName;
+            this.box = box;
+            this.minCorner = minCorner;
+            this.minSectionY = minSectionY;
+            this.sections = sections;
+            this.exposedBlocks = exposedBlocks;
+        }
+
+        public String getRegionName()
+        {
+            return this.regionName;
+        }
+    }
+
     public static class SchematicSaveInfo
     {
         public final boolean visibleOnly;
@@ -32,4 +32,10 @@ public interface ILitematicaBlockStatePalette
      * @return true if the mapping was set successfully, false if it failed
      */
     boolean setMapping(List<BlockState> list);
+
+    /**
+     * Returns the current mapping of the palette, in the order of the palette IDs.
+     * Missing entries are returned as air.
+     */
+    List<BlockState> getMapping();
 }
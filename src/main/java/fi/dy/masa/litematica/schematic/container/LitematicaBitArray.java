@@ -1,5 +1,6 @@
 package fi.dy.masa.litematica.schematic.container;
 
+import java.util.Arrays;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.Validate;
 
@@ -16,6 +17,16 @@ public class LitematicaBitArray
     private final long maxEntryValue;
     /** Number of entries in this array (<b>not</b> the length of the long array that internally backs this array) */
     private final long arraySize;
+    /**
+     * If true, then entries never span two longs, and the left over high bits of each long are unused.
+     * This is the same layout that vanilla uses in the chunk section data since 1.16.
+     * If false, then the entries are tightly packed, which is the layout used in the .litematic files.
+     */
+    private final boolean wordAligned;
+    /** Number of entries in a single long, only used in the word-aligned mode */
+    private final int entriesPerLong;
+    /** Magic multiplier for dividing an entry index by entriesPerLong, see {@link #getLongIndex(long)} */
+    private final long divisionMagic;
 
     public LitematicaBitArray(int bitsPerEntryIn, long arraySizeIn)
     {
@@ -23,11 +34,19 @@ public class LitematicaBitArray
     }
 
     public LitematicaBitArray(int bitsPerEntryIn, long arraySizeIn, @Nullable long[] longArrayIn)
+    {
+        this(bitsPerEntryIn, arraySizeIn, longArrayIn, false);
+    }
+
+    public LitematicaBitArray(int bitsPerEntryIn, long arraySizeIn, @Nullable long[] longArrayIn, boolean wordAligned)
     {
         Validate.inclusiveBetween(1L, 32L, bitsPerEntryIn);
         this.arraySize = arraySizeIn;
         this.bitsPerEntry = bitsPerEntryIn;
         this.maxEntryValue = (1L << bitsPerEntryIn) - 1L;
+        this.wordAligned = wordAligned;
+        this.entriesPerLong = 64 / bitsPerEntryIn;
+        this.divisionMagic = Long.MAX_VALUE / this.entriesPerLong + 1L;
 
         if (longArrayIn != null)
         {
@@ -35,14 +54,33 @@ public class LitematicaBitArray
         }
         else
         {
-            this.longArray = new long[(int) (roundUp(arraySizeIn * bitsPerEntryIn, 64L) / 64L)];
+            this.longArray = new long[getRequiredLongArrayLength(bitsPerEntryIn, arraySizeIn, wordAligned)];
+        }
+    }
+
+    public static int getRequiredLongArrayLength(int bitsPerEntry, long arraySize, boolean wordAligned)
+    {
+        if (wordAligned)
+        {
+            int entriesPerLong = 64 / bitsPerEntry;
+            return (int) ((arraySize + entriesPerLong - 1L) / entriesPerLong);
         }
+
+        return (int) (roundUp(arraySize * bitsPerEntry, 64L) / 64L);
     }
 
     public void setAt(long index, int value)
     {
         //Validate.inclusiveBetween(0L, this.arraySize - 1L, index);
         //Validate.inclusiveBetween(0L, this.maxEntryValue, value);
+        if (this.wordAligned)
+        {
+            int arrIndex = this.getLongIndex(index);
+            int bitOffset = (int) (index - (long) arrIndex * this.entriesPerLong) * this.bitsPerEntry;
+            this.longArray[arrIndex] = this.longArray[arrIndex] & ~(this.maxEntryValue << bitOffset) | ((long) value & this.maxEntryValue) << bitOffset;
+            return;
+        }
+
         long startOffset = index * (long) this.bitsPerEntry;
         int startArrIndex = (int) (startOffset >> 6); // startOffset / 64
         int endArrIndex = (int) (((index + 1L) * (long) this.bitsPerEntry - 1L) >> 6);
@@ -60,6 +98,13 @@ public class LitematicaBitArray
     public int getAt(long index)
     {
         //Validate.inclusiveBetween(0L, this.arraySize - 1L, index);
+        if (this.wordAligned)
+        {
+            int arrIndex = this.getLongIndex(index);
+            int bitOffset = (int) (index - (long) arrIndex * this.entriesPerLong) * this.bitsPerEntry;
+            return (int) (this.longArray[arrIndex] >>> bitOffset & this.maxEntryValue);
+        }
+
         long startOffset = index * (long) this.bitsPerEntry;
         int startArrIndex = (int) (startOffset >> 6); // startOffset / 64
         int endArrIndex = (int) (((index + 1L) * (long) this.bitsPerEntry - 1L) >> 6);
@@ -76,11 +121,395 @@ public class LitematicaBitArray
         }
     }
 
+    /**
+     * Reads <b>count</b> consecutive entries starting from the entry <b>start</b>
+     * into the beginning of the array <b>out</b>.
+     */
+    public void getRange(int[] out, long start, int count)
+    {
+        if (count <= 0)
+        {
+            return;
+        }
+
+        final long mask = this.maxEntryValue;
+        final int bits = this.bitsPerEntry;
+        final long[] arr = this.longArray;
+
+        if (this.wordAligned)
+        {
+            final int entriesPerLong = this.entriesPerLong;
+            int arrIndex = this.getLongIndex(start);
+            int slot = (int) (start - (long) arrIndex * entriesPerLong);
+            long word = arr[arrIndex] >>> (slot * bits);
+
+            for (int i = 0; i < count; ++i)
+            {
+                if (slot == entriesPerLong)
+                {
+                    word = arr[++arrIndex];
+                    slot = 0;
+                }
+
+                out[i] = (int) (word & mask);
+                word >>>= bits;
+                ++slot;
+            }
+        }
+        else
+        {
+            long startOffset = start * (long) bits;
+            int arrIndex = (int) (startOffset >> 6);
+            int bitOffset = (int) (startOffset & 0x3F);
+            long word = arr[arrIndex];
+
+            for (int i = 0; i < count; ++i)
+            {
+                if (bitOffset == 64)
+                {
+                    word = arr[++arrIndex];
+                    bitOffset = 0;
+                }
+
+                int endOffset = bitOffset + bits;
+
+                if (endOffset <= 64)
+                {
+                    out[i] = (int) (word >>> bitOffset & mask);
+                    bitOffset = endOffset;
+                }
+                else
+                {
+                    long next = arr[++arrIndex];
+                    out[i] = (int) ((word >>> bitOffset | next << (64 - bitOffset)) & mask);
+                    word = next;
+                    bitOffset = endOffset - 64;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes <b>count</b> values from the beginning of the array <b>values</b>
+     * to consecutive entries starting from the entry <b>start</b>.
+     */
+    public void setRange(int[] values, long start, int count)
+    {
+        if (count <= 0)
+        {
+            return;
+        }
+
+        final long mask = this.maxEntryValue;
+        final int bits = this.bitsPerEntry;
+        final long[] arr = this.longArray;
+
+        if (this.wordAligned)
+        {
+            final int entriesPerLong = this.entriesPerLong;
+            int arrIndex = this.getLongIndex(start);
+            int bitOffset = (int) (start - (long) arrIndex * entriesPerLong) * bits;
+            final int wordBits = entriesPerLong * bits;
+            long word = arr[arrIndex];
+
+            for (int i = 0; i < count; ++i)
+            {
+                if (bitOffset == wordBits)
+                {
+                    arr[arrIndex] = word;
+                    word = arr[++arrIndex];
+                    bitOffset = 0;
+                }
+
+                word = word & ~(mask << bitOffset) | ((long) values[i] & mask) << bitOffset;
+                bitOffset += bits;
+            }
+
+            arr[arrIndex] = word;
+        }
+        else
+        {
+            long startOffset = start * (long) bits;
+            int arrIndex = (int) (startOffset >> 6);
+            int bitOffset = (int) (startOffset & 0x3F);
+
+            for (int i = 0; i < count; ++i)
+            {
+                if (bitOffset == 64)
+                {
+                    ++arrIndex;
+                    bitOffset = 0;
+                }
+
+                long value = (long) values[i] & mask;
+                arr[arrIndex] = arr[arrIndex] & ~(mask << bitOffset) | value << bitOffset;
+                int endOffset = bitOffset + bits;
+
+                if (endOffset > 64)
+                {
+                    int spill = endOffset - 64;
+                    ++arrIndex;
+                    arr[arrIndex] = arr[arrIndex] >>> spill << spill | value >>> (64 - bitOffset);
+                    bitOffset = spill;
+                }
+                else
+                {
+                    bitOffset = endOffset;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets all the entries in this array to the given value
+     */
+    public void fill(int value)
+    {
+        this.fill(0L, this.arraySize, value);
+    }
+
+    /**
+     * Sets <b>count</b> consecutive entries starting from the entry <b>start</b> to the given value
+     */
+    public void fill(long start, long count, int value)
+    {
+        if (count <= 0L)
+        {
+            return;
+        }
+
+        final long end = start + count;
+        final long val = (long) value & this.maxEntryValue;
+
+        if (this.wordAligned)
+        {
+            final int entriesPerLong = this.entriesPerLong;
+            int firstFullLong = this.getLongIndex(start + entriesPerLong - 1L);
+            int endFullLong = this.getLongIndex(end);
+            long index = start;
+
+            // Partial head and the whole range if it doesn't cover any full longs
+            long headEnd = Math.min(end, (long) firstFullLong * entriesPerLong);
+
+            for (; index < headEnd; ++index)
+            {
+                this.setAt(index, value);
+            }
+
+            if (firstFullLong < endFullLong)
+            {
+                long pattern = 0L;
+
+                for (int i = 0; i < entriesPerLong; ++i)
+                {
+                    pattern |= val << (i * this.bitsPerEntry);
+                }
+
+                for (int arrIndex = firstFullLong; arrIndex < endFullLong; ++arrIndex)
+                {
+                    this.longArray[arrIndex] = pattern;
+                }
+
+                index = (long) endFullLong * entriesPerLong;
+            }
+
+            for (; index < end; ++index)
+            {
+                this.setAt(index, value);
+            }
+        }
+        else
+        {
+            int[] buf = new int[(int) Math.min(count, 4096L)];
+            Arrays.fill(buf, value);
+
+            for (long index = start; index < end; index += buf.length)
+            {
+                this.setRange(buf, index, (int) Math.min(buf.length, end - index));
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer once for each run of identical consecutive values
+     * within the <b>count</b> entries starting from the entry <b>start</b>.
+     */
+    public void forEachRun(long start, long count, IRunConsumer consumer)
+    {
+        if (count <= 0L)
+        {
+            return;
+        }
+
+        final long end = start + count;
+        int[] buf = new int[(int) Math.min(count, 4096L)];
+        long runStart = start;
+        int runValue = -1;
+
+        for (long index = start; index < end; index += buf.length)
+        {
+            final int batch = (int) Math.min(buf.length, end - index);
+            this.getRange(buf, index, batch);
+
+            for (int i = 0; i < batch; ++i)
+            {
+                int value = buf[i];
+
+                if (value != runValue)
+                {
+                    if (runValue != -1)
+                    {
+                        consumer.onRun(runValue, runStart, index + i - runStart);
+                    }
+
+                    runValue = value;
+                    runStart = index + i;
+                }
+            }
+        }
+
+        consumer.onRun(runValue, runStart, end - runStart);
+    }
+
+    /**
+     * Adds the number of occurrences of each value within the <b>count</b> entries
+     * starting from the entry <b>start</b> into the array <b>counts</b>,
+     * which is indexed by the value and must be at least 2^bitsPerEntry long.
+     * In the word-aligned layout the values are decoded directly from the backing longs.
+     */
+    public void addValueCounts(long[] counts, long start, long count)
+    {
+        if (count <= 0L)
+        {
+            return;
+        }
+
+        final long end = start + count;
+
+        if (this.wordAligned)
+        {
+            final long mask = this.maxEntryValue;
+            final int bits = this.bitsPerEntry;
+            final int entriesPerLong = this.entriesPerLong;
+            final long[] arr = this.longArray;
+            int firstFullLong = this.getLongIndex(start + entriesPerLong - 1L);
+            int endFullLong = this.getLongIndex(end);
+            long index = start;
+            long headEnd = Math.min(end, (long) firstFullLong * entriesPerLong);
+
+            for (; index < headEnd; ++index)
+            {
+                ++counts[this.getAt(index)];
+            }
+
+            for (int arrIndex = firstFullLong; arrIndex < endFullLong; ++arrIndex)
+            {
+                long word = arr[arrIndex];
+
+                // Runs of air (ID 0) are very common
+                if (word == 0L)
+                {
+                    counts[0] += entriesPerLong;
+                    continue;
+                }
+
+                for (int i = 0; i < entriesPerLong; ++i)
+                {
+                    ++counts[(int) (word & mask)];
+                    word >>>= bits;
+                }
+            }
+
+            for (index = Math.max(index, (long) endFullLong * entriesPerLong); index < end; ++index)
+            {
+                ++counts[this.getAt(index)];
+            }
+        }
+        else
+        {
+            int[] buf = new int[(int) Math.min(count, 4096L)];
+
+            for (long index = start; index < end; index += buf.length)
+            {
+                final int batch = (int) Math.min(buf.length, end - index);
+                this.getRange(buf, index, batch);
+
+                for (int i = 0; i < batch; ++i)
+                {
+                    ++counts[buf[i]];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of this array using the requested layout,
+     * or this array itself if it already uses that layout.
+     */
+    public LitematicaBitArray repack(boolean wordAligned)
+    {
+        if (wordAligned == this.wordAligned)
+        {
+            return this;
+        }
+
+        LitematicaBitArray newArray = new LitematicaBitArray(this.bitsPerEntry, this.arraySize, null, wordAligned);
+        newArray.copyFrom(this);
+
+        return newArray;
+    }
+
+    /**
+     * Copies all the entries from the other array into this array.
+     * The arrays may have different bits per entry and layouts, but the values
+     * in the other array must fit into the bits per entry of this array.
+     */
+    public void copyFrom(LitematicaBitArray other)
+    {
+        final long size = Math.min(this.arraySize, other.arraySize);
+        int[] buf = new int[(int) Math.min(size, 4096L)];
+
+        for (long index = 0; index < size; index += buf.length)
+        {
+            final int batch = (int) Math.min(buf.length, size - index);
+            other.getRange(buf, index, batch);
+            this.setRange(buf, index, batch);
+        }
+    }
+
+    /**
+     * Divides the entry index by entriesPerLong using a multiply instead of a division.
+     * This is exact for all indices below 2^57.
+     */
+    private int getLongIndex(long index)
+    {
+        return (int) Math.multiplyHigh(index << 1, this.divisionMagic);
+    }
+
     public long[] getBackingLongArray()
     {
         return this.longArray;
     }
 
+    /**
+     * Returns the data in the tightly packed layout used in the .litematic files.
+     * If this array is word-aligned, then this creates a repacked copy of the data.
+     */
+    public long[] getTightlyPackedLongArray()
+    {
+        return this.repack(false).getBackingLongArray();
+    }
+
+    public int getBitsPerEntry()
+    {
+        return this.bitsPerEntry;
+    }
+
+    public boolean isWordAligned()
+    {
+        return this.wordAligned;
+    }
+
     public long size()
     {
         return this.arraySize;
@@ -108,4 +537,9 @@ public class LitematicaBitArray
             return remainder == 0L ? value : value + interval - remainder;
         }
     }
+
+    public interface IRunConsumer
+    {
+        void onRun(int value, long startIndex, long length);
+    }
 }
@@ -1,5 +1,8 @@
 package fi.dy.masa.litematica.schematic.container;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import javax.annotation.Nullable;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -79,59 +82,270 @@ public class LitematicaBlockStateContainer implements ILitematicaBlockStatePalet
         this.storage.setAt(index, id);
     }
 
+    /**
+     * Reads the palette IDs of <b>count</b> consecutive blocks along the x-axis,
+     * starting from the given position, into the beginning of the array <b>out</b>.
+     * Use {@link #getPalette()} to map the IDs to the block states.
+     */
+    public void getIdRow(int[] out, int x, int y, int z, int count)
+    {
+        this.storage.getRange(out, this.getIndex(x, y, z), count);
+    }
+
+    /**
+     * Reads the palette IDs of the entire horizontal layer <b>y</b>
+     * into the beginning of the array <b>out</b>, which must be at least sizeX * sizeZ long.
+     * The IDs are in the order of x + z * sizeX.
+     */
+    public void getIdLayer(int[] out, int y)
+    {
+        this.storage.getRange(out, (long) y * this.sizeLayer, this.sizeLayer);
+    }
+
+    /**
+     * Sets <b>count</b> consecutive blocks along the x-axis, starting from the given position, to the given state
+     */
+    public void fillRow(int x, int y, int z, int count, BlockState state)
+    {
+        int id = this.palette.idFor(state);
+        this.storage.fill(this.getIndex(x, y, z), count, id);
+    }
+
+    /**
+     * Calls the consumer for each run of identical palette IDs in the entire container,
+     * in the order of x, then z, then y.
+     * Use {@link #getPalette()} to map the IDs to the block states.
+     */
+    public void forEachIdRun(LitematicaBitArray.IRunConsumer consumer)
+    {
+        this.storage.forEachRun(0L, this.totalVolume, consumer);
+    }
+
     protected int getIndex(int x, int y, int z)
     {
         return (y * this.sizeLayer) + z * this.sizeX + x;
     }
 
-    protected void setBits(int bitsIn, @Nullable long[] backingLongArray)
+    /**
+     * Counts the number of blocks using each palette ID.
+     * @return the counts, indexed by the palette ID
+     */
+    public long[] getIdCounts()
     {
-        if (bitsIn != this.bits)
+        long[] counts = new long[1 << this.bits];
+        this.storage.addValueCounts(counts, 0L, this.totalVolume);
+        return counts;
+    }
+
+    /**
+     * Replaces block states in the entire container via the palette.
+     * The array is indexed by the current palette IDs, and null entries are left unchanged.
+     * If the replacement doesn't merge any states, then only the palette is rewritten,
+     * otherwise the block data is re-mapped in one pass. Unused palette entries are removed
+     * in the process. Passing an array of just nulls will thus only compact the palette.
+     * @return the number of blocks that were replaced
+     */
+    public long remapStates(BlockState[] newStates)
+    {
+        long[] counts = this.getIdCounts();
+        List<BlockState> oldMapping = this.palette.getMapping();
+        final int oldSize = oldMapping.size();
+        List<BlockState> newMapping = new ArrayList<>(oldSize);
+        IdentityHashMap<BlockState, Integer> newIds = new IdentityHashMap<>();
+        int[] idMap = new int[counts.length];
+        boolean identity = true;
+        long replaced = 0;
+
+        // Air always stays as ID 0, see the palette readFromNBT() methods
+        newMapping.add(AIR_BLOCK_STATE);
+        newIds.put(AIR_BLOCK_STATE, 0);
+
+        for (int id = 0; id < oldSize; ++id)
         {
-            this.bits = bitsIn;
+            if (counts[id] == 0)
+            {
+                continue;
+            }
 
-            if (this.bits <= 4)
+            BlockState state = oldMapping.get(id);
+
+            if (id < newStates.length && newStates[id] != null)
             {
-                this.bits = Math.max(2, this.bits);
-                this.palette = new LitematicaBlockStatePaletteLinear(this.bits, this);
+                state = newStates[id];
+                replaced += counts[id];
             }
-            else
+
+            Integer newId = newIds.get(state);
+
+            if (newId == null)
             {
-                this.palette = new LitematicaBlockStatePaletteHashMap(this.bits, this);
+                newId = newMapping.size();
+                newMapping.add(state);
+                newIds.put(state, newId);
             }
 
-            this.palette.idFor(AIR_BLOCK_STATE);
+            idMap[id] = newId;
+            identity &= newId == id;
+        }
+
+        final int newBits = getRequiredBits(newMapping.size());
+
+        // Only the palette needs to change, if the IDs stay the same and the storage doesn't shrink
+        if (identity && newBits == this.bits)
+        {
+            this.palette.setMapping(newMapping);
+            return replaced;
+        }
+
+        LitematicaBitArray oldStorage = this.storage;
+        this.initStorage(newBits, null);
+        this.palette.setMapping(newMapping);
+
+        final LitematicaBitArray newStorage = this.storage;
+        final long volume = this.totalVolume;
+        int[] buf = new int[(int) Math.min(volume, 4096L)];
+
+        for (long index = 0; index < volume; index += buf.length)
+        {
+            final int batch = (int) Math.min(buf.length, volume - index);
+            oldStorage.getRange(buf, index, batch);
 
-            if (backingLongArray != null)
+            for (int i = 0; i < batch; ++i)
             {
-                this.storage = new LitematicaBitArray(this.bits, this.totalVolume, backingLongArray);
+                buf[i] = idMap[buf[i]];
             }
-            else
+
+            newStorage.setRange(buf, index, batch);
+        }
+
+        return replaced;
+    }
+
+    /**
+     * Replaces block states within the given box (inclusive container coordinates).
+     * The array is indexed by the current palette IDs, and null entries are left unchanged.
+     * The replacement decision is thus made once per palette entry instead of once per block.
+     * @return the number of blocks that were replaced
+     */
+    public long remapStatesInBox(BlockState[] newStates, int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+    {
+        final int paletteSize = newStates.length;
+        int[] idMap = new int[paletteSize];
+
+        // Add the new states to the palette first, so that any resizes happen before the loop
+        for (int id = 0; id < paletteSize; ++id)
+        {
+            idMap[id] = newStates[id] != null ? this.palette.idFor(newStates[id]) : id;
+        }
+
+        final LitematicaBitArray storage = this.storage;
+        final int countX = maxX - minX + 1;
+        int[] buf = new int[countX];
+        long replaced = 0;
+
+        for (int y = minY; y <= maxY; ++y)
+        {
+            for (int z = minZ; z <= maxZ; ++z)
             {
-                this.storage = new LitematicaBitArray(this.bits, this.totalVolume);
+                final long index = this.getIndex(minX, y, z);
+                boolean changed = false;
+                storage.getRange(buf, index, countX);
+
+                for (int i = 0; i < countX; ++i)
+                {
+                    final int id = buf[i];
+
+                    if (id < paletteSize && newStates[id] != null)
+                    {
+                        buf[i] = idMap[id];
+                        changed = true;
+                        ++replaced;
+                    }
+                }
+
+                if (changed)
+                {
+                    storage.setRange(buf, index, countX);
+                }
             }
         }
+
+        return replaced;
+    }
+
+    protected void setBits(int bitsIn, @Nullable long[] backingLongArray)
+    {
+        if (bitsIn != this.bits)
+        {
+            this.initStorage(bitsIn, backingLongArray);
+        }
+    }
+
+    protected void initStorage(int bitsIn, @Nullable long[] backingLongArray)
+    {
+        this.bits = bitsIn;
+
+        if (this.bits <= 4)
+        {
+            this.bits = Math.max(2, this.bits);
+            this.palette = new LitematicaBlockStatePaletteLinear(this.bits, this);
+        }
+        else
+        {
+            this.palette = new LitematicaBlockStatePaletteHashMap(this.bits, this);
+        }
+
+        this.palette.idFor(AIR_BLOCK_STATE);
+
+        // Existing data (ie. from a file) uses the tightly packed layout. It gets repacked once here
+        // to the word-aligned layout, which all the bulk operations are fast for.
+        // The tightly packed layout is only re-created for writing, see getTightlyPackedLongArray().
+        if (backingLongArray != null)
+        {
+            this.storage = new LitematicaBitArray(this.bits, this.totalVolume, backingLongArray).repack(true);
+        }
+        else
+        {
+            this.storage = new LitematicaBitArray(this.bits, this.totalVolume, null, true);
+        }
     }
 
     @Override
     public int onResize(int bits, BlockState state)
     {
-        LitematicaBitArray oldStorage = this.storage;
-        ILitematicaBlockStatePalette oldPalette = this.palette;
-        final long storageLength = oldStorage.size();
-
-        this.setBits(bits, null);
+        this.resize(bits);
+        return this.palette.idFor(state);
+    }
 
-        LitematicaBitArray newStorage = this.storage;
+    /**
+     * Grows the storage in advance to fit the given number of palette entries.
+     * This can be used to avoid repeated resizes, when the number of different
+     * block states is known or can be estimated beforehand. An over-estimate only costs
+     * some memory, as the data is written using the bits required by the final palette size,
+     * see {@link #getTightlyPackedLongArray()}.
+     */
+    public void ensurePaletteCapacity(int paletteSize)
+    {
+        int bits = Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(1, paletteSize) - 1);
 
-        for (long index = 0; index < storageLength; ++index)
+        if (bits > this.bits)
         {
-            newStorage.setAt(index, oldStorage.getAt(index));
+            this.resize(bits);
         }
+    }
 
-        this.palette.readFromNBT(oldPalette.writeToNBT());
+    /**
+     * Switches to a new palette and storage with the given number of bits,
+     * moving over the existing palette entries and the block data as-is.
+     */
+    protected void resize(int bits)
+    {
+        LitematicaBitArray oldStorage = this.storage;
+        List<BlockState> mapping = this.palette.getMapping();
 
-        return this.palette.idFor(state);
+        this.initStorage(bits, null);
+        this.storage.copyFrom(oldStorage);
+        this.palette.setMapping(mapping);
     }
 
     public long[] getBackingLongArray()
@@ -139,6 +353,33 @@ public class LitematicaBlockStateContainer implements ILitematicaBlockStatePalet
         return this.storage.getBackingLongArray();
     }
 
+    /**
+     * Returns the block data in the tightly packed layout used in the .litematic files.
+     * Note: This will create a repacked copy of the data, if the storage is currently word-aligned.
+     */
+    public long[] getTightlyPackedLongArray()
+    {
+        // The readers derive the bits from the palette size, so the data must be written using exactly those bits
+        final int bits = getRequiredBits(this.palette.getPaletteSize());
+
+        if (bits != this.storage.getBitsPerEntry())
+        {
+            LitematicaBitArray array = new LitematicaBitArray(bits, this.totalVolume);
+            array.copyFrom(this.storage);
+            return array.getBackingLongArray();
+        }
+
+        return this.storage.getTightlyPackedLongArray();
+    }
+
+    /**
+     * @return the number of bits per entry used for the given palette size in the .litematic files
+     */
+    public static int getRequiredBits(int paletteSize)
+    {
+        return Math.max(2, Integer.SIZE - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+
     public ILitematicaBlockStatePalette getPalette()
     {
         return this.palette;
@@ -146,7 +387,7 @@ public class LitematicaBlockStateContainer implements ILitematicaBlockStatePalet
 
     public static LitematicaBlockStateContainer createFrom(NbtList palette, long[] blockStates, BlockPos size)
     {
-        int bits = Math.max(2, Integer.SIZE - Integer.numberOfLeadingZeros(palette.size() - 1));
+        int bits = getRequiredBits(palette.size());
         LitematicaBlockStateContainer container = new LitematicaBlockStateContainer(size.getX(), size.getY(), size.getZ(), bits, blockStates);
         container.palette.readFromNBT(palette);
         return container;
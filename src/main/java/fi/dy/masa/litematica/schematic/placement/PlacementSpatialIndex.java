@@ -0,0 +1,167 @@
+package fi.dy.masa.litematica.schematic.placement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import fi.dy.masa.malilib.util.IntBoundingBox;
+import fi.dy.masa.litematica.schematic.placement.SchematicPlacementManager.PlacementPart;
+import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement.RequiredEnabled;
+
+/**
+ * A chunk column bucketed index of the enabled sub-region boxes of all the enabled placements.
+ * Each box is added to every chunk column it touches, with its full, unclipped bounds.
+ * This is updated by the SchematicPlacementManager whenever a placement is added, removed or modified,
+ * and it must only be accessed from the main thread.
+ */
+public class PlacementSpatialIndex
+{
+    private final Long2ObjectOpenHashMap<List<PlacementPart>> partsInChunk = new Long2ObjectOpenHashMap<>();
+    private final Map<SchematicPlacement, List<PlacementPart>> partsOfPlacement = new IdentityHashMap<>();
+
+    public void update(SchematicPlacement placement)
+    {
+        this.remove(placement);
+
+        if (placement.matchesRequirement(RequiredEnabled.PLACEMENT_ENABLED) == false)
+        {
+            return;
+        }
+
+        List<PlacementPart> parts = new ArrayList<>();
+
+        for (Map.Entry<String, IntBoundingBox> entry : placement.getEnabledSubRegionBounds().entrySet())
+        {
+            IntBoundingBox bb = entry.getValue();
+            PlacementPart part = new PlacementPart(placement, entry.getKey(), bb);
+            parts.add(part);
+
+            for (int cz = bb.minZ >> 4; cz <= (bb.maxZ >> 4); ++cz)
+            {
+                for (int cx = bb.minX >> 4; cx <= (bb.maxX >> 4); ++cx)
+                {
+                    this.partsInChunk.computeIfAbsent(ChunkPos.toLong(cx, cz), (k) -> new ArrayList<>()).add(part);
+                }
+            }
+        }
+
+        this.partsOfPlacement.put(placement, parts);
+    }
+
+    public void remove(SchematicPlacement placement)
+    {
+        List<PlacementPart> parts = this.partsOfPlacement.remove(placement);
+
+        if (parts == null)
+        {
+            return;
+        }
+
+        for (PlacementPart part : parts)
+        {
+            IntBoundingBox bb = part.bb;
+
+            for (int cz = bb.minZ >> 4; cz <= (bb.maxZ >> 4); ++cz)
+            {
+                for (int cx = bb.minX >> 4; cx <= (bb.maxX >> 4); ++cx)
+                {
+                    long key = ChunkPos.toLong(cx, cz);
+                    List<PlacementPart> list = this.partsInChunk.get(key);
+
+                    if (list != null && list.remove(part) && list.isEmpty())
+                    {
+                        this.partsInChunk.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear()
+    {
+        this.partsInChunk.clear();
+        this.partsOfPlacement.clear();
+    }
+
+    /**
+     * @return the sub-region boxes touching the given chunk column. The boxes are not clipped to the chunk.
+     */
+    public List<PlacementPart> getPartsInChunk(int chunkX, int chunkZ)
+    {
+        return this.partsInChunk.getOrDefault(ChunkPos.toLong(chunkX, chunkZ), Collections.emptyList());
+    }
+
+    /**
+     * @return the names of the sub-regions of the given placement that touch the given chunk column
+     */
+    public List<String> getRegionsTouchingChunk(SchematicPlacement placement, int chunkX, int chunkZ)
+    {
+        List<String> list = new ArrayList<>();
+
+        for (PlacementPart part : this.getPartsInChunk(chunkX, chunkZ))
+        {
+            if (part.placement == placement)
+            {
+                list.add(part.subRegionName);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * @return the sub-region boxes in all the chunk columns crossed by the given line segment
+     */
+    public Set<PlacementPart> getPartsAlongLine(Vec3d start, Vec3d end)
+    {
+        Set<PlacementPart> parts = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        if (this.partsInChunk.isEmpty())
+        {
+            return parts;
+        }
+
+        // Step through the chunk columns along the line (a 2D DDA in chunk units)
+        final double x0 = start.x / 16.0;
+        final double z0 = start.z / 16.0;
+        final double dx = end.x / 16.0 - x0;
+        final double dz = end.z / 16.0 - z0;
+        int cx = MathHelper.floor(x0);
+        int cz = MathHelper.floor(z0);
+        final int endCX = MathHelper.floor(end.x / 16.0);
+        final int endCZ = MathHelper.floor(end.z / 16.0);
+        final int stepX = dx > 0 ? 1 : -1;
+        final int stepZ = dz > 0 ? 1 : -1;
+        final double deltaX = dx != 0 ? Math.abs(1.0 / dx) : Double.POSITIVE_INFINITY;
+        final double deltaZ = dz != 0 ? Math.abs(1.0 / dz) : Double.POSITIVE_INFINITY;
+        double nextX = dx != 0 ? (dx > 0 ? cx + 1 - x0 : x0 - cx) * deltaX : Double.POSITIVE_INFINITY;
+        double nextZ = dz != 0 ? (dz > 0 ? cz + 1 - z0 : z0 - cz) * deltaZ : Double.POSITIVE_INFINITY;
+        int steps = Math.abs(endCX - cx) + Math.abs(endCZ - cz);
+
+        parts.addAll(this.getPartsInChunk(cx, cz));
+
+        for (int i = 0; i < steps; ++i)
+        {
+            if (nextX < nextZ)
+            {
+                cx += stepX;
+                nextX += deltaX;
+            }
+            else
+            {
+                cz += stepZ;
+                nextZ += deltaZ;
+            }
+
+            parts.addAll(this.getPartsInChunk(cx, cz));
+        }
+
+        return parts;
+    }
+}
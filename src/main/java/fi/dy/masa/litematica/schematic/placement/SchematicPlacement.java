@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -74,6 +75,8 @@ public class SchematicPlacement
     private String selectedSubRegionName;
     @Nullable
     private MaterialListBase materialList;
+    @Nullable
+    private volatile ImmutableMap<String, IntBoundingBox> enabledSubRegionBounds;
 
     public SchematicPlacement(LitematicaSchematic schematic, BlockPos origin, String name, boolean enabled, boolean enableRender)
     {
@@ -135,6 +138,30 @@ public class SchematicPlacement
         return placement;
     }
 
+    /**
+     * Creates a copy of the state that the schematic world chunk building reads,
+     * ie. the schematic, the transforms and the sub-region placements and bounds.
+     * This is called on the main thread, so that the chunk builder threads never read
+     * the placement while it's being modified. The copy is not added to the placement manager.
+     */
+    public SchematicPlacement copyForChunkBuilding()
+    {
+        SchematicPlacement copy = new SchematicPlacement(this.schematic, this.origin, this.name, this.enabled, this.enableRender, this.placementManager);
+
+        copy.rotation = this.rotation;
+        copy.mirror = this.mirror;
+        copy.ignoreEntities = this.ignoreEntities;
+
+        for (Map.Entry<String, SubRegionPlacement> entry : this.relativeSubRegionPlacements.entrySet())
+        {
+            copy.relativeSubRegionPlacements.put(entry.getKey(), entry.getValue().copy());
+        }
+
+        copy.enabledSubRegionBounds = this.getEnabledSubRegionBounds();
+
+        return copy;
+    }
+
     public boolean isEnabled()
     {
         return this.enabled;
@@ -502,24 +529,51 @@ public class SchematicPlacement
         return builder.build();
     }
 
+    /**
+     * Returns the bounds of the enabled sub-regions.
+     * These are cached until the placement is modified. The schematic world chunk builder
+     * threads only use the copies from {@link #copyForChunkBuilding()}, which have these pre-computed.
+     */
+    public ImmutableMap<String, IntBoundingBox> getEnabledSubRegionBounds()
+    {
+        ImmutableMap<String, IntBoundingBox> bounds = this.enabledSubRegionBounds;
+
+        if (bounds == null)
+        {
+            ImmutableMap.Builder<String, IntBoundingBox> builder = ImmutableMap.builder();
+
+            for (Map.Entry<String, Box> entry : this.getSubRegionBoxes(RequiredEnabled.PLACEMENT_ENABLED).entrySet())
+            {
+                BlockPos pos1 = entry.getValue().getPos1();
+                BlockPos pos2 = entry.getValue().getPos2();
+                builder.put(entry.getKey(), new IntBoundingBox(Math.min(pos1.getX(), pos2.getX()),
+                                                               Math.min(pos1.getY(), pos2.getY()),
+                                                               Math.min(pos1.getZ(), pos2.getZ()),
+                                                               Math.max(pos1.getX(), pos2.getX()),
+                                                               Math.max(pos1.getY(), pos2.getY()),
+                                                               Math.max(pos1.getZ(), pos2.getZ())));
+            }
+
+            bounds = builder.build();
+            this.enabledSubRegionBounds = bounds;
+        }
+
+        return bounds;
+    }
+
     public Set<String> getRegionsTouchingChunk(int chunkX, int chunkZ)
     {
-        ImmutableMap<String, Box> map = this.getSubRegionBoxes(RequiredEnabled.PLACEMENT_ENABLED);
         final int chunkXMin = chunkX << 4;
         final int chunkZMin = chunkZ << 4;
         final int chunkXMax = chunkXMin + 15;
         final int chunkZMax = chunkZMin + 15;
-        Set<String> set = new HashSet<>();
+        // The regions are placed in this order, and the material counts rely on the same order for the overlaps
+        Set<String> set = new LinkedHashSet<>();
 
-        for (Map.Entry<String, Box> entry : map.entrySet())
+        for (Map.Entry<String, IntBoundingBox> entry : this.getEnabledSubRegionBounds().entrySet())
         {
-            Box box = entry.getValue();
-            final int boxXMin = Math.min(box.getPos1().getX(), box.getPos2().getX());
-            final int boxZMin = Math.min(box.getPos1().getZ(), box.getPos2().getZ());
-            final int boxXMax = Math.max(box.getPos1().getX(), box.getPos2().getX());
-            final int boxZMax = Math.max(box.getPos1().getZ(), box.getPos2().getZ());
-
-            boolean notOverlapping = boxXMin > chunkXMax || boxZMin > chunkZMax || boxXMax < chunkXMin || boxZMax < chunkZMin;
+            IntBoundingBox box = entry.getValue();
+            boolean notOverlapping = box.minX > chunkXMax || box.minZ > chunkZMax || box.maxX < chunkXMin || box.maxZ < chunkZMin;
 
             if (notOverlapping == false)
             {
@@ -532,14 +586,25 @@ public class SchematicPlacement
 
     public ImmutableMap<String, IntBoundingBox> getBoxesWithinChunk(int chunkX, int chunkZ)
     {
-        ImmutableMap<String, Box> subRegions = this.getSubRegionBoxes(RequiredEnabled.PLACEMENT_ENABLED);
-        return PositionUtils.getBoxesWithinChunk(chunkX, chunkZ, subRegions);
+        ImmutableMap.Builder<String, IntBoundingBox> builder = ImmutableMap.builder();
+
+        for (Map.Entry<String, IntBoundingBox> entry : this.getEnabledSubRegionBounds().entrySet())
+        {
+            IntBoundingBox bb = PositionUtils.getBoundsWithinChunkForBox(entry.getValue(), chunkX, chunkZ);
+
+            if (bb != null)
+            {
+                builder.put(entry.getKey(), bb);
+            }
+        }
+
+        return builder.build();
     }
 
     @Nullable
     public IntBoundingBox getBoxWithinChunkForRegion(String regionName, int chunkX, int chunkZ)
     {
-        Box box = this.getSubRegionBoxFor(regionName, RequiredEnabled.PLACEMENT_ENABLED).get(regionName);
+        IntBoundingBox box = this.getEnabledSubRegionBounds().get(regionName);
         return box != null ? PositionUtils.getBoundsWithinChunkForBox(box, chunkX, chunkZ) : null;
     }
 
@@ -707,6 +772,7 @@ public class SchematicPlacement
         Map<String, BlockPos> areaPositions = this.schematic.getAreaPositions();
         this.relativeSubRegionPlacements.clear();
         this.regionPlacementsModified = false;
+        this.enabledSubRegionBounds = null;
 
         for (Map.Entry<String, BlockPos> entry : areaPositions.entrySet())
         {
@@ -849,6 +915,7 @@ public class SchematicPlacement
 
     private void onModified(SchematicPlacementManager manager)
     {
+        this.enabledSubRegionBounds = null;
         this.updateEnclosingBox();
         manager.onPostPlacementChange(this);
         OverlayRenderer.getInstance().updatePlacementCache();
@@ -856,6 +923,7 @@ public class SchematicPlacement
 
     private void onModified(String regionName, SchematicPlacementManager manager)
     {
+        this.enabledSubRegionBounds = null;
         this.checkAreSubRegionsModified();
         this.updateEnclosingBox();
         manager.onPostPlacementChange(this);
@@ -931,8 +999,12 @@ public class SchematicPlacement
         return null;
     }
 
+    /**
+     * Returns the schematic file of the placement saved in the given JSON object,
+     * or null if the object is not valid placement data.
+     */
     @Nullable
-    public static SchematicPlacement fromJson(JsonObject obj)
+    public static File getSchematicFileFromJson(JsonObject obj)
     {
         if (JsonUtils.hasString(obj, "schematic") &&
             JsonUtils.hasString(obj, "name") &&
@@ -941,7 +1013,19 @@ public class SchematicPlacement
             JsonUtils.hasString(obj, "mirror") &&
             JsonUtils.hasArray(obj, "placements"))
         {
-            File file = new File(obj.get("schematic").getAsString());
+            return new File(obj.get("schematic").getAsString());
+        }
+
+        return null;
+    }
+
+    @Nullable
+    public static SchematicPlacement fromJson(JsonObject obj)
+    {
+        File file = getSchematicFileFromJson(obj);
+
+        if (file != null)
+        {
             LitematicaSchematic schematic = SchematicHolder.getInstance().getOrLoad(file);
 
             if (schematic == null)
@@ -950,6 +1034,22 @@ public class SchematicPlacement
                 return null;
             }
 
+            return fromJson(obj, schematic);
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates the placement saved in the given JSON object, for the given already loaded schematic
+     */
+    @Nullable
+    public static SchematicPlacement fromJson(JsonObject obj, LitematicaSchematic schematic)
+    {
+        File file = getSchematicFileFromJson(obj);
+
+        if (file != null)
+        {
             JsonArray posArr = obj.get("origin").getAsJsonArray();
 
             if (posArr.size() != 3)
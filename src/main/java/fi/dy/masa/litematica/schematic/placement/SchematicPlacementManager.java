@@ -1,5 +1,6 @@
 package fi.dy.masa.litematica.schematic.placement;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -8,14 +9,20 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 
 import net.minecraft.client.MinecraftClient;
@@ -28,10 +35,12 @@ import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 
+import fi.dy.masa.litematica.Litematica;
 import fi.dy.masa.litematica.config.Configs;
 import fi.dy.masa.litematica.config.Hotkeys;
 import fi.dy.masa.litematica.data.DataManager;
 import fi.dy.masa.litematica.data.SchematicHolder;
+import fi.dy.masa.litematica.materials.MaterialListPlacement;
 import fi.dy.masa.litematica.render.LitematicaRenderer;
 import fi.dy.masa.litematica.render.OverlayRenderer;
 import fi.dy.masa.litematica.render.infohud.StatusInfoRenderer;
@@ -42,15 +51,17 @@ import fi.dy.masa.litematica.scheduler.tasks.TaskPasteSchematicPerChunkDirect;
 import fi.dy.masa.litematica.scheduler.tasks.TaskPasteSchematicSetblockToMcfunction;
 import fi.dy.masa.litematica.schematic.LitematicaSchematic;
 import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement.RequiredEnabled;
+import fi.dy.masa.litematica.schematic.verifier.SchematicVerifier;
 import fi.dy.masa.litematica.util.EntityUtils;
 import fi.dy.masa.litematica.util.PositionUtils;
 import fi.dy.masa.litematica.util.PositionUtils.ChunkPosDistanceComparator;
 import fi.dy.masa.litematica.util.RayTraceUtils;
 import fi.dy.masa.litematica.util.RayTraceUtils.RayTraceWrapper;
 import fi.dy.masa.litematica.util.RayTraceUtils.RayTraceWrapper.HitType;
-import fi.dy.masa.litematica.util.ReplaceBehavior;
 import fi.dy.masa.litematica.util.SchematicPlacingUtils;
 import fi.dy.masa.litematica.util.WorldUtils;
+import fi.dy.masa.litematica.world.ChunkManagerSchematic;
+import fi.dy.masa.litematica.world.ChunkSchematic;
 import fi.dy.masa.litematica.world.SchematicWorldHandler;
 import fi.dy.masa.litematica.world.WorldSchematic;
 import fi.dy.masa.malilib.config.options.ConfigHotkey;
@@ -67,16 +78,27 @@ import fi.dy.masa.malilib.util.StringUtils;
 
 public class SchematicPlacementManager
 {
+    protected static final int MAX_CHUNK_BUILDER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    protected static final int MAX_CHUNK_BUILD_JOBS = MAX_CHUNK_BUILDER_THREADS * 2;
+    protected static final int MAX_CHUNK_BUILD_RETRIES = 3;
+
     protected final List<SchematicPlacement> schematicPlacements = new ArrayList<>();
     protected final ArrayListMultimap<ChunkPos, SchematicPlacement> schematicsTouchingChunk = ArrayListMultimap.create();
     protected final Long2ObjectOpenHashMap<List<PlacementPart>> touchedVolumesInChunk = new Long2ObjectOpenHashMap<>();
+    protected final PlacementSpatialIndex spatialIndex = new PlacementSpatialIndex();
     protected final Set<ChunkPos> chunksToRebuild = new HashSet<>();
     protected final Set<ChunkPos> chunkRebuildQueue = new HashSet<>();
     protected final LongOpenHashSet chunksToUnload = new LongOpenHashSet();
+    protected final LongOpenHashSet evictedChunks = new LongOpenHashSet();
     protected final Set<ChunkPos> chunksPreChange = new HashSet<>();
     protected final List<ChunkPos> visibleChunks = new ArrayList<>();
+    protected final Long2ObjectOpenHashMap<ChunkBuildJob> chunkBuildJobs = new Long2ObjectOpenHashMap<>();
+    protected final ConcurrentLinkedQueue<ChunkBuildJob> finishedChunkBuildJobs = new ConcurrentLinkedQueue<>();
+    protected final Long2IntOpenHashMap failedChunkBuilds = new Long2IntOpenHashMap();
+    @Nullable protected ExecutorService chunkBuilderExecutor;
     protected final Supplier<WorldSchematic> worldSupplier;
     protected ChunkPos lastVisibleChunksSortPos = new ChunkPos(0, 0);
+    protected ChunkPos lastChunkBudgetCheckPos = new ChunkPos(0, 0);
     protected boolean visibleChunksNeedsUpdate;
 
     public SchematicPlacementManager()
@@ -91,6 +113,8 @@ public class SchematicPlacementManager
 
     @Nullable
     private SchematicPlacement selectedPlacement;
+    @Nullable
+    private PendingPlacementLoad pendingLoad;
 
     public boolean hasPendingRebuilds()
     {
@@ -120,19 +144,26 @@ public class SchematicPlacementManager
 
     public boolean hasQueuedChunks()
     {
-        return this.chunkRebuildQueue.isEmpty() == false;
+        return this.chunkRebuildQueue.isEmpty() == false || this.chunkBuildJobs.isEmpty() == false;
     }
 
+    /**
+     * Publishes the schematic world chunks built on the worker threads,
+     * and starts new build jobs for the queued chunks closest to the camera.
+     */
     public void processQueuedChunks()
     {
+        WorldSchematic worldSchematic = this.worldSupplier.get();
+
         if (this.chunksToUnload.isEmpty() == false)
         {
-            WorldSchematic worldSchematic = this.worldSupplier.get();
-
             if (worldSchematic != null)
             {
                 for (long posLong : this.chunksToUnload)
                 {
+                    this.cancelChunkBuildJob(posLong);
+                    this.evictedChunks.remove(posLong);
+                    SchematicVerifier.markVerifierSchematicChunkChanges(ChunkPos.getPackedX(posLong), ChunkPos.getPackedZ(posLong));
                     this.unloadSchematicChunk(worldSchematic, ChunkPos.getPackedX(posLong), ChunkPos.getPackedZ(posLong));
                 }
             }
@@ -140,73 +171,341 @@ public class SchematicPlacementManager
             this.chunksToUnload.clear();
         }
 
+        if (worldSchematic != null)
+        {
+            this.updateChunkBudget(worldSchematic);
+        }
+
         //System.out.printf("processQueuedChunks, size: %d\n", this.chunksToRebuild.size());
         if (this.hasQueuedChunks())
         {
             ClientWorld worldClient = MinecraftClient.getInstance().world;
 
-            if (worldClient == null)
+            if (worldClient == null || worldSchematic == null)
             {
                 this.chunksToRebuild.clear();
                 this.chunkRebuildQueue.clear();
+                this.cancelAllChunkBuildJobs();
                 return;
             }
 
-            WorldSchematic worldSchematic = this.worldSupplier.get();
-            Iterator<ChunkPos> queueIterator = this.chunkRebuildQueue.iterator();
+            this.publishBuiltChunks(worldSchematic);
+            this.startChunkBuildJobs(worldClient, worldSchematic);
+
+            LitematicaRenderer.getInstance().getWorldRenderer().markNeedsUpdate();
+        }
+    }
+
+    protected void publishBuiltChunks(WorldSchematic worldSchematic)
+    {
+        ChunkBuildJob job;
+
+        while (this.hasTimeToExecuteMoreTasks() && (job = this.finishedChunkBuildJobs.poll()) != null)
+        {
+            ChunkPos pos = job.pos;
+            long posLong = pos.toLong();
 
-            while (queueIterator.hasNext())
+            // Stale results, the chunk has been marked for rebuild or unloaded after the job was started
+            if (job.cancelled || this.chunkBuildJobs.get(posLong) != job)
             {
-                if (this.hasTimeToExecuteMoreTasks() == false)
-                {
-                    break;
-                }
+                continue;
+            }
 
-                ChunkPos pos = queueIterator.next();
+            this.chunkBuildJobs.remove(posLong);
 
-                if (this.schematicsTouchingChunk.containsKey(pos) == false)
+            if (job.world != worldSchematic)
+            {
+                this.chunksToRebuild.remove(pos);
+                continue;
+            }
+
+            // The build failed, try again a few times before giving up on the chunk
+            if (job.chunk == null)
+            {
+                if (this.failedChunkBuilds.addTo(posLong, 1) < MAX_CHUNK_BUILD_RETRIES)
+                {
+                    this.chunkRebuildQueue.add(pos);
+                }
+                else
                 {
-                    queueIterator.remove();
+                    Litematica.logger.warn("Failed to build the schematic chunk at {}, giving up", pos);
+                    this.failedChunkBuilds.remove(posLong);
                     this.chunksToRebuild.remove(pos);
-                    continue;
                 }
 
-                if (this.canHandleChunk(worldClient, pos.x, pos.z))
-                {
-                    // Wipe the old chunk if it exists
-                    this.unloadSchematicChunk(worldSchematic, pos.x, pos.z);
+                continue;
+            }
 
-                    //System.out.printf("loading chunk at %s\n", pos);
-                    worldSchematic.getChunkProvider().loadChunk(pos.x, pos.z);
-                    this.visibleChunksNeedsUpdate = true;
-                }
+            this.failedChunkBuilds.remove(posLong);
 
-                if (worldSchematic.getChunkProvider().isChunkLoaded(pos.x, pos.z))
-                {
-                    //System.out.printf("placing at %s\n", pos);
-                    Collection<SchematicPlacement> placements = this.schematicsTouchingChunk.get(pos);
+            // Wipe the old chunk if it exists
+            SchematicVerifier.markVerifierSchematicChunkChanges(pos.x, pos.z);
+            this.unloadSchematicChunk(worldSchematic, pos.x, pos.z);
+
+            //System.out.printf("loading chunk at %s\n", pos);
+            worldSchematic.getChunkProvider().loadChunk(job.chunk);
+
+            // The entities can only be added to loaded chunks
+            for (SchematicPlacement placement : job.placements)
+            {
+                SchematicPlacingUtils.placeEntitiesToWorldWithinChunk(worldSchematic, pos, placement);
+            }
+
+            worldSchematic.scheduleChunkRenders(pos.x, pos.z);
+            this.visibleChunksNeedsUpdate = true;
+            this.chunksToRebuild.remove(pos);
+        }
+    }
+
+    protected void startChunkBuildJobs(ClientWorld worldClient, WorldSchematic worldSchematic)
+    {
+        int count = MAX_CHUNK_BUILD_JOBS - this.chunkBuildJobs.size();
+
+        if (count <= 0 || this.chunkRebuildQueue.isEmpty())
+        {
+            return;
+        }
 
-                    if (placements.isEmpty() == false)
+        ChunkManagerSchematic provider = worldSchematic.getChunkProvider();
+        ChunkPos center = this.getCameraChunkPos();
+        long maxDistance = this.getChunkBudgetUsage(provider) >= 1.0 ? this.getFurthestLoadedChunkDistance(provider, center) : Long.MAX_VALUE;
+
+        for (ChunkPos pos : this.getClosestQueuedChunks(count))
+        {
+            this.chunkRebuildQueue.remove(pos);
+
+            if (this.schematicsTouchingChunk.containsKey(pos) == false)
+            {
+                this.chunksToRebuild.remove(pos);
+                continue;
+            }
+
+            // The chunk budget is full, and this chunk would just get evicted again right away
+            if (getChunkDistanceSq(center, pos.x, pos.z) > maxDistance)
+            {
+                this.chunksToRebuild.remove(pos);
+                this.evictedChunks.add(pos.toLong());
+                continue;
+            }
+
+            if (this.canHandleChunk(worldClient, pos.x, pos.z) ||
+                worldSchematic.getChunkProvider().isChunkLoaded(pos.x, pos.z))
+            {
+                List<SchematicPlacement> placements = new ArrayList<>();
+                List<List<String>> regions = new ArrayList<>();
+
+                for (SchematicPlacement placement : this.schematicsTouchingChunk.get(pos))
+                {
+                    if (placement.isEnabled())
                     {
-                        for (SchematicPlacement placement : placements)
-                        {
-                            if (placement.isEnabled())
-                            {
-                                SchematicPlacingUtils.placeToWorldWithinChunk(worldSchematic, pos, placement, ReplaceBehavior.WITH_NON_AIR, false);
-                            }
-                        }
-
-                        worldSchematic.scheduleChunkRenders(pos.x, pos.z);
+                        // The workers only read a copy, the placement can get modified on this thread while they run
+                        placements.add(placement.copyForChunkBuilding());
+                        regions.add(this.spatialIndex.getRegionsTouchingChunk(placement, pos.x, pos.z));
                     }
+                }
 
-                    this.chunksToRebuild.remove(pos);
+                ChunkBuildJob job = new ChunkBuildJob(worldSchematic, pos, placements, regions, this.finishedChunkBuildJobs);
+                this.chunkBuildJobs.put(pos.toLong(), job);
+                this.getChunkBuilderExecutor().execute(job);
+            }
+        }
+    }
+
+    protected ChunkPos getCameraChunkPos()
+    {
+        Entity cameraEntity = fi.dy.masa.malilib.util.EntityUtils.getCameraEntity();
+        return cameraEntity != null ? cameraEntity.getChunkPos() : this.lastVisibleChunksSortPos;
+    }
+
+    protected List<ChunkPos> getClosestQueuedChunks(int count)
+    {
+        ChunkPosDistanceComparator comparator = new ChunkPosDistanceComparator(this.getCameraChunkPos());
+        List<ChunkPos> list = new ArrayList<>(count + 1);
+
+        // Only a few closest chunks are needed, so this avoids sorting the entire queue on every tick
+        for (ChunkPos pos : this.chunkRebuildQueue)
+        {
+            if (list.size() < count || comparator.compare(pos, list.get(count - 1)) < 0)
+            {
+                list.add(pos);
+                list.sort(comparator);
+
+                if (list.size() > count)
+                {
+                    list.remove(count);
                 }
+            }
+        }
+
+        return list;
+    }
 
-                queueIterator.remove();
+    /**
+     * Keeps the schematic world within the configured chunk count and memory limits,
+     * by unloading the chunks furthest from the camera. The evicted chunks are
+     * queued for a rebuild again once they are closer than the furthest loaded chunk.
+     */
+    protected void updateChunkBudget(WorldSchematic worldSchematic)
+    {
+        ChunkManagerSchematic provider = worldSchematic.getChunkProvider();
+        ChunkPos center = this.getCameraChunkPos();
+        double usage = this.getChunkBudgetUsage(provider);
+
+        if (usage > 1.0)
+        {
+            this.evictDistantChunks(worldSchematic, center);
+        }
+        else if (this.evictedChunks.isEmpty() == false && center.equals(this.lastChunkBudgetCheckPos) == false)
+        {
+            // Leave some headroom before bringing back all the evicted chunks, to avoid thrashing at the limit
+            long maxDistance = usage < 0.9 ? Long.MAX_VALUE : this.getFurthestLoadedChunkDistance(provider, center);
+            this.requeueEvictedChunks(center, maxDistance);
+        }
+
+        this.lastChunkBudgetCheckPos = center;
+    }
+
+    /**
+     * @return the fraction of the chunk count or memory limit used, whichever is higher,
+     * or 0 if neither limit is set
+     */
+    protected double getChunkBudgetUsage(ChunkManagerSchematic provider)
+    {
+        int maxChunks = Configs.Generic.SCHEMATIC_WORLD_MAX_CHUNKS.getIntegerValue();
+        long maxBytes = (long) Configs.Generic.SCHEMATIC_WORLD_MAX_MEMORY.getIntegerValue() << 20;
+        double usage = 0.0;
+
+        if (maxChunks > 0)
+        {
+            usage = (double) provider.getLoadedChunkCount() / maxChunks;
+        }
+
+        if (maxBytes > 0)
+        {
+            usage = Math.max(usage, (double) provider.getEstimatedMemoryUsage() / maxBytes);
+        }
+
+        return usage;
+    }
+
+    protected void evictDistantChunks(WorldSchematic worldSchematic, ChunkPos center)
+    {
+        ChunkManagerSchematic provider = worldSchematic.getChunkProvider();
+        int maxChunks = Configs.Generic.SCHEMATIC_WORLD_MAX_CHUNKS.getIntegerValue();
+        long maxBytes = (long) Configs.Generic.SCHEMATIC_WORLD_MAX_MEMORY.getIntegerValue() << 20;
+        int count = provider.getLoadedChunkCount();
+        long bytes = provider.getEstimatedMemoryUsage();
+        List<ChunkPos> positions = new ArrayList<>(count);
+        LongIterator iter = provider.getLoadedChunks().keySet().iterator();
+
+        while (iter.hasNext())
+        {
+            positions.add(new ChunkPos(iter.nextLong()));
+        }
+
+        positions.sort(new ChunkPosDistanceComparator(center).reversed());
+
+        for (ChunkPos pos : positions)
+        {
+            if ((maxChunks <= 0 || count <= maxChunks) && (maxBytes <= 0 || bytes <= maxBytes))
+            {
+                break;
             }
 
-            LitematicaRenderer.getInstance().getWorldRenderer().markNeedsUpdate();
+            ChunkSchematic chunk = provider.getChunkIfExists(pos.x, pos.z);
+
+            if (chunk != null)
+            {
+                bytes -= chunk.getEstimatedMemorySize();
+            }
+
+            --count;
+            this.cancelChunkBuildJob(pos.toLong());
+            this.unloadSchematicChunk(worldSchematic, pos.x, pos.z);
+            this.chunkRebuildQueue.remove(pos);
+            this.chunksToRebuild.remove(pos);
+            this.evictedChunks.add(pos.toLong());
+        }
+    }
+
+    protected void requeueEvictedChunks(ChunkPos center, long maxDistance)
+    {
+        LongIterator iter = this.evictedChunks.iterator();
+
+        while (iter.hasNext())
+        {
+            ChunkPos pos = new ChunkPos(iter.nextLong());
+
+            if (this.schematicsTouchingChunk.containsKey(pos) == false)
+            {
+                iter.remove();
+            }
+            else if (getChunkDistanceSq(center, pos.x, pos.z) < maxDistance)
+            {
+                iter.remove();
+                this.chunkRebuildQueue.add(pos);
+                this.chunksToRebuild.add(pos);
+            }
+        }
+    }
+
+    protected long getFurthestLoadedChunkDistance(ChunkManagerSchematic provider, ChunkPos center)
+    {
+        LongIterator iter = provider.getLoadedChunks().keySet().iterator();
+        long maxDistance = 0;
+
+        while (iter.hasNext())
+        {
+            long posLong = iter.nextLong();
+            maxDistance = Math.max(maxDistance, getChunkDistanceSq(center, ChunkPos.getPackedX(posLong), ChunkPos.getPackedZ(posLong)));
+        }
+
+        return maxDistance;
+    }
+
+    protected static long getChunkDistanceSq(ChunkPos center, int chunkX, int chunkZ)
+    {
+        long dx = chunkX - center.x;
+        long dz = chunkZ - center.z;
+        return dx * dx + dz * dz;
+    }
+
+    public int getEvictedChunksCount()
+    {
+        return this.evictedChunks.size();
+    }
+
+    protected ExecutorService getChunkBuilderExecutor()
+    {
+        if (this.chunkBuilderExecutor == null)
+        {
+            this.chunkBuilderExecutor = Executors.newFixedThreadPool(MAX_CHUNK_BUILDER_THREADS,
+                    new ThreadFactoryBuilder().setNameFormat("Litematica Schematic Chunk Builder #%d").setDaemon(true).build());
+        }
+
+        return this.chunkBuilderExecutor;
+    }
+
+    protected void cancelChunkBuildJob(long posLong)
+    {
+        ChunkBuildJob job = this.chunkBuildJobs.remove(posLong);
+
+        if (job != null)
+        {
+            job.cancelled = true;
+        }
+    }
+
+    protected void cancelAllChunkBuildJobs()
+    {
+        for (ChunkBuildJob job : this.chunkBuildJobs.values())
+        {
+            job.cancelled = true;
         }
+
+        this.chunkBuildJobs.clear();
+        this.finishedChunkBuildJobs.clear();
+        this.failedChunkBuilds.clear();
     }
 
     public void onClientChunkLoad(int chunkX, int chunkZ)
@@ -295,6 +594,14 @@ public class SchematicPlacementManager
         return this.touchedVolumesInChunk.getOrDefault(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4), Collections.emptyList());
     }
 
+    /**
+     * @return the index of the enabled sub-region boxes of all the placements
+     */
+    public PlacementSpatialIndex getSpatialIndex()
+    {
+        return this.spatialIndex;
+    }
+
     public int getTouchedChunksCount()
     {
         return this.touchedVolumesInChunk.size();
@@ -450,6 +757,8 @@ public class SchematicPlacementManager
 
     protected void addTouchedChunksFor(SchematicPlacement placement)
     {
+        this.spatialIndex.update(placement);
+
         if (placement.matchesRequirement(RequiredEnabled.PLACEMENT_ENABLED))
         {
             Set<ChunkPos> chunks = placement.getTouchedChunks();
@@ -472,6 +781,8 @@ public class SchematicPlacementManager
 
     protected void removeTouchedChunksFor(SchematicPlacement placement)
     {
+        this.spatialIndex.remove(placement);
+
         if (placement.matchesRequirement(RequiredEnabled.PLACEMENT_ENABLED))
         {
             Set<ChunkPos> chunks = placement.getTouchedChunks();
@@ -502,6 +813,8 @@ public class SchematicPlacementManager
 
     void onPostPlacementChange(SchematicPlacement placement)
     {
+        this.spatialIndex.update(placement);
+
         Set<ChunkPos> chunksPost = placement.getTouchedChunks();
         Set<ChunkPos> toRebuild = new HashSet<>(chunksPost);
 
@@ -578,6 +891,7 @@ public class SchematicPlacementManager
             if (placement.getSchematic() == schematic)
             {
                 this.markChunksForRebuild(placement);
+                MaterialListPlacement.markPlacementChanged(placement);
             }
         }
     }
@@ -595,16 +909,24 @@ public class SchematicPlacementManager
         //System.out.printf("rebuilding %d chunks: %s\n", chunks.size(), chunks);
         this.chunksToRebuild.addAll(chunks);
         this.chunkRebuildQueue.addAll(chunks);
+
+        for (ChunkPos pos : chunks)
+        {
+            this.cancelChunkBuildJob(pos.toLong());
+        }
     }
 
     public void markChunkForRebuild(ChunkPos pos)
     {
         this.chunksToRebuild.add(pos);
         this.chunkRebuildQueue.add(pos);
+        this.cancelChunkBuildJob(pos.toLong());
     }
 
     protected void onPlacementModified(SchematicPlacement placement)
     {
+        MaterialListPlacement.markPlacementChanged(placement);
+
         if (placement.isEnabled())
         {
             OverlayRenderer.getInstance().updatePlacementCache();
@@ -840,11 +1162,15 @@ public class SchematicPlacementManager
         this.selectedPlacement = null;
         this.schematicsTouchingChunk.clear();
         this.touchedVolumesInChunk.clear();
+        this.spatialIndex.clear();
         this.chunksPreChange.clear();
         this.chunksToRebuild.clear();
         this.chunkRebuildQueue.clear();
         this.chunksToUnload.clear();
+        this.evictedChunks.clear();
         this.visibleChunks.clear();
+        this.cancelAllChunkBuildJobs();
+        this.pendingLoad = null;
 
         SchematicHolder.getInstance().clearLoadedSchematics();
     }
@@ -853,7 +1179,7 @@ public class SchematicPlacementManager
     {
         JsonObject obj = new JsonObject();
 
-        if (this.schematicPlacements.size() > 0)
+        if (this.schematicPlacements.size() > 0 || this.pendingLoad != null)
         {
             JsonArray arr = new JsonArray();
             int selectedIndex = 0;
@@ -883,6 +1209,23 @@ public class SchematicPlacementManager
                 }
             }
 
+            // Keep the placements whose schematics are still being loaded
+            if (this.pendingLoad != null)
+            {
+                PendingPlacementLoad load = this.pendingLoad;
+
+                for (int i = load.nextIndex; i < load.entries.size(); ++i)
+                {
+                    if (i == load.selectedIndex && indexValid == false && this.selectedPlacement == null)
+                    {
+                        selectedIndex = arr.size();
+                        indexValid = true;
+                    }
+
+                    arr.add(load.entries.get(i));
+                }
+            }
+
             obj.add("placements", arr);
 
             if (indexValid)
@@ -903,6 +1246,7 @@ public class SchematicPlacementManager
         {
             JsonArray arr = obj.get("placements").getAsJsonArray();
             int index = JsonUtils.hasInteger(obj, "selected") ? obj.get("selected").getAsInt() : -1;
+            List<JsonObject> entries = new ArrayList<>();
             final int size = arr.size();
 
             for (int i = 0; i < size; ++i)
@@ -911,12 +1255,7 @@ public class SchematicPlacementManager
 
                 if (el.isJsonObject())
                 {
-                    SchematicPlacement placement = SchematicPlacement.fromJson(el.getAsJsonObject());
-
-                    if (placement != null)
-                    {
-                        this.addSchematicPlacement(placement, false);
-                    }
+                    entries.add(el.getAsJsonObject());
                 }
                 else
                 {
@@ -925,15 +1264,168 @@ public class SchematicPlacementManager
                 }
             }
 
-            if (index >= 0 && index < this.schematicPlacements.size())
+            if (entries.isEmpty() == false)
             {
-                this.selectedPlacement = this.schematicPlacements.get(index);
+                this.loadPlacementsAsync(entries, index);
             }
         }
 
         OverlayRenderer.getInstance().updatePlacementCache();
     }
 
+    /**
+     * Loads the schematics of the given placements in the background. The placements
+     * get added in their saved order as soon as all the preceding schematics have been loaded.
+     */
+    private void loadPlacementsAsync(List<JsonObject> entries, int selectedIndex)
+    {
+        PendingPlacementLoad load = new PendingPlacementLoad(entries, selectedIndex);
+        this.pendingLoad = load;
+
+        for (int i = 0; i < entries.size(); ++i)
+        {
+            final int index = i;
+            File file = SchematicPlacement.getSchematicFileFromJson(entries.get(i));
+
+            if (file != null)
+            {
+                SchematicHolder.getInstance().getOrLoadAsync(file).thenAccept((schematic) -> this.onPlacementSchematicLoaded(load, index, file, schematic));
+            }
+            else
+            {
+                this.onPlacementSchematicLoaded(load, index, null, null);
+            }
+        }
+    }
+
+    private void onPlacementSchematicLoaded(PendingPlacementLoad load, int index, @Nullable File file, @Nullable LitematicaSchematic schematic)
+    {
+        // The placements were cleared or re-loaded in the meantime
+        if (load != this.pendingLoad)
+        {
+            return;
+        }
+
+        if (schematic != null)
+        {
+            load.placements[index] = SchematicPlacement.fromJson(load.entries.get(index), schematic);
+        }
+        else if (file != null)
+        {
+            Litematica.logger.warn("Failed to load schematic '{}'", file.getAbsolutePath());
+        }
+
+        load.done[index] = true;
+        boolean added = false;
+
+        while (load.nextIndex < load.done.length && load.done[load.nextIndex])
+        {
+            SchematicPlacement placement = load.placements[load.nextIndex];
+
+            if (placement != null)
+            {
+                this.addSchematicPlacement(placement, false);
+
+                if (load.nextIndex == load.selectedIndex)
+                {
+                    this.selectedPlacement = placement;
+                }
+
+                added = true;
+            }
+
+            ++load.nextIndex;
+        }
+
+        if (load.nextIndex >= load.done.length)
+        {
+            this.pendingLoad = null;
+        }
+
+        if (added)
+        {
+            OverlayRenderer.getInstance().updatePlacementCache();
+        }
+    }
+
+    private static class PendingPlacementLoad
+    {
+        private final List<JsonObject> entries;
+        private final SchematicPlacement[] placements;
+        private final boolean[] done;
+        private final int selectedIndex;
+        private int nextIndex;
+
+        private PendingPlacementLoad(List<JsonObject> entries, int selectedIndex)
+        {
+            this.entries = entries;
+            this.placements = new SchematicPlacement[entries.size()];
+            this.done = new boolean[entries.size()];
+            this.selectedIndex = selectedIndex;
+        }
+    }
+
+    /**
+     * Builds one schematic world chunk on a worker thread, into a new chunk
+     * that is not visible to anything else until it gets published on the main thread.
+     */
+    protected static class ChunkBuildJob implements Runnable
+    {
+        private final WorldSchematic world;
+        private final ChunkPos pos;
+        private final List<SchematicPlacement> placements;
+        private final List<List<String>> regions;
+        private final ConcurrentLinkedQueue<ChunkBuildJob> finishedJobs;
+        private volatile boolean cancelled;
+        @Nullable private volatile ChunkSchematic chunk;
+
+        protected ChunkBuildJob(WorldSchematic world, ChunkPos pos, List<SchematicPlacement> placements,
+                                List<List<String>> regions, ConcurrentLinkedQueue<ChunkBuildJob> finishedJobs)
+        {
+            this.world = world;
+            this.pos = pos;
+            this.placements = placements;
+            this.regions = regions;
+            this.finishedJobs = finishedJobs;
+        }
+
+        @Override
+        public void run()
+        {
+            if (this.cancelled)
+            {
+                return;
+            }
+
+            try
+            {
+                ChunkSchematic chunk = new ChunkSchematic(this.world, this.pos);
+
+                for (int i = 0; i < this.placements.size(); ++i)
+                {
+                    if (this.cancelled)
+                    {
+                        return;
+                    }
+
+                    SchematicPlacingUtils.placeBlocksToSchematicChunk(chunk, this.placements.get(i), this.regions.get(i));
+                }
+
+                this.chunk = chunk;
+            }
+            catch (Exception e)
+            {
+                // The placement may have been modified while this was running, in which case this job has been cancelled
+                if (this.cancelled == false)
+                {
+                    Litematica.logger.warn("Exception while building the schematic chunk at {}", this.pos, e);
+                }
+            }
+
+            this.finishedJobs.add(this);
+        }
+    }
+
     public static class PlacementPart
     {
         public final SchematicPlacement placement;
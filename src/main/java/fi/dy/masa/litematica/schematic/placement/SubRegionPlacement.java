@@ -31,6 +31,24 @@ public class SubRegionPlacement
         this.name = name;
     }
 
+    /**
+     * Creates a copy of this sub-region placement, see {@link SchematicPlacement#copyForChunkBuilding()}
+     */
+    public SubRegionPlacement copy()
+    {
+        SubRegionPlacement copy = new SubRegionPlacement(this.defaultPos, this.name);
+
+        copy.pos = this.pos;
+        copy.rotation = this.rotation;
+        copy.mirror = this.mirror;
+        copy.enabled = this.enabled;
+        copy.renderingEnabled = this.renderingEnabled;
+        copy.ignoreEntities = this.ignoreEntities;
+        copy.coordinateLockMask = this.coordinateLockMask;
+
+        return copy;
+    }
+
     public boolean isEnabled()
     {
         return this.enabled;
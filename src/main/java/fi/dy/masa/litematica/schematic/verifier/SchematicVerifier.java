@@ -1,30 +1,46 @@
 package fi.dy.masa.litematica.schematic.verifier;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.LongStream;
 import javax.annotation.Nullable;
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.registry.Registries;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.ReadableContainer;
 import fi.dy.masa.malilib.gui.GuiBase;
 import fi.dy.masa.malilib.gui.Message.MessageType;
 import fi.dy.masa.malilib.interfaces.ICompletionListener;
@@ -51,13 +67,18 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
     private static final MutablePair<BlockState, BlockState> MUTABLE_PAIR = new MutablePair<>();
     private static final BlockPos.Mutable MUTABLE_POS = new BlockPos.Mutable();
     private static final List<SchematicVerifier> ACTIVE_VERIFIERS = new ArrayList<>();
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+    private static final BlockState[] AIR_PALETTE = new BlockState[] { AIR };
 
-    private final ArrayListMultimap<Pair<BlockState, BlockState>, BlockPos> missingBlocksPositions = ArrayListMultimap.create();
-    private final ArrayListMultimap<Pair<BlockState, BlockState>, BlockPos> extraBlocksPositions = ArrayListMultimap.create();
-    private final ArrayListMultimap<Pair<BlockState, BlockState>, BlockPos> wrongBlocksPositions = ArrayListMultimap.create();
-    private final ArrayListMultimap<Pair<BlockState, BlockState>, BlockPos> wrongStatesPositions = ArrayListMultimap.create();
+    private final MismatchPositions missingBlocksPositions = new MismatchPositions(MismatchType.MISSING);
+    private final MismatchPositions extraBlocksPositions = new MismatchPositions(MismatchType.EXTRA);
+    private final MismatchPositions wrongBlocksPositions = new MismatchPositions(MismatchType.WRONG_BLOCK);
+    private final MismatchPositions wrongStatesPositions = new MismatchPositions(MismatchType.WRONG_STATE);
     private final Object2IntOpenHashMap<BlockState> correctStateCounts = new Object2IntOpenHashMap<>();
-    private final Object2ObjectOpenHashMap<BlockPos, BlockMismatch> blockMismatches = new Object2ObjectOpenHashMap<>();
+    /** The mismatches by the packed (BlockPos#asLong()) position */
+    private final Long2ObjectOpenHashMap<BlockMismatch> blockMismatches = new Long2ObjectOpenHashMap<>();
+    /** Bit sets of the already verified positions, by the packed chunk section position */
+    private final Long2ObjectOpenHashMap<long[]> verifiedPositions = new Long2ObjectOpenHashMap<>();
     private final HashSet<Pair<BlockState, BlockState>> ignoredMismatches = new HashSet<>();
     private final List<BlockPos> missingBlocksPositionsClosest = new ArrayList<>();
     private final List<BlockPos> extraBlocksPositionsClosest = new ArrayList<>();
@@ -66,7 +87,12 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
     private final Set<MismatchType> selectedCategories = new HashSet<>();
     private final HashMultimap<MismatchType, BlockMismatch> selectedEntries = HashMultimap.create();
     private final Set<ChunkPos> requiredChunks = new HashSet<>();
-    private final Set<BlockPos> recheckQueue = new HashSet<>();
+    /** The changed positions to re-check, with the client world state before the first change */
+    private final Long2ObjectOpenHashMap<BlockState> recheckQueue = new Long2ObjectOpenHashMap<>();
+    /** The resolved results of the palette id pairs of the section currently being verified */
+    private final Int2ObjectOpenHashMap<SectionPair> sectionPairs = new Int2ObjectOpenHashMap<>();
+    private final int[] idsClient = new int[4096];
+    private final int[] idsSchematic = new int[4096];
     private final MinecraftClient mc = MinecraftClient.getInstance();
     private ClientWorld worldClient;
     private WorldSchematic worldSchematic;
@@ -101,6 +127,14 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         }
     }
 
+    public static void markVerifierSchematicChunkChanges(int chunkX, int chunkZ)
+    {
+        for (int i = 0; i < ACTIVE_VERIFIERS.size(); ++i)
+        {
+            ACTIVE_VERIFIERS.get(i).markSchematicChunkChanged(chunkX, chunkZ);
+        }
+    }
+
     @Override
     public boolean getShouldRenderText(RenderPhase phase)
     {
@@ -357,6 +391,7 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         this.clientBlocks = 0;
         this.requiredChunks.clear();
         this.recheckQueue.clear();
+        this.verifiedPositions.clear();
 
         this.missingBlocksPositions.clear();
         this.extraBlocksPositions.clear();
@@ -376,72 +411,143 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         this.clearActiveMismatchRenderPositions();
     }
 
+    /**
+     * Queues the position for a re-check, if it has already been verified.
+     * This needs to be called before the block changes in the client world,
+     * as the previous state is needed for removing the old result of the position.
+     */
     public void markBlockChanged(BlockPos pos)
     {
-        if (this.finished)
+        if (this.worldClient != null && this.isPositionVerified(pos.getX(), pos.getY(), pos.getZ()))
         {
-            BlockMismatch mismatch = this.blockMismatches.get(pos);
+            long posLong = pos.asLong();
 
-            if (mismatch != null)
+            if (this.recheckQueue.containsKey(posLong) == false)
             {
-                this.recheckQueue.add(pos.toImmutable());
+                this.recheckQueue.put(posLong, this.worldClient.getBlockState(pos));
             }
         }
     }
 
-    private void checkChangedPositions()
+    /**
+     * Removes the results within the given chunk, and queues the chunk to be verified again.
+     * This needs to be called before the chunk gets replaced or unloaded in the schematic world,
+     * as the previous states are needed for removing the old results.
+     */
+    public void markSchematicChunkChanged(int chunkX, int chunkZ)
     {
-        if (this.finished && this.recheckQueue.isEmpty() == false)
+        if (this.worldSchematic == null || this.worldSchematic.getChunkProvider().isChunkLoaded(chunkX, chunkZ) == false)
         {
-            Iterator<BlockPos> iter = this.recheckQueue.iterator();
+            return;
+        }
 
-            while (iter.hasNext())
+        Chunk chunkSchematic = this.worldSchematic.getChunk(chunkX, chunkZ);
+        boolean removedSome = false;
+
+        for (int sectionY = chunkSchematic.getBottomSectionCoord(); sectionY < chunkSchematic.getTopSectionCoord(); ++sectionY)
+        {
+            long[] verified = this.verifiedPositions.remove(ChunkSectionPos.asLong(chunkX, sectionY, chunkZ));
+
+            if (verified == null)
             {
-                BlockPos pos = iter.next();
-                @SuppressWarnings("deprecation")
-                boolean isLoadedClient = this.worldClient.isChunkLoaded(pos);
-                @SuppressWarnings("deprecation")
-                boolean isLoadedSchematic = this.worldSchematic.isChunkLoaded(pos);
+                continue;
+            }
 
-                if (isLoadedClient && isLoadedSchematic)
+            for (int index = 0; index < 4096; ++index)
+            {
+                if ((verified[index >> 6] & (1L << (index & 0x3F))) == 0)
                 {
-                    BlockMismatch mismatch = this.blockMismatches.get(pos);
+                    continue;
+                }
 
-                    if (mismatch != null)
-                    {
-                        this.blockMismatches.remove(pos);
+                MUTABLE_POS.set((chunkX << 4) + (index & 0xF), (sectionY << 4) + (index >> 8), (chunkZ << 4) + ((index >> 4) & 0xF));
+                long posLong = MUTABLE_POS.asLong();
+                BlockState stateSchematic = chunkSchematic.getBlockState(MUTABLE_POS);
+                BlockState stateClientQueued = this.recheckQueue.remove(posLong);
+                BlockMismatch mismatch = this.blockMismatches.get(posLong);
+                BlockState stateClient = mismatch != null ? mismatch.stateFound :
+                                         (stateClientQueued != null ? stateClientQueued : this.worldClient.getBlockState(MUTABLE_POS));
 
-                        BlockState stateFound = this.worldClient.getBlockState(pos);
-                        MUTABLE_PAIR.setLeft(mismatch.stateExpected);
-                        MUTABLE_PAIR.setRight(mismatch.stateFound);
+                this.uncheckBlockStates(posLong, stateSchematic, stateClient);
 
-                        this.getMapForMismatchType(mismatch.mismatchType).remove(MUTABLE_PAIR, pos);
-                        this.checkBlockStates(pos.getX(), pos.getY(), pos.getZ(), mismatch.stateExpected, stateFound);
+                if (stateSchematic.isAir() == false)
+                {
+                    --this.schematicBlocks;
+                }
 
-                        if (stateFound.isAir() == false && mismatch.stateFound.isAir())
-                        {
-                            this.clientBlocks++;
-                        }
-                    }
-                    else
+                if (stateClient.isAir() == false)
+                {
+                    --this.clientBlocks;
+                }
+            }
+
+            removedSome = true;
+        }
+
+        if (this.schematicPlacement.getBoxesWithinChunk(chunkX, chunkZ).isEmpty() == false &&
+            this.requiredChunks.add(new ChunkPos(chunkX, chunkZ)))
+        {
+            if (this.finished)
+            {
+                this.finished = false;
+                this.verificationStarted = true;
+                this.verificationActive = true;
+            }
+
+            this.updateRequiredChunksStringList();
+        }
+
+        if (removedSome)
+        {
+            this.updateMismatchOverlays();
+        }
+    }
+
+    private void checkChangedPositions()
+    {
+        if (this.recheckQueue.isEmpty() == false)
+        {
+            ObjectIterator<Long2ObjectMap.Entry<BlockState>> iter = Long2ObjectMaps.fastIterator(this.recheckQueue);
+            boolean checkedSome = false;
+
+            while (iter.hasNext())
+            {
+                Long2ObjectMap.Entry<BlockState> entry = iter.next();
+                long posLong = entry.getLongKey();
+                int x = BlockPos.unpackLongX(posLong);
+                int y = BlockPos.unpackLongY(posLong);
+                int z = BlockPos.unpackLongZ(posLong);
+
+                if (WorldUtils.isClientChunkLoaded(this.worldClient, x >> 4, z >> 4) &&
+                    this.worldSchematic.getChunkProvider().isChunkLoaded(x >> 4, z >> 4))
+                {
+                    MUTABLE_POS.set(x, y, z);
+                    BlockState stateSchematic = this.worldSchematic.getBlockState(MUTABLE_POS);
+                    BlockState stateClient = this.worldClient.getBlockState(MUTABLE_POS);
+                    BlockMismatch mismatch = this.blockMismatches.get(posLong);
+                    BlockState stateClientOld = mismatch != null ? mismatch.stateFound : entry.getValue();
+
+                    this.uncheckBlockStates(posLong, stateSchematic, stateClientOld);
+                    this.checkBlockStates(x, y, z, stateSchematic, stateClient);
+
+                    if (stateClientOld.isAir() != stateClient.isAir())
                     {
-                        BlockState stateExpected = this.worldSchematic.getBlockState(pos);
-                        BlockState stateFound = this.worldClient.getBlockState(pos);
-                        this.checkBlockStates(pos.getX(), pos.getY(), pos.getZ(), stateExpected, stateFound);
+                        this.clientBlocks += stateClient.isAir() ? -1 : 1;
                     }
 
                     iter.remove();
+                    checkedSome = true;
                 }
             }
 
-            if (this.recheckQueue.isEmpty())
+            if (checkedSome)
             {
                 this.updateMismatchOverlays();
             }
         }
     }
 
-    private ArrayListMultimap<Pair<BlockState, BlockState>, BlockPos> getMapForMismatchType(MismatchType mismatchType)
+    private MismatchPositions getMapForMismatchType(MismatchType mismatchType)
     {
         switch (mismatchType)
         {
@@ -533,8 +639,12 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         if (this.ignoredMismatches.contains(ignore) == false)
         {
             this.ignoredMismatches.add(ignore);
-            this.getMapForMismatchType(mismatch.mismatchType).removeAll(ignore);
-            this.blockMismatches.entrySet().removeIf(entry -> entry.getValue().equals(mismatch));
+            LongOpenHashSet positions = this.getMapForMismatchType(mismatch.mismatchType).removeAll(ignore);
+
+            for (LongIterator iter = positions.iterator(); iter.hasNext(); )
+            {
+                this.blockMismatches.remove(iter.nextLong());
+            }
         }
 
         if (updateOverlay)
@@ -571,7 +681,7 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
     @Nullable
     public BlockMismatch getMismatchForPosition(BlockPos pos)
     {
-        return this.blockMismatches.get(pos);
+        return this.blockMismatches.get(pos.asLong());
     }
 
     public List<BlockMismatch> getMismatchOverviewFor(MismatchType type)
@@ -604,7 +714,7 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         return list;
     }
 
-    private void addCountFor(MismatchType mismatchType, ArrayListMultimap<Pair<BlockState, BlockState>, BlockPos> map, List<BlockMismatch> list)
+    private void addCountFor(MismatchType mismatchType, MismatchPositions map, List<BlockMismatch> list)
     {
         for (Pair<BlockState, BlockState> pair : map.keySet())
         {
@@ -662,91 +772,333 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         final int endY = ranged && axis == Direction.Axis.Y ? Math.min(box.maxY, range.getLayerMax()) : box.maxY;
         final int endZ = ranged && axis == Direction.Axis.Z ? Math.min(box.maxZ, range.getLayerMax()) : box.maxZ;
 
+        for (int sectionY = startY >> 4; sectionY <= (endY >> 4); ++sectionY)
+        {
+            final int minY = Math.max(startY, sectionY << 4);
+            final int maxY = Math.min(endY, (sectionY << 4) + 15);
+
+            if (minY <= maxY)
+            {
+                this.verifySection(getSection(chunkClient, sectionY), getSection(chunkSchematic, sectionY),
+                                   startX, minY, startZ, endX, maxY, endZ);
+            }
+        }
+
+        return true;
+    }
+
+    private void verifySection(@Nullable ChunkSection sectionClient, @Nullable ChunkSection sectionSchematic,
+                               int startX, int startY, int startZ, int endX, int endY, int endZ)
+    {
+        long[] verified = this.verifiedPositions.computeIfAbsent(ChunkSectionPos.asLong(startX >> 4, startY >> 4, startZ >> 4), k -> new long[64]);
+
+        // Both sections are empty, so everything is correct
+        if (sectionClient == null && sectionSchematic == null)
+        {
+            int count = 0;
+
+            for (int y = startY; y <= endY; ++y)
+            {
+                for (int z = startZ; z <= endZ; ++z)
+                {
+                    for (int x = startX; x <= endX; ++x)
+                    {
+                        setVerified(verified, x, y, z);
+                        ++count;
+                    }
+                }
+            }
+
+            MUTABLE_POS.set(startX, startY, startZ);
+            ItemUtils.setItemForBlock(this.worldClient, MUTABLE_POS, AIR);
+            this.correctStateCounts.addTo(AIR, count);
+
+            return;
+        }
+
+        final BlockState[] paletteClient = readSectionIds(sectionClient, this.idsClient);
+        final BlockState[] paletteSchematic = readSectionIds(sectionSchematic, this.idsSchematic);
+        final int paletteSizeClient = paletteClient.length;
+
+        // The results are resolved once per distinct pair of palette ids,
+        // only the mismatches need to be stored per position
+        this.sectionPairs.clear();
+
         for (int y = startY; y <= endY; ++y)
         {
             for (int z = startZ; z <= endZ; ++z)
             {
                 for (int x = startX; x <= endX; ++x)
                 {
-                    MUTABLE_POS.set(x, y, z);
-                    BlockState stateClient = chunkClient.getBlockState(MUTABLE_POS);
-                    BlockState stateSchematic = chunkSchematic.getBlockState(MUTABLE_POS);
+                    int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+                    int idSchematic = this.idsSchematic[index];
+                    int key = idSchematic * paletteSizeClient + this.idsClient[index];
+                    SectionPair pair = this.sectionPairs.get(key);
 
-                    this.checkBlockStates(x, y, z, stateSchematic, stateClient);
-
-                    if (stateSchematic.isAir() == false)
+                    if (pair == null)
                     {
-                        this.schematicBlocks++;
+                        pair = this.resolvePair(x, y, z, paletteSchematic[idSchematic], paletteClient[this.idsClient[index]]);
+                        this.sectionPairs.put(key, pair);
                     }
 
-                    if (stateClient.isAir() == false)
+                    if (pair.positions != null)
                     {
-                        this.clientBlocks++;
+                        long posLong = BlockPos.asLong(x, y, z);
+                        this.blockMismatches.put(posLong, pair.positions.add(pair.stateSchematic, pair.stateClient, posLong));
                     }
+
+                    ++pair.count;
+                    setVerified(verified, x, y, z);
                 }
             }
         }
 
-        return true;
+        for (SectionPair pair : this.sectionPairs.values())
+        {
+            if (pair.correct)
+            {
+                this.addCorrectStates(pair.stateSchematic, pair.stateClient, pair.count);
+            }
+
+            if (pair.stateSchematic.isAir() == false)
+            {
+                this.schematicBlocks += pair.count;
+            }
+
+            if (pair.stateClient.isAir() == false)
+            {
+                this.clientBlocks += pair.count;
+            }
+        }
     }
 
-    private void checkBlockStates(int x, int y, int z, BlockState stateSchematic, BlockState stateClient)
+    private SectionPair resolvePair(int x, int y, int z, BlockState stateSchematic, BlockState stateClient)
+    {
+        MUTABLE_POS.set(x, y, z);
+
+        if (isCorrectState(stateSchematic, stateClient))
+        {
+            ItemUtils.setItemForBlock(this.worldClient, MUTABLE_POS, stateClient);
+            return new SectionPair(stateSchematic, stateClient, null, true);
+        }
+
+        MismatchPositions positions = this.getMismatchPositionsFor(stateSchematic, stateClient);
+
+        if (positions != null)
+        {
+            ItemUtils.setItemForBlock(this.worldClient, MUTABLE_POS, stateClient);
+            ItemUtils.setItemForBlock(this.worldSchematic, MUTABLE_POS, stateSchematic);
+        }
+
+        return new SectionPair(stateSchematic, stateClient, positions, false);
+    }
+
+    /**
+     * Reads the palette ids of all the positions in the section into the array,
+     * in the same y, z, x order as the verified position bits.
+     * @return the palette that the ids refer to
+     */
+    private static BlockState[] readSectionIds(@Nullable ChunkSection section, int[] idsOut)
     {
-        BlockPos pos = new BlockPos(x, y, z);
+        if (section == null)
+        {
+            Arrays.fill(idsOut, 0);
+            return AIR_PALETTE;
+        }
 
-        if (stateClient != stateSchematic && (stateClient.isAir() == false || stateSchematic.isAir() == false))
+        ReadableContainer.Serialized<BlockState> data = section.getBlockStateContainer().serialize(Block.STATE_IDS, PalettedContainer.PaletteProvider.BLOCK_STATE);
+        BlockState[] palette = data.paletteEntries().toArray(new BlockState[0]);
+        long[] longs = data.storage().map(LongStream::toArray).orElse(null);
+
+        // Single entry palette, there is no storage array
+        if (longs == null)
         {
-            MUTABLE_PAIR.setLeft(stateSchematic);
-            MUTABLE_PAIR.setRight(stateClient);
+            Arrays.fill(idsOut, 0);
+            return palette;
+        }
 
-            if (this.ignoredMismatches.contains(MUTABLE_PAIR) == false)
+        // The same bit count that PaletteProvider.BLOCK_STATE uses for the serialized palette size
+        final int bits = Math.max(4, MathHelper.ceilLog2(palette.length));
+        final int valuesPerLong = 64 / bits;
+        final long mask = (1L << bits) - 1L;
+
+        if (longs.length != (idsOut.length + valuesPerLong - 1) / valuesPerLong)
+        {
+            return readSectionIdsPerPosition(section, idsOut);
+        }
+
+        int index = 0;
+
+        for (long value : longs)
+        {
+            for (int i = 0; i < valuesPerLong && index < idsOut.length; ++i, ++index)
             {
-                BlockMismatch mismatch = null;
+                idsOut[index] = (int) (value & mask);
+                value >>>= bits;
+            }
+        }
 
-                if (stateSchematic.isAir() == false)
-                {
-                    if (stateClient.isAir())
-                    {
-                        mismatch = new BlockMismatch(MismatchType.MISSING, stateSchematic, stateClient, 1);
-                        this.missingBlocksPositions.put(Pair.of(stateSchematic, stateClient), pos);
-                    }
-                    else
-                    {
-                        if (stateSchematic.getBlock() != stateClient.getBlock())
-                        {
-                            mismatch = new BlockMismatch(MismatchType.WRONG_BLOCK, stateSchematic, stateClient, 1);
-                            this.wrongBlocksPositions.put(Pair.of(stateSchematic, stateClient), pos);
-                        }
-                        else
-                        {
-                            mismatch = new BlockMismatch(MismatchType.WRONG_STATE, stateSchematic, stateClient, 1);
-                            this.wrongStatesPositions.put(Pair.of(stateSchematic, stateClient), pos);
-                        }
-                    }
-                }
-                else if (Configs.Visuals.IGNORE_EXISTING_FLUIDS.getBooleanValue() == false || stateClient.getMaterial().isLiquid() == false)
-                {
-                    mismatch = new BlockMismatch(MismatchType.EXTRA, stateSchematic, stateClient, 1);
-                    this.extraBlocksPositions.put(Pair.of(stateSchematic, stateClient), pos);
-                }
+        return palette;
+    }
 
-                if (mismatch != null)
-                {
-                    this.blockMismatches.put(pos, mismatch);
+    /**
+     * Fallback for an unexpected storage layout, reads the states one at a time
+     */
+    private static BlockState[] readSectionIdsPerPosition(ChunkSection section, int[] idsOut)
+    {
+        Reference2IntOpenHashMap<BlockState> ids = new Reference2IntOpenHashMap<>();
+        List<BlockState> palette = new ArrayList<>();
 
-                    ItemUtils.setItemForBlock(this.worldClient, pos, stateClient);
-                    ItemUtils.setItemForBlock(this.worldSchematic, pos, stateSchematic);
-                }
+        for (int index = 0; index < idsOut.length; ++index)
+        {
+            BlockState state = section.getBlockState(index & 0xF, index >> 8, (index >> 4) & 0xF);
+            int id = ids.getOrDefault(state, -1);
+
+            if (id == -1)
+            {
+                id = palette.size();
+                ids.put(state, id);
+                palette.add(state);
+            }
+
+            idsOut[index] = id;
+        }
+
+        return palette.toArray(new BlockState[0]);
+    }
+
+    /**
+     * @return the chunk section, or null if the section is empty, in which case
+     * the chunk would also return air for all the positions within it
+     */
+    @Nullable
+    private static ChunkSection getSection(Chunk chunk, int sectionY)
+    {
+        int index = chunk.sectionCoordToIndex(sectionY);
+        ChunkSection[] sections = chunk.getSectionArray();
+
+        if (index >= 0 && index < sections.length && sections[index].isEmpty() == false)
+        {
+            return sections[index];
+        }
+
+        return null;
+    }
+
+    private static void setVerified(long[] bits, int x, int y, int z)
+    {
+        int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+        bits[index >> 6] |= (1L << (index & 0x3F));
+    }
+
+    private boolean isPositionVerified(int x, int y, int z)
+    {
+        long[] bits = this.verifiedPositions.get(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4));
+        int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+
+        return bits != null && (bits[index >> 6] & (1L << (index & 0x3F))) != 0;
+    }
+
+    private static boolean isCorrectState(BlockState stateSchematic, BlockState stateClient)
+    {
+        return stateClient == stateSchematic || (stateClient.isAir() && stateSchematic.isAir());
+    }
+
+    /**
+     * @return the mismatch category of the non-matching states,
+     * or null if the mismatch is ignored
+     */
+    @Nullable
+    private MismatchPositions getMismatchPositionsFor(BlockState stateSchematic, BlockState stateClient)
+    {
+        MUTABLE_PAIR.setLeft(stateSchematic);
+        MUTABLE_PAIR.setRight(stateClient);
+
+        if (this.ignoredMismatches.contains(MUTABLE_PAIR))
+        {
+            return null;
+        }
+
+        if (stateSchematic.isAir() == false)
+        {
+            if (stateClient.isAir())
+            {
+                return this.missingBlocksPositions;
+            }
+            else if (stateSchematic.getBlock() != stateClient.getBlock())
+            {
+                return this.wrongBlocksPositions;
+            }
+            else
+            {
+                return this.wrongStatesPositions;
             }
         }
+        else if (Configs.Visuals.IGNORE_EXISTING_FLUIDS.getBooleanValue() == false || stateClient.getMaterial().isLiquid() == false)
+        {
+            return this.extraBlocksPositions;
+        }
+
+        return null;
+    }
+
+    private void addCorrectStates(BlockState stateSchematic, BlockState stateClient, int count)
+    {
+        this.correctStateCounts.addTo(stateClient, count);
+
+        if (stateSchematic.isAir() == false)
+        {
+            this.correctStatesCount += count;
+        }
+    }
+
+    private void checkBlockStates(int x, int y, int z, BlockState stateSchematic, BlockState stateClient)
+    {
+        MUTABLE_POS.set(x, y, z);
+
+        if (isCorrectState(stateSchematic, stateClient))
+        {
+            ItemUtils.setItemForBlock(this.worldClient, MUTABLE_POS, stateClient);
+            this.addCorrectStates(stateSchematic, stateClient, 1);
+        }
         else
         {
-            ItemUtils.setItemForBlock(this.worldClient, pos, stateClient);
-            this.correctStateCounts.addTo(stateClient, 1);
+            MismatchPositions positions = this.getMismatchPositionsFor(stateSchematic, stateClient);
+
+            if (positions != null)
+            {
+                long posLong = BlockPos.asLong(x, y, z);
+                this.blockMismatches.put(posLong, positions.add(stateSchematic, stateClient, posLong));
+
+                ItemUtils.setItemForBlock(this.worldClient, MUTABLE_POS, stateClient);
+                ItemUtils.setItemForBlock(this.worldSchematic, MUTABLE_POS, stateSchematic);
+            }
+        }
+    }
+
+    /**
+     * Removes the previous result of the given position, ie. reverses what
+     * checkBlockStates() did for the same states.
+     */
+    private void uncheckBlockStates(long posLong, BlockState stateSchematic, BlockState stateClient)
+    {
+        BlockMismatch mismatch = this.blockMismatches.remove(posLong);
+
+        if (mismatch != null)
+        {
+            this.getMapForMismatchType(mismatch.mismatchType).remove(mismatch.stateExpected, mismatch.stateFound, posLong);
+        }
+        // Ignored mismatches don't have any stored results
+        else if (isCorrectState(stateSchematic, stateClient))
+        {
+            if (this.correctStateCounts.addTo(stateClient, -1) <= 1)
+            {
+                this.correctStateCounts.removeInt(stateClient);
+            }
 
             if (stateSchematic.isAir() == false)
             {
-                ++this.correctStatesCount;
+                --this.correctStatesCount;
             }
         }
     }
@@ -786,9 +1138,8 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         this.addAndSortPositions(MismatchType.MISSING,      this.missingBlocksPositions, this.missingBlocksPositionsClosest, maxEntries);
     }
 
-    private void addAndSortPositions(MismatchType type,
-            ArrayListMultimap<Pair<BlockState, BlockState>, BlockPos> sourceMap,
-            List<BlockPos> listOut, int maxEntries)
+    private void addAndSortPositions(MismatchType type, MismatchPositions sourceMap,
+                                     List<BlockPos> listOut, int maxEntries)
     {
         listOut.clear();
 
@@ -796,7 +1147,10 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
 
         if (this.selectedCategories.contains(type))
         {
-            listOut.addAll(sourceMap.values());
+            for (Pair<BlockState, BlockState> pair : sourceMap.keySet())
+            {
+                addPositions(sourceMap.get(pair), listOut);
+            }
         }
         else
         {
@@ -806,7 +1160,7 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
             {
                 MUTABLE_PAIR.setLeft(mismatch.stateExpected);
                 MUTABLE_PAIR.setRight(mismatch.stateFound);
-                listOut.addAll(sourceMap.get(MUTABLE_PAIR));
+                addPositions(sourceMap.get(MUTABLE_PAIR), listOut);
             }
         }
 
@@ -822,6 +1176,14 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         */
     }
 
+    private static void addPositions(LongOpenHashSet positions, List<BlockPos> listOut)
+    {
+        for (LongIterator iter = positions.iterator(); iter.hasNext(); )
+        {
+            listOut.add(BlockPos.fromLong(iter.nextLong()));
+        }
+    }
+
     private void combineClosestPositions(BlockPos centerPos, int maxEntries)
     {
         this.mismatchPositionsForRender.clear();
@@ -981,6 +1343,129 @@ public class SchematicVerifier extends TaskBase implements IInfoHudRenderer
         }
     }
 
+    /**
+     * The resolved result of one distinct pair of states within a section
+     */
+    private static class SectionPair
+    {
+        private final BlockState stateSchematic;
+        private final BlockState stateClient;
+        @Nullable private final MismatchPositions positions;
+        private final boolean correct;
+        private int count;
+
+        private SectionPair(BlockState stateSchematic, BlockState stateClient, @Nullable MismatchPositions positions, boolean correct)
+        {
+            this.stateSchematic = stateSchematic;
+            this.stateClient = stateClient;
+            this.positions = positions;
+            this.correct = correct;
+        }
+    }
+
+    /**
+     * The packed positions of one mismatch type, grouped by the expected and found state pairs
+     */
+    private static class MismatchPositions
+    {
+        private static final LongOpenHashSet EMPTY = new LongOpenHashSet();
+
+        private final Map<Pair<BlockState, BlockState>, Entry> entries = new HashMap<>();
+        private final MismatchType type;
+        private int count;
+
+        private MismatchPositions(MismatchType type)
+        {
+            this.type = type;
+        }
+
+        /**
+         * Adds the position, and returns the shared mismatch instance of the state pair
+         */
+        public BlockMismatch add(BlockState stateExpected, BlockState stateFound, long pos)
+        {
+            MUTABLE_PAIR.setLeft(stateExpected);
+            MUTABLE_PAIR.setRight(stateFound);
+            Entry entry = this.entries.get(MUTABLE_PAIR);
+
+            if (entry == null)
+            {
+                entry = new Entry(new BlockMismatch(this.type, stateExpected, stateFound, 1));
+                this.entries.put(Pair.of(stateExpected, stateFound), entry);
+            }
+
+            if (entry.positions.add(pos))
+            {
+                ++this.count;
+            }
+
+            return entry.mismatch;
+        }
+
+        public void remove(BlockState stateExpected, BlockState stateFound, long pos)
+        {
+            MUTABLE_PAIR.setLeft(stateExpected);
+            MUTABLE_PAIR.setRight(stateFound);
+            Entry entry = this.entries.get(MUTABLE_PAIR);
+
+            if (entry != null && entry.positions.remove(pos))
+            {
+                --this.count;
+
+                if (entry.positions.isEmpty())
+                {
+                    this.entries.remove(MUTABLE_PAIR);
+                }
+            }
+        }
+
+        public LongOpenHashSet removeAll(Pair<BlockState, BlockState> pair)
+        {
+            Entry entry = this.entries.remove(pair);
+
+            if (entry != null)
+            {
+                this.count -= entry.positions.size();
+                return entry.positions;
+            }
+
+            return EMPTY;
+        }
+
+        public LongOpenHashSet get(Pair<BlockState, BlockState> pair)
+        {
+            Entry entry = this.entries.get(pair);
+            return entry != null ? entry.positions : EMPTY;
+        }
+
+        public Set<Pair<BlockState, BlockState>> keySet()
+        {
+            return this.entries.keySet();
+        }
+
+        public int size()
+        {
+            return this.count;
+        }
+
+        public void clear()
+        {
+            this.entries.clear();
+            this.count = 0;
+        }
+
+        private static class Entry
+        {
+            private final BlockMismatch mismatch;
+            private final LongOpenHashSet positions = new LongOpenHashSet();
+
+            private Entry(BlockMismatch mismatch)
+            {
+                this.mismatch = mismatch;
+            }
+        }
+    }
+
     public static class MismatchRenderPos
     {
         public final MismatchType type;
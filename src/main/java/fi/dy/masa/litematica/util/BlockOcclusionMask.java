@@ -0,0 +1,213 @@
+package fi.dy.masa.litematica.util;
+
+import java.util.Arrays;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.EmptyBlockView;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+
+/**
+ * Finds the blocks that are exposed to at least one non-occluding neighbor,
+ * for the "visible blocks only" schematic saving option.
+ * The occluding blocks of each chunk section are collected into a bitset
+ * (one long per 4 rows of 16 blocks along the x-axis, in the y, z, x index order),
+ * and the neighbor checks are then done by shifting whole words of that bitset.
+ */
+public class BlockOcclusionMask
+{
+    /** The bits of the x = 0 positions within one word */
+    private static final long X0_MASK = 0x0001000100010001L;
+    /** The bits of the x = 15 positions within one word */
+    private static final long X15_MASK = 0x8000800080008000L;
+
+    private static byte[] occludingStates = new byte[0];
+
+    private final World world;
+    private final Long2ObjectOpenHashMap<long[]> exposedBlocks = new Long2ObjectOpenHashMap<>();
+
+    public BlockOcclusionMask(World world)
+    {
+        this.world = world;
+    }
+
+    public boolean isExposed(int x, int y, int z)
+    {
+        return isBitSet(this.getExposedBlocks(x >> 4, y >> 4, z >> 4), x, y, z);
+    }
+
+    /**
+     * @return the bitset of the exposed blocks in the given chunk section.
+     * The result is cached, so it must not be modified.
+     */
+    public long[] getExposedBlocks(int chunkX, int sectionY, int chunkZ)
+    {
+        long key = ChunkSectionPos.asLong(chunkX, sectionY, chunkZ);
+        long[] bits = this.exposedBlocks.get(key);
+
+        if (bits == null)
+        {
+            bits = getExposedBlocks(this.world, chunkX, sectionY, chunkZ);
+            this.exposedBlocks.put(key, bits);
+        }
+
+        return bits;
+    }
+
+    public static boolean isBitSet(long[] bits, int x, int y, int z)
+    {
+        int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+        return (bits[index >> 6] & (1L << (index & 0x3F))) != 0;
+    }
+
+    /**
+     * @return the bitset of the blocks in the given chunk section, that have at least one
+     * neighbor that is not an opaque full cube
+     */
+    public static long[] getExposedBlocks(World world, int chunkX, int sectionY, int chunkZ)
+    {
+        long[] center = getOccludingBlocks(world, chunkX, sectionY, chunkZ, 0, 15, 0, 15, 0, 15);
+        long[] exposed = new long[64];
+
+        // Without any occluding blocks every block has at least three non-occluding neighbors
+        if (center == null)
+        {
+            Arrays.fill(exposed, -1L);
+            return exposed;
+        }
+
+        // Only the boundary layers of the neighbor sections are needed
+        long[] down  = getOccludingBlocksOrEmpty(world, chunkX    , sectionY - 1, chunkZ    ,  0, 15, 15, 15,  0, 15);
+        long[] up    = getOccludingBlocksOrEmpty(world, chunkX    , sectionY + 1, chunkZ    ,  0, 15,  0,  0,  0, 15);
+        long[] north = getOccludingBlocksOrEmpty(world, chunkX    , sectionY    , chunkZ - 1,  0, 15,  0, 15, 15, 15);
+        long[] south = getOccludingBlocksOrEmpty(world, chunkX    , sectionY    , chunkZ + 1,  0, 15,  0, 15,  0,  0);
+        long[] west  = getOccludingBlocksOrEmpty(world, chunkX - 1, sectionY    , chunkZ    , 15, 15,  0, 15,  0, 15);
+        long[] east  = getOccludingBlocksOrEmpty(world, chunkX + 1, sectionY    , chunkZ    ,  0,  0,  0, 15,  0, 15);
+
+        for (int w = 0; w < 64; ++w)
+        {
+            final int y = w >> 2;
+            final int zq = w & 3;
+            final long c = center[w];
+
+            long xp = ((c >>> 1) & ~X15_MASK) | ((east[w] & X0_MASK) << 15);
+            long xn = ((c << 1) & ~X0_MASK) | ((west[w] & X15_MASK) >>> 15);
+            long zp = (c >>> 16) | ((zq < 3 ? center[w + 1] : south[y << 2]) << 48);
+            long zn = (c << 16) | ((zq > 0 ? center[w - 1] : north[(y << 2) | 3]) >>> 48);
+            long yp = y < 15 ? center[w + 4] : up[zq];
+            long yn = y > 0 ? center[w - 4] : down[60 | zq];
+
+            exposed[w] = ~(xp & xn & zp & zn & yp & yn);
+        }
+
+        return exposed;
+    }
+
+    private static long[] getOccludingBlocksOrEmpty(World world, int chunkX, int sectionY, int chunkZ,
+                                                    int minX, int maxX, int minY, int maxY, int minZ, int maxZ)
+    {
+        long[] bits = getOccludingBlocks(world, chunkX, sectionY, chunkZ, minX, maxX, minY, maxY, minZ, maxZ);
+        return bits != null ? bits : new long[64];
+    }
+
+    /**
+     * @return the bitset of the occluding blocks within the given section relative range,
+     * or null if the section doesn't have any occluding blocks
+     */
+    private static long[] getOccludingBlocks(World world, int chunkX, int sectionY, int chunkZ,
+                                             int minX, int maxX, int minY, int maxY, int minZ, int maxZ)
+    {
+        int index = world.sectionCoordToIndex(sectionY);
+
+        // Outside of the world, ie. void air
+        if (index < 0 || index >= world.countVerticalSections())
+        {
+            return null;
+        }
+
+        // Don't load or generate missing chunks on a server world, treat them as air like the client world does
+        Chunk chunk = world.getChunkManager().getChunk(chunkX, chunkZ, ChunkStatus.FULL, false);
+
+        if (chunk == null)
+        {
+            return null;
+        }
+
+        ChunkSection section = chunk.getSectionArray()[index];
+
+        if (section == null || section.isEmpty() ||
+            section.getBlockStateContainer().hasAny(BlockOcclusionMask::isOccluding) == false)
+        {
+            return null;
+        }
+
+        long[] bits = new long[64];
+
+        for (int y = minY; y <= maxY; ++y)
+        {
+            for (int z = minZ; z <= maxZ; ++z)
+            {
+                for (int x = minX; x <= maxX; ++x)
+                {
+                    if (isOccluding(section.getBlockState(x, y, z)))
+                    {
+                        int i = (y << 8) | (z << 4) | x;
+                        bits[i >> 6] |= 1L << (i & 0x3F);
+                    }
+                }
+            }
+        }
+
+        return bits;
+    }
+
+    /**
+     * @return true if the state is an opaque full cube, ie. it hides all of its neighbors' faces.
+     * The result is cached per state.
+     */
+    public static boolean isOccluding(BlockState state)
+    {
+        int id = Block.getRawIdFromState(state);
+        byte[] cache = occludingStates;
+
+        if (id >= cache.length)
+        {
+            cache = Arrays.copyOf(cache, Math.max(id + 1, Block.STATE_IDS.size()));
+            occludingStates = cache;
+        }
+
+        byte value = cache[id];
+
+        if (value == 0)
+        {
+            value = computeIsOccluding(state) ? (byte) 1 : (byte) 2;
+            cache[id] = value;
+        }
+
+        return value == 1;
+    }
+
+    private static boolean computeIsOccluding(BlockState state)
+    {
+        if (state.isOpaque() == false)
+        {
+            return false;
+        }
+
+        for (Direction side : fi.dy.masa.malilib.util.PositionUtils.ALL_DIRECTIONS)
+        {
+            if (state.isSideSolidFullSquare(EmptyBlockView.INSTANCE, BlockPos.ORIGIN, side) == false)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
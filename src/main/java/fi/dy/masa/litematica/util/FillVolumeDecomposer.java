@@ -0,0 +1,329 @@
+package fi.dy.masa.litematica.util;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.ChunkSectionPos;
+import fi.dy.masa.malilib.util.IntBoundingBox;
+
+/**
+ * Splits the blocks into as few cuboid volumes of identical blocks as reasonably possible,
+ * for use with the fill command. The volumes are found greedily, by growing a box from
+ * the first uncovered position in three different axis orders, and then picking
+ * the largest of those. The volumes may extend outside the box being processed,
+ * as far as the volume source allows, and any positions already covered by earlier volumes
+ * are tracked so that they will get skipped when their own box is processed later.
+ * Within the box being processed, the covered positions are tracked in a box-local bit set.
+ */
+public class FillVolumeDecomposer
+{
+    private static final int[][] AXIS_ORDERS = { { 0, 2, 1 }, { 2, 0, 1 }, { 1, 0, 2 } };
+
+    private final Long2ObjectOpenHashMap<long[]> coveredPositions = new Long2ObjectOpenHashMap<>();
+    private final IVolumeSource source;
+    private final int maxVolume;
+    private final int[] start = new int[3];
+    private final int[] size = new int[3];
+    private final int[] bestSize = new int[3];
+    private long[] boxCovered = new long[0];
+    private int boxMinX;
+    private int boxMinY;
+    private int boxMinZ;
+    private int boxMaxX;
+    private int boxMaxY;
+    private int boxMaxZ;
+    private int boxSizeX;
+    private int boxSizeZ;
+
+    public FillVolumeDecomposer(IVolumeSource source, int maxVolume)
+    {
+        this.source = source;
+        this.maxVolume = Math.max(1, maxVolume);
+    }
+
+    /**
+     * Finds the volumes that start within the given box, and adds them to the output list
+     */
+    public void decompose(IntBoundingBox box, List<IntBoundingBox> volumesOut)
+    {
+        this.setBox(box);
+
+        for (int y = box.minY; y <= box.maxY; ++y)
+        {
+            for (int z = box.minZ; z <= box.maxZ; ++z)
+            {
+                for (int x = box.minX; x <= box.maxX; ++x)
+                {
+                    if (this.isCovered(x, y, z))
+                    {
+                        continue;
+                    }
+
+                    BlockState state = this.source.getState(x, y, z);
+
+                    if (state != null)
+                    {
+                        IntBoundingBox volume = this.getLargestVolumeAt(x, y, z, state);
+                        this.markCovered(volume);
+                        volumesOut.add(volume);
+                        // Skip the rest of the volume on this row
+                        x = volume.maxX;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets the covered positions within the given chunk column.
+     * This should be called once the chunk has been processed.
+     */
+    public void clearChunk(int chunkX, int chunkZ)
+    {
+        this.coveredPositions.long2ObjectEntrySet().removeIf((e) -> ChunkSectionPos.unpackX(e.getLongKey()) == chunkX &&
+                                                                     ChunkSectionPos.unpackZ(e.getLongKey()) == chunkZ);
+    }
+
+    public void clear()
+    {
+        this.coveredPositions.clear();
+    }
+
+    private IntBoundingBox getLargestVolumeAt(int x, int y, int z, BlockState state)
+    {
+        this.start[0] = x;
+        this.start[1] = y;
+        this.start[2] = z;
+        this.bestSize[0] = 1;
+        this.bestSize[1] = 1;
+        this.bestSize[2] = 1;
+
+        if (this.source.canMerge(state))
+        {
+            int bestVolume = 1;
+
+            for (int[] order : AXIS_ORDERS)
+            {
+                this.size[0] = 1;
+                this.size[1] = 1;
+                this.size[2] = 1;
+
+                for (int axis : order)
+                {
+                    while (this.canGrow(axis, state))
+                    {
+                        ++this.size[axis];
+                    }
+                }
+
+                int volume = this.size[0] * this.size[1] * this.size[2];
+
+                if (volume > bestVolume)
+                {
+                    bestVolume = volume;
+                    System.arraycopy(this.size, 0, this.bestSize, 0, 3);
+                }
+            }
+        }
+
+        return new IntBoundingBox(x, y, z, x + this.bestSize[0] - 1, y + this.bestSize[1] - 1, z + this.bestSize[2] - 1);
+    }
+
+    /**
+     * @return true if the next slice of positions along the given axis all match the state
+     */
+    private boolean canGrow(int axis, BlockState state)
+    {
+        int[] size = this.size;
+        int volume = size[0] * size[1] * size[2];
+
+        if (volume + volume / size[axis] > this.maxVolume)
+        {
+            return false;
+        }
+
+        int minX = this.start[0];
+        int minY = this.start[1];
+        int minZ = this.start[2];
+        int maxX = minX + size[0] - 1;
+        int maxY = minY + size[1] - 1;
+        int maxZ = minZ + size[2] - 1;
+
+        switch (axis)
+        {
+            case 0: minX = maxX = maxX + 1; break;
+            case 1: minY = maxY = maxY + 1; break;
+            default: minZ = maxZ = maxZ + 1; break;
+        }
+
+        for (int y = minY; y <= maxY; ++y)
+        {
+            for (int z = minZ; z <= maxZ; ++z)
+            {
+                for (int x = minX; x <= maxX; ++x)
+                {
+                    if (this.isCovered(x, y, z) || this.source.getState(x, y, z) != state)
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Sets up the box-local bit set for the given box, from the positions that
+     * the volumes of the earlier boxes have already covered
+     */
+    private void setBox(IntBoundingBox box)
+    {
+        this.boxMinX = box.minX;
+        this.boxMinY = box.minY;
+        this.boxMinZ = box.minZ;
+        this.boxMaxX = box.maxX;
+        this.boxMaxY = box.maxY;
+        this.boxMaxZ = box.maxZ;
+        this.boxSizeX = box.maxX - box.minX + 1;
+        this.boxSizeZ = box.maxZ - box.minZ + 1;
+
+        int length = (this.boxSizeX * (box.maxY - box.minY + 1) * this.boxSizeZ + 63) >> 6;
+
+        if (this.boxCovered.length < length)
+        {
+            this.boxCovered = new long[length];
+        }
+        else
+        {
+            Arrays.fill(this.boxCovered, 0, length, 0L);
+        }
+
+        if (this.coveredPositions.isEmpty())
+        {
+            return;
+        }
+
+        for (int y = box.minY; y <= box.maxY; ++y)
+        {
+            for (int z = box.minZ; z <= box.maxZ; ++z)
+            {
+                for (int x = box.minX; x <= box.maxX; x = (x & ~0xF) + 16)
+                {
+                    long[] bits = this.coveredPositions.get(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4));
+
+                    if (bits == null)
+                    {
+                        continue;
+                    }
+
+                    int endX = Math.min(box.maxX, x | 0xF);
+                    int index = ((y & 0xF) << 8) | ((z & 0xF) << 4);
+                    int row = (int) (bits[index >> 6] >>> (index & 0x3F)) & 0xFFFF;
+
+                    for (int bx = x; bx <= endX; ++bx)
+                    {
+                        if ((row & (1 << (bx & 0xF))) != 0)
+                        {
+                            int boxIndex = this.getBoxIndex(bx, y, z);
+                            this.boxCovered[boxIndex >> 6] |= 1L << (boxIndex & 0x3F);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isWithinBox(int x, int y, int z)
+    {
+        return x >= this.boxMinX && x <= this.boxMaxX &&
+               y >= this.boxMinY && y <= this.boxMaxY &&
+               z >= this.boxMinZ && z <= this.boxMaxZ;
+    }
+
+    private int getBoxIndex(int x, int y, int z)
+    {
+        return ((y - this.boxMinY) * this.boxSizeZ + (z - this.boxMinZ)) * this.boxSizeX + (x - this.boxMinX);
+    }
+
+    private boolean isCovered(int x, int y, int z)
+    {
+        if (this.isWithinBox(x, y, z))
+        {
+            int index = this.getBoxIndex(x, y, z);
+            return (this.boxCovered[index >> 6] & (1L << (index & 0x3F))) != 0;
+        }
+
+        long[] bits = this.coveredPositions.get(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4));
+        int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+        return bits != null && (bits[index >> 6] & (1L << (index & 0x3F))) != 0;
+    }
+
+    /**
+     * Marks the volume as covered one row at a time, both in the box-local bit set for the current box,
+     * and in the per-section bit sets for the later boxes. Each row within one section
+     * is a 16 bit field of one long, so it gets set with one mask.
+     */
+    private void markCovered(IntBoundingBox volume)
+    {
+        for (int y = volume.minY; y <= volume.maxY; ++y)
+        {
+            for (int z = volume.minZ; z <= volume.maxZ; ++z)
+            {
+                if (y >= this.boxMinY && y <= this.boxMaxY && z >= this.boxMinZ && z <= this.boxMaxZ &&
+                    volume.minX <= this.boxMaxX && volume.maxX >= this.boxMinX)
+                {
+                    int startX = Math.max(volume.minX, this.boxMinX);
+                    int endX = Math.min(volume.maxX, this.boxMaxX);
+                    setBits(this.boxCovered, this.getBoxIndex(startX, y, z), endX - startX + 1);
+                }
+
+                this.markCoveredInSections(volume.minX, volume.maxX, y, z);
+            }
+        }
+    }
+
+    private void markCoveredInSections(int minX, int maxX, int y, int z)
+    {
+        for (int x = minX; x <= maxX; x = (x & ~0xF) + 16)
+        {
+            long[] bits = this.coveredPositions.computeIfAbsent(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4), (k) -> new long[64]);
+            int endX = Math.min(maxX, x | 0xF);
+            int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+            bits[index >> 6] |= ((1L << (endX - x + 1)) - 1L) << (index & 0x3F);
+        }
+    }
+
+    private static void setBits(long[] bits, int start, int count)
+    {
+        int index = start;
+        int end = start + count;
+
+        while (index < end)
+        {
+            int bit = index & 0x3F;
+            int n = Math.min(64 - bit, end - index);
+            long mask = n == 64 ? -1L : ((1L << n) - 1L) << bit;
+            bits[index >> 6] |= mask;
+            index += n;
+        }
+    }
+
+    public interface IVolumeSource
+    {
+        /**
+         * @return the block state at the given position, or null if the position
+         * should not be included in any volume
+         */
+        @Nullable
+        BlockState getState(int x, int y, int z);
+
+        /**
+         * @return true if the given state can be combined with its neighbors,
+         * false if it should always be handled one block at a time
+         */
+        boolean canMerge(BlockState state);
+    }
+}
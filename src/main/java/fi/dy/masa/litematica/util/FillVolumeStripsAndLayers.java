@@ -0,0 +1,289 @@
+package fi.dy.masa.litematica.util;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.chunk.Chunk;
+import fi.dy.masa.malilib.util.IntBoundingBox;
+import fi.dy.masa.litematica.world.ChunkSchematic;
+
+/**
+ * The original per-chunk strips and layers method of finding the fill volumes.
+ * This is only kept as a development reference, for comparing the volume counts
+ * of {@link FillVolumeDecomposer} against it, and it's not used by the paste tasks.
+ */
+public class FillVolumeStripsAndLayers
+{
+    private final BlockPos.Mutable mutablePos = new BlockPos.Mutable();
+    private final ReplaceBehavior replace;
+    private final boolean ignoreBeFromFill;
+    private final boolean ignoreBeEntirely;
+    private final int[][][] workArr;
+
+    public FillVolumeStripsAndLayers(int worldHeight, ReplaceBehavior replace, boolean ignoreBeFromFill, boolean ignoreBeEntirely)
+    {
+        this.replace = replace;
+        this.ignoreBeFromFill = ignoreBeFromFill;
+        this.ignoreBeEntirely = ignoreBeEntirely;
+        this.workArr = new int[16][worldHeight][16];
+    }
+
+    /**
+     * @return the number of fill volumes this method finds for the box, which must be within the given chunk
+     */
+    public int countVolumes(ChunkSchematic chunk, IntBoundingBox box)
+    {
+        LongArrayList volumes = new LongArrayList();
+
+        this.generateStrips(this.workArr, Direction.EAST, box, chunk, this.ignoreBeFromFill);
+        this.combineStripsToLayers(this.workArr, Direction.EAST, Direction.SOUTH, Direction.UP,
+                                   box, chunk, volumes, this.ignoreBeFromFill);
+
+        return volumes.size();
+    }
+
+    private int getBlockStripLength(BlockPos.Mutable pos,
+                                      Direction direction,
+                                      int maxLength,
+                                      BlockState firstState,
+                                      Chunk chunk)
+    {
+        int length = 1;
+
+        while (length < maxLength)
+        {
+            pos.move(direction);
+            BlockState state = chunk.getBlockState(pos);
+
+            if (state != firstState)
+            {
+                break;
+            }
+
+            ++length;
+        }
+
+        return length;
+    }
+
+    private void generateStrips(int[][][] workArr,
+                                  Direction stripDirection,
+                                  IntBoundingBox box,
+                                  ChunkSchematic chunk,
+                                  boolean ignoreBeFromFill)
+    {
+        boolean ignoreBeEntirely = this.ignoreBeEntirely;
+        BlockPos.Mutable mutablePos = this.mutablePos;
+        ReplaceBehavior replace = this.replace;
+        final int startX = box.minX & 0xF;
+        final int startZ = box.minZ & 0xF;
+        final int endX = box.maxX & 0xF;
+        final int endZ = box.maxZ & 0xF;
+        final int worldMinY = chunk.getBottomY();
+
+        for (int y = box.minY; y <= box.maxY; ++y)
+        {
+            for (int z = startZ; z <= endZ; ++z)
+            {
+                for (int x = startX; x <= endX; ++x)
+                {
+                    mutablePos.set(x, y, z);
+                    BlockState state = chunk.getBlockState(mutablePos);
+
+                    if (state.isAir() == false || replace == ReplaceBehavior.ALL)
+                    {
+                        if (state.hasBlockEntity())
+                        {
+                            if (ignoreBeFromFill)
+                            {
+                                workArr[x][y - worldMinY][z] = 1;
+                                continue;
+                            }
+                            else if (ignoreBeEntirely)
+                            {
+                                continue;
+                            }
+                        }
+
+                        int length = this.getBlockStripLength(mutablePos, stripDirection, endX - x + 1, state, chunk);
+                        workArr[x][y - worldMinY][z] = length;
+                        //System.out.printf("strip @ [%d %d %d] %d x %s\n", x, y, z, length, state);
+                        x += length - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    // TODO this method should be cleaned up and split up to smaller methods,
+    // and the iteration order would need to be made adjustable for the direction
+    // arguments to make sense and to work in other combinations.
+    private void combineStripsToLayers(int[][][] workArr,
+                                         Direction stripDirection,
+                                         Direction stripCombineDirection,
+                                         Direction layerCombineDirection,
+                                         IntBoundingBox box,
+                                         ChunkSchematic chunk,
+                                         LongArrayList volumesOut,
+                                         boolean ignoreBe)
+    {
+        BlockPos.Mutable mutablePos = this.mutablePos;
+        final int sdOffX = stripDirection.getOffsetX();
+        final int sdOffY = stripDirection.getOffsetY();
+        final int sdOffZ = stripDirection.getOffsetZ();
+        final int scOffX = stripCombineDirection.getOffsetX();
+        final int scOffY = stripCombineDirection.getOffsetY();
+        final int scOffZ = stripCombineDirection.getOffsetZ();
+        final int lcOffX = layerCombineDirection.getOffsetX();
+        final int lcOffY = layerCombineDirection.getOffsetY();
+        final int lcOffZ = layerCombineDirection.getOffsetZ();
+        final int startX = box.minX & 0xF;
+        final int startZ = box.minZ & 0xF;
+        final int endX = box.maxX & 0xF;
+        final int endZ = box.maxZ & 0xF;
+        final int worldMinY = chunk.getBottomY();
+
+        for (int y = box.minY; y <= box.maxY; ++y)
+        {
+            for (int x = startX; x <= endX; ++x)
+            {
+                for (int z = startZ; z <= endZ; ++z)
+                {
+                    int length = workArr[x][y - worldMinY][z];
+
+                    if (length > 0)
+                    {
+                        int nextX = x + scOffX;
+                        int nextY = y + scOffY;
+                        int nextZ = z + scOffZ;
+                        int stripCount = 1;
+
+                        mutablePos.set(x, y, z);
+                        BlockState state = chunk.getBlockState(mutablePos);
+
+                        if (ignoreBe == false || state.hasBlockEntity() == false)
+                        {
+                            // Find identical adjacent strips, and set their data in the array to zero,
+                            // since they are being combined into one layer starting from the first position.
+                            while (nextX <= 15 && nextY <= box.maxY && nextZ <= 15 &&
+                                   workArr[nextX][nextY - worldMinY][nextZ] == length &&
+                                   chunk.getBlockState(mutablePos.set(nextX, nextY, nextZ)) == state)
+                            {
+                                ++stripCount;
+                                workArr[nextX][nextY - worldMinY][nextZ] = 0;
+                                nextX += scOffX;
+                                nextY += scOffY;
+                                nextZ += scOffZ;
+                            }
+                        }
+
+                        // Encode the first two dimensions of the volume (at this point a layer).
+                        // Note: At this point the range is 1...16 so that it can be distinguished from "no data" = 0
+                        int packedX = sdOffX * length + scOffX * stripCount;
+                        int packedY = sdOffY * length + scOffY * stripCount;
+                        int packedZ = sdOffZ * length + scOffZ * stripCount;
+                        int packedSize = packCoordinate5bit(packedX, packedY, packedZ);
+
+                        //System.out.printf("layer @ [%d %d %d] len: %d x count: %d %s\n", x, y, z, length, stripCount, state);
+                        workArr[x][y - worldMinY][z] = packedSize;
+
+                        // Skip the already handled/combined strips
+                        if (stripCount > 1)
+                        {
+                            int extraStrips = stripCount - 1;
+                            x += scOffX * extraStrips;
+                            y += scOffY * extraStrips;
+                            z += scOffZ * extraStrips;
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int x = startX; x <= endX; ++x)
+        {
+            for (int z = startZ; z <= endZ; ++z)
+            {
+                for (int y = box.minY; y <= box.maxY; ++y)
+                {
+                    int packedSize = workArr[x][y - worldMinY][z];
+
+                    if (packedSize != 0)
+                    {
+                        int nextX = x + lcOffX;
+                        int nextY = y + lcOffY;
+                        int nextZ = z + lcOffZ;
+                        int layerCount = 1;
+
+                        mutablePos.set(x, y, z);
+                        BlockState state = chunk.getBlockState(mutablePos);
+
+                        if (ignoreBe == false || state.hasBlockEntity() == false)
+                        {
+                            // Find identical adjacent layers
+                            while (nextX <= 15 && nextY <= box.maxY && nextZ <= 15 &&
+                                   workArr[nextX][nextY - worldMinY][nextZ] == packedSize &&
+                                   chunk.getBlockState(mutablePos.set(nextX, nextY, nextZ)) == state)
+                            {
+                                ++layerCount;
+                                workArr[nextX][nextY - worldMinY][nextZ] = 0;
+                                nextX += lcOffX;
+                                nextY += lcOffY;
+                                nextZ += lcOffZ;
+                            }
+                        }
+
+                        // Add the layer thickness, and change the encoding from 1...16 to 0...15
+                        // All the axes here will have values of at least 1 before this -1.
+                        int volumeEndOffsetX = lcOffX * layerCount + unpackX5bit(packedSize) - 1;
+                        int volumeEndOffsetY = lcOffY * layerCount + unpackY5bit(packedSize) - 1;
+                        int volumeEndOffsetZ = lcOffZ * layerCount + unpackZ5bit(packedSize) - 1;
+                        int packedVolumeEndOffset = packCoordinate(volumeEndOffsetX, volumeEndOffsetY, volumeEndOffsetZ);
+
+                        //System.out.printf("volume @ [%d %d %d] size: %d x %d x %d %s\n", x, y, z, volumeEndOffsetX, volumeEndOffsetY, volumeEndOffsetZ, state);
+                        long encodedValue = ((long) packedVolumeEndOffset << 32L) | (packCoordinate(x, y, z) & 0xFFFFFFFFL);
+                        volumesOut.add(encodedValue);
+
+                        // Always also clear the array for the next use
+                        workArr[x][y - worldMinY][z] = 0;
+
+                        // Skip the already handled/combined strips
+                        if (layerCount > 1)
+                        {
+                            int extraLayers = layerCount - 1;
+                            x += lcOffX * extraLayers;
+                            y += lcOffY * extraLayers;
+                            z += lcOffZ * extraLayers;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int packCoordinate(int x, int y, int z)
+    {
+        return (y << 8) | ((z & 0xF) << 4) | (x & 0xF);
+    }
+
+    private static int unpackX5bit(int value)
+    {
+        return value & 0x1F;
+    }
+
+    private static int unpackY5bit(int value)
+    {
+        return (value >> 10);
+    }
+
+    private static int unpackZ5bit(int value)
+    {
+        return (value >> 5) & 0x1F;
+    }
+
+    private static int packCoordinate5bit(int x, int y, int z)
+    {
+        return (y << 10) | ((z & 0x1F) << 5) | (x & 0x1F);
+    }
+}
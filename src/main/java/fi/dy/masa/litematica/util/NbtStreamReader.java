@@ -0,0 +1,363 @@
+package fi.dy.masa.litematica.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nullable;
+import net.minecraft.nbt.NbtByte;
+import net.minecraft.nbt.NbtByteArray;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtDouble;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtFloat;
+import net.minecraft.nbt.NbtInt;
+import net.minecraft.nbt.NbtIntArray;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtLong;
+import net.minecraft.nbt.NbtLongArray;
+import net.minecraft.nbt.NbtShort;
+import net.minecraft.nbt.NbtString;
+import fi.dy.masa.malilib.util.Constants;
+
+/**
+ * A token-level NBT reader, which allows reading the tags of a compound one at a time,
+ * and reading the payloads of only the interesting tags while skipping the rest
+ * without allocating anything for them.
+ * <br><br>
+ * Usage: call {@link #readRootCompoundStart()}, then loop {@link #readNextTagType()}
+ * until it returns TAG_END, calling {@link #readName()} and then one of the
+ * payload read or skip methods for each tag.
+ */
+public class NbtStreamReader implements Closeable
+{
+    public static final int MAX_DEPTH = 512;
+
+    private final DataInputStream input;
+    private final byte[] buffer = new byte[8192];
+
+    public NbtStreamReader(InputStream input)
+    {
+        this.input = new DataInputStream(input);
+    }
+
+    /**
+     * Opens the file for reading, using GZIP decompression if the file is compressed
+     */
+    public static NbtStreamReader openFile(File file) throws IOException
+    {
+        return openFile(file, null);
+    }
+
+    /**
+     * Opens the file for reading, using GZIP decompression if the file is compressed.
+     * @param progressListener if not null, then this gets called with the total number
+     * of (compressed) bytes read from the file so far, each time more data is read
+     */
+    public static NbtStreamReader openFile(File file, @Nullable LongConsumer progressListener) throws IOException
+    {
+        InputStream fis = new FileInputStream(file);
+
+        if (progressListener != null)
+        {
+            fis = new ProgressInputStream(fis, progressListener);
+        }
+
+        BufferedInputStream is = new BufferedInputStream(fis, 65536);
+
+        try
+        {
+            is.mark(2);
+            int b1 = is.read();
+            int b2 = is.read();
+            is.reset();
+
+            if (b1 == 0x1F && b2 == 0x8B)
+            {
+                return new NbtStreamReader(new BufferedInputStream(new GZIPInputStream(is, 65536), 65536));
+            }
+
+            return new NbtStreamReader(is);
+        }
+        catch (IOException e)
+        {
+            is.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the type and the name of the root tag, and checks that it is a compound tag
+     */
+    public void readRootCompoundStart() throws IOException
+    {
+        byte type = this.readNextTagType();
+
+        if (type != Constants.NBT.TAG_COMPOUND)
+        {
+            throw new IOException("Root tag must be a compound tag, was: " + type);
+        }
+
+        this.readName();
+    }
+
+    /**
+     * Reads the type of the next named tag inside the current compound tag.
+     * @return the tag type, or TAG_END if the current compound tag ended
+     */
+    public byte readNextTagType() throws IOException
+    {
+        return this.input.readByte();
+    }
+
+    public String readName() throws IOException
+    {
+        return this.input.readUTF();
+    }
+
+    public int readInt() throws IOException
+    {
+        return this.input.readInt();
+    }
+
+    public long[] readLongArray() throws IOException
+    {
+        final int length = this.readArrayLength();
+        long[] arr = new long[length];
+        final int perBatch = this.buffer.length / 8;
+        ByteBuffer bb = ByteBuffer.wrap(this.buffer);
+
+        for (int start = 0; start < length; start += perBatch)
+        {
+            final int count = Math.min(perBatch, length - start);
+            this.input.readFully(this.buffer, 0, count * 8);
+            bb.asLongBuffer().get(arr, start, count);
+        }
+
+        return arr;
+    }
+
+    public int[] readIntArray() throws IOException
+    {
+        final int length = this.readArrayLength();
+        int[] arr = new int[length];
+        final int perBatch = this.buffer.length / 4;
+        ByteBuffer bb = ByteBuffer.wrap(this.buffer);
+
+        for (int start = 0; start < length; start += perBatch)
+        {
+            final int count = Math.min(perBatch, length - start);
+            this.input.readFully(this.buffer, 0, count * 4);
+            bb.asIntBuffer().get(arr, start, count);
+        }
+
+        return arr;
+    }
+
+    /**
+     * Reads the payload of a tag of the given type as a regular NBT element
+     */
+    public NbtElement readPayload(byte type) throws IOException
+    {
+        return this.readPayload(type, 0);
+    }
+
+    private NbtElement readPayload(byte type, int depth) throws IOException
+    {
+        if (depth > MAX_DEPTH)
+        {
+            throw new IOException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        }
+
+        switch (type)
+        {
+            case Constants.NBT.TAG_BYTE:        return NbtByte.of(this.input.readByte());
+            case Constants.NBT.TAG_SHORT:       return NbtShort.of(this.input.readShort());
+            case Constants.NBT.TAG_INT:         return NbtInt.of(this.input.readInt());
+            case Constants.NBT.TAG_LONG:        return NbtLong.of(this.input.readLong());
+            case Constants.NBT.TAG_FLOAT:       return NbtFloat.of(this.input.readFloat());
+            case Constants.NBT.TAG_DOUBLE:      return NbtDouble.of(this.input.readDouble());
+            case Constants.NBT.TAG_STRING:      return NbtString.of(this.input.readUTF());
+            case Constants.NBT.TAG_INT_ARRAY:   return new NbtIntArray(this.readIntArray());
+            case Constants.NBT.TAG_LONG_ARRAY:  return new NbtLongArray(this.readLongArray());
+            case Constants.NBT.TAG_BYTE_ARRAY:
+            {
+                byte[] arr = new byte[this.readArrayLength()];
+                this.input.readFully(arr);
+                return new NbtByteArray(arr);
+            }
+            case Constants.NBT.TAG_LIST:
+            {
+                byte elementType = this.input.readByte();
+                final int length = this.readArrayLength();
+                NbtList list = new NbtList();
+
+                for (int i = 0; i < length; ++i)
+                {
+                    list.add(this.readPayload(elementType, depth + 1));
+                }
+
+                return list;
+            }
+            case Constants.NBT.TAG_COMPOUND:
+            {
+                NbtCompound tag = new NbtCompound();
+                byte childType;
+
+                while ((childType = this.input.readByte()) != Constants.NBT.TAG_END)
+                {
+                    String name = this.input.readUTF();
+                    tag.put(name, this.readPayload(childType, depth + 1));
+                }
+
+                return tag;
+            }
+            default:
+                throw new IOException("Invalid NBT tag type: " + type);
+        }
+    }
+
+    /**
+     * Skips over the payload of a tag of the given type without creating any objects for it
+     */
+    public void skipPayload(byte type) throws IOException
+    {
+        this.skipPayload(type, 0);
+    }
+
+    private void skipPayload(byte type, int depth) throws IOException
+    {
+        if (depth > MAX_DEPTH)
+        {
+            throw new IOException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        }
+
+        switch (type)
+        {
+            case Constants.NBT.TAG_BYTE:        this.skipBytes(1); break;
+            case Constants.NBT.TAG_SHORT:       this.skipBytes(2); break;
+            case Constants.NBT.TAG_INT:         this.skipBytes(4); break;
+            case Constants.NBT.TAG_LONG:        this.skipBytes(8); break;
+            case Constants.NBT.TAG_FLOAT:       this.skipBytes(4); break;
+            case Constants.NBT.TAG_DOUBLE:      this.skipBytes(8); break;
+            case Constants.NBT.TAG_STRING:      this.skipBytes(this.input.readUnsignedShort()); break;
+            case Constants.NBT.TAG_BYTE_ARRAY:  this.skipBytes(this.readArrayLength()); break;
+            case Constants.NBT.TAG_INT_ARRAY:   this.skipBytes((long) this.readArrayLength() * 4L); break;
+            case Constants.NBT.TAG_LONG_ARRAY:  this.skipBytes((long) this.readArrayLength() * 8L); break;
+            case Constants.NBT.TAG_LIST:
+            {
+                byte elementType = this.input.readByte();
+                final int length = this.readArrayLength();
+
+                for (int i = 0; i < length; ++i)
+                {
+                    this.skipPayload(elementType, depth + 1);
+                }
+
+                break;
+            }
+            case Constants.NBT.TAG_COMPOUND:
+            {
+                byte childType;
+
+                while ((childType = this.input.readByte()) != Constants.NBT.TAG_END)
+                {
+                    this.skipBytes(this.input.readUnsignedShort()); // name
+                    this.skipPayload(childType, depth + 1);
+                }
+
+                break;
+            }
+            default:
+                throw new IOException("Invalid NBT tag type: " + type);
+        }
+    }
+
+    private int readArrayLength() throws IOException
+    {
+        int length = this.input.readInt();
+
+        if (length < 0)
+        {
+            throw new IOException("Invalid NBT array length: " + length);
+        }
+
+        return length;
+    }
+
+    private void skipBytes(long count) throws IOException
+    {
+        while (count > 0L)
+        {
+            int skipped = this.input.skipBytes((int) Math.min(count, Integer.MAX_VALUE));
+
+            if (skipped <= 0)
+            {
+                // skipBytes() may return 0 before the end of the stream, check for EOF by reading
+                this.input.readByte();
+                skipped = 1;
+            }
+
+            count -= skipped;
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.input.close();
+    }
+
+    private static class ProgressInputStream extends FilterInputStream
+    {
+        private final LongConsumer listener;
+        private long bytesRead;
+
+        private ProgressInputStream(InputStream input, LongConsumer listener)
+        {
+            super(input);
+
+            this.listener = listener;
+        }
+
+        private void onRead(long count)
+        {
+            if (count > 0)
+            {
+                this.bytesRead += count;
+                this.listener.accept(this.bytesRead);
+            }
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            this.onRead(b >= 0 ? 1 : 0);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int count = super.read(b, off, len);
+            this.onRead(count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long count = super.skip(n);
+            this.onRead(count);
+            return count;
+        }
+    }
+}
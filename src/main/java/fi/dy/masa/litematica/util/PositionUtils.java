@@ -411,6 +411,23 @@ public class PositionUtils
         return null;
     }
 
+    @Nullable
+    public static IntBoundingBox getBoundsWithinChunkForBox(IntBoundingBox box, int chunkX, int chunkZ)
+    {
+        final int chunkXMin = chunkX << 4;
+        final int chunkZMin = chunkZ << 4;
+        final int chunkXMax = chunkXMin + 15;
+        final int chunkZMax = chunkZMin + 15;
+
+        if (box.minX > chunkXMax || box.minZ > chunkZMax || box.maxX < chunkXMin || box.maxZ < chunkZMin)
+        {
+            return null;
+        }
+
+        return new IntBoundingBox(Math.max(chunkXMin, box.minX), box.minY, Math.max(chunkZMin, box.minZ),
+                                  Math.min(chunkXMax, box.maxX), box.maxY, Math.min(chunkZMax, box.maxZ));
+    }
+
     public static void getPerChunkBoxes(Collection<Box> boxes, BiConsumer<ChunkPos, IntBoundingBox> consumer)
     {
         for (Box box : boxes)
@@ -2,12 +2,10 @@ package fi.dy.masa.litematica.util;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Material;
 import net.minecraft.entity.Entity;
@@ -26,13 +24,15 @@ import fi.dy.masa.litematica.config.Configs;
 import fi.dy.masa.litematica.config.Hotkeys;
 import fi.dy.masa.litematica.data.DataManager;
 import fi.dy.masa.litematica.schematic.placement.SchematicPlacement;
-import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement.RequiredEnabled;
+import fi.dy.masa.litematica.schematic.placement.SchematicPlacementManager;
+import fi.dy.masa.litematica.schematic.placement.SchematicPlacementManager.PlacementPart;
 import fi.dy.masa.litematica.schematic.verifier.SchematicVerifier;
 import fi.dy.masa.litematica.selection.AreaSelection;
 import fi.dy.masa.litematica.selection.Box;
 import fi.dy.masa.litematica.util.PositionUtils.Corner;
 import fi.dy.masa.litematica.util.RayTraceUtils.RayTraceWrapper.HitType;
 import fi.dy.masa.litematica.world.SchematicWorldHandler;
+import fi.dy.masa.malilib.util.IntBoundingBox;
 import fi.dy.masa.malilib.util.LayerRange;
 
 public class RayTraceUtils
@@ -108,11 +108,17 @@ public class RayTraceUtils
 
         if (DataManager.getToolMode().getUsesSchematic())
         {
-            for (SchematicPlacement placement : DataManager.getSchematicPlacementManager().getAllSchematicsPlacements())
+            SchematicPlacementManager manager = DataManager.getSchematicPlacementManager();
+
+            for (PlacementPart part : manager.getSpatialIndex().getPartsAlongLine(eyesPos, lookEndPos))
+            {
+                traceToPlacementBox(part, eyesPos, lookEndPos);
+            }
+
+            for (SchematicPlacement placement : manager.getAllSchematicsPlacements())
             {
                 if (placement.isEnabled())
                 {
-                    traceToPlacementBox(placement, eyesPos, lookEndPos);
                     traceToOrigin(placement.getOrigin(), eyesPos, lookEndPos, HitType.PLACEMENT_ORIGIN, placement);
                 }
             }
@@ -218,36 +224,25 @@ public class RayTraceUtils
         return false;
     }
 
-    private static boolean traceToPlacementBox(SchematicPlacement placement, Vec3d start, Vec3d end)
+    private static boolean traceToPlacementBox(PlacementPart part, Vec3d start, Vec3d end)
     {
-        ImmutableMap<String, Box> boxes = placement.getSubRegionBoxes(RequiredEnabled.PLACEMENT_ENABLED);
-        boolean hitSomething = false;
+        IntBoundingBox box = part.bb;
+        net.minecraft.util.math.Box bb = new net.minecraft.util.math.Box(box.minX, box.minY, box.minZ, box.maxX + 1, box.maxY + 1, box.maxZ + 1);
+        Optional<Vec3d> optional = bb.raycast(start, end);
 
-        for (Map.Entry<String, Box> entry : boxes.entrySet())
+        if (optional.isPresent())
         {
-            String boxName = entry.getKey();
-            Box box = entry.getValue();
+            double dist = optional.get().distanceTo(start);
 
-            if (box.getPos1() != null && box.getPos2() != null)
+            if (closestBoxDistance < 0 || dist < closestBoxDistance)
             {
-                net.minecraft.util.math.Box bb = PositionUtils.createEnclosingAABB(box.getPos1(), box.getPos2());
-                Optional<Vec3d> optional = bb.raycast(start, end);
-
-                if (optional.isPresent())
-                {
-                    double dist = optional.get().distanceTo(start);
-
-                    if (closestBoxDistance < 0 || dist < closestBoxDistance)
-                    {
-                        closestBoxDistance = dist;
-                        closestBox = new RayTraceWrapper(placement, optional.get(), boxName);
-                        hitSomething = true;
-                    }
-                }
+                closestBoxDistance = dist;
+                closestBox = new RayTraceWrapper(part.placement, optional.get(), part.subRegionName);
+                return true;
             }
         }
 
-        return hitSomething;
+        return false;
     }
 
     private static boolean traceToOrigin(BlockPos pos, Vec3d start, Vec3d end, HitType type, @Nullable SchematicPlacement placement)
@@ -1,10 +1,13 @@
 package fi.dy.masa.litematica.util;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import net.minecraft.block.Block;
+import net.minecraft.block.BlockEntityProvider;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.Material;
@@ -22,6 +25,7 @@ import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.tick.OrderedTick;
 import net.minecraft.world.tick.WorldTickScheduler;
 import fi.dy.masa.malilib.util.IntBoundingBox;
@@ -32,6 +36,8 @@ import fi.dy.masa.litematica.schematic.LitematicaSchematic.EntityInfo;
 import fi.dy.masa.litematica.schematic.container.LitematicaBlockStateContainer;
 import fi.dy.masa.litematica.schematic.placement.SchematicPlacement;
 import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement;
+import fi.dy.masa.litematica.world.ChunkSchematic;
+import fi.dy.masa.litematica.world.WorldSchematic;
 
 public class SchematicPlacingUtils
 {
@@ -97,6 +103,83 @@ public class SchematicPlacingUtils
         return allSuccess;
     }
 
+    /**
+     * Places the blocks of all the sub-regions of the placement that touch the chunk,
+     * into the given schematic world chunk. The chunk doesn't need to be loaded
+     * into the schematic world, and it must not be accessed by other threads
+     * while this runs, so this can be used to build new chunks on worker threads.
+     * The entities are not placed, as they can only be added to loaded chunks.
+     */
+    public static boolean placeBlocksToSchematicChunk(ChunkSchematic chunk, SchematicPlacement schematicPlacement)
+    {
+        ChunkPos chunkPos = chunk.getPos();
+        return placeBlocksToSchematicChunk(chunk, schematicPlacement, schematicPlacement.getRegionsTouchingChunk(chunkPos.x, chunkPos.z));
+    }
+
+    /**
+     * Places the blocks of the given sub-regions of the placement into the given schematic world chunk.
+     * See {@link #placeBlocksToSchematicChunk(ChunkSchematic, SchematicPlacement)}.
+     */
+    public static boolean placeBlocksToSchematicChunk(ChunkSchematic chunk, SchematicPlacement schematicPlacement,
+                                                      Collection<String> regionsTouchingChunk)
+    {
+        LitematicaSchematic schematic = schematicPlacement.getSchematic();
+        ChunkPos chunkPos = chunk.getPos();
+        BlockPos origin = schematicPlacement.getOrigin();
+        boolean allSuccess = true;
+
+        for (String regionName : regionsTouchingChunk)
+        {
+            LitematicaBlockStateContainer container = schematic.getSubRegionContainer(regionName);
+            SubRegionPlacement placement = schematicPlacement.getRelativeSubRegionPlacement(regionName);
+
+            if (container == null || placement == null)
+            {
+                allSuccess = false;
+                continue;
+            }
+
+            if (placement.isEnabled())
+            {
+                Map<BlockPos, NbtCompound> blockEntityMap = schematic.getBlockEntityMapForRegion(regionName);
+
+                if (placeBlocksWithinChunk(chunk.getWorld(), chunkPos, regionName, container, blockEntityMap,
+                                           origin, schematicPlacement, placement, null, null,
+                                           ReplaceBehavior.WITH_NON_AIR, false, chunk) == false)
+                {
+                    allSuccess = false;
+                }
+            }
+        }
+
+        return allSuccess;
+    }
+
+    /**
+     * Places the entities of all the sub-regions of the placement that touch the chunk
+     */
+    public static void placeEntitiesToWorldWithinChunk(World world, ChunkPos chunkPos, SchematicPlacement schematicPlacement)
+    {
+        if (schematicPlacement.ignoreEntities())
+        {
+            return;
+        }
+
+        LitematicaSchematic schematic = schematicPlacement.getSchematic();
+        BlockPos origin = schematicPlacement.getOrigin();
+
+        for (String regionName : schematicPlacement.getRegionsTouchingChunk(chunkPos.x, chunkPos.z))
+        {
+            SubRegionPlacement placement = schematicPlacement.getRelativeSubRegionPlacement(regionName);
+            List<EntityInfo> entityList = schematic.getEntityListForRegion(regionName);
+
+            if (placement != null && placement.isEnabled() && placement.ignoreEntities() == false && entityList != null)
+            {
+                placeEntitiesToWorldWithinChunk(world, chunkPos, entityList, origin, schematicPlacement, placement);
+            }
+        }
+    }
+
     public static boolean placeBlocksWithinChunk(World world, ChunkPos chunkPos, String regionName,
                                                  LitematicaBlockStateContainer container,
                                                  Map<BlockPos, NbtCompound> blockEntityMap,
@@ -106,6 +189,22 @@ public class SchematicPlacingUtils
                                                  @Nullable Map<BlockPos, OrderedTick<Block>> scheduledBlockTicks,
                                                  @Nullable Map<BlockPos, OrderedTick<Fluid>> scheduledFluidTicks,
                                                  ReplaceBehavior replace, boolean notifyNeighbors)
+    {
+        return placeBlocksWithinChunk(world, chunkPos, regionName, container, blockEntityMap, origin,
+                                      schematicPlacement, placement, scheduledBlockTicks, scheduledFluidTicks,
+                                      replace, notifyNeighbors, null);
+    }
+
+    private static boolean placeBlocksWithinChunk(World world, ChunkPos chunkPos, String regionName,
+                                                  LitematicaBlockStateContainer container,
+                                                  Map<BlockPos, NbtCompound> blockEntityMap,
+                                                  BlockPos origin,
+                                                  SchematicPlacement schematicPlacement,
+                                                  SubRegionPlacement placement,
+                                                  @Nullable Map<BlockPos, OrderedTick<Block>> scheduledBlockTicks,
+                                                  @Nullable Map<BlockPos, OrderedTick<Fluid>> scheduledFluidTicks,
+                                                  ReplaceBehavior replace, boolean notifyNeighbors,
+                                                  @Nullable ChunkSchematic targetChunk)
     {
         IntBoundingBox bounds = schematicPlacement.getBoxWithinChunkForRegion(regionName, chunkPos.x, chunkPos.z);
         Vec3i regionSize = schematicPlacement.getSchematic().getAreaSize(regionName);
@@ -177,6 +276,27 @@ public class SchematicPlacingUtils
         final int posMinRelMinusRegY = posMinRel.getY() - regionPos.getY();
         final int posMinRelMinusRegZ = posMinRel.getZ() - regionPos.getZ();
 
+        // The schematic world doesn't need any block updates or scheduled ticks,
+        // so the blocks can be written directly into the chunk sections
+        if (world instanceof WorldSchematic worldSchematic && notifyNeighbors == false)
+        {
+            ChunkSchematic chunk = targetChunk != null ? targetChunk : worldSchematic.getChunkProvider().getChunkIfExists(chunkPos.x, chunkPos.z);
+
+            if (chunk != null)
+            {
+                BlockPos offset = regionPosTransformed.add(origin);
+                BlockPos posStart = new BlockPos(startX, startY, startZ);
+                BlockPos posEnd = new BlockPos(endX, endY, endZ);
+                BlockPos posOffset = new BlockPos(posMinRelMinusRegX, posMinRelMinusRegY, posMinRelMinusRegZ);
+
+                placeBlocksToSchematicChunk(chunk, container, blockEntityMap, posStart, posEnd, posOffset, offset,
+                                            schematicPlacement, placement, mirrorMain, mirrorSub, rotationCombined,
+                                            replace, ignoreInventories);
+            }
+
+            return true;
+        }
+
         for (int y = startY; y <= endY; ++y)
         {
             for (int z = startZ; z <= endZ; ++z)
@@ -230,29 +350,7 @@ public class SchematicPlacingUtils
 
                         if (te != null)
                         {
-                            teNBT = teNBT.copy();
-                            teNBT.putInt("x", pos.getX());
-                            teNBT.putInt("y", pos.getY());
-                            teNBT.putInt("z", pos.getZ());
-
-                            if (ignoreInventories)
-                            {
-                                teNBT.remove("Items");
-                            }
-
-                            try
-                            {
-                                te.readNbt(teNBT);
-
-                                if (ignoreInventories && te instanceof Inventory)
-                                {
-                                    ((Inventory) te).clear();
-                                }
-                            }
-                            catch (Exception e)
-                            {
-                                Litematica.logger.warn("Failed to load BlockEntity data for {} @ {}", state, pos);
-                            }
+                            loadBlockEntityData(te, teNBT, state, pos, ignoreInventories);
                         }
                     }
                 }
@@ -338,6 +436,212 @@ public class SchematicPlacingUtils
         return true;
     }
 
+    /**
+     * Writes the blocks of one sub-region directly into the chunk sections of a schematic world chunk,
+     * skipping the old state and block entity handling of World#setBlockState() for every block.
+     * The position transforms are linear, so they are precomputed per x and per z coordinate,
+     * and the state transforms are cached per state. The block entities are added in a second pass.
+     * @param posStart the start of the affected area within the sub-region container
+     * @param posEnd the end of the affected area within the sub-region container
+     * @param posOffset the offset of the container's minimum corner from the sub-region origin, before the transforms
+     * @param offset the transformed sub-region origin in the world
+     */
+    private static void placeBlocksToSchematicChunk(ChunkSchematic chunk,
+                                                    LitematicaBlockStateContainer container,
+                                                    Map<BlockPos, NbtCompound> blockEntityMap,
+                                                    BlockPos posStart, BlockPos posEnd, BlockPos posOffset, BlockPos offset,
+                                                    SchematicPlacement schematicPlacement,
+                                                    SubRegionPlacement placement,
+                                                    BlockMirror mirrorMain, BlockMirror mirrorSub,
+                                                    BlockRotation rotationCombined,
+                                                    ReplaceBehavior replace, boolean ignoreInventories)
+    {
+        final int startX = posStart.getX();
+        final int startZ = posStart.getZ();
+        final int sizeX = posEnd.getX() - startX + 1;
+        final int sizeZ = posEnd.getZ() - startZ + 1;
+        final int[] worldXForX = new int[sizeX];
+        final int[] worldZForX = new int[sizeX];
+        final int[] worldXForZ = new int[sizeZ];
+        final int[] worldZForZ = new int[sizeZ];
+        final BlockState[] statesForIds = getPlacedStatesForIds(container, mirrorMain, mirrorSub, rotationCombined, replace);
+        final int[] idRow = new int[sizeX];
+        final List<BlockPos> blockEntityPositions = new ArrayList<>();
+        final List<BlockPos> blockEntityPositionsInContainer = new ArrayList<>();
+        final ChunkSection[] sections = chunk.getSectionArray();
+        BlockPos.Mutable posMutable = new BlockPos.Mutable();
+        boolean hasBlocks = false;
+
+        // x' = a * x + b * z, z' = c * x + d * z, so the x and z contributions can be added together
+        for (int x = 0; x < sizeX; ++x)
+        {
+            posMutable.set(posOffset.getX() + startX + x, 0, 0);
+            BlockPos pos = PositionUtils.getTransformedPlacementPosition(posMutable, schematicPlacement, placement);
+            worldXForX[x] = pos.getX() + offset.getX();
+            worldZForX[x] = pos.getZ();
+        }
+
+        for (int z = 0; z < sizeZ; ++z)
+        {
+            posMutable.set(0, 0, posOffset.getZ() + startZ + z);
+            BlockPos pos = PositionUtils.getTransformedPlacementPosition(posMutable, schematicPlacement, placement);
+            worldXForZ[z] = pos.getX();
+            worldZForZ[z] = pos.getZ() + offset.getZ();
+        }
+
+        for (int y = posStart.getY(); y <= posEnd.getY(); ++y)
+        {
+            final int worldY = posOffset.getY() + y + offset.getY();
+            final int sectionIndex = chunk.getSectionIndex(worldY);
+
+            if (sectionIndex < 0 || sectionIndex >= sections.length)
+            {
+                continue;
+            }
+
+            final ChunkSection section = sections[sectionIndex];
+            final int localY = worldY & 0xF;
+
+            for (int z = 0; z < sizeZ; ++z)
+            {
+                container.getIdRow(idRow, startX, y, startZ + z, sizeX);
+
+                for (int x = 0; x < sizeX; ++x)
+                {
+                    final int id = idRow[x];
+                    BlockState state = id < statesForIds.length ? statesForIds[id] : null;
+
+                    // Skipped states, ie. structure void, and air if it's not replacing
+                    if (state == null)
+                    {
+                        continue;
+                    }
+
+                    final int worldX = worldXForX[x] + worldXForZ[z];
+                    final int worldZ = worldZForX[x] + worldZForZ[z];
+                    final int localX = worldX & 0xF;
+                    final int localZ = worldZ & 0xF;
+                    BlockState stateOld = section.getBlockState(localX, localY, localZ);
+
+                    if (replace == ReplaceBehavior.NONE && stateOld.isAir() == false)
+                    {
+                        continue;
+                    }
+
+                    // An unchanged state only skips the state write, the block entity data may still have changed
+                    if (stateOld != state)
+                    {
+                        section.setBlockState(localX, localY, localZ, state, false);
+                        hasBlocks |= state.isAir() == false;
+
+                        if (stateOld.hasBlockEntity())
+                        {
+                            chunk.removeBlockEntity(new BlockPos(worldX, worldY, worldZ));
+                        }
+                    }
+
+                    if (state.hasBlockEntity())
+                    {
+                        blockEntityPositions.add(new BlockPos(worldX, worldY, worldZ));
+                        blockEntityPositionsInContainer.add(new BlockPos(startX + x, y, startZ + z));
+                    }
+                }
+            }
+        }
+
+        if (hasBlocks)
+        {
+            chunk.markNotEmpty();
+        }
+
+        for (int i = 0; i < blockEntityPositions.size(); ++i)
+        {
+            BlockPos pos = blockEntityPositions.get(i);
+            BlockState state = chunk.getBlockState(pos);
+
+            if (state.getBlock() instanceof BlockEntityProvider provider)
+            {
+                BlockEntity te = provider.createBlockEntity(pos, state);
+
+                if (te != null)
+                {
+                    chunk.setBlockEntity(te);
+                    NbtCompound teNBT = blockEntityMap.get(blockEntityPositionsInContainer.get(i));
+
+                    if (teNBT != null)
+                    {
+                        loadBlockEntityData(te, teNBT, state, pos, ignoreInventories);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the rotated and mirrored state for each palette ID of the container.
+     * The IDs of the states that are not placed at all (structure void, and air with
+     * the WITH_NON_AIR replace behavior) map to null.
+     */
+    private static BlockState[] getPlacedStatesForIds(LitematicaBlockStateContainer container,
+                                                      BlockMirror mirrorMain, BlockMirror mirrorSub,
+                                                      BlockRotation rotationCombined, ReplaceBehavior replace)
+    {
+        List<BlockState> mapping = container.getPalette().getMapping();
+        BlockState[] states = new BlockState[mapping.size()];
+
+        for (int id = 0; id < states.length; ++id)
+        {
+            BlockState state = mapping.get(id);
+
+            if (state == null)
+            {
+                state = LitematicaBlockStateContainer.AIR_BLOCK_STATE;
+            }
+
+            if (state.getBlock() == Blocks.STRUCTURE_VOID ||
+                (replace == ReplaceBehavior.WITH_NON_AIR && state.isAir()))
+            {
+                continue;
+            }
+
+            if (mirrorMain != BlockMirror.NONE) { state = state.mirror(mirrorMain); }
+            if (mirrorSub != BlockMirror.NONE)  { state = state.mirror(mirrorSub); }
+            if (rotationCombined != BlockRotation.NONE) { state = state.rotate(rotationCombined); }
+
+            states[id] = state;
+        }
+
+        return states;
+    }
+
+    private static void loadBlockEntityData(BlockEntity te, NbtCompound teNBT, BlockState state,
+                                            BlockPos pos, boolean ignoreInventories)
+    {
+        teNBT = teNBT.copy();
+        teNBT.putInt("x", pos.getX());
+        teNBT.putInt("y", pos.getY());
+        teNBT.putInt("z", pos.getZ());
+
+        if (ignoreInventories)
+        {
+            teNBT.remove("Items");
+        }
+
+        try
+        {
+            te.readNbt(teNBT);
+
+            if (ignoreInventories && te instanceof Inventory)
+            {
+                ((Inventory) te).clear();
+            }
+        }
+        catch (Exception e)
+        {
+            Litematica.logger.warn("Failed to load BlockEntity data for {} @ {}", state, pos);
+        }
+    }
+
     public static void placeEntitiesToWorldWithinChunk(World world, ChunkPos chunkPos,
                                                        List<EntityInfo> entityList,
                                                        BlockPos origin,
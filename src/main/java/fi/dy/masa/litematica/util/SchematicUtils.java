@@ -34,6 +34,7 @@ import fi.dy.masa.litematica.data.DataManager;
 import fi.dy.masa.litematica.data.SchematicHolder;
 import fi.dy.masa.litematica.gui.GuiSchematicSave;
 import fi.dy.masa.litematica.gui.GuiSchematicSave.InMemorySchematicCreator;
+import fi.dy.masa.litematica.materials.MaterialListPlacement;
 import fi.dy.masa.litematica.scheduler.TaskScheduler;
 import fi.dy.masa.litematica.scheduler.tasks.TaskBase;
 import fi.dy.masa.litematica.scheduler.tasks.TaskDeleteArea;
@@ -439,6 +440,7 @@ public class SchematicUtils
                             metadata.setModifiedSinceSaved();
 
                             DataManager.getSchematicPlacementManager().markChunkForRebuild(new ChunkPos(cpos.getX(), cpos.getZ()));
+                            MaterialListPlacement.markPlacementChanged(placement);
 
                             return true;
                         }
@@ -687,23 +689,25 @@ public class SchematicUtils
             //        regionName, startX, startY, startZ, endX, endY, endZ, size.getX(), size.getY(), size.getZ());
 
             BlockState stateOriginal = getUntransformedBlockState(state, schematicPlacement, regionName);
+            List<BlockState> mapping = container.getPalette().getMapping();
+            BlockState[] newStates = new BlockState[mapping.size()];
+            boolean found = false;
 
-            for (int y = startY; y <= endY; ++y)
+            for (int id = 0; id < newStates.length; ++id)
             {
-                for (int z = startZ; z <= endZ; ++z)
-                {
-                    for (int x = startX; x <= endX; ++x)
-                    {
-                        BlockState oldState = container.get(x, y, z);
+                BlockState oldState = mapping.get(id);
 
-                        if (oldState != stateOriginal && oldState.isAir() == false)
-                        {
-                            container.set(x, y, z, air);
-                            --totalBlocks;
-                        }
-                    }
+                if (oldState != stateOriginal && oldState.isAir() == false)
+                {
+                    newStates[id] = air;
+                    found = true;
                 }
             }
+
+            if (found)
+            {
+                totalBlocks -= (int) replaceStatesInContainer(container, newStates, startX, startY, startZ, endX, endY, endZ);
+            }
         }
 
         schematicPlacement.getSchematic().getMetadata().setTotalBlocks(totalBlocks);
@@ -814,23 +818,26 @@ public class SchematicUtils
             BlockState stateOriginal = getUntransformedBlockState(stateOriginalIn, schematicPlacement, regionName);
             BlockState stateNew = getUntransformedBlockState(stateNewIn, schematicPlacement, regionName);
 
-            for (int y = startY; y <= endY; ++y)
+            // Test each palette entry once, instead of testing every block in the container
+            List<BlockState> mapping = container.getPalette().getMapping();
+            BlockState[] newStates = new BlockState[mapping.size()];
+            boolean found = false;
+
+            for (int id = 0; id < newStates.length; ++id)
             {
-                for (int z = startZ; z <= endZ; ++z)
-                {
-                    for (int x = startX; x <= endX; ++x)
-                    {
-                        BlockState oldState = container.get(x, y, z);
+                BlockState oldState = mapping.get(id);
 
-                        if (blockStateTest.test(oldState, stateOriginal))
-                        {
-                            BlockState finalState = blockModifier.apply(stateNew, oldState);
-                            container.set(x, y, z, finalState);
-                            totalBlocks += increment;
-                        }
-                    }
+                if (blockStateTest.test(oldState, stateOriginal))
+                {
+                    newStates[id] = blockModifier.apply(stateNew, oldState);
+                    found = true;
                 }
             }
+
+            if (found)
+            {
+                totalBlocks += increment * (int) replaceStatesInContainer(container, newStates, startX, startY, startZ, endX, endY, endZ);
+            }
         }
 
         SchematicMetadata metadata = part.getPlacement().getSchematic().getMetadata();
@@ -841,6 +848,21 @@ public class SchematicUtils
         return true;
     }
 
+    private static long replaceStatesInContainer(LitematicaBlockStateContainer container, BlockState[] newStates,
+                                                 int startX, int startY, int startZ, int endX, int endY, int endZ)
+    {
+        Vec3i size = container.getSize();
+
+        // The entire container is affected, so the replacement can be done via the palette
+        if (startX == 0 && startY == 0 && startZ == 0 &&
+            endX == size.getX() - 1 && endY == size.getY() - 1 && endZ == size.getZ() - 1)
+        {
+            return container.remapStates(newStates);
+        }
+
+        return container.remapStatesInBox(newStates, startX, startY, startZ, endX, endY, endZ);
+    }
+
     public static void moveCurrentlySelectedWorldRegionToLookingDirection(int amount, Entity entity, MinecraftClient mc)
     {
         SelectionManager sm = DataManager.getSelectionManager();
@@ -133,7 +133,7 @@ public class SchematicWorldRefresher implements IRangeChangeListener
             if (world.getChunkProvider().isChunkLoaded(chunkX, chunkZ) &&
                 WorldUtils.isClientChunkLoaded(this.mc.world, chunkX, chunkZ))
             {
-                world.scheduleChunkRenders(chunkX, chunkZ);
+                world.scheduleBlockRenders(pos);
             }
         }
     }
@@ -56,9 +56,11 @@ import fi.dy.masa.litematica.materials.MaterialCache;
 import fi.dy.masa.litematica.mixin.IMixinSignBlockEntity;
 import fi.dy.masa.litematica.schematic.LitematicaSchematic;
 import fi.dy.masa.litematica.schematic.SchematicaSchematic;
+import fi.dy.masa.litematica.schematic.placement.PlacementSpatialIndex;
 import fi.dy.masa.litematica.schematic.placement.SchematicPlacement;
-import fi.dy.masa.litematica.schematic.placement.SchematicPlacementManager;
 import fi.dy.masa.litematica.schematic.placement.SchematicPlacementManager.PlacementPart;
+import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement;
+import fi.dy.masa.litematica.schematic.placement.SubRegionPlacement.RequiredEnabled;
 import fi.dy.masa.litematica.selection.AreaSelection;
 import fi.dy.masa.litematica.selection.Box;
 import fi.dy.masa.litematica.tool.ToolMode;
@@ -897,9 +899,17 @@ public class WorldUtils
         return false;
     }
 
+    private static boolean isRenderingEnabled(PlacementPart part)
+    {
+        SubRegionPlacement placement = part.placement.getRelativeSubRegionPlacement(part.subRegionName);
+
+        return part.placement.matchesRequirement(RequiredEnabled.RENDERING_ENABLED) &&
+               placement != null && placement.matchesRequirement(RequiredEnabled.RENDERING_ENABLED);
+    }
+
     public static boolean isPositionWithinRangeOfSchematicRegions(BlockPos pos, int range)
     {
-        SchematicPlacementManager manager = DataManager.getSchematicPlacementManager();
+        PlacementSpatialIndex index = DataManager.getSchematicPlacementManager().getSpatialIndex();
         final int x = pos.getX();
         final int y = pos.getY();
         final int z = pos.getZ();
@@ -912,13 +922,14 @@ public class WorldUtils
         {
             for (int cx = minCX; cx <= maxCX; ++cx)
             {
-                List<PlacementPart> parts = manager.getPlacementPartsInChunk(cx, cz);
+                List<PlacementPart> parts = index.getPartsInChunk(cx, cz);
 
                 for (PlacementPart part : parts)
                 {
                     IntBoundingBox box = part.bb;
 
-                    if (x >= box.minX - range && x <= box.maxX + range &&
+                    if (isRenderingEnabled(part) &&
+                        x >= box.minX - range && x <= box.maxX + range &&
                         y >= box.minY - range && y <= box.maxY + range &&
                         z >= box.minZ - range && z <= box.maxZ + range)
                     {
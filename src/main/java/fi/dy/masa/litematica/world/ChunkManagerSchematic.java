@@ -9,6 +9,7 @@ import net.minecraft.world.chunk.WorldChunk;
 import net.minecraft.world.chunk.light.LightingProvider;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 public class ChunkManagerSchematic extends ChunkManager
 {
@@ -16,6 +17,9 @@ public class ChunkManagerSchematic extends ChunkManager
     private final Long2ObjectMap<ChunkSchematic> loadedChunks = new Long2ObjectOpenHashMap<>(8192);
     private final ChunkSchematic blankChunk;
     private final LightingProvider lightingProvider;
+    /** The loaded chunks whose size estimate changed, and is not included in the running total */
+    private final ReferenceOpenHashSet<ChunkSchematic> resizedChunks = new ReferenceOpenHashSet<>();
+    private long estimatedMemoryUsage;
 
     public ChunkManagerSchematic(WorldSchematic world)
     {
@@ -32,8 +36,33 @@ public class ChunkManagerSchematic extends ChunkManager
 
     public void loadChunk(int chunkX, int chunkZ)
     {
-        ChunkSchematic chunk = new ChunkSchematic(this.world, new ChunkPos(chunkX, chunkZ));
-        this.loadedChunks.put(ChunkPos.toLong(chunkX, chunkZ), chunk);
+        this.loadChunk(new ChunkSchematic(this.world, new ChunkPos(chunkX, chunkZ)));
+    }
+
+    /**
+     * Adds a chunk that was built outside of the loaded chunks, for example on a worker thread.
+     * Any existing chunk at the same position must be unloaded first.
+     */
+    public void loadChunk(ChunkSchematic chunk)
+    {
+        ChunkPos pos = chunk.getPos();
+        this.loadedChunks.put(ChunkPos.toLong(pos.x, pos.z), chunk);
+        this.estimatedMemoryUsage += chunk.getEstimatedMemorySize();
+    }
+
+    /**
+     * Called by the chunk when its cached size estimate gets invalidated.
+     * The old size is removed from the running total, and the new size
+     * gets added back the next time the total is requested.
+     */
+    void onChunkSizeChanged(ChunkSchematic chunk, long oldSize)
+    {
+        ChunkPos pos = chunk.getPos();
+
+        if (this.loadedChunks.get(ChunkPos.toLong(pos.x, pos.z)) == chunk && this.resizedChunks.add(chunk))
+        {
+            this.estimatedMemoryUsage -= oldSize;
+        }
     }
 
     @Override
@@ -45,7 +74,26 @@ public class ChunkManagerSchematic extends ChunkManager
     @Override
     public String getDebugString()
     {
-        return "Schematic Chunk Cache: " + this.getLoadedChunkCount();
+        return "Schematic Chunk Cache: " + this.getLoadedChunkCount() + " (~" + (this.getEstimatedMemoryUsage() >> 20) + " MB)";
+    }
+
+    /**
+     * @return a rough estimate of the memory used by all the loaded chunks, in bytes.
+     * This is a running total, only the chunks modified since the last call are re-estimated.
+     */
+    public long getEstimatedMemoryUsage()
+    {
+        if (this.resizedChunks.isEmpty() == false)
+        {
+            for (ChunkSchematic chunk : this.resizedChunks)
+            {
+                this.estimatedMemoryUsage += chunk.getEstimatedMemorySize();
+            }
+
+            this.resizedChunks.clear();
+        }
+
+        return this.estimatedMemoryUsage;
     }
 
     @Override
@@ -86,6 +134,12 @@ public class ChunkManagerSchematic extends ChunkManager
         if (chunk != null)
         {
             this.world.unloadedEntities(chunk.getEntityCount());
+
+            // A resized chunk's size is not currently included in the total
+            if (this.resizedChunks.remove(chunk) == false)
+            {
+                this.estimatedMemoryUsage -= chunk.getEstimatedMemorySize();
+            }
         }
     }
 
@@ -20,12 +20,18 @@ import net.minecraft.world.chunk.WorldChunk;
 public class ChunkSchematic extends WorldChunk
 {
     private static final BlockState AIR = Blocks.AIR.getDefaultState();
+    // Rough per-object overheads for the memory estimate, in bytes
+    private static final long CHUNK_BASE_SIZE = 4096;
+    private static final long SECTION_BASE_SIZE = 256;
+    private static final long BLOCK_ENTITY_SIZE = 512;
+    private static final long ENTITY_SIZE = 1024;
 
     private final Int2ObjectOpenHashMap<List<Entity>> entityLists = new Int2ObjectOpenHashMap<>();
     private final long timeCreated;
     private final int bottomY;
     private final int topY;
     private int entityCount;
+    private long estimatedMemorySize = -1;
     private boolean isEmpty = true;
 
     public ChunkSchematic(World worldIn, ChunkPos pos)
@@ -94,6 +100,7 @@ public class ChunkSchematic extends WorldChunk
             }
 
             section.setBlockState(x, y, z, state);
+            this.invalidateEstimatedMemorySize();
 
             if (blockOld != blockNew)
             {
@@ -136,6 +143,7 @@ public class ChunkSchematic extends WorldChunk
         List<Entity> list = this.entityLists.computeIfAbsent(chunkY, (y) -> new ArrayList<>());
         list.add(entity);
         ++this.entityCount;
+        this.invalidateEstimatedMemorySize();
     }
 
     public List<Entity> getEntityListForSectionIfExists(int sectionY)
@@ -153,6 +161,50 @@ public class ChunkSchematic extends WorldChunk
         return this.timeCreated;
     }
 
+    /**
+     * Used when the blocks have been written directly into the sections
+     */
+    public void markNotEmpty()
+    {
+        this.isEmpty = false;
+        this.invalidateEstimatedMemorySize();
+    }
+
+    private void invalidateEstimatedMemorySize()
+    {
+        // Only a loaded chunk can have a cached size that the chunk manager's running total includes
+        if (this.estimatedMemorySize >= 0 && this.getWorld().getChunkManager() instanceof ChunkManagerSchematic manager)
+        {
+            manager.onChunkSizeChanged(this, this.estimatedMemorySize);
+        }
+
+        this.estimatedMemorySize = -1;
+    }
+
+    /**
+     * @return a rough estimate of the memory used by this chunk, in bytes.
+     * The value is cached until the chunk is modified.
+     */
+    public long getEstimatedMemorySize()
+    {
+        if (this.estimatedMemorySize < 0)
+        {
+            long size = CHUNK_BASE_SIZE;
+
+            for (ChunkSection section : this.getSectionArray())
+            {
+                // The network size is mostly the palette and the packed block and biome data
+                size += SECTION_BASE_SIZE + section.getPacketSize();
+            }
+
+            size += this.getBlockEntities().size() * BLOCK_ENTITY_SIZE;
+            size += this.entityCount * ENTITY_SIZE;
+            this.estimatedMemorySize = size;
+        }
+
+        return this.estimatedMemorySize;
+    }
+
     @Override
     public boolean isEmpty()
     {
@@ -282,7 +282,7 @@ public class WorldSchematic extends World
     {
         if (stateNew != stateOld)
         {
-            this.scheduleChunkRenders(pos.getX() >> 4, pos.getZ() >> 4);
+            this.scheduleBlockRenders(pos);
         }
     }
 
@@ -294,6 +294,20 @@ public class WorldSchematic extends World
         }
     }
 
+    /**
+     * Schedules a re-render of the chunk section(s) containing the given position.
+     * The adjacent section is included for positions on a section boundary,
+     * as the face culling there depends on this block.
+     */
+    public void scheduleBlockRenders(BlockPos pos)
+    {
+        if (this.worldRenderer != null)
+        {
+            int y = pos.getY();
+            this.worldRenderer.scheduleSectionRenders(pos.getX() >> 4, pos.getZ() >> 4, (y - 1) >> 4, (y + 1) >> 4);
+        }
+    }
+
     @Override
     public int getBottomY()
     {